@@ -1,6 +1,8 @@
 package com.freedomfinancestack.razorpay_drishtipay_test.payment;
 
 import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
 import android.util.Log;
 import android.widget.Toast;
 import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
@@ -15,11 +17,21 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 public class InitiatePayment implements IPayment {
 
     private static final String TAG = "InitiatePayment";
+
+    // One client for both calls so the order and payment requests share a
+    // pooled keep-alive connection instead of each paying for DNS, TCP and TLS
+    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder()
+        .connectTimeout(30, TimeUnit.SECONDS)
+        .readTimeout(30, TimeUnit.SECONDS)
+        .build();
+
     private Context context;
     private String RzpKey;
     private String RzpSecret;
@@ -90,11 +102,6 @@ public class InitiatePayment implements IPayment {
             json.put("currency", "INR");
             json.put("receipt", "receipt_" + System.currentTimeMillis());
 
-            OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
-                
             RequestBody body = RequestBody.create(
                 json.toString(), 
                 MediaType.parse("application/json")
@@ -107,31 +114,43 @@ public class InitiatePayment implements IPayment {
                 .addHeader("Content-Type", "application/json")
                 .build();
 
-            Response response = client.newCall(request).execute();
+            Response response = HTTP_CLIENT.newCall(request).execute();
             
             // Check if response body exists
             if (response.body() == null) {
                 throw new Exception("Empty response from Razorpay API");
             }
             
-            String responseBody = response.body().string();
             Log.d(TAG, "Order Response Code: " + response.code());
             
             // Check HTTP status
             if (!response.isSuccessful()) {
-                Log.e(TAG, "Order API Error: " + responseBody);
+                Log.e(TAG, "Order API Error: " + response.body().string());
                 throw new Exception("Order creation failed (HTTP " + response.code() + ")");
             }
             
-            // Parse JSON response
-            JSONObject result = new JSONObject(responseBody);
+            // Stream the body and stop at "id" instead of building the whole
+            // response String and a JSONObject tree
+            String orderId = null;
+            try (JsonReader reader = new JsonReader(
+                    new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (orderId == null && reader.hasNext()) {
+                    if (reader.nextName().equals("id") && reader.peek() == JsonToken.STRING) {
+                        orderId = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            } finally {
+                response.close();
+            }
             
             // Check if order ID exists in response
-            if (!result.has("id")) {
+            if (orderId == null) {
                 throw new Exception("Invalid response: missing order ID");
             }
             
-            String orderId = result.getString("id");
             Log.d(TAG, "Order created successfully: " + orderId);
             return orderId;
             
@@ -168,11 +187,6 @@ public class InitiatePayment implements IPayment {
             json.put("email", "test@example.com");
             json.put("contact", "9999999999");
 
-            OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
-                
             RequestBody body = RequestBody.create(
                 json.toString(), 
                 MediaType.parse("application/json")
@@ -185,7 +199,7 @@ public class InitiatePayment implements IPayment {
                 .addHeader("Content-Type", "application/json")
                 .build();
 
-            Response response = client.newCall(request).execute();
+            Response response = HTTP_CLIENT.newCall(request).execute();
             
             // Check if response body exists
             if (response.body() == null) {
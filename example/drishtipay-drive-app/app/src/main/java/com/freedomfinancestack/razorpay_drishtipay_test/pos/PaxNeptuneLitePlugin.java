@@ -27,6 +27,8 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
     private boolean isListening = false;
     private INfcDeviceManager.NdefCallback currentCallback;
     private Handler mainHandler;
+    // Token of the current listening session; scopes pending posts so stop only removes our own
+    private Object sessionToken;
     
     // Configuration flags
     private boolean useMockMode = true; // Set to false for real PAX hardware
@@ -122,6 +124,8 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
         
         this.currentCallback = callback;
         this.isListening = true;
+        cancelSessionPosts();
+        this.sessionToken = new Object();
         
         if (useMockMode) {
             startMockListening();
@@ -137,7 +141,7 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
         
         if (enableAutoSimulation) {
             // Simulate customer tapping phone after delay
-            mainHandler.postDelayed(() -> {
+            postToSession(() -> {
                 if (isListening && currentCallback != null) {
                     simulateNfcTap();
                 }
@@ -196,7 +200,7 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
             NdefMessage mockMessage = createMockPaymentNdefMessage();
             
             // Notify callback on main thread
-            mainHandler.post(() -> {
+            postToSession(() -> {
                 if (currentCallback != null) {
                     currentCallback.onNdefMessageDiscovered(mockMessage);
                     Log.d(TAG, "Mock NFC tap processed successfully");
@@ -205,7 +209,7 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
             
         } catch (Exception e) {
             Log.e(TAG, "Error during NFC simulation", e);
-            mainHandler.post(() -> {
+            postToSession(() -> {
                 if (currentCallback != null) {
                     currentCallback.onError("NFC simulation failed: " + e.getMessage());
                 }
@@ -231,6 +235,21 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
         return new NdefMessage(paymentRecord);
     }
 
+    private void postToSession(Runnable task) {
+        postToSession(task, 0);
+    }
+    
+    private void postToSession(Runnable task, long delayMs) {
+        mainHandler.postDelayed(task, sessionToken, delayMs);
+    }
+    
+    private void cancelSessionPosts() {
+        if (sessionToken != null) {
+            mainHandler.removeCallbacksAndMessages(sessionToken);
+            sessionToken = null;
+        }
+    }
+
     @Override
     public void stopListening() throws Exception {
         Log.d(TAG, "Stopping NFC listening...");
@@ -238,8 +257,8 @@ public class PaxNeptuneLitePlugin implements IPosNfcPlugin {
         this.isListening = false;
         this.currentCallback = null;
         
-        // Remove any pending simulations
-        mainHandler.removeCallbacksAndMessages(null);
+        // Remove pending simulations of this session only
+        cancelSessionPosts();
         
         if (useMockMode) {
             stopMockListening();
@@ -36,6 +36,8 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
     private boolean isListening = false;
     private INfcDeviceManager.NdefCallback currentCallback;
     private Handler mainHandler;
+    // Token of the current listening session; scopes pending posts so stop only removes our own
+    private Object sessionToken;
     
     // Simulation configuration
     private String simulatedManufacturer = "Universal";
@@ -91,6 +93,8 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
         
         this.currentCallback = callback;
         this.isListening = true;
+        cancelSessionPosts();
+        this.sessionToken = new Object();
         
         Log.d(TAG, "Starting NFC listening simulation...");
         
@@ -107,7 +111,7 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
         Log.d(TAG, "Starting realistic payment simulation for showcase...");
         
         // Simulate customer approaching and tapping device
-        mainHandler.postDelayed(() -> {
+        postToSession(() -> {
             if (isListening && currentCallback != null) {
                 Log.d(TAG, "Simulating customer NFC tap...");
                 
@@ -121,7 +125,7 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
     private void simulateInstantPayment() {
         Log.d(TAG, "Simulating instant payment for quick demo...");
         
-        mainHandler.postDelayed(() -> {
+        postToSession(() -> {
             if (isListening && currentCallback != null) {
                 NdefMessage paymentMessage = createRealisticPaymentMessage();
                 currentCallback.onNdefMessageDiscovered(paymentMessage);
@@ -164,7 +168,7 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
         if (isListening && currentCallback != null) {
             Log.d(TAG, "Manually triggering demo payment...");
             
-            mainHandler.post(() -> {
+            postToSession(() -> {
                 NdefMessage demoMessage = createRealisticPaymentMessage();
                 currentCallback.onNdefMessageDiscovered(demoMessage);
             });
@@ -226,7 +230,7 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
     }
     
     private void simulatePaymentError() {
-        mainHandler.post(() -> {
+        postToSession(() -> {
             currentCallback.onError("Demo Error: Payment simulation failed (for demonstration purposes)");
         });
     }
@@ -242,6 +246,21 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
                 "}";
     }
 
+    private void postToSession(Runnable task) {
+        postToSession(task, 0);
+    }
+    
+    private void postToSession(Runnable task, long delayMs) {
+        mainHandler.postDelayed(task, sessionToken, delayMs);
+    }
+    
+    private void cancelSessionPosts() {
+        if (sessionToken != null) {
+            mainHandler.removeCallbacksAndMessages(sessionToken);
+            sessionToken = null;
+        }
+    }
+
     @Override
     public void stopListening() throws Exception {
         Log.d(TAG, "Stopping NFC listening simulation...");
@@ -249,8 +268,8 @@ public class AbstractPosPlugin implements IPosNfcPlugin {
         this.isListening = false;
         this.currentCallback = null;
         
-        // Remove any pending simulations
-        mainHandler.removeCallbacksAndMessages(null);
+        // Remove pending simulations of this session only
+        cancelSessionPosts();
         
         Log.d(TAG, "NFC listening simulation stopped");
     }
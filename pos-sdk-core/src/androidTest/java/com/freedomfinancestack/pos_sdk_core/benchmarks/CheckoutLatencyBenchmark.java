@@ -0,0 +1,424 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.implementations.FakeGatewayTransport;
+import com.freedomfinancestack.pos_sdk_core.implementations.GatewayResponseReader;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checkout latency benchmark for the backend path: saved-card lookup,
+ * payment initiation and payment confirmation.
+ *
+ * Each worker thread runs complete checkouts back to back:
+ * listAllSavedCards(), initiatePayment() with the first card, then
+ * confirmPayment(). Latency is measured per operation and for the whole
+ * checkout, so a slow endpoint shows up in its own percentiles as well as in
+ * the end-to-end tail. Ramping the worker count shows where throughput stops
+ * growing and queueing starts to dominate latency.
+ *
+ * Run it against a {@link FakeGatewayTransport} for repeatable numbers, or
+ * pass real IPayment and ICards implementations to measure a sandbox backend.
+ *
+ * Lives in the instrumentation test source set, with the fake gateway, so
+ * neither ships in the library; the gateway response parsing needs the
+ * framework's JsonReader. See CheckoutLatencyBenchmarkTest.
+ *
+ * Example usage (off the main thread):
+ * <pre>
+ * CheckoutLatencyBenchmark benchmark = new CheckoutLatencyBenchmark(new FakeGatewayTransport());
+ * for (CheckoutLatencyBenchmark.Result result : benchmark.runRamp(16, 50)) {
+ *     Log.i("Bench", result.toString());
+ * }
+ * </pre>
+ *
+ * Threading: run methods block for the benchmark duration; never call them on
+ * the main thread.
+ */
+public class CheckoutLatencyBenchmark {
+
+    private static final String TAG = "CheckoutLatencyBenchmark";
+
+    /** Operation names used in results. */
+    public static final String OP_LIST_CARDS = "listCards";
+    public static final String OP_INITIATE = "initiatePayment";
+    public static final String OP_CONFIRM = "confirmPayment";
+    public static final String OP_CHECKOUT = "checkout";
+
+    private static final String DEFAULT_MERCHANT_ID = "bench_merchant";
+    private static final float CHECKOUT_AMOUNT = 499.0f;
+
+    private final IPayment payment;
+    private final ICards cards;
+    private final String merchantId;
+
+    /**
+     * Benchmarks the SDK's gateway requests over a transport, typically a
+     * {@link FakeGatewayTransport}.
+     *
+     * @param transport Transport speaking the gateway's orders, payments and cards API
+     */
+    public CheckoutLatencyBenchmark(@NonNull IHttpTransport transport) {
+        this(new TransportPayment(transport), new TransportCards(transport), DEFAULT_MERCHANT_ID);
+    }
+
+    /**
+     * @param payment Payment implementation under test
+     * @param cards Saved-cards implementation under test
+     * @param merchantId Merchant ID passed to listAllSavedCards()
+     */
+    public CheckoutLatencyBenchmark(@NonNull IPayment payment, @NonNull ICards cards, @NonNull String merchantId) {
+        if (payment == null || cards == null || merchantId == null) {
+            throw new IllegalArgumentException("Payment, cards and merchant ID cannot be null");
+        }
+        this.payment = payment;
+        this.cards = cards;
+        this.merchantId = merchantId;
+    }
+
+    /**
+     * Runs a fixed number of checkouts on {@code concurrency} threads at once.
+     *
+     * Latencies cover successful calls only; failures are counted as errors.
+     * A checkout is an error if any of its steps failed.
+     *
+     * @param concurrency Worker threads, must be positive
+     * @param checkoutsPerWorker Checkouts each worker runs, must be positive
+     * @return one result per operation, in checkout order, followed by the whole checkout
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    @NonNull
+    public List<Result> run(int concurrency, int checkoutsPerWorker) throws InterruptedException {
+        if (concurrency <= 0 || checkoutsPerWorker <= 0) {
+            throw new IllegalArgumentException("Concurrency and checkouts per worker must be positive");
+        }
+        int capacity = concurrency * checkoutsPerWorker;
+        Samples listCards = new Samples(capacity);
+        Samples initiate = new Samples(capacity);
+        Samples confirm = new Samples(capacity);
+        Samples checkout = new Samples(capacity);
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[concurrency];
+        for (int w = 0; w < concurrency; w++) {
+            String contact = String.format(Locale.US, "+91900000%04d", w);
+            workers[w] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < checkoutsPerWorker && !Thread.currentThread().isInterrupted(); i++) {
+                    runCheckout(contact, listCards, initiate, confirm, checkout);
+                }
+            }, "checkout-bench-" + w);
+            workers[w].setDaemon(true);
+            workers[w].start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            throw e;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        List<Result> results = new ArrayList<>(4);
+        results.add(listCards.toResult(OP_LIST_CARDS, concurrency, elapsedNanos));
+        results.add(initiate.toResult(OP_INITIATE, concurrency, elapsedNanos));
+        results.add(confirm.toResult(OP_CONFIRM, concurrency, elapsedNanos));
+        results.add(checkout.toResult(OP_CHECKOUT, concurrency, elapsedNanos));
+        for (Result result : results) {
+            Log.i(TAG, result.toString());
+        }
+        return results;
+    }
+
+    /**
+     * Runs measurements at doubling concurrency: 1, 2, 4, ... up to
+     * {@code maxConcurrency}.
+     *
+     * @param maxConcurrency Highest worker count, must be positive
+     * @param checkoutsPerWorker Checkouts each worker runs per step
+     * @return results of all steps, grouped by concurrency in increasing order
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    @NonNull
+    public List<Result> runRamp(int maxConcurrency, int checkoutsPerWorker) throws InterruptedException {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive, got " + maxConcurrency);
+        }
+        List<Result> results = new ArrayList<>();
+        for (int concurrency = 1; concurrency > 0 && concurrency <= maxConcurrency; concurrency *= 2) {
+            results.addAll(run(concurrency, checkoutsPerWorker));
+        }
+        return results;
+    }
+
+    private void runCheckout(String contact, Samples listCards, Samples initiate, Samples confirm,
+                             Samples checkout) {
+        long checkoutStart = System.nanoTime();
+        boolean failed = false;
+
+        Card card = null;
+        long begin = System.nanoTime();
+        try {
+            List<ListSavedCards> saved = cards.listAllSavedCards(merchantId, contact);
+            listCards.add(System.nanoTime() - begin);
+            card = firstCard(saved);
+        } catch (RuntimeException e) {
+            listCards.addError();
+            failed = true;
+        }
+        if (card == null) {
+            // Keep measuring the payment path even without saved cards
+            card = Card.builder().cardId("card_bench").last4Digits("1111").network(Network.VISA).build();
+        }
+
+        String paymentId = null;
+        begin = System.nanoTime();
+        try {
+            PaymentInitiationResponse response = payment.initiatePayment(card, CHECKOUT_AMOUNT);
+            if (response == null || response.getPaymentId() == null) {
+                throw new IllegalStateException("No payment ID");
+            }
+            initiate.add(System.nanoTime() - begin);
+            paymentId = response.getPaymentId();
+        } catch (RuntimeException e) {
+            initiate.addError();
+            failed = true;
+        }
+
+        if (paymentId != null) {
+            begin = System.nanoTime();
+            try {
+                if (payment.confirmPayment(paymentId) == null) {
+                    throw new IllegalStateException("No status");
+                }
+                confirm.add(System.nanoTime() - begin);
+            } catch (RuntimeException e) {
+                confirm.addError();
+                failed = true;
+            }
+        }
+
+        if (failed) {
+            checkout.addError();
+        } else {
+            checkout.add(System.nanoTime() - checkoutStart);
+        }
+    }
+
+    private static Card firstCard(List<ListSavedCards> saved) {
+        if (saved == null) {
+            return null;
+        }
+        for (ListSavedCards entry : saved) {
+            if (entry != null && entry.getCards() != null && entry.getCards().length > 0) {
+                return entry.getCards()[0];
+            }
+        }
+        return null;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Latency samples of one operation, filled concurrently by the workers.
+     */
+    private static final class Samples {
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        Samples(int capacity) {
+            latencies = new long[capacity];
+        }
+
+        void add(long nanos) {
+            int index = count.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = nanos;
+            }
+        }
+
+        void addError() {
+            errors.incrementAndGet();
+        }
+
+        Result toResult(String operation, int concurrency, long elapsedNanos) {
+            int samples = Math.min(count.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            return new Result(operation, concurrency, samples, errors.get(),
+                    samples * 1_000_000_000d / elapsedNanos,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.95),
+                    percentile(sorted, 0.99),
+                    samples > 0 ? sorted[samples - 1] : 0);
+        }
+    }
+
+    /**
+     * Outcome of one operation at one concurrency level. Latencies are in
+     * nanoseconds; throughput counts successful calls.
+     */
+    public static final class Result {
+        private final String operation;
+        private final int concurrency;
+        private final int completed;
+        private final int errors;
+        private final double throughputPerSecond;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Result(String operation, int concurrency, int completed, int errors, double throughputPerSecond,
+               long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.operation = operation;
+            this.concurrency = concurrency;
+            this.completed = completed;
+            this.errors = errors;
+            this.throughputPerSecond = throughputPerSecond;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getOperation() { return operation; }
+        public int getConcurrency() { return concurrency; }
+        public int getCompleted() { return completed; }
+        public int getErrors() { return errors; }
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP95Nanos() { return p95Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s concurrency=%d throughput=%.1f/s completed=%d errors=%d " +
+                    "p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                    operation, concurrency, throughputPerSecond, completed, errors,
+                    p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+
+    /**
+     * Minimal gateway client for the orders and payments API: creates an
+     * order, then a card payment on it.
+     */
+    private static final class TransportPayment implements IPayment {
+        private final IHttpTransport transport;
+
+        TransportPayment(IHttpTransport transport) {
+            if (transport == null) {
+                throw new IllegalArgumentException("Transport cannot be null");
+            }
+            this.transport = transport;
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            long amountMinor = Math.round(amount * 100d);
+            try {
+                String orderId = GatewayResponseReader.readId(transport.execute(post("orders",
+                        "{\"amount\":" + amountMinor + ",\"currency\":\"INR\"}")));
+                return GatewayResponseReader.readPaymentInitiation(transport.execute(post("payments",
+                        "{\"order_id\":\"" + orderId + "\",\"amount\":" + amountMinor
+                                + ",\"method\":\"card\",\"token\":\"" + card.getCardId() + "\"}")), orderId);
+            } catch (IOException e) {
+                throw new IllegalStateException("Payment request failed", e);
+            }
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            try {
+                return GatewayResponseReader.readStatus(transport.execute(HttpRequest.builder()
+                        .path("payments/" + paymentId)
+                        .build()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Status request failed", e);
+            }
+        }
+
+        private static HttpRequest post(String path, String json) {
+            return HttpRequest.builder()
+                    .method("POST")
+                    .path(path)
+                    .contentType("application/json")
+                    .body(json.getBytes(StandardCharsets.UTF_8))
+                    .build();
+        }
+    }
+
+    /**
+     * Minimal saved-cards client: GET cards with count and cursor, read as it
+     * streams in.
+     */
+    private static final class TransportCards implements IPagedCards {
+        private final IHttpTransport transport;
+
+        TransportCards(IHttpTransport transport) {
+            if (transport == null) {
+                throw new IllegalArgumentException("Transport cannot be null");
+            }
+            this.transport = transport;
+        }
+
+        @NonNull
+        @Override
+        public CardPage listSavedCardsPage(@NonNull String merchantId, @NonNull String contact,
+                                           @Nullable String cursor, int pageSize) {
+            HttpRequest request = HttpRequest.builder()
+                    .path("cards?merchant_id=" + merchantId + "&contact=" + contact + "&count=" + pageSize
+                            + (cursor != null ? "&cursor=" + cursor : ""))
+                    .build();
+            try {
+                return GatewayResponseReader.readCardPage(transport.execute(request));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cards request failed", e);
+            }
+        }
+    }
+}
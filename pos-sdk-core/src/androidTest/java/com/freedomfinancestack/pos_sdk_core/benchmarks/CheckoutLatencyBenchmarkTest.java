@@ -0,0 +1,39 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.freedomfinancestack.pos_sdk_core.implementations.FakeGatewayTransport;
+import com.freedomfinancestack.pos_sdk_core.models.FakeEndpointProfile;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Runs a short checkout measurement against the fake gateway; use
+ * {@link CheckoutLatencyBenchmark#runRamp} directly for full ramps.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CheckoutLatencyBenchmarkTest {
+
+    @Test
+    public void checkoutsCompleteAgainstFastGateway() throws InterruptedException {
+        FakeGatewayTransport gateway = new FakeGatewayTransport();
+        FakeEndpointProfile fast = FakeEndpointProfile.builder().medianLatencyMs(1).p99LatencyMs(5).build();
+        for (FakeGatewayTransport.Endpoint endpoint : FakeGatewayTransport.Endpoint.values()) {
+            gateway.setProfile(endpoint, fast);
+        }
+
+        List<CheckoutLatencyBenchmark.Result> results = new CheckoutLatencyBenchmark(gateway).run(2, 10);
+
+        assertEquals(4, results.size());
+        for (CheckoutLatencyBenchmark.Result result : results) {
+            assertEquals("Errors in " + result, 0, result.getErrors());
+            assertTrue("Nothing completed: " + result, result.getCompleted() > 0);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import android.content.Context;
+import android.nfc.NdefMessage;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.implementations.LoadGeneratorPosPlugin;
+import com.freedomfinancestack.pos_sdk_core.implementations.PosNfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * End-to-end throughput benchmark for the NFC dispatch path.
+ *
+ * Drives {@link PosNfcDeviceManager} with a {@link LoadGeneratorPosPlugin} and
+ * measures how many taps per second reach the NdefCallback, the latency from
+ * emission to callback, and how many taps were dropped because deliveries
+ * queued up on the dispatch looper.
+ *
+ * Lives in the instrumentation test source set because it needs a real
+ * Looper and NFC framework classes; see NfcDispatchBenchmarkTest.
+ *
+ * Example usage (off the main thread):
+ * <pre>
+ * NfcDispatchBenchmark benchmark = new NfcDispatchBenchmark(context, Looper.getMainLooper());
+ * for (NfcDispatchBenchmark.Result result : benchmark.runRamp(256, 50, 6400, 5000)) {
+ *     Log.i("Bench", result.toString());
+ * }
+ * </pre>
+ *
+ * Threading: run methods block for the benchmark duration and must not be
+ * called on the dispatch looper's thread.
+ */
+public class NfcDispatchBenchmark {
+
+    private static final String TAG = "NfcDispatchBenchmark";
+
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    /** How long to wait for callbacks still running on the dispatch looper after stopping. */
+    private static final long DRAIN_TIMEOUT_MS = 1000;
+
+    private final Context context;
+    private final Looper dispatchLooper;
+    private final int threadCount;
+    private final int maxInFlight;
+
+    /**
+     * @param context Android application context, passed to the plugin
+     * @param dispatchLooper Looper callbacks are delivered on, or null for generator threads
+     */
+    public NfcDispatchBenchmark(@Nullable Context context, @Nullable Looper dispatchLooper) {
+        this(context, dispatchLooper, DEFAULT_THREADS, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param context Android application context, passed to the plugin
+     * @param dispatchLooper Looper callbacks are delivered on, or null for generator threads
+     * @param threadCount Generator threads
+     * @param maxInFlight Pending deliveries tolerated before taps count as dropped
+     */
+    public NfcDispatchBenchmark(@Nullable Context context, @Nullable Looper dispatchLooper,
+                                int threadCount, int maxInFlight) {
+        if (dispatchLooper != null && dispatchLooper == Looper.myLooper()) {
+            throw new IllegalStateException("Benchmark must not run on its own dispatch looper thread");
+        }
+        this.context = context;
+        this.dispatchLooper = dispatchLooper;
+        this.threadCount = threadCount;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Runs a single fixed-rate measurement.
+     *
+     * @param payloadBytes Payload size of each generated tap
+     * @param targetRatePerSecond Aggregate emission rate
+     * @param durationMs Measurement window
+     * @return measured throughput, latency percentiles and drop counts
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    @NonNull
+    public Result run(int payloadBytes, int targetRatePerSecond, long durationMs) throws InterruptedException {
+        LoadGeneratorPosPlugin plugin = new LoadGeneratorPosPlugin(
+                payloadBytes, targetRatePerSecond, threadCount, maxInFlight, dispatchLooper);
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(context, plugin);
+
+        int capacity = (int) Math.min(MAX_SAMPLES, (long) targetRatePerSecond * durationMs / 1000 + 1024);
+        // Written by generator or looper threads, read here; the atomic array publishes each sample
+        AtomicLongArray latencies = new AtomicLongArray(capacity);
+        AtomicInteger sampleCount = new AtomicInteger();
+        AtomicInteger activeCallbacks = new AtomicInteger();
+        AtomicInteger errorCount = new AtomicInteger();
+
+        long startNanos = System.nanoTime();
+        manager.startListening(new INfcDeviceManager.NdefCallback() {
+            @Override
+            public void onNdefMessageDiscovered(NdefMessage message) {
+                activeCallbacks.incrementAndGet();
+                try {
+                    long emitNanos = LoadGeneratorPosPlugin.getEmitNanos(message);
+                    if (emitNanos < 0) {
+                        return;
+                    }
+                    int index = sampleCount.getAndIncrement();
+                    if (index < latencies.length()) {
+                        latencies.set(index, System.nanoTime() - emitNanos);
+                    }
+                } finally {
+                    activeCallbacks.decrementAndGet();
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                errorCount.incrementAndGet();
+            }
+        });
+
+        Thread.sleep(durationMs);
+        // Joins the generator threads; callbacks already running on the looper are awaited below
+        manager.stopListening();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_MS * 1_000_000L;
+        while (activeCallbacks.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(1);
+        }
+        manager.cleanup();
+
+        int samples = Math.min(sampleCount.get(), latencies.length());
+        long[] sorted = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+
+        Result result = new Result(
+                payloadBytes,
+                targetRatePerSecond,
+                plugin.getEmittedCount(),
+                plugin.getDeliveredCount(),
+                plugin.getDroppedCount(),
+                errorCount.get(),
+                plugin.getDeliveredCount() * 1_000_000_000d / elapsedNanos,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                samples > 0 ? sorted[samples - 1] : 0);
+        Log.i(TAG, result.toString());
+        return result;
+    }
+
+    /**
+     * Runs measurements at doubling rates until taps start being dropped or
+     * {@code maxRatePerSecond} is exceeded. The last result whose drop count is
+     * zero is the sustainable rate for this payload size.
+     *
+     * @param payloadBytes Payload size of each generated tap
+     * @param startRatePerSecond First rate to measure
+     * @param maxRatePerSecond Upper bound for the ramp
+     * @param stepDurationMs Measurement window per step
+     * @return one result per measured rate, in increasing rate order
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    @NonNull
+    public List<Result> runRamp(int payloadBytes, int startRatePerSecond, int maxRatePerSecond,
+                                long stepDurationMs) throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (int rate = startRatePerSecond; rate > 0 && rate <= maxRatePerSecond; rate *= 2) {
+            Result result = run(payloadBytes, rate, stepDurationMs);
+            results.add(result);
+            if (result.getDropped() > 0) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Outcome of one benchmark step. Latencies are in nanoseconds.
+     */
+    public static final class Result {
+        private final int payloadBytes;
+        private final int targetRatePerSecond;
+        private final long emitted;
+        private final long delivered;
+        private final long dropped;
+        private final int errors;
+        private final double throughputPerSecond;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Result(int payloadBytes, int targetRatePerSecond, long emitted, long delivered, long dropped,
+               int errors, double throughputPerSecond, long p50Nanos, long p95Nanos, long p99Nanos,
+               long maxNanos) {
+            this.payloadBytes = payloadBytes;
+            this.targetRatePerSecond = targetRatePerSecond;
+            this.emitted = emitted;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.errors = errors;
+            this.throughputPerSecond = throughputPerSecond;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public int getPayloadBytes() { return payloadBytes; }
+        public int getTargetRatePerSecond() { return targetRatePerSecond; }
+        public long getEmitted() { return emitted; }
+        public long getDelivered() { return delivered; }
+        public long getDropped() { return dropped; }
+        public int getErrors() { return errors; }
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP95Nanos() { return p95Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "target=%d/s payload=%dB sustained=%.1f/s emitted=%d delivered=%d dropped=%d errors=%d " +
+                    "p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                    targetRatePerSecond, payloadBytes, throughputPerSecond, emitted, delivered, dropped, errors,
+                    p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+}
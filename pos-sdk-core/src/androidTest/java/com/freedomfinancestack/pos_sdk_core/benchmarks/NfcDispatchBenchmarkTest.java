@@ -0,0 +1,33 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs a short NFC dispatch measurement on the device; use
+ * {@link NfcDispatchBenchmark#runRamp} directly for full ramps.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NfcDispatchBenchmarkTest {
+
+    @Test
+    public void lowRateIsDeliveredWithoutDrops() throws InterruptedException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        NfcDispatchBenchmark benchmark = new NfcDispatchBenchmark(context, Looper.getMainLooper());
+
+        NfcDispatchBenchmark.Result result = benchmark.run(64, 100, 1000);
+
+        assertTrue("No taps delivered: " + result, result.getDelivered() > 0);
+        assertEquals("Dropped taps at 100/s: " + result, 0, result.getDropped());
+        assertEquals(0, result.getErrors());
+    }
+}
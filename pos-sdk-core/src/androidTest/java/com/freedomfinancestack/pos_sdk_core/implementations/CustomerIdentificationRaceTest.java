@@ -0,0 +1,229 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.freedomfinancestack.pos_sdk_core.enums.IdentificationChannel;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IGGWave;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.IdentificationResult;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outcomes of a race between fake audio and NFC channels. Runs on a device
+ * because outcomes are delivered through the main looper.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CustomerIdentificationRaceTest {
+
+    private static final GGWaveMessage CUSTOMER = new GGWaveMessage("9000000001");
+
+    /** Audio channel whose events are fired by the test. */
+    private static final class FakeGGWave implements IGGWave {
+        volatile GGWaveCallback callback;
+        final AtomicInteger stops = new AtomicInteger();
+
+        @Override
+        public void initialize(@Nullable Runnable readyCallback) {
+        }
+
+        @Override
+        public boolean send(@NonNull String message, boolean useUltrasound, boolean fastMode,
+                            @Nullable GGWaveTransmissionCallback callback) {
+            return false;
+        }
+
+        @Override
+        public boolean send(@NonNull String message) {
+            return false;
+        }
+
+        @Override
+        public boolean sendMessage(@NonNull GGWaveMessage message, boolean useUltrasound, boolean fastMode,
+                                   @Nullable GGWaveTransmissionCallback callback) {
+            return false;
+        }
+
+        @Override
+        public boolean sendMessage(@NonNull GGWaveMessage message) {
+            return false;
+        }
+
+        @Override
+        public boolean sendMobileNumber(@NonNull String mobileNumber) {
+            return false;
+        }
+
+        @Override
+        public boolean startListening(@NonNull GGWaveCallback callback) {
+            this.callback = callback;
+            return true;
+        }
+
+        @Override
+        public void stopListening() {
+            stops.incrementAndGet();
+        }
+
+        @Override
+        public boolean isListening() {
+            return callback != null;
+        }
+
+        @Override
+        public boolean isInitialized() {
+            return true;
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+
+    /** NFC channel whose events are fired by the test. */
+    private static final class FakeNfc implements INfcDeviceManager {
+        final NfcDeadlineTracker deadlines = new NfcDeadlineTracker(this);
+        volatile NdefCallback callback;
+        final AtomicInteger stops = new AtomicInteger();
+
+        @Override
+        public void startListening(NdefCallback callback) {
+            deadlines.onListenStarted(callback);
+            this.callback = callback;
+        }
+
+        @NonNull
+        @Override
+        public ICancellable startListening(@NonNull DeadlineCallback callback, long timeoutMs) {
+            return deadlines.start(callback, timeoutMs);
+        }
+
+        @Override
+        public void stopListening() {
+            stops.incrementAndGet();
+            deadlines.onListenStopped();
+        }
+    }
+
+    private static final class Outcome implements CustomerIdentificationRace.Callback {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger outcomes = new AtomicInteger();
+        volatile IdentificationResult identified;
+        volatile String error;
+        volatile long timedOutAfterMs = -1;
+
+        @Override
+        public void onIdentified(@NonNull IdentificationResult result) {
+            identified = result;
+            outcomes.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onTimeout(long waitedMs) {
+            timedOutAfterMs = waitedMs;
+            outcomes.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(@NonNull String error) {
+            this.error = error;
+            outcomes.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+    private static void onMain(Runnable action) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(action);
+    }
+
+    private static void drainMain() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    @Test
+    public void bothChannelsFailingReportsError() throws InterruptedException {
+        FakeGGWave audio = new FakeGGWave();
+        FakeNfc nfc = new FakeNfc();
+        CustomerIdentificationRace race = new CustomerIdentificationRace(audio, nfc);
+        Outcome outcome = new Outcome();
+
+        onMain(() -> race.start(outcome, 0));
+        onMain(() -> audio.callback.onError("microphone busy"));
+        assertEquals(1, outcome.done.getCount());
+        nfc.callback.onError("reader fault");
+
+        assertTrue(outcome.done.await(2, TimeUnit.SECONDS));
+        assertEquals("NFC identification failed: reader fault", outcome.error);
+        assertEquals(1, nfc.stops.get());
+    }
+
+    @Test
+    public void oneChannelFailingKeepsTheRaceGoing() throws InterruptedException {
+        FakeGGWave audio = new FakeGGWave();
+        FakeNfc nfc = new FakeNfc();
+        CustomerIdentificationRace race = new CustomerIdentificationRace(audio, nfc, message -> CUSTOMER);
+        Outcome outcome = new Outcome();
+
+        onMain(() -> race.start(outcome, 0));
+        nfc.callback.onError("reader fault");
+        onMain(() -> audio.callback.onMessageReceived(CUSTOMER));
+
+        assertTrue(outcome.done.await(2, TimeUnit.SECONDS));
+        assertNotNull(outcome.identified);
+        assertEquals(IdentificationChannel.AUDIO, outcome.identified.getChannel());
+        assertFalse(outcome.identified.isOtherChannelArmed());
+    }
+
+    @Test
+    public void errorsAfterWinAreIgnored() throws InterruptedException {
+        FakeGGWave audio = new FakeGGWave();
+        FakeNfc nfc = new FakeNfc();
+        CustomerIdentificationRace race = new CustomerIdentificationRace(audio, nfc);
+        Outcome outcome = new Outcome();
+
+        onMain(() -> race.start(outcome, 0));
+        onMain(() -> audio.callback.onMessageReceived(CUSTOMER));
+        nfc.callback.onError("reader fault");
+        onMain(() -> audio.callback.onError("microphone busy"));
+        drainMain();
+
+        assertTrue(outcome.done.await(2, TimeUnit.SECONDS));
+        assertEquals(IdentificationChannel.AUDIO, outcome.identified.getChannel());
+        assertEquals(1, outcome.outcomes.get());
+        assertEquals(1, nfc.stops.get());
+    }
+
+    @Test
+    public void deadlineStopsBothChannels() throws InterruptedException {
+        FakeGGWave audio = new FakeGGWave();
+        FakeNfc nfc = new FakeNfc();
+        CustomerIdentificationRace race = new CustomerIdentificationRace(audio, nfc);
+        Outcome outcome = new Outcome();
+
+        onMain(() -> race.start(outcome, 100));
+
+        assertTrue(outcome.done.await(2, TimeUnit.SECONDS));
+        assertTrue(outcome.timedOutAfterMs >= 100);
+        drainMain();
+        assertEquals(1, nfc.stops.get());
+        assertEquals(1, audio.stops.get());
+        assertEquals(1, outcome.outcomes.get());
+    }
+}
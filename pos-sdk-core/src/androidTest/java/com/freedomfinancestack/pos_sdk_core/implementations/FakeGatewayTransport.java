@@ -0,0 +1,375 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport;
+import com.freedomfinancestack.pos_sdk_core.models.FakeEndpointProfile;
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the payment gateway, for load tests and benchmarks
+ * that must not depend on a sandbox account or the network.
+ *
+ * Answers the endpoints the SDK uses with Razorpay-shaped JSON that
+ * {@link GatewayResponseReader} understands:
+ * <ul>
+ *   <li>POST orders: {"id": "order_N", ...}</li>
+ *   <li>POST payments: {"razorpay_payment_id": "pay_N", "next": [{"action": "redirect", ...}]}</li>
+ *   <li>GET payments/{id}: {"id": ..., "status": "captured"}</li>
+ *   <li>GET cards[?count=N&amp;cursor=C]: {"items": [{"id", "last4", "network", "type", "issuer"}, ...],
+ *       "next_cursor": ...}</li>
+ * </ul>
+ * Unknown paths get a 404 error object.
+ *
+ * Each endpoint has a {@link FakeEndpointProfile}: latency is drawn from a
+ * log-normal distribution, a fraction of calls fails with HTTP 503, and the
+ * body can be trickled at a fixed byte rate to mimic a congested link. The
+ * latency is spent in execute(), the streaming delay while the body is read.
+ *
+ * Test code only: lives in the instrumentation test source set and is not
+ * part of the library.
+ *
+ * Example usage:
+ * <pre>
+ * FakeGatewayTransport gateway = new FakeGatewayTransport();
+ * gateway.setProfile(FakeGatewayTransport.Endpoint.PAYMENTS, FakeEndpointProfile.builder()
+ *         .medianLatencyMs(300).p99LatencyMs(2000).errorRate(0.02).build());
+ * new CheckoutLatencyBenchmark(gateway).runRamp(16, 50);
+ * </pre>
+ *
+ * Threading: safe for concurrent use; execute() blocks for the sampled latency.
+ */
+public class FakeGatewayTransport implements IHttpTransport {
+
+    /** z-score of the 99th percentile of a standard normal distribution. */
+    private static final double Z_99 = 2.3263;
+
+    /** Upper bound of a latency sample, as a multiple of the p99. */
+    private static final int MAX_LATENCY_P99_MULTIPLE = 10;
+
+    private static final int STREAM_CHUNK_BYTES = 512;
+
+    /**
+     * Endpoints served by the fake.
+     */
+    public enum Endpoint {
+        ORDERS,
+        PAYMENTS,
+        PAYMENT_STATUS,
+        CARDS
+    }
+
+    private final Map<Endpoint, FakeEndpointProfile> profiles =
+            Collections.synchronizedMap(new EnumMap<>(Endpoint.class));
+    private final Map<Endpoint, AtomicLong> callsByEndpoint = new EnumMap<>(Endpoint.class);
+    private final Random random;
+    private final int cardsPerContact;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    /**
+     * Creates a fake with default profiles on all endpoints and three saved
+     * cards per contact.
+     */
+    public FakeGatewayTransport() {
+        this(FakeEndpointProfile.builder().build(), 3, System.nanoTime());
+    }
+
+    /**
+     * @param defaultProfile Profile of every endpoint until replaced with setProfile()
+     * @param cardsPerContact Saved cards returned per contact, zero or more
+     * @param seed Seed of the latency and error draws, for repeatable runs
+     */
+    public FakeGatewayTransport(@NonNull FakeEndpointProfile defaultProfile, int cardsPerContact, long seed) {
+        if (cardsPerContact < 0) {
+            throw new IllegalArgumentException("Cards per contact cannot be negative, got " + cardsPerContact);
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            setProfile(endpoint, defaultProfile);
+            callsByEndpoint.put(endpoint, new AtomicLong());
+        }
+        this.cardsPerContact = cardsPerContact;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Replaces the behaviour of one endpoint; takes effect on the next call.
+     */
+    public void setProfile(@NonNull Endpoint endpoint, @NonNull FakeEndpointProfile profile) {
+        if (endpoint == null || profile == null) {
+            throw new IllegalArgumentException("Endpoint and profile cannot be null");
+        }
+        if (profile.getMedianLatencyMs() < 0 || profile.getP99LatencyMs() < 0) {
+            throw new IllegalArgumentException("Latencies cannot be negative");
+        }
+        if (profile.getErrorRate() < 0 || profile.getErrorRate() > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1, got " + profile.getErrorRate());
+        }
+        if (profile.getBodyBytesPerSecond() < 0 || profile.getPaddingBytes() < 0) {
+            throw new IllegalArgumentException("Body rate and padding cannot be negative");
+        }
+        profiles.put(endpoint, profile);
+    }
+
+    @NonNull
+    @Override
+    public HttpResponse execute(@NonNull HttpRequest request) throws IOException {
+        if (request == null || request.getPath() == null) {
+            throw new IllegalArgumentException("Request and path cannot be null");
+        }
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase(Locale.US) : "GET";
+        String path = request.getPath();
+        String query = "";
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            query = path.substring(queryStart + 1);
+            path = path.substring(0, queryStart);
+        }
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        callCount.incrementAndGet();
+
+        Endpoint endpoint = route(method, path);
+        if (endpoint == null) {
+            failedCalls.incrementAndGet();
+            return json(404, error("BAD_REQUEST_ERROR", "No route for " + method + " " + path), 0);
+        }
+        callsByEndpoint.get(endpoint).incrementAndGet();
+        FakeEndpointProfile profile = profiles.get(endpoint);
+
+        sleep(sampleLatencyMs(profile));
+        if (nextDouble() < profile.getErrorRate()) {
+            failedCalls.incrementAndGet();
+            return json(503, error("SERVER_ERROR", "Injected failure"), 0);
+        }
+
+        String body;
+        long id = sequence.incrementAndGet();
+        switch (endpoint) {
+            case ORDERS:
+                body = "{\"id\":\"order_" + id + "\",\"entity\":\"order\",\"currency\":\"INR\",\"status\":\"created\"";
+                break;
+            case PAYMENTS:
+                body = "{\"razorpay_payment_id\":\"pay_" + id + "\",\"next\":[{\"action\":\"redirect\","
+                        + "\"url\":\"https://acs.fake.local/otp/pay_" + id + "\"}]";
+                break;
+            case PAYMENT_STATUS:
+                body = "{\"id\":\"" + path.substring("payments/".length()) + "\",\"entity\":\"payment\","
+                        + "\"status\":\"captured\"";
+                break;
+            default:
+                body = cardsJson(queryInt(query, "cursor", 0), queryInt(query, "count", cardsPerContact));
+        }
+        return json(200, padded(body, profile.getPaddingBytes()), profile.getBodyBytesPerSecond());
+    }
+
+    /**
+     * Nothing to warm up; returns immediately.
+     */
+    @Override
+    public void warmup() {
+    }
+
+    /**
+     * @return call counts; failed calls are injected errors and unknown routes.
+     *         Connection counters are always zero.
+     */
+    @NonNull
+    @Override
+    public HttpTransportStats getStats() {
+        return HttpTransportStats.builder()
+                .callCount(callCount.get())
+                .failedCallCount(failedCalls.get())
+                .build();
+    }
+
+    /** Calls routed to one endpoint since creation. */
+    public long getCallCount(@NonNull Endpoint endpoint) {
+        return callsByEndpoint.get(endpoint).get();
+    }
+
+    private static Endpoint route(String method, String path) {
+        if (method.equals("POST") && path.equals("orders")) {
+            return Endpoint.ORDERS;
+        }
+        if (method.equals("POST") && path.equals("payments")) {
+            return Endpoint.PAYMENTS;
+        }
+        if (method.equals("GET") && path.startsWith("payments/") && path.length() > "payments/".length()) {
+            return Endpoint.PAYMENT_STATUS;
+        }
+        if (method.equals("GET") && path.equals("cards")) {
+            return Endpoint.CARDS;
+        }
+        return null;
+    }
+
+    private long sampleLatencyMs(FakeEndpointProfile profile) {
+        long median = profile.getMedianLatencyMs();
+        long p99 = profile.getP99LatencyMs();
+        if (median <= 0 || p99 <= median) {
+            return median;
+        }
+        double sigma = Math.log((double) p99 / median) / Z_99;
+        double sample = median * Math.exp(sigma * nextGaussian());
+        return Math.min((long) sample, p99 * MAX_LATENCY_P99_MULTIPLE);
+    }
+
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private double nextGaussian() {
+        synchronized (random) {
+            return random.nextGaussian();
+        }
+    }
+
+    /**
+     * Cards from offset {@code from}, at most {@code count}, with a
+     * "next_cursor" holding the next offset while more remain.
+     */
+    private String cardsJson(int from, int count) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        String[] networks = {"Visa", "MasterCard", "RuPay"};
+        String[] issuers = {"HDFC", "ICICI", "SBI"};
+        int start = Math.max(0, from);
+        int end = (int) Math.min(cardsPerContact, (long) start + Math.max(0, count));
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"card_").append(i + 1)
+                    .append("\",\"last4\":\"").append(String.format(Locale.US, "%04d", 1111 * (i % 9 + 1)))
+                    .append("\",\"network\":\"").append(networks[i % networks.length])
+                    .append("\",\"type\":\"").append(i % 2 == 0 ? "credit" : "debit")
+                    .append("\",\"issuer\":\"").append(issuers[i % issuers.length])
+                    .append("\"}");
+        }
+        json.append(']');
+        if (end < cardsPerContact) {
+            json.append(",\"next_cursor\":\"").append(end).append('"');
+        }
+        return json.toString();
+    }
+
+    private static int queryInt(String query, String name, int defaultValue) {
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                try {
+                    return Integer.parseInt(pair.substring(eq + 1));
+                } catch (NumberFormatException e) {
+                    return defaultValue;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String error(String code, String description) {
+        return "{\"error\":{\"code\":\"" + code + "\",\"description\":\"" + description + "\"}}";
+    }
+
+    /** Closes an open top-level object, inserting filler before the brace. */
+    private static String padded(String openObject, int paddingBytes) {
+        StringBuilder json = new StringBuilder(openObject.length() + paddingBytes + 16).append(openObject);
+        if (paddingBytes > 0) {
+            json.append(",\"notes\":\"");
+            for (int i = 0; i < paddingBytes; i++) {
+                json.append('x');
+            }
+            json.append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    private static HttpResponse json(int code, String body, int bytesPerSecond) {
+        InputStream stream = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        if (bytesPerSecond > 0) {
+            stream = new ThrottledInputStream(stream, bytesPerSecond);
+        }
+        return new HttpResponse(code, Collections.singletonMap("Content-Type", "application/json"),
+                stream, null);
+    }
+
+    private static void sleep(long ms) throws InterruptedIOException {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while simulating gateway latency");
+        }
+    }
+
+    /**
+     * Hands out at most one chunk per read and sleeps until the bytes read so
+     * far are due at bytesPerSecond, counted from the first read.
+     */
+    private static final class ThrottledInputStream extends FilterInputStream {
+        private final int bytesPerSecond;
+        private long startNanos;
+        private long delivered;
+
+        ThrottledInputStream(InputStream in, int bytesPerSecond) {
+            super(in);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            if (delivered == 0) {
+                startNanos = System.nanoTime();
+            }
+            int read = super.read(buffer, offset, Math.min(length, STREAM_CHUNK_BYTES));
+            if (read > 0) {
+                delivered += read;
+                long dueNanos = startNanos + delivered * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+                sleep(TimeUnit.NANOSECONDS.toMillis(dueNanos - System.nanoTime()));
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] discard = new byte[STREAM_CHUNK_BYTES];
+            int read = read(discard, 0, (int) Math.min(n, discard.length));
+            return Math.max(0, read);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
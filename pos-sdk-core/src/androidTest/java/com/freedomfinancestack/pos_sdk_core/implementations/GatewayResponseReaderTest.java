@@ -0,0 +1,178 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Parsing of gateway responses. Runs on a device because
+ * {@link android.util.JsonReader} is stubbed in local unit tests.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GatewayResponseReaderTest {
+
+    private static HttpResponse html(int code, String body) {
+        return new HttpResponse(code, Collections.singletonMap("Content-Type", "text/html; charset=utf-8"),
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private interface Read {
+        void run() throws IOException;
+    }
+
+    private static GatewayResponseReader.GatewayException expectGatewayError(Read read) throws IOException {
+        try {
+            read.run();
+            fail("Expected a GatewayException");
+            return null;
+        } catch (GatewayResponseReader.GatewayException expected) {
+            return expected;
+        }
+    }
+
+    @Test
+    public void readIdSkipsOtherFields() throws IOException {
+        String body = "{\"entity\": \"order\", \"notes\": {\"id\": \"nested\"}, \"id\": \"order_1\", \"amount\": 100}";
+        assertEquals("order_1", GatewayResponseReader.readId(HttpResponse.of(200, body)));
+    }
+
+    @Test
+    public void readIdReportsErrorStatusWithGatewayMessage() throws IOException {
+        String body = "{\"error\": {\"code\": \"BAD_REQUEST_ERROR\", \"description\": \"amount too small\"}}";
+
+        GatewayResponseReader.GatewayException error =
+                expectGatewayError(() -> GatewayResponseReader.readId(HttpResponse.of(400, body)));
+
+        assertEquals("Gateway error BAD_REQUEST_ERROR: amount too small (HTTP 400)", error.getMessage());
+        assertEquals(400, error.getHttpCode());
+        assertTrue(error.isRejection());
+    }
+
+    @Test
+    public void readIdWithoutIdIsMalformed() {
+        try {
+            GatewayResponseReader.readId(HttpResponse.of(200, "{\"entity\": \"order\"}"));
+            fail("Expected a response without an id to be rejected");
+        } catch (IOException expected) {
+            // No id
+        }
+    }
+
+    @Test
+    public void readStatusMapsGatewayStatuses() throws IOException {
+        assertEquals(PaymentStatus.PAID, GatewayResponseReader.readStatus(
+                HttpResponse.of(200, "{\"id\": \"pay_1\", \"status\": \"captured\"}")));
+        assertEquals(PaymentStatus.AUTHORIZED, GatewayResponseReader.readStatus(
+                HttpResponse.of(200, "{\"status\": \"AUTHORIZED\"}")));
+        assertNull(GatewayResponseReader.readStatus(HttpResponse.of(200, "{\"status\": \"refunded\"}")));
+        assertNull(GatewayResponseReader.readStatus(HttpResponse.of(200, "{\"id\": \"pay_1\"}")));
+    }
+
+    @Test
+    public void readStatusReportsServerErrorPageAsRetryable() throws IOException {
+        GatewayResponseReader.GatewayException error = expectGatewayError(() ->
+                GatewayResponseReader.readStatus(html(503, "<html><body>Service Unavailable</body></html>")));
+
+        assertEquals("Gateway returned HTTP 503", error.getMessage());
+        assertFalse(error.isRejection());
+    }
+
+    @Test
+    public void errorObjectOnSuccessIsReported() {
+        try {
+            GatewayResponseReader.readStatus(HttpResponse.of(200, "{\"error\": \"internal\"}"));
+            fail("Expected the error object to be reported");
+        } catch (IllegalStateException | IOException expected) {
+            assertEquals("Gateway error unknown: internal", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void readPaymentInitiationPrefersRedirectAction() throws IOException {
+        String body = "{\"razorpay_payment_id\": \"pay_1\", \"next\": ["
+                + "{\"action\": \"otp_submit\", \"url\": \"https://gw/otp\"},"
+                + "{\"action\": \"redirect\", \"url\": \"https://gw/3ds\"}]}";
+
+        PaymentInitiationResponse response =
+                GatewayResponseReader.readPaymentInitiation(HttpResponse.of(200, body), "order_1");
+
+        assertEquals("pay_1", response.getPaymentId());
+        assertEquals("https://gw/3ds", response.getAcsURL());
+        assertEquals("order_1", response.getOrderId());
+    }
+
+    @Test
+    public void readPaymentInitiationPassesHtmlPageThrough() throws IOException {
+        // No Content-Type, so the body is sniffed
+        String page = "  <form action=\"https://acs\"></form>";
+
+        PaymentInitiationResponse response =
+                GatewayResponseReader.readPaymentInitiation(HttpResponse.of(200, page), "order_1");
+
+        assertEquals(page, response.getAcsURL());
+        assertNull(response.getPaymentId());
+    }
+
+    @Test
+    public void readPaymentInitiationRejectsFailedPaymentAndErrorPages() throws IOException {
+        GatewayResponseReader.GatewayException failed = expectGatewayError(() ->
+                GatewayResponseReader.readPaymentInitiation(
+                        HttpResponse.of(200, "{\"id\": \"pay_1\", \"status\": \"failed\"}"), null));
+        assertTrue(failed.isRejection());
+
+        GatewayResponseReader.GatewayException throttled = expectGatewayError(() ->
+                GatewayResponseReader.readPaymentInitiation(html(429, "<html>slow down</html>"), null));
+        assertEquals(429, throttled.getHttpCode());
+        assertFalse(throttled.isRejection());
+    }
+
+    @Test
+    public void readCardPageBuildsCardsAndCursor() throws IOException {
+        String body = "{\"count\": 2, \"items\": ["
+                + "{\"id\": \"card_1\", \"last4\": \"4242\", \"network\": \"visa\", \"type\": \"credit\"},"
+                + "{\"id\": \"card_2\", \"last4\": \"0005\", \"network\": \"maestro\", \"type\": null},"
+                + "\"junk\"], \"next_cursor\": \"c2\"}";
+
+        CardPage page = GatewayResponseReader.readCardPage(HttpResponse.of(200, body));
+
+        assertEquals("c2", page.getNextCursor());
+        assertEquals(2, page.getCards().size());
+        Card first = page.getCards().get(0);
+        assertEquals("card_1", first.getCardId());
+        assertEquals("4242", first.getLast4Digits());
+        assertEquals(Network.VISA, first.getNetwork());
+        assertEquals(CardType.CREDIT, first.getCardType());
+        // Values without a constant are left unset
+        assertNull(page.getCards().get(1).getNetwork());
+        assertNull(page.getCards().get(1).getCardType());
+    }
+
+    @Test
+    public void readCardPageReportsErrorStatus() throws IOException {
+        GatewayResponseReader.GatewayException error = expectGatewayError(() ->
+                GatewayResponseReader.readCardPage(HttpResponse.of(401, "{\"error\": {\"code\": \"UNAUTHORIZED\"}}")));
+
+        assertEquals("Gateway error UNAUTHORIZED (HTTP 401)", error.getMessage());
+        assertTrue(error.isRejection());
+    }
+}
@@ -0,0 +1,159 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentPollingConfig;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener notifications of PaymentStatusTracker. Runs on a device because
+ * listeners are called on the main looper.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PaymentStatusTrackerNotificationTest {
+
+    private static final PaymentPollingConfig FAST = PaymentPollingConfig.builder()
+            .initialIntervalMs(20).maxIntervalMs(20).multiplier(1).jitter(0).trackingTimeoutMs(0)
+            .build();
+
+    private PaymentStatusTracker tracker;
+
+    /** Gateway answering from a script, repeating its last status. */
+    private static final class ScriptedGateway implements IPayment {
+        final List<PaymentStatus> script;
+        final AtomicInteger calls = new AtomicInteger();
+
+        ScriptedGateway(PaymentStatus... script) {
+            this.script = Arrays.asList(script);
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            return script.get(Math.min(calls.incrementAndGet(), script.size()) - 1);
+        }
+    }
+
+    /** Records every notification as "previous>current" or the failure. */
+    private static final class Recorder implements PaymentStatusTracker.Listener {
+        final List<String> changes = new CopyOnWriteArrayList<>();
+        final CountDownLatch changed;
+        final CountDownLatch failed = new CountDownLatch(1);
+        volatile Throwable failure;
+        volatile boolean offMainThread;
+
+        Recorder(int expectedChanges) {
+            changed = new CountDownLatch(expectedChanges);
+        }
+
+        @Override
+        public void onStatusChanged(@NonNull String paymentId, @Nullable PaymentStatus previous,
+                                    @NonNull PaymentStatus current) {
+            checkThread();
+            changes.add(previous + ">" + current);
+            changed.countDown();
+        }
+
+        @Override
+        public void onTrackingFailed(@NonNull String paymentId, @NonNull Throwable error) {
+            checkThread();
+            failure = error;
+            failed.countDown();
+        }
+
+        private void checkThread() {
+            if (Looper.myLooper() != Looper.getMainLooper()) {
+                offMainThread = true;
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (tracker != null) {
+            tracker.shutdown();
+        }
+    }
+
+    @Test
+    public void changesAreReportedInOrderOnTheMainThread() throws InterruptedException {
+        tracker = new PaymentStatusTracker(new ScriptedGateway(
+                PaymentStatus.CREATED, PaymentStatus.CREATED, PaymentStatus.AUTHORIZED, PaymentStatus.PAID), FAST);
+        Recorder recorder = new Recorder(3);
+
+        tracker.track("pay_1", recorder);
+
+        assertTrue(recorder.changed.await(2, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        // The repeated CREATED is not a change
+        assertEquals(Arrays.asList("null>CREATED", "CREATED>AUTHORIZED", "AUTHORIZED>PAID"), recorder.changes);
+        assertNull(recorder.failure);
+        assertFalse(recorder.offMainThread);
+        assertEquals(0, tracker.getTrackedCount());
+    }
+
+    @Test
+    public void lateSubscriberIsToldTheLastStatus() throws InterruptedException {
+        tracker = new PaymentStatusTracker(new ScriptedGateway(PaymentStatus.AUTHORIZED), FAST);
+        Recorder first = new Recorder(1);
+        tracker.track("pay_1", first);
+        assertTrue(first.changed.await(2, TimeUnit.SECONDS));
+
+        Recorder late = new Recorder(1);
+        tracker.track("pay_1", late);
+
+        assertTrue(late.changed.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("null>AUTHORIZED"), late.changes);
+        assertEquals(1, tracker.getTrackedCount());
+    }
+
+    @Test
+    public void timeoutIsReportedToEverySubscriber() throws InterruptedException {
+        tracker = new PaymentStatusTracker(new ScriptedGateway(PaymentStatus.CREATED),
+                PaymentPollingConfig.builder()
+                        .initialIntervalMs(20).maxIntervalMs(20).multiplier(1).jitter(0).trackingTimeoutMs(100)
+                        .build());
+        Recorder first = new Recorder(1);
+        Recorder second = new Recorder(1);
+
+        tracker.track("pay_1", first);
+        tracker.track("pay_1", second);
+
+        assertTrue(first.failed.await(2, TimeUnit.SECONDS));
+        assertTrue(first.failure instanceof TimeoutException);
+        assertTrue(second.failed.await(2, TimeUnit.SECONDS));
+        assertTrue(second.failure instanceof TimeoutException);
+        assertEquals(Arrays.asList("null>CREATED"), first.changes);
+        assertFalse(first.offMainThread);
+        assertEquals(0, tracker.getTrackedCount());
+    }
+}
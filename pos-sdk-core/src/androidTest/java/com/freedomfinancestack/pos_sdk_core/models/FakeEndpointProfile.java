@@ -0,0 +1,33 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Behaviour of one endpoint of
+ * {@link com.freedomfinancestack.pos_sdk_core.implementations.FakeGatewayTransport}.
+ * Latency follows a log-normal distribution fitted to the median and p99,
+ * which matches the long right tail of real gateways.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class FakeEndpointProfile {
+    @Builder.Default
+    private long medianLatencyMs = 80;
+    @Builder.Default
+    private long p99LatencyMs = 400;
+
+    /** Fraction of calls answered with HTTP 503, from 0 to 1. */
+    @Builder.Default
+    private double errorRate = 0;
+
+    /** Body streaming rate, e.g. 2048 for a congested link; 0 delivers the body at once. */
+    @Builder.Default
+    private int bodyBytesPerSecond = 0;
+
+    /** Extra filler added to each JSON body to mimic large gateway responses. */
+    @Builder.Default
+    private int paddingBytes = 0;
+}
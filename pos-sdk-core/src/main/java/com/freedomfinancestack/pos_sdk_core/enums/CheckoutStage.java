@@ -0,0 +1,10 @@
+package com.freedomfinancestack.pos_sdk_core.enums;
+
+public enum CheckoutStage {
+    IDENTIFY,
+    FETCH_CARDS,
+    SELECT_CARD,
+    INITIATE,
+    AWAIT_AUTHENTICATION,
+    CONFIRM
+}
@@ -0,0 +1,10 @@
+package com.freedomfinancestack.pos_sdk_core.enums;
+
+public enum CircuitState {
+    // Calls flow normally
+    CLOSED,
+    // Calls fail fast without reaching the backend
+    OPEN,
+    // A few trial calls decide whether to close again
+    HALF_OPEN
+}
@@ -0,0 +1,6 @@
+package com.freedomfinancestack.pos_sdk_core.enums;
+
+public enum IdentificationChannel {
+    AUDIO,
+    NFC
+}
@@ -0,0 +1,28 @@
+package com.freedomfinancestack.pos_sdk_core.enums;
+
+/**
+ * Lifecycle of a payment recorded in the payment journal.
+ */
+public enum JournaledPaymentState {
+    // Recorded, not yet sent to the gateway
+    QUEUED,
+    // Sent; no answer recorded yet
+    SENDING,
+    // Gateway accepted the payment and returned a payment ID
+    INITIATED,
+    // Gateway reported the payment as paid
+    COMPLETED,
+    // Gateway declined or reported the payment as failed
+    FAILED,
+    // Sent to a gateway without idempotency keys, or resent until the attempts
+    // ran out, and the outcome is unknown; needs manual reconciliation
+    // instead of an automatic resend
+    IN_DOUBT;
+
+    /**
+     * @return true if the journal no longer needs to keep the payment
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -2,5 +2,16 @@ package com.freedomfinancestack.pos_sdk_core.enums;
 
 public enum PaymentStatus {
     PAID,
-    CREATED
-} 
\ No newline at end of file
+    CREATED,
+    // Authenticated by the customer, awaiting capture
+    AUTHORIZED,
+    // Declined, abandoned or expired at the gateway
+    FAILED;
+
+    /**
+     * @return true if the payment will not change state any more
+     */
+    public boolean isTerminal() {
+        return this == PAID || this == FAILED;
+    }
+}
@@ -0,0 +1,94 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.nfc.tech.IsoDep;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIsoDepChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link IIsoDepChannel} backed by the platform {@link IsoDep} tag technology.
+ *
+ * Useful for plugins running on terminals that expose the standard Android
+ * NFC stack. The platform API has no pipelining, so batches run sequentially.
+ * Command bytes are copied once per exchange because IsoDep only accepts arrays.
+ *
+ * Threading: blocking I/O. Never call from the main thread.
+ */
+public class AndroidIsoDepChannel implements IIsoDepChannel {
+
+    private final IsoDep isoDep;
+
+    /**
+     * @param isoDep Tag technology obtained via {@code IsoDep.get(tag)}, must not be null
+     */
+    public AndroidIsoDepChannel(@NonNull IsoDep isoDep) {
+        if (isoDep == null) {
+            throw new IllegalArgumentException("IsoDep cannot be null");
+        }
+        this.isoDep = isoDep;
+    }
+
+    /**
+     * Opens the connection if needed.
+     * @throws IOException if the card has left the field
+     */
+    public void connect() throws IOException {
+        if (!isoDep.isConnected()) {
+            isoDep.connect();
+        }
+    }
+
+    /**
+     * Closes the connection. Safe to call multiple times.
+     */
+    public void close() {
+        try {
+            isoDep.close();
+        } catch (IOException ignored) {
+            // Card already gone; nothing left to release
+        }
+    }
+
+    /**
+     * Sets the transceive timeout of the underlying tag.
+     */
+    public void setTimeout(int timeoutMs) {
+        isoDep.setTimeout(timeoutMs);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return isoDep.isConnected();
+    }
+
+    @Override
+    public int getMaxTransceiveLength() {
+        return isoDep.getMaxTransceiveLength();
+    }
+
+    @Override
+    public boolean supportsPipelining() {
+        return false;
+    }
+
+    @Override
+    public int transceive(@NonNull ByteBuffer command, @NonNull ByteBuffer response) throws IOException {
+        if (command == null || response == null) {
+            throw new IllegalArgumentException("Command and response buffers cannot be null");
+        }
+        ByteBuffer source = command.duplicate();
+        byte[] commandBytes = new byte[source.remaining()];
+        source.get(commandBytes);
+
+        byte[] result = isoDep.transceive(commandBytes);
+
+        response.clear();
+        response.put(result);
+        response.flip();
+        return result.length;
+    }
+}
@@ -0,0 +1,172 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IAsyncPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPendingResult;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a synchronous {@link IPayment} as an {@link IAsyncPayment}.
+ *
+ * Each call runs on a small I/O pool. When the deadline passes the call
+ * fails with a TimeoutException and the blocking request is interrupted,
+ * which aborts OkHttp and most other HTTP clients.
+ *
+ * Example usage:
+ * <pre>
+ * IAsyncPayment payment = new AsyncPaymentAdapter(new InitiatePayment());
+ * PendingResult&lt;PaymentInitiationResponse&gt; call = payment.initiatePayment(card, amount);
+ * showSpinner();                 // UI work overlaps the network round trips
+ * call.whenComplete(callback);
+ * </pre>
+ *
+ * Threading: methods may be called from any thread.
+ * Lifecycle: call shutdown() when done if the adapter owns its pool.
+ */
+public class AsyncPaymentAdapter implements IAsyncPayment {
+
+    private static final String TAG = "AsyncPaymentAdapter";
+
+    /** Deadline applied to each call unless configured otherwise. */
+    public static final long DEFAULT_TIMEOUT_MS = 30_000;
+
+    /** Threads of the adapter's own pool. */
+    public static final int DEFAULT_THREADS = 2;
+
+    private final IPayment payment;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final long timeoutMs;
+    private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+
+    /**
+     * Creates an adapter with its own pool and the default timeout.
+     *
+     * @param payment Synchronous implementation, must not be null
+     */
+    public AsyncPaymentAdapter(@NonNull IPayment payment) {
+        this(payment, newIoExecutor(), true, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param payment Synchronous implementation, must not be null
+     * @param executor Pool to run blocking calls on; not shut down by this adapter
+     * @param timeoutMs Deadline per call, or 0 for none
+     */
+    public AsyncPaymentAdapter(@NonNull IPayment payment, @NonNull ExecutorService executor, long timeoutMs) {
+        this(payment, executor, false, timeoutMs);
+    }
+
+    private AsyncPaymentAdapter(IPayment payment, ExecutorService executor, boolean ownsExecutor, long timeoutMs) {
+        if (payment == null || executor == null) {
+            throw new IllegalArgumentException("Payment and executor cannot be null");
+        }
+        if (timeoutMs < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.payment = payment;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @NonNull
+    @Override
+    public PendingResult<PaymentInitiationResponse> initiatePayment(@NonNull Card card, float amount) {
+        if (card == null) {
+            throw new IllegalArgumentException("Card cannot be null");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return run("initiatePayment", () -> payment.initiatePayment(card, amount));
+    }
+
+    @NonNull
+    @Override
+    public PendingResult<PaymentStatus> confirmPayment(@NonNull String paymentId) {
+        if (paymentId == null || paymentId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Payment ID cannot be null or empty");
+        }
+        return run("confirmPayment", () -> payment.confirmPayment(paymentId));
+    }
+
+    /**
+     * Cancels pending timers and, if the adapter owns its pool, stops it and
+     * interrupts running calls.
+     */
+    public void shutdown() {
+        timers.cancel();
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> PendingResult<T> run(String operation, Callable<T> work) {
+        PendingResult<T> call = new PendingResult<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    call.complete(work.call());
+                } catch (Exception e) {
+                    if (call.fail(e)) {
+                        Log.w(TAG, operation + " failed", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            call.fail(e);
+            return call;
+        }
+
+        ICancellable deadline = null;
+        if (timeoutMs > 0) {
+            deadline = timers.schedule(() -> {
+                if (call.fail(new TimeoutException(operation + " timed out after " + timeoutMs + "ms"))) {
+                    Log.w(TAG, operation + " timed out after " + timeoutMs + "ms");
+                    task.cancel(true);
+                }
+            }, timeoutMs);
+        }
+        ICancellable timer = deadline;
+        call.setCancelAction(() -> {
+            task.cancel(true);
+            if (timer != null) {
+                timer.cancel();
+            }
+        });
+        if (timer != null) {
+            call.whenComplete(new IPendingResult.Callback<T>() {
+                @Override
+                public void onSuccess(@NonNull T result) {
+                    timer.cancel();
+                }
+
+                @Override
+                public void onFailure(@NonNull Throwable error) {
+                    timer.cancel();
+                }
+            }, Runnable::run);
+        }
+        return call;
+    }
+
+    private static ExecutorService newIoExecutor() {
+        return PosScheduler.newBoundedExecutor("payment-io", DEFAULT_THREADS, new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,107 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBatchPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Confirms many outstanding payments at once, e.g. at shift close or after
+ * the terminal was offline.
+ *
+ * If the gateway implements {@link IBatchPayment}, IDs are grouped into as
+ * few bulk requests as its batch size allows. Otherwise each ID is confirmed
+ * through {@link IPayment#confirmPayment(String)}. Either way the requests
+ * run with bounded parallelism under one overall deadline, so a slow gateway
+ * cannot stall reconciliation indefinitely.
+ *
+ * Example usage:
+ * <pre>
+ * BatchPaymentConfirmer confirmer = new BatchPaymentConfirmer(payment);
+ * Map&lt;String, PaymentStatus&gt; statuses = confirmer.confirmAll(pendingIds);
+ * for (String id : pendingIds) {
+ *     if (!statuses.containsKey(id)) retryLater(id);
+ * }
+ * </pre>
+ *
+ * Threading: confirmAll() blocks; never call it on the main thread. It may be
+ * called from several threads at once, sharing the parallelism limit.
+ */
+public class BatchPaymentConfirmer {
+
+    private static final String TAG = "BatchPaymentConfirmer";
+
+    /** Backend requests in flight at once. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Deadline for a whole confirmAll() call. */
+    public static final long DEFAULT_TIMEOUT_MS = 60_000;
+
+    private final IPayment payment;
+    private final ChunkedLookup<PaymentStatus> lookup;
+
+    /**
+     * @param payment Gateway to query, must not be null
+     */
+    public BatchPaymentConfirmer(@NonNull IPayment payment) {
+        this(payment, DEFAULT_PARALLELISM, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param payment Gateway to query, must not be null
+     * @param parallelism Backend requests in flight at once, must be positive
+     * @param timeoutMs Deadline for each confirmAll() call, must be positive
+     */
+    public BatchPaymentConfirmer(@NonNull IPayment payment, int parallelism, long timeoutMs) {
+        if (payment == null) {
+            throw new IllegalArgumentException("Payment cannot be null");
+        }
+        this.payment = payment;
+        int batchSize = payment instanceof IBatchPayment ? ((IBatchPayment) payment).getMaxBatchSize() : 1;
+        this.lookup = new ChunkedLookup<>(TAG, "payment-batch", batchSize, parallelism, timeoutMs);
+    }
+
+    /**
+     * Confirms the status of every payment ID. Duplicates are queried once.
+     *
+     * @param paymentIds IDs to confirm, must not be null or contain null/empty IDs
+     * @return status per payment ID; IDs whose request failed, returned no
+     *         status or missed the deadline are omitted
+     * @throws IllegalStateException if interrupted or shut down
+     */
+    @NonNull
+    public Map<String, PaymentStatus> confirmAll(@NonNull Collection<String> paymentIds) {
+        if (paymentIds == null) {
+            throw new IllegalArgumentException("Payment IDs cannot be null");
+        }
+        return lookup.resolve(paymentIds, "Payment IDs", chunk -> {
+            if (payment instanceof IBatchPayment) {
+                return ((IBatchPayment) payment).confirmPayments(chunk);
+            }
+            PaymentStatus status = payment.confirmPayment(chunk.get(0));
+            return status != null ? Collections.singletonMap(chunk.get(0), status) : null;
+        });
+    }
+
+    /** Requests sent to the gateway, bulk or single. */
+    public long getBackendCallCount() {
+        return lookup.getBackendCallCount();
+    }
+
+    /** Requests that failed or returned no status. */
+    public long getFailedCallCount() {
+        return lookup.getFailedCallCount();
+    }
+
+    /**
+     * Stops the worker pool and interrupts running requests.
+     */
+    public void shutdown() {
+        lookup.shutdown();
+    }
+}
@@ -0,0 +1,404 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.ApduBatch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Zero-copy cursor over BER-TLV encoded EMV data.
+ *
+ * The reader walks a {@link ByteBuffer} (heap or direct, e.g. an
+ * {@link ApduBatch} response) in
+ * place using absolute reads; it never copies values or allocates while
+ * iterating. Values are exposed as offsets into the buffer, as numeric
+ * decodes, or as slices that share the underlying bytes.
+ *
+ * Example usage:
+ * <pre>
+ * BerTlvReader reader = new BerTlvReader();
+ * reader.reset(response);
+ * if (reader.find(EmvTags.APPLICATION_EXPIRATION_DATE)) {
+ *     int yymmdd = reader.valueAsBcdInt();
+ * }
+ * </pre>
+ *
+ * Input is treated as untrusted: lengths are bounds-checked against the
+ * enclosing element, nesting depth is capped and indefinite lengths are
+ * rejected. Malformed data raises IllegalArgumentException.
+ *
+ * Threading: not thread-safe. Reuse one reader per thread.
+ */
+public final class BerTlvReader {
+
+    /** Maximum nesting of constructed elements. EMV data rarely exceeds 3. */
+    public static final int MAX_DEPTH = 8;
+
+    private final int[] endStack = new int[MAX_DEPTH];
+
+    private ByteBuffer buffer;
+    private byte[] wrappedArray;
+    private int depth;
+    private int position;
+    private int end;
+
+    private boolean positioned;
+    private int tag;
+    private int tagOffset;
+    private int valueOffset;
+    private int valueLength;
+    private boolean constructed;
+
+    /**
+     * Creates a reader with no data; call a reset method before reading.
+     */
+    public BerTlvReader() {
+    }
+
+    /**
+     * Positions the reader on the remaining bytes of {@code data}. The buffer's
+     * own position and limit are not modified.
+     *
+     * @return this reader
+     */
+    @NonNull
+    public BerTlvReader reset(@NonNull ByteBuffer data) {
+        if (data == null) {
+            throw new IllegalArgumentException("TLV data cannot be null");
+        }
+        return reset(data, data.position(), data.limit());
+    }
+
+    /**
+     * Positions the reader on {@code data[offset, offset + length)}.
+     * Reusing the same array does not allocate.
+     *
+     * @return this reader
+     */
+    @NonNull
+    public BerTlvReader reset(@NonNull byte[] data, int offset, int length) {
+        if (data == null) {
+            throw new IllegalArgumentException("TLV data cannot be null");
+        }
+        if (offset < 0 || length < 0 || length > data.length - offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) +
+                    ") outside array of " + data.length);
+        }
+        if (data != wrappedArray) {
+            buffer = ByteBuffer.wrap(data);
+            wrappedArray = data;
+        }
+        return reset(buffer, offset, offset + length);
+    }
+
+    private BerTlvReader reset(ByteBuffer data, int from, int to) {
+        if (data != buffer) {
+            wrappedArray = null;
+        }
+        buffer = data;
+        position = from;
+        end = to;
+        depth = 0;
+        positioned = false;
+        return this;
+    }
+
+    /**
+     * Advances to the next element at the current nesting level, skipping
+     * 0x00/0xFF padding between elements.
+     *
+     * @return true if positioned on an element, false at the end of the level
+     * @throws IllegalArgumentException if the element is malformed
+     */
+    public boolean next() {
+        ByteBuffer buf = buffer;
+        int p = position;
+        while (p < end) {
+            int b = buf.get(p) & 0xFF;
+            if (b != 0x00 && b != 0xFF) {
+                break;
+            }
+            p++;
+        }
+        if (p >= end) {
+            position = p;
+            positioned = false;
+            return false;
+        }
+
+        int start = p;
+        int first = buf.get(p++) & 0xFF;
+        int t = first;
+        if ((first & 0x1F) == 0x1F) {
+            int b;
+            int extra = 0;
+            do {
+                if (p >= end) {
+                    throw malformed("truncated tag", start);
+                }
+                if (++extra > 3) {
+                    throw malformed("tag longer than 4 bytes", start);
+                }
+                b = buf.get(p++) & 0xFF;
+                t = (t << 8) | b;
+            } while ((b & 0x80) != 0);
+        }
+
+        if (p >= end) {
+            throw malformed("missing length", start);
+        }
+        int length = buf.get(p++) & 0xFF;
+        if (length == 0x80) {
+            throw malformed("indefinite length is not allowed", start);
+        }
+        if (length > 0x80) {
+            int count = length & 0x7F;
+            if (count > 3) {
+                throw malformed("length field longer than 3 bytes", start);
+            }
+            if (count > end - p) {
+                throw malformed("truncated length", start);
+            }
+            length = 0;
+            for (int i = 0; i < count; i++) {
+                length = (length << 8) | (buf.get(p++) & 0xFF);
+            }
+        }
+        if (length > end - p) {
+            throw malformed("value of " + length + " bytes overruns enclosing data", start);
+        }
+
+        positioned = true;
+        tag = t;
+        tagOffset = start;
+        constructed = (first & 0x20) != 0;
+        valueOffset = p;
+        valueLength = length;
+        position = p + length;
+        return true;
+    }
+
+    /**
+     * Descends into the current constructed element; the next call to
+     * {@link #next()} returns its first child.
+     *
+     * @throws IllegalStateException if the current element is not constructed
+     * @throws IllegalArgumentException if nesting exceeds {@link #MAX_DEPTH}
+     */
+    public void enter() {
+        if (!positioned || !constructed) {
+            throw new IllegalStateException("Current element is not a constructed TLV");
+        }
+        if (depth == MAX_DEPTH) {
+            throw malformed("nesting deeper than " + MAX_DEPTH, tagOffset);
+        }
+        endStack[depth++] = end;
+        end = valueOffset + valueLength;
+        position = valueOffset;
+        positioned = false;
+    }
+
+    /**
+     * Leaves the current constructed element; the next call to {@link #next()}
+     * returns its following sibling.
+     *
+     * @throws IllegalStateException if already at the top level
+     */
+    public void exit() {
+        if (depth == 0) {
+            throw new IllegalStateException("Already at top level");
+        }
+        position = end;
+        end = endStack[--depth];
+        positioned = false;
+    }
+
+    /**
+     * Depth-first search for {@code wantedTag} from the current position,
+     * descending into constructed elements. On success the reader is positioned
+     * on the match, possibly at a deeper level; on failure it is at the end of
+     * the level where the search started.
+     *
+     * @return true if found
+     */
+    public boolean find(int wantedTag) {
+        int startDepth = depth;
+        while (true) {
+            if (next()) {
+                if (tag == wantedTag) {
+                    return true;
+                }
+                if (constructed) {
+                    enter();
+                }
+            } else if (depth > startDepth) {
+                exit();
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /** Tag of the current element, up to 4 bytes, e.g. 0x9F26. Valid after next() returns true. */
+    public int tag() {
+        return tag;
+    }
+
+    /** True if the current element contains nested TLVs. */
+    public boolean isConstructed() {
+        return constructed;
+    }
+
+    /** Current nesting depth; 0 at top level. */
+    public int depth() {
+        return depth;
+    }
+
+    /** Absolute offset of the current element's first tag byte in {@link #buffer()}. */
+    public int tagOffset() {
+        return tagOffset;
+    }
+
+    /** Absolute offset of the current element's value in {@link #buffer()}. */
+    public int valueOffset() {
+        return valueOffset;
+    }
+
+    /** Length of the current element's value in bytes. */
+    public int valueLength() {
+        return valueLength;
+    }
+
+    /** The buffer being read. Offsets returned by this reader index into it. */
+    @NonNull
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Read-only view of the current value sharing the underlying bytes.
+     * Allocates only the view object, never copies.
+     */
+    @NonNull
+    public ByteBuffer valueSlice() {
+        checkCurrent();
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.limit(valueOffset + valueLength);
+        view.position(valueOffset);
+        return view.slice();
+    }
+
+    /** Byte at {@code index} within the current value. */
+    public int valueByte(int index) {
+        checkCurrent();
+        if (index < 0 || index >= valueLength) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside value of " + valueLength + " bytes");
+        }
+        return buffer.get(valueOffset + index) & 0xFF;
+    }
+
+    /**
+     * Current value as an unsigned big-endian integer.
+     * @throws IllegalArgumentException if the value is longer than 7 bytes
+     */
+    public long valueAsLong() {
+        checkCurrent();
+        if (valueLength > 7) {
+            throw new IllegalArgumentException("Value of tag " + EmvTags.toHex(tag) + " too long for long");
+        }
+        long result = 0;
+        for (int i = 0; i < valueLength; i++) {
+            result = (result << 8) | (buffer.get(valueOffset + i) & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Current value as an unsigned big-endian integer, e.g. ATC or CID.
+     * @throws IllegalArgumentException if the value does not fit in a non-negative int
+     * @see #valueAsLong()
+     */
+    public int valueAsInt() {
+        long value = valueAsLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value of tag " + EmvTags.toHex(tag) + " too long for int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Current value decoded as packed BCD (EMV format "n"), e.g. amounts and dates.
+     * @throws IllegalArgumentException if the value has non-decimal nibbles or more than 18 digits
+     */
+    public long valueAsBcdLong() {
+        checkCurrent();
+        if (valueLength > 9) {
+            throw new IllegalArgumentException("Value of tag " + EmvTags.toHex(tag) + " too long for long");
+        }
+        long result = 0;
+        for (int i = 0; i < valueLength; i++) {
+            int b = buffer.get(valueOffset + i) & 0xFF;
+            int high = b >>> 4;
+            int low = b & 0x0F;
+            if (high > 9 || low > 9) {
+                throw new IllegalArgumentException("Invalid BCD in tag " + EmvTags.toHex(tag));
+            }
+            result = result * 100 + high * 10 + low;
+        }
+        return result;
+    }
+
+    /**
+     * Current value decoded as packed BCD, e.g. 0x5F24 expiry as YYMMDD.
+     * @see #valueAsBcdLong()
+     */
+    public int valueAsBcdInt() {
+        long value = valueAsBcdLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value of tag " + EmvTags.toHex(tag) + " too long for int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Compares the current value with {@code expected} without copying.
+     */
+    public boolean valueEquals(@NonNull byte[] expected) {
+        checkCurrent();
+        if (expected.length != valueLength) {
+            return false;
+        }
+        for (int i = 0; i < valueLength; i++) {
+            if (buffer.get(valueOffset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the current value into {@code destination} when ownership is needed.
+     * @return number of bytes copied
+     */
+    public int copyValue(@NonNull byte[] destination, int offset) {
+        checkCurrent();
+        if (offset < 0 || destination.length - offset < valueLength) {
+            throw new IndexOutOfBoundsException("Destination too small for " + valueLength + " bytes");
+        }
+        for (int i = 0; i < valueLength; i++) {
+            destination[offset + i] = buffer.get(valueOffset + i);
+        }
+        return valueLength;
+    }
+
+    private void checkCurrent() {
+        if (!positioned) {
+            throw new IllegalStateException("Reader is not positioned on an element");
+        }
+    }
+
+    private static IllegalArgumentException malformed(String reason, int offset) {
+        return new IllegalArgumentException("Malformed TLV at offset " + offset + ": " + reason);
+    }
+}
@@ -0,0 +1,110 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBulkCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the saved cards of several contacts for one merchant, e.g. every
+ * member of a family or shared wallet.
+ *
+ * If the backend implements {@link IBulkCards}, contacts are grouped into as
+ * few bulk requests as its bulk size allows. Otherwise each contact is looked
+ * up through {@link ICards#listAllSavedCards(String, String)}. Either way the
+ * requests run with bounded parallelism under one overall deadline, and a
+ * failed lookup only drops its own contacts from the result.
+ *
+ * Example usage:
+ * <pre>
+ * BulkCardLookup lookup = new BulkCardLookup(cards);
+ * Map&lt;String, List&lt;ListSavedCards&gt;&gt; saved = lookup.lookupAll(merchantId, walletContacts);
+ * for (String contact : walletContacts) {
+ *     if (!saved.containsKey(contact)) showRetry(contact);
+ * }
+ * </pre>
+ *
+ * Threading: lookupAll() blocks; never call it on the main thread. It may be
+ * called from several threads at once, sharing the parallelism limit.
+ */
+public class BulkCardLookup {
+
+    private static final String TAG = "BulkCardLookup";
+
+    /** Backend requests in flight at once. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Deadline for a whole lookupAll() call. */
+    public static final long DEFAULT_TIMEOUT_MS = 15_000;
+
+    private final ICards cards;
+    private final ChunkedLookup<List<ListSavedCards>> lookup;
+
+    /**
+     * @param cards Backend to query, must not be null
+     */
+    public BulkCardLookup(@NonNull ICards cards) {
+        this(cards, DEFAULT_PARALLELISM, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param cards Backend to query, must not be null
+     * @param parallelism Backend requests in flight at once, must be positive
+     * @param timeoutMs Deadline for each lookupAll() call, must be positive
+     */
+    public BulkCardLookup(@NonNull ICards cards, int parallelism, long timeoutMs) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Cards cannot be null");
+        }
+        this.cards = cards;
+        int bulkSize = cards instanceof IBulkCards ? ((IBulkCards) cards).getMaxBulkSize() : 1;
+        this.lookup = new ChunkedLookup<>(TAG, "card-bulk", bulkSize, parallelism, timeoutMs);
+    }
+
+    /**
+     * Lists the saved cards of every contact. Duplicates are looked up once.
+     *
+     * @param merchantId Merchant the cards are saved for, must not be null
+     * @param contacts Contacts to look up, must not be null or contain null/empty contacts
+     * @return cards per contact; contacts whose lookup failed, returned nothing
+     *         or missed the deadline are omitted
+     * @throws IllegalStateException if interrupted or shut down
+     */
+    @NonNull
+    public Map<String, List<ListSavedCards>> lookupAll(@NonNull String merchantId,
+                                                       @NonNull Collection<String> contacts) {
+        if (merchantId == null || contacts == null) {
+            throw new IllegalArgumentException("Merchant ID and contacts cannot be null");
+        }
+        return lookup.resolve(contacts, "Contacts", chunk -> {
+            if (cards instanceof IBulkCards) {
+                return ((IBulkCards) cards).listSavedCards(merchantId, chunk);
+            }
+            List<ListSavedCards> saved = cards.listAllSavedCards(merchantId, chunk.get(0));
+            return saved != null ? Collections.singletonMap(chunk.get(0), saved) : null;
+        });
+    }
+
+    /** Requests sent to the backend, bulk or single. */
+    public long getBackendCallCount() {
+        return lookup.getBackendCallCount();
+    }
+
+    /** Requests that failed or returned nothing. */
+    public long getFailedCallCount() {
+        return lookup.getFailedCallCount();
+    }
+
+    /**
+     * Stops the worker pool and interrupts running requests.
+     */
+    public void shutdown() {
+        lookup.shutdown();
+    }
+}
@@ -0,0 +1,306 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.models.CardCacheConfig;
+import com.freedomfinancestack.pos_sdk_core.models.CardCacheStats;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ICards} decorator that caches saved cards per merchant and contact.
+ *
+ * Repeat customers are identified many times a day, and their cards rarely
+ * change. Entries are fresh for {@link CardCacheConfig#getTtlMs()}. For
+ * {@link CardCacheConfig#getStaleWhileRevalidateMs()} after that they are
+ * still returned at once while one background request refreshes them, so
+ * the customer never waits on the backend for a card list the cache already
+ * has. Older entries are dropped and fetched again. At most
+ * {@link CardCacheConfig#getMaxEntries()} customers are kept; the least
+ * recently used is evicted first.
+ *
+ * Concurrent misses for the same customer share one backend request. A
+ * failed refresh keeps the stale entry; a failed miss is rethrown to every
+ * waiting caller. Null results are passed through but never cached.
+ *
+ * Call {@link #invalidate(String, String)} after a card is added or removed
+ * so the next lookup goes to the backend. Requests already in flight when an
+ * invalidation happens are not cached, and later lookups do not join them.
+ *
+ * Example usage:
+ * <pre>
+ * CachingCards cards = new CachingCards(new MyCardsBackend(),
+ *         CardCacheConfig.builder().ttlMs(10 * 60_000).build());
+ * List&lt;ListSavedCards&gt; saved = cards.listAllSavedCards(merchantId, contact);
+ * ...
+ * cards.invalidate(merchantId, contact);   // customer saved a new card
+ * </pre>
+ *
+ * The returned lists are shared between callers and must not be modified.
+ *
+ * Threading: listAllSavedCards() blocks on a miss; never call it on the main
+ * thread. All methods are thread-safe.
+ */
+public class CachingCards implements ICards {
+
+    private static final String TAG = "CachingCards";
+
+    private final ICards delegate;
+    private final CardCacheConfig config;
+    private final ExecutorService refresher;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, PendingResult<Entry>> inFlight = new HashMap<>();
+    private long generation;
+    private boolean shutdown;
+
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long coalescedMisses;
+    private long refreshes;
+    private long refreshFailures;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param delegate Backend to cache, must not be null
+     */
+    public CachingCards(@NonNull ICards delegate) {
+        this(delegate, CardCacheConfig.builder().build());
+    }
+
+    /**
+     * @param delegate Backend to cache, must not be null
+     * @param config Cache sizing and timing, must not be null
+     */
+    public CachingCards(@NonNull ICards delegate, @NonNull CardCacheConfig config) {
+        if (delegate == null || config == null) {
+            throw new IllegalArgumentException("Delegate and config cannot be null");
+        }
+        if (config.getMaxEntries() <= 0 || config.getTtlMs() <= 0 || config.getRefreshThreads() <= 0) {
+            throw new IllegalArgumentException("Max entries, TTL and refresh threads must be positive");
+        }
+        if (config.getStaleWhileRevalidateMs() < 0) {
+            throw new IllegalArgumentException("Stale-while-revalidate window cannot be negative");
+        }
+        this.delegate = delegate;
+        this.config = config;
+
+        this.refresher = PosScheduler.newBoundedExecutor("card-cache-refresh", config.getRefreshThreads(), new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Returns cached cards when fresh or within the stale window, otherwise
+     * asks the backend.
+     *
+     * @throws IllegalArgumentException if merchantId or contact is null
+     * @throws RuntimeException the backend's failure on a miss
+     */
+    @Override
+    public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+        if (merchantId == null || contact == null) {
+            throw new IllegalArgumentException("Merchant ID and contact cannot be null");
+        }
+        String key = key(merchantId, contact);
+        long now = nowMs();
+        PendingResult<Entry> call;
+        boolean leader = false;
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                long age = now - entry.loadedAtMs;
+                if (age < config.getTtlMs()) {
+                    hits++;
+                    return entry.cards;
+                }
+                if (!shutdown && age < config.getTtlMs() + config.getStaleWhileRevalidateMs()) {
+                    staleHits++;
+                    if (!inFlight.containsKey(key)) {
+                        PendingResult<Entry> refresh = new PendingResult<>();
+                        inFlight.put(key, refresh);
+                        refreshes++;
+                        startRefresh(key, merchantId, contact, refresh, loadGeneration);
+                    }
+                    return entry.cards;
+                }
+                entries.remove(key);
+            }
+            misses++;
+            call = inFlight.get(key);
+            if (call == null) {
+                call = new PendingResult<>();
+                inFlight.put(key, call);
+                leader = true;
+            } else {
+                coalescedMisses++;
+            }
+        }
+
+        if (leader) {
+            // The first caller fetches on its own thread; others wait for it
+            load(key, merchantId, contact, call, loadGeneration);
+        }
+        try {
+            return call.get().cards;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching saved cards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Could not fetch saved cards", e.getCause());
+        }
+    }
+
+    /**
+     * Drops the cached cards of one customer, e.g. after a card was added or
+     * removed. The next lookup goes to the backend.
+     */
+    public synchronized void invalidate(@NonNull String merchantId, @NonNull String contact) {
+        if (merchantId == null || contact == null) {
+            throw new IllegalArgumentException("Merchant ID and contact cannot be null");
+        }
+        String key = key(merchantId, contact);
+        entries.remove(key);
+        // Lookups after this point must not join a request that started before it
+        inFlight.remove(key);
+        generation++;
+        invalidations++;
+    }
+
+    /**
+     * Drops every cached entry, e.g. after switching merchant accounts.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        inFlight.clear();
+        generation++;
+        invalidations++;
+    }
+
+    @NonNull
+    public synchronized CardCacheStats getStats() {
+        return CardCacheStats.builder()
+                .hitCount(hits)
+                .staleHitCount(staleHits)
+                .missCount(misses)
+                .coalescedMissCount(coalescedMisses)
+                .refreshCount(refreshes)
+                .refreshFailureCount(refreshFailures)
+                .evictionCount(evictions)
+                .invalidationCount(invalidations)
+                .size(entries.size())
+                .build();
+    }
+
+    /**
+     * Stops background refreshes and clears the cache. Afterwards entries are
+     * only served while fresh and expired ones are fetched on the calling thread.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        refresher.shutdownNow();
+        invalidateAll();
+    }
+
+    /** Called with the lock held. */
+    private void startRefresh(String key, String merchantId, String contact, PendingResult<Entry> call,
+                              long loadGeneration) {
+        try {
+            refresher.execute(() -> load(key, merchantId, contact, call, loadGeneration));
+        } catch (RejectedExecutionException e) {
+            removeInFlight(key, call);
+            call.fail(e);
+        }
+    }
+
+    /**
+     * Removes the call only if it is still the one in flight for the key.
+     * Called with the lock held; Map.remove(key, value) would need API 24.
+     */
+    private void removeInFlight(String key, PendingResult<Entry> call) {
+        if (inFlight.get(key) == call) {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Fetches from the backend and caches the result unless the cache was
+     * invalidated since {@code loadGeneration}. Completes {@code call} either way.
+     */
+    private void load(String key, String merchantId, String contact, PendingResult<Entry> call,
+                      long loadGeneration) {
+        List<ListSavedCards> cards = null;
+        RuntimeException error = null;
+        try {
+            cards = delegate.listAllSavedCards(merchantId, contact);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+
+        Entry loaded = new Entry(cards != null ? Collections.unmodifiableList(new ArrayList<>(cards)) : null,
+                nowMs());
+        synchronized (this) {
+            removeInFlight(key, call);
+            if (error != null) {
+                if (entries.containsKey(key)) {
+                    refreshFailures++;
+                }
+            } else if (cards != null && generation == loadGeneration) {
+                entries.put(key, loaded);
+                while (entries.size() > config.getMaxEntries()) {
+                    String eldest = entries.keySet().iterator().next();
+                    entries.remove(eldest);
+                    evictions++;
+                }
+            }
+        }
+
+        if (error != null) {
+            // Never log the contact; it is the customer's phone number
+            Log.w(TAG, "Saved-card request failed: " + error.getMessage());
+            call.fail(error);
+        } else {
+            call.complete(loaded);
+        }
+    }
+
+    private static String key(String merchantId, String contact) {
+        return merchantId + '\u0000' + contact;
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class Entry {
+        final List<ListSavedCards> cards;
+        final long loadedAtMs;
+
+        Entry(List<ListSavedCards> cards, long loadedAtMs) {
+            this.cards = cards;
+            this.loadedAtMs = loadedAtMs;
+        }
+    }
+}
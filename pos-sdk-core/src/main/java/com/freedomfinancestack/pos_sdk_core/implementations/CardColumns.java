@@ -0,0 +1,552 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented store for large numbers of saved cards, e.g. merchant
+ * back-office views holding every customer's cards.
+ *
+ * A {@link Card} costs an object, two Strings and their char arrays. Here a
+ * card is one row across parallel primitive arrays: the network, card type
+ * and issuer bank as byte ordinals, the last four digits as a short, and the
+ * card ID and contact as UTF-8 bytes in shared arenas. Last-four values that
+ * are not four ASCII digits, e.g. a masked "XX42", are kept as Strings on
+ * the side so they survive a round trip. That is about a
+ * quarter of the memory per card, and filtering by network, type or bank reads
+ * only the byte columns and allocates nothing.
+ *
+ * Rows are addressed by index, in insertion order. Read them through the
+ * indexed getters, through a reusable {@link CardView} flyweight, or copy
+ * one out with {@link #toCard(int)}.
+ *
+ * Example usage:
+ * <pre>
+ * CardColumns columns = CardColumns.of(savedCards);
+ * CardColumns.CardView card = columns.view();
+ * for (int i = columns.nextMatch(0, Network.RUPAY, CardType.CREDIT, null); i >= 0;
+ *         i = columns.nextMatch(i + 1, Network.RUPAY, CardType.CREDIT, null)) {
+ *     card.moveTo(i);
+ *     render(card.getLast4Digits(), card.getIssuerBank());
+ * }
+ * </pre>
+ *
+ * Threading: not thread-safe. Once filled, it may be read from several
+ * threads if it was published safely and is no longer modified; each thread
+ * needs its own CardView.
+ */
+public final class CardColumns {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int AVERAGE_ID_BYTES = 24;
+    private static final short NO_LAST4 = -1;
+    // Row's last four digits are not four ASCII digits; see rawLast4
+    private static final short RAW_LAST4 = -2;
+
+    // Cached, values() copies the array on every call
+    private static final Network[] NETWORKS = Network.values();
+    private static final CardType[] CARD_TYPES = CardType.values();
+    private static final IssuerBank[] ISSUER_BANKS = IssuerBank.values();
+
+    private int size;
+
+    // Enum ordinal + 1 per card; 0 means null
+    private byte[] networks;
+    private byte[] cardTypes;
+    private byte[] issuerBanks;
+    private short[] last4;
+    // Last four digits of RAW_LAST4 rows by row index; rare, so kept sparse
+    private final Map<Integer, String> rawLast4 = new HashMap<>();
+
+    // Card i's ID is idArena[idEnds[i - 1], idEnds[i])
+    private byte[] idArena;
+    private int idArenaSize;
+    private int[] idEnds;
+
+    // Contact of card i is contacts entry contactRefs[i], or none if -1
+    private int[] contactRefs;
+    private byte[] contactArena = new byte[0];
+    private int contactArenaSize;
+    private int[] contactEnds = new int[0];
+    private int contactCount;
+
+    public CardColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedCards Number of cards to size the columns for, not negative
+     */
+    public CardColumns(int expectedCards) {
+        if (expectedCards < 0) {
+            throw new IllegalArgumentException("Expected cards cannot be negative, got " + expectedCards);
+        }
+        networks = new byte[expectedCards];
+        cardTypes = new byte[expectedCards];
+        issuerBanks = new byte[expectedCards];
+        last4 = new short[expectedCards];
+        idEnds = new int[expectedCards];
+        contactRefs = new int[expectedCards];
+        idArena = new byte[expectedCards * AVERAGE_ID_BYTES];
+    }
+
+    /**
+     * Builds a trimmed store from a saved-cards response, e.g. the result of
+     * {@link com.freedomfinancestack.pos_sdk_core.interfaces.ICards#listAllSavedCards(String, String)}.
+     */
+    @NonNull
+    public static CardColumns of(@NonNull List<ListSavedCards> savedCards) {
+        if (savedCards == null) {
+            throw new IllegalArgumentException("Saved cards cannot be null");
+        }
+        int total = 0;
+        for (ListSavedCards entry : savedCards) {
+            if (entry != null && entry.getCards() != null) {
+                total += entry.getCards().length;
+            }
+        }
+        CardColumns columns = new CardColumns(total);
+        for (ListSavedCards entry : savedCards) {
+            columns.addAll(entry);
+        }
+        columns.trimToSize();
+        return columns;
+    }
+
+    /**
+     * Appends every card of one contact. Null entries and null cards are skipped.
+     */
+    public void addAll(@Nullable ListSavedCards saved) {
+        if (saved == null || saved.getCards() == null) {
+            return;
+        }
+        int contactRef = addContact(saved.getContact());
+        for (Card card : saved.getCards()) {
+            if (card != null) {
+                append(card, contactRef);
+            }
+        }
+    }
+
+    /**
+     * Appends one card.
+     *
+     * @param contact Contact the card is saved for, may be null
+     * @param card Card to store, must not be null and must have an ID
+     * @return row index of the card
+     * @throws IllegalArgumentException if the card has no ID
+     */
+    public int add(@Nullable String contact, @NonNull Card card) {
+        if (card == null) {
+            throw new IllegalArgumentException("Card cannot be null");
+        }
+        return append(card, addContact(contact));
+    }
+
+    /** Number of cards stored. */
+    public int size() {
+        return size;
+    }
+
+    /** Number of contacts stored; cards of one contact share one copy. */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    @NonNull
+    public String getCardId(int index) {
+        checkIndex(index);
+        int start = index == 0 ? 0 : idEnds[index - 1];
+        return new String(idArena, start, idEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a card ID without decoding the stored bytes.
+     */
+    public boolean cardIdEquals(int index, @Nullable String cardId) {
+        checkIndex(index);
+        if (cardId == null) {
+            return false;
+        }
+        int start = index == 0 ? 0 : idEnds[index - 1];
+        return bytesEqual(idArena, start, idEnds[index], cardId);
+    }
+
+    @Nullable
+    public String getContact(int index) {
+        checkIndex(index);
+        int ref = contactRefs[index];
+        if (ref < 0) {
+            return null;
+        }
+        int start = ref == 0 ? 0 : contactEnds[ref - 1];
+        return new String(contactArena, start, contactEnds[ref] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return last four digits as a number, e.g. 42 for "0042", or -1 if
+     *         absent or not four digits
+     */
+    public int getLast4(int index) {
+        checkIndex(index);
+        short value = last4[index];
+        return value == RAW_LAST4 ? NO_LAST4 : value;
+    }
+
+    /**
+     * @return last four digits as given when the card was added, or null if absent
+     */
+    @Nullable
+    public String getLast4Digits(int index) {
+        checkIndex(index);
+        short value = last4[index];
+        return value == RAW_LAST4 ? rawLast4.get(index) : formatLast4(value);
+    }
+
+    @Nullable
+    public Network getNetwork(int index) {
+        checkIndex(index);
+        int code = networks[index];
+        return code == 0 ? null : NETWORKS[code - 1];
+    }
+
+    @Nullable
+    public CardType getCardType(int index) {
+        checkIndex(index);
+        int code = cardTypes[index];
+        return code == 0 ? null : CARD_TYPES[code - 1];
+    }
+
+    @Nullable
+    public IssuerBank getIssuerBank(int index) {
+        checkIndex(index);
+        int code = issuerBanks[index];
+        return code == 0 ? null : ISSUER_BANKS[code - 1];
+    }
+
+    /**
+     * Copies one row out as a regular {@link Card}, e.g. to pass to
+     * {@link com.freedomfinancestack.pos_sdk_core.interfaces.IPayment#initiatePayment}.
+     */
+    @NonNull
+    public Card toCard(int index) {
+        return Card.builder()
+                .cardId(getCardId(index))
+                .last4Digits(getLast4Digits(index))
+                .network(getNetwork(index))
+                .cardType(getCardType(index))
+                .issuerBank(getIssuerBank(index))
+                .build();
+    }
+
+    /**
+     * Finds the next card matching every given attribute, without allocating.
+     * A null attribute matches any value.
+     *
+     * @param from Row to start at, inclusive
+     * @return row index of the next match, or -1 if there is none
+     */
+    public int nextMatch(int from, @Nullable Network network, @Nullable CardType cardType,
+                         @Nullable IssuerBank issuerBank) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Start row cannot be negative, got " + from);
+        }
+        int wantNetwork = network == null ? 0 : network.ordinal() + 1;
+        int wantType = cardType == null ? 0 : cardType.ordinal() + 1;
+        int wantBank = issuerBank == null ? 0 : issuerBank.ordinal() + 1;
+        for (int i = from; i < size; i++) {
+            if ((wantNetwork == 0 || networks[i] == wantNetwork)
+                    && (wantType == 0 || cardTypes[i] == wantType)
+                    && (wantBank == 0 || issuerBanks[i] == wantBank)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts cards matching every given attribute. A null attribute matches any value.
+     */
+    public int count(@Nullable Network network, @Nullable CardType cardType, @Nullable IssuerBank issuerBank) {
+        int count = 0;
+        for (int i = nextMatch(0, network, cardType, issuerBank); i >= 0;
+                i = nextMatch(i + 1, network, cardType, issuerBank)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return row index of the card with this ID, or -1 if it is not stored
+     */
+    public int indexOfCardId(@Nullable String cardId) {
+        if (cardId == null) {
+            return -1;
+        }
+        int start = 0;
+        for (int i = 0; i < size; i++) {
+            if (bytesEqual(idArena, start, idEnds[i], cardId)) {
+                return i;
+            }
+            start = idEnds[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a reusable view positioned before the first row. Call
+     * {@link CardView#moveTo(int)} before reading it.
+     */
+    @NonNull
+    public CardView view() {
+        return new CardView();
+    }
+
+    /**
+     * Shrinks every column to its contents, e.g. once loading is done.
+     */
+    public void trimToSize() {
+        networks = Arrays.copyOf(networks, size);
+        cardTypes = Arrays.copyOf(cardTypes, size);
+        issuerBanks = Arrays.copyOf(issuerBanks, size);
+        last4 = Arrays.copyOf(last4, size);
+        idEnds = Arrays.copyOf(idEnds, size);
+        contactRefs = Arrays.copyOf(contactRefs, size);
+        idArena = Arrays.copyOf(idArena, idArenaSize);
+        contactEnds = Arrays.copyOf(contactEnds, contactCount);
+        contactArena = Arrays.copyOf(contactArena, contactArenaSize);
+    }
+
+    /**
+     * Bytes held by the column arrays, including unused capacity. Excludes
+     * the fixed overhead of this object.
+     */
+    public long getColumnBytes() {
+        return networks.length + cardTypes.length + issuerBanks.length
+                + 2L * last4.length
+                + 4L * (idEnds.length + contactRefs.length + contactEnds.length)
+                + idArena.length + contactArena.length;
+    }
+
+    private int append(Card card, int contactRef) {
+        if (card.getCardId() == null) {
+            throw new IllegalArgumentException("Card ID cannot be null");
+        }
+        String last4Digits = card.getLast4Digits();
+        short digits = parseLast4(last4Digits);
+        byte[] id = card.getCardId().getBytes(StandardCharsets.UTF_8);
+
+        if (size == networks.length) {
+            grow();
+        }
+        if (idArenaSize + id.length > idArena.length) {
+            idArena = Arrays.copyOf(idArena, Math.max(idArena.length * 2, idArenaSize + id.length));
+        }
+        System.arraycopy(id, 0, idArena, idArenaSize, id.length);
+        idArenaSize += id.length;
+
+        int index = size++;
+        idEnds[index] = idArenaSize;
+        contactRefs[index] = contactRef;
+        last4[index] = digits;
+        if (digits == RAW_LAST4) {
+            rawLast4.put(index, last4Digits);
+        }
+        networks[index] = (byte) (card.getNetwork() == null ? 0 : card.getNetwork().ordinal() + 1);
+        cardTypes[index] = (byte) (card.getCardType() == null ? 0 : card.getCardType().ordinal() + 1);
+        issuerBanks[index] = (byte) (card.getIssuerBank() == null ? 0 : card.getIssuerBank().ordinal() + 1);
+        return index;
+    }
+
+    /**
+     * Stores a contact, reusing the previous one if it is the same, since
+     * cards arrive grouped by contact.
+     */
+    private int addContact(String contact) {
+        if (contact == null) {
+            return -1;
+        }
+        int last = contactCount - 1;
+        if (last >= 0) {
+            int start = last == 0 ? 0 : contactEnds[last - 1];
+            if (bytesEqual(contactArena, start, contactEnds[last], contact)) {
+                return last;
+            }
+        }
+        byte[] bytes = contact.getBytes(StandardCharsets.UTF_8);
+        if (contactCount == contactEnds.length) {
+            contactEnds = Arrays.copyOf(contactEnds, Math.max(DEFAULT_CAPACITY, contactEnds.length * 2));
+        }
+        if (contactArenaSize + bytes.length > contactArena.length) {
+            contactArena = Arrays.copyOf(contactArena,
+                    Math.max(contactArena.length * 2, contactArenaSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, contactArena, contactArenaSize, bytes.length);
+        contactArenaSize += bytes.length;
+        contactEnds[contactCount] = contactArenaSize;
+        return contactCount++;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, networks.length * 2);
+        networks = Arrays.copyOf(networks, capacity);
+        cardTypes = Arrays.copyOf(cardTypes, capacity);
+        issuerBanks = Arrays.copyOf(issuerBanks, capacity);
+        last4 = Arrays.copyOf(last4, capacity);
+        idEnds = Arrays.copyOf(idEnds, capacity);
+        contactRefs = Arrays.copyOf(contactRefs, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " out of range, size " + size);
+        }
+    }
+
+    /**
+     * @return the digits as a number, NO_LAST4 for null, or RAW_LAST4 if they
+     *         are not four ASCII digits
+     */
+    private static short parseLast4(String digits) {
+        if (digits == null) {
+            return NO_LAST4;
+        }
+        if (digits.length() != 4) {
+            return RAW_LAST4;
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return RAW_LAST4;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (short) value;
+    }
+
+    private static String formatLast4(short value) {
+        if (value == NO_LAST4) {
+            return null;
+        }
+        char[] digits = new char[4];
+        int rest = value;
+        for (int i = 3; i >= 0; i--) {
+            digits[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Compares UTF-8 bytes with a String, char by char while it is ASCII.
+     */
+    private static boolean bytesEqual(byte[] arena, int start, int end, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Rare for IDs and phone numbers; encode and compare the rest
+                byte[] rest = value.substring(i).getBytes(StandardCharsets.UTF_8);
+                int at = start + i;
+                if (end - at != rest.length) {
+                    return false;
+                }
+                for (int j = 0; j < rest.length; j++) {
+                    if (arena[at + j] != rest[j]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (start + i >= end || arena[start + i] != c) {
+                return false;
+            }
+        }
+        return end - start == length;
+    }
+
+    /**
+     * Flyweight view of one row with the same getters as {@link Card}. Move
+     * it between rows instead of creating a Card per row; the String getters
+     * still allocate, the others do not.
+     */
+    public final class CardView {
+
+        private int index = -1;
+
+        private CardView() {
+        }
+
+        /**
+         * @return this view, positioned at {@code index}
+         * @throws IndexOutOfBoundsException if the row does not exist
+         */
+        @NonNull
+        public CardView moveTo(int index) {
+            checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        /** Current row, or -1 before the first moveTo(). */
+        public int getIndex() {
+            return index;
+        }
+
+        @NonNull
+        public String getCardId() {
+            return CardColumns.this.getCardId(index);
+        }
+
+        public boolean cardIdEquals(@Nullable String cardId) {
+            return CardColumns.this.cardIdEquals(index, cardId);
+        }
+
+        @Nullable
+        public String getContact() {
+            return CardColumns.this.getContact(index);
+        }
+
+        public int getLast4() {
+            return CardColumns.this.getLast4(index);
+        }
+
+        @Nullable
+        public String getLast4Digits() {
+            return CardColumns.this.getLast4Digits(index);
+        }
+
+        @Nullable
+        public Network getNetwork() {
+            return CardColumns.this.getNetwork(index);
+        }
+
+        @Nullable
+        public CardType getCardType() {
+            return CardColumns.this.getCardType(index);
+        }
+
+        @Nullable
+        public IssuerBank getIssuerBank() {
+            return CardColumns.this.getIssuerBank(index);
+        }
+
+        @NonNull
+        public Card toCard() {
+            return CardColumns.this.toCard(index);
+        }
+    }
+}
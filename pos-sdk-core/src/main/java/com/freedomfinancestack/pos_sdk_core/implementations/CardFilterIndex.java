@@ -0,0 +1,216 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "which saved cards are RuPay credit" or "HDFC debit" style
+ * questions, e.g. when matching a customer's cards to offers, without
+ * scanning every Card[] of every {@link ListSavedCards}.
+ *
+ * Each card gets a slot. For every {@link Network}, {@link CardType} and
+ * {@link IssuerBank} value the index keeps a bitset of the slots holding
+ * cards with that value, so a query is one bitset lookup per attribute and
+ * an AND over the results, independent of how the cards are grouped by
+ * contact. Cards are keyed by ID; adding and removing one only flips its
+ * bits, and freed slots are reused.
+ *
+ * Card is mutable, so the index stores a copy of each added card and hands
+ * out copies. Changing a card after adding it, or changing a returned card,
+ * does not move it between bitsets; call {@link #add(Card)} again instead.
+ *
+ * Example usage:
+ * <pre>
+ * CardFilterIndex index = CardFilterIndex.of(cards.listAllSavedCards(merchantId, contact));
+ * List&lt;Card&gt; eligible = index.find(Network.RUPAY, CardType.CREDIT, null);
+ * ...
+ * index.remove(deletedCardId);   // customer removed a card
+ * </pre>
+ *
+ * Threading: all methods are thread-safe.
+ */
+public class CardFilterIndex {
+
+    private final List<Card> slots = new ArrayList<>();
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet free = new BitSet();
+
+    private final EnumMap<Network, BitSet> byNetwork = new EnumMap<>(Network.class);
+    private final EnumMap<CardType, BitSet> byCardType = new EnumMap<>(CardType.class);
+    private final EnumMap<IssuerBank, BitSet> byIssuerBank = new EnumMap<>(IssuerBank.class);
+
+    public CardFilterIndex() {
+        for (Network network : Network.values()) {
+            byNetwork.put(network, new BitSet());
+        }
+        for (CardType cardType : CardType.values()) {
+            byCardType.put(cardType, new BitSet());
+        }
+        for (IssuerBank issuerBank : IssuerBank.values()) {
+            byIssuerBank.put(issuerBank, new BitSet());
+        }
+    }
+
+    /**
+     * Indexes every card of a saved-cards response. Null entries and null
+     * cards are skipped.
+     */
+    @NonNull
+    public static CardFilterIndex of(@NonNull List<ListSavedCards> savedCards) {
+        if (savedCards == null) {
+            throw new IllegalArgumentException("Saved cards cannot be null");
+        }
+        CardFilterIndex index = new CardFilterIndex();
+        for (ListSavedCards entry : savedCards) {
+            if (entry != null && entry.getCards() != null) {
+                for (Card card : entry.getCards()) {
+                    if (card != null) {
+                        index.add(card);
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a copy of a card, replacing any indexed card with the same ID.
+     *
+     * @param card Card to index, must not be null and must have an ID
+     */
+    public synchronized void add(@NonNull Card card) {
+        if (card == null || card.getCardId() == null) {
+            throw new IllegalArgumentException("Card and card ID cannot be null");
+        }
+        remove(card.getCardId());
+        card = copy(card);
+
+        int slot = free.nextSetBit(0);
+        if (slot >= 0) {
+            free.clear(slot);
+            slots.set(slot, card);
+        } else {
+            slot = slots.size();
+            slots.add(card);
+        }
+        slotsById.put(card.getCardId(), slot);
+        live.set(slot);
+        if (card.getNetwork() != null) {
+            byNetwork.get(card.getNetwork()).set(slot);
+        }
+        if (card.getCardType() != null) {
+            byCardType.get(card.getCardType()).set(slot);
+        }
+        if (card.getIssuerBank() != null) {
+            byIssuerBank.get(card.getIssuerBank()).set(slot);
+        }
+    }
+
+    /**
+     * Removes the card with this ID.
+     *
+     * @return true if such a card was indexed
+     */
+    public synchronized boolean remove(@Nullable String cardId) {
+        Integer slot = cardId == null ? null : slotsById.remove(cardId);
+        if (slot == null) {
+            return false;
+        }
+        Card card = slots.get(slot);
+        slots.set(slot, null);
+        live.clear(slot);
+        free.set(slot);
+        if (card.getNetwork() != null) {
+            byNetwork.get(card.getNetwork()).clear(slot);
+        }
+        if (card.getCardType() != null) {
+            byCardType.get(card.getCardType()).clear(slot);
+        }
+        if (card.getIssuerBank() != null) {
+            byIssuerBank.get(card.getIssuerBank()).clear(slot);
+        }
+        return true;
+    }
+
+    /**
+     * @return copy of the indexed card with this ID, or null
+     */
+    @Nullable
+    public synchronized Card get(@Nullable String cardId) {
+        Integer slot = cardId == null ? null : slotsById.get(cardId);
+        return slot == null ? null : copy(slots.get(slot));
+    }
+
+    /** Number of indexed cards. */
+    public synchronized int size() {
+        return slotsById.size();
+    }
+
+    /**
+     * Finds the cards matching every given attribute. A null attribute
+     * matches any value, so {@code find(null, null, null)} returns every card.
+     *
+     * @return copies of the matching cards in slot order
+     */
+    @NonNull
+    public synchronized List<Card> find(@Nullable Network network, @Nullable CardType cardType,
+                                        @Nullable IssuerBank issuerBank) {
+        BitSet matches = match(network, cardType, issuerBank);
+        List<Card> result = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            result.add(copy(slots.get(slot)));
+        }
+        return result;
+    }
+
+    /**
+     * Counts the cards matching every given attribute. A null attribute
+     * matches any value.
+     */
+    public synchronized int count(@Nullable Network network, @Nullable CardType cardType,
+                                  @Nullable IssuerBank issuerBank) {
+        return match(network, cardType, issuerBank).cardinality();
+    }
+
+    /**
+     * @return true if at least one card matches every given attribute
+     */
+    public synchronized boolean contains(@Nullable Network network, @Nullable CardType cardType,
+                                         @Nullable IssuerBank issuerBank) {
+        return !match(network, cardType, issuerBank).isEmpty();
+    }
+
+    private static Card copy(Card card) {
+        return new Card(card.getCardId(), card.getLast4Digits(), card.getNetwork(),
+                card.getCardType(), card.getIssuerBank());
+    }
+
+    /** Called with the lock held. */
+    private BitSet match(Network network, CardType cardType, IssuerBank issuerBank) {
+        BitSet matches = (BitSet) live.clone();
+        if (network != null) {
+            matches.and(byNetwork.get(network));
+        }
+        if (cardType != null) {
+            matches.and(byCardType.get(cardType));
+        }
+        if (issuerBank != null) {
+            matches.and(byIssuerBank.get(issuerBank));
+        }
+        return matches;
+    }
+}
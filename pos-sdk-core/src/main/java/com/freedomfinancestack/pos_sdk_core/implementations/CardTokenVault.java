@@ -0,0 +1,671 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.models.CardToken;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * On-device store of {@link CardToken}s, keyed by merchant and saved card ID,
+ * so a payment with a card that was tokenised recently can skip the token
+ * round trip to the backend.
+ *
+ * Lookups are served from an in-memory hash map. A token expires
+ * {@code ttlMs} after its {@link CardToken#getCreatedAt()} (epoch
+ * milliseconds); expired tokens are never returned and are dropped at the
+ * next compaction.
+ *
+ * Layout: a single file starting with the 4 byte magic "DPTV" and a 1 byte
+ * version, followed by records
+ * <pre>
+ * [payload length:4][CRC32 of payload:4][IV length:1][IV][AES-GCM ciphertext]
+ * </pre>
+ * Each record is a put or a removal, so updates are appends. A torn or
+ * corrupt record ends replay, and a record that does not decrypt (e.g. after
+ * the key was rotated) is skipped. On open, and once removed, replaced and
+ * expired records outnumber the live ones, the live records are written to a
+ * new file that atomically replaces the old one.
+ *
+ * Appends are not fsynced: a token lost to a crash only costs one extra
+ * backend lookup. Compactions are made durable before the rename.
+ *
+ * Writers serialise on a file lock and take the map lock only to update the
+ * in-memory entries, so encryption, writes and the compaction fsync never
+ * hold up get().
+ *
+ * Example usage:
+ * <pre>
+ * CardTokenVault vault = new CardTokenVault(new File(context.getFilesDir(), "card-tokens.vault"),
+ *         CardTokenVault.getOrCreateKeystoreKey("drishtipay-card-tokens"));
+ * ...
+ * // In IPayment.initiatePayment
+ * CardToken token = vault.get(merchantId, card.getCardId());
+ * if (token == null) {
+ *     token = backend.tokenise(merchantId, card);
+ *     vault.put(card.getCardId(), token);
+ * }
+ * </pre>
+ *
+ * Threading: all methods are thread-safe. The constructor, put(), remove(),
+ * clear() and compact() block on disk I/O; get() and the counters never wait
+ * for it.
+ */
+public class CardTokenVault implements Closeable {
+
+    private static final String TAG = "CardTokenVault";
+
+    /** How long a token is used after its creation time. */
+    public static final long DEFAULT_TTL_MS = 24 * 60 * 60 * 1000L;
+
+    /** Upper bound for one record; guards against corrupt length fields. */
+    static final int MAX_RECORD_BYTES = 4 * 1024;
+
+    private static final byte[] MAGIC = {'D', 'P', 'T', 'V'};
+    private static final byte VERSION = 1;
+    private static final int RECORD_OVERHEAD = 8;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    /** Dead records tolerated before compacting, however few tokens are live. */
+    private static final int MIN_DEAD_RECORDS = 64;
+
+    /**
+     * Earliest accepted creation time, in 1973 as epoch milliseconds. Epoch
+     * seconds of any current date are below it.
+     */
+    private static final long MIN_CREATED_AT_MS = 100_000_000_000L;
+
+    private static final String KEYSTORE = "AndroidKeyStore";
+
+    private final File file;
+    private final SecretKey key;
+    private final long ttlMs;
+
+    /** Guards the file and serialises writers; taken before the map lock. */
+    private final Object fileLock = new Object();
+
+    // Guarded by fileLock
+    private RandomAccessFile vaultFile;
+    private FileChannel channel;
+    private volatile boolean closed;
+
+    // Guarded by this
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int deadRecords;
+    private long hits;
+    private long misses;
+    private long expired;
+    private long corruptRecords;
+
+    /**
+     * Opens or creates a vault with {@link #DEFAULT_TTL_MS}.
+     *
+     * @param file Vault file, used only by this vault; its directory is created if missing
+     * @param key AES key the records are encrypted with, e.g. from {@link #getOrCreateKeystoreKey(String)}
+     * @throws IOException if the vault cannot be written
+     */
+    public CardTokenVault(@NonNull File file, @NonNull SecretKey key) throws IOException {
+        this(file, key, DEFAULT_TTL_MS);
+    }
+
+    /**
+     * Opens or creates a vault, replaying and compacting the existing file.
+     * Blocks on disk I/O; open the vault off the main thread.
+     *
+     * @param file Vault file, used only by this vault; its directory is created if missing
+     * @param key AES key the records are encrypted with, e.g. from {@link #getOrCreateKeystoreKey(String)}
+     * @param ttlMs How long a token is used after its creation time, must be positive
+     * @throws IOException if the vault cannot be written
+     */
+    public CardTokenVault(@NonNull File file, @NonNull SecretKey key, long ttlMs) throws IOException {
+        if (file == null || key == null) {
+            throw new IllegalArgumentException("File and key cannot be null");
+        }
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("TTL must be positive, got " + ttlMs);
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create vault directory: " + directory);
+        }
+        this.file = file;
+        this.key = key;
+        this.ttlMs = ttlMs;
+
+        synchronized (fileLock) {
+            replay();
+            rewrite();
+        }
+    }
+
+    /**
+     * Returns the AES key with this alias from the Android Keystore, creating
+     * it on first use. The key material cannot be exported from the Keystore,
+     * so the vault file is useless when copied off the device.
+     *
+     * @throws GeneralSecurityException if the Keystore is unavailable
+     * @throws IOException if the Keystore cannot be loaded
+     */
+    @NonNull
+    public static SecretKey getOrCreateKeystoreKey(@NonNull String alias) throws GeneralSecurityException, IOException {
+        if (alias == null) {
+            throw new IllegalArgumentException("Alias cannot be null");
+        }
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        KeyStore.Entry existing = keyStore.getEntry(alias, null);
+        if (existing instanceof KeyStore.SecretKeyEntry) {
+            return ((KeyStore.SecretKeyEntry) existing).getSecretKey();
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(alias,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+
+    /**
+     * @return the unexpired token for this merchant and saved card, or null
+     */
+    @Nullable
+    public synchronized CardToken get(@NonNull String merchantId, @NonNull String cardId) {
+        if (merchantId == null || cardId == null) {
+            throw new IllegalArgumentException("Merchant ID and card ID cannot be null");
+        }
+        String entryKey = key(merchantId, cardId);
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAtMs) {
+            entries.remove(entryKey);
+            deadRecords++;
+            expired++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(entry.token);
+    }
+
+    /**
+     * Stores a token for a saved card, replacing any earlier one. Tokens that
+     * have already expired are not stored.
+     *
+     * @param cardId Saved card the token was issued for, must not be null
+     * @param token Token with a merchant ID and a creation time in epoch milliseconds
+     * @throws IOException if the record cannot be written
+     * @throws IllegalArgumentException if the creation time is not in epoch
+     *         milliseconds, e.g. a backend sent epoch seconds
+     * @throws IllegalStateException if the vault is closed
+     */
+    public void put(@NonNull String cardId, @NonNull CardToken token) throws IOException {
+        if (cardId == null || token == null || token.getId() == null || token.getMerchantId() == null) {
+            throw new IllegalArgumentException("Card ID, token ID and merchant ID cannot be null");
+        }
+        long createdAtMs = toMillis(token.getCreatedAt());
+        checkOpen();
+        long expiresAtMs = createdAtMs + ttlMs;
+        if (System.currentTimeMillis() >= expiresAtMs) {
+            return;
+        }
+        byte[] record = encrypt(encodePut(token.getMerchantId(), cardId, token.getId(), createdAtMs));
+        Entry entry = new Entry(copy(token), expiresAtMs, record);
+        synchronized (fileLock) {
+            checkOpen();
+            append(record);
+            synchronized (this) {
+                if (entries.put(key(token.getMerchantId(), cardId), entry) != null) {
+                    deadRecords++;
+                }
+            }
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Forgets the token of a saved card, e.g. after the card was removed or
+     * the backend rejected the token.
+     *
+     * @return true if a token was stored
+     * @throws IOException if the record cannot be written
+     * @throws IllegalStateException if the vault is closed
+     */
+    public boolean remove(@NonNull String merchantId, @NonNull String cardId) throws IOException {
+        if (merchantId == null || cardId == null) {
+            throw new IllegalArgumentException("Merchant ID and card ID cannot be null");
+        }
+        synchronized (fileLock) {
+            checkOpen();
+            synchronized (this) {
+                if (entries.remove(key(merchantId, cardId)) == null) {
+                    return false;
+                }
+            }
+            append(encrypt(encodeRemove(merchantId, cardId)));
+            synchronized (this) {
+                // The put and the removal are both dead now
+                deadRecords += 2;
+            }
+            compactIfNeeded();
+            return true;
+        }
+    }
+
+    /**
+     * Forgets every token, e.g. on logout.
+     *
+     * @throws IOException if the vault cannot be rewritten
+     * @throws IllegalStateException if the vault is closed
+     */
+    public void clear() throws IOException {
+        synchronized (fileLock) {
+            checkOpen();
+            synchronized (this) {
+                entries.clear();
+            }
+            rewrite();
+        }
+    }
+
+    /**
+     * Drops expired tokens and rewrites the file with only the live ones.
+     *
+     * @throws IOException if the vault cannot be rewritten
+     * @throws IllegalStateException if the vault is closed
+     */
+    public void compact() throws IOException {
+        synchronized (fileLock) {
+            checkOpen();
+            rewrite();
+        }
+    }
+
+    /** Tokens stored, including expired ones not yet dropped. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** get() calls that returned a token. */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /** get() calls that returned null, including expired tokens. */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /** Tokens dropped because they expired. */
+    public synchronized long getExpiredCount() {
+        return expired;
+    }
+
+    /** Torn, corrupt or undecryptable records skipped on open. */
+    public synchronized long getCorruptRecordCount() {
+        return corruptRecords;
+    }
+
+    /**
+     * Closes the file. Tokens are no longer served. Idempotent.
+     */
+    @Override
+    public void close() {
+        synchronized (fileLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (this) {
+                entries.clear();
+            }
+            closeFile();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("CardTokenVault is closed");
+        }
+    }
+
+    /** Called with fileLock held. */
+    private void append(byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_OVERHEAD + record.length);
+        putRecord(buffer, record);
+        buffer.flip();
+        long end = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // Drop the partial record so later appends stay readable
+            try {
+                channel.truncate(end);
+            } catch (IOException ignored) {
+                // Replay stops at the partial record; the next compaction repairs the file
+            }
+            throw e;
+        }
+    }
+
+    /** Called with fileLock held. */
+    private void compactIfNeeded() {
+        synchronized (this) {
+            if (deadRecords < Math.max(MIN_DEAD_RECORDS, entries.size())) {
+                return;
+            }
+        }
+        try {
+            rewrite();
+        } catch (IOException e) {
+            // Keep appending to the current file; compaction is retried after the next write
+            Log.w(TAG, "Vault compaction failed", e);
+        }
+    }
+
+    /**
+     * Writes the live, unexpired records to a temporary file, makes it
+     * durable and renames it over the vault. Called with fileLock held; the
+     * map lock is held only while the records are collected.
+     */
+    private void rewrite() throws IOException {
+        ByteBuffer buffer;
+        int compactedDeadRecords;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            int size = MAGIC.length + 1;
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (now >= entry.expiresAtMs) {
+                    it.remove();
+                    expired++;
+                } else {
+                    size += RECORD_OVERHEAD + entry.record.length;
+                }
+            }
+            buffer = ByteBuffer.allocate(size);
+            buffer.put(MAGIC).put(VERSION);
+            for (Entry entry : entries.values()) {
+                putRecord(buffer, entry.record);
+            }
+            // Tokens get() expires from here on are still in the new file
+            compactedDeadRecords = deadRecords;
+            deadRecords = 0;
+        }
+        buffer.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        RandomAccessFile newFile = new RandomAccessFile(temp, "rw");
+        FileChannel newChannel = newFile.getChannel();
+        try {
+            newChannel.truncate(0);
+            while (buffer.hasRemaining()) {
+                newChannel.write(buffer);
+            }
+            newChannel.force(true);
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot replace vault file: " + file);
+            }
+        } catch (IOException e) {
+            newFile.close();
+            if (!temp.delete()) {
+                Log.w(TAG, "Could not remove partial vault file " + temp.getName());
+            }
+            synchronized (this) {
+                deadRecords += compactedDeadRecords;
+            }
+            throw e;
+        }
+
+        // The open file now is the vault; appends continue at its end
+        closeFile();
+        vaultFile = newFile;
+        channel = newChannel;
+    }
+
+    private void closeFile() {
+        if (vaultFile != null) {
+            try {
+                vaultFile.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Closing vault file failed", e);
+            }
+            vaultFile = null;
+            channel = null;
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        buffer.putInt(record.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+    }
+
+    // ---- Replay ----
+
+    /** Called from the constructor, before the vault is shared. */
+    private void replay() {
+        if (!file.exists()) {
+            return;
+        }
+        int unreadable = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 16 * 1024))) {
+            byte[] magic = new byte[MAGIC.length];
+            try {
+                in.readFully(magic);
+                if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                    throw new IOException("Not a card token vault");
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated vault header", e);
+            }
+
+            long now = System.currentTimeMillis();
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] record;
+                try {
+                    int expected = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("Invalid record length " + length);
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record, 0, length);
+                    if ((int) crc.getValue() != expected) {
+                        throw new IOException("Checksum mismatch");
+                    }
+                } catch (EOFException e) {
+                    // A torn write at the tail after a crash
+                    corruptRecords++;
+                    throw new IOException("Truncated record", e);
+                } catch (IOException e) {
+                    corruptRecords++;
+                    throw e;
+                }
+                try {
+                    apply(record, decrypt(record), now);
+                } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+                    // Usually a rotated key, which fails every record; logged once below
+                    corruptRecords++;
+                    unreadable++;
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Stopped replaying vault: " + e.getMessage());
+        }
+        if (unreadable > 0) {
+            Log.w(TAG, "Skipped " + unreadable + " unreadable record(s)");
+        }
+    }
+
+    private void apply(byte[] record, byte[] payload, long now) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        String merchantId = in.readUTF();
+        String cardId = in.readUTF();
+        if (op == OP_REMOVE) {
+            entries.remove(key(merchantId, cardId));
+            return;
+        }
+        if (op != OP_PUT) {
+            throw new IOException("Unknown record type " + op);
+        }
+        String tokenId = in.readUTF();
+        long createdAtMs = in.readLong();
+        long expiresAtMs = createdAtMs + ttlMs;
+        if (now >= expiresAtMs) {
+            entries.remove(key(merchantId, cardId));
+            return;
+        }
+        CardToken token = CardToken.builder()
+                .id(tokenId)
+                .merchantId(merchantId)
+                .createdAt(BigInteger.valueOf(createdAtMs))
+                .build();
+        entries.put(key(merchantId, cardId), new Entry(token, expiresAtMs, record));
+    }
+
+    // ---- Encoding ----
+
+    private static byte[] encodePut(String merchantId, String cardId, String tokenId, long createdAtMs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OP_PUT);
+            out.writeUTF(merchantId);
+            out.writeUTF(cardId);
+            out.writeUTF(tokenId);
+            out.writeLong(createdAtMs);
+        } catch (IOException e) {
+            // Strings over 64 KB; no legitimate token gets here
+            throw new IllegalArgumentException("Card token too large", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeRemove(String merchantId, String cardId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OP_REMOVE);
+            out.writeUTF(merchantId);
+            out.writeUTF(cardId);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Card ID too large", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encrypt(byte[] payload) throws IOException {
+        byte[] iv;
+        byte[] ciphertext;
+        try {
+            // Let the cipher pick the IV; Keystore keys reject caller-provided ones
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+            iv = cipher.getIV();
+            ciphertext = cipher.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot encrypt card token", e);
+        }
+        byte[] record = new byte[1 + iv.length + ciphertext.length];
+        if (record.length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Card token too large");
+        }
+        record[0] = (byte) iv.length;
+        System.arraycopy(iv, 0, record, 1, iv.length);
+        System.arraycopy(ciphertext, 0, record, 1 + iv.length, ciphertext.length);
+        return record;
+    }
+
+    private byte[] decrypt(byte[] record) throws GeneralSecurityException, IOException {
+        int ivLength = record[0] & 0xFF;
+        if (ivLength == 0 || 1 + ivLength >= record.length) {
+            throw new IOException("Invalid IV length " + ivLength);
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, record, 1, ivLength));
+        return cipher.doFinal(record, 1 + ivLength, record.length - 1 - ivLength);
+    }
+
+    private static long toMillis(BigInteger createdAt) {
+        if (createdAt == null || createdAt.bitLength() >= Long.SIZE || createdAt.longValue() < MIN_CREATED_AT_MS) {
+            throw new IllegalArgumentException("Token creation time must be epoch milliseconds, got " + createdAt);
+        }
+        return createdAt.longValue();
+    }
+
+    private static CardToken copy(CardToken token) {
+        return CardToken.builder()
+                .id(token.getId())
+                .createdAt(token.getCreatedAt())
+                .merchantId(token.getMerchantId())
+                .build();
+    }
+
+    private static String key(String merchantId, String cardId) {
+        return merchantId + '\u0000' + cardId;
+    }
+
+    private static final class Entry {
+        final CardToken token;
+        final long expiresAtMs;
+        final byte[] record;
+
+        Entry(CardToken token, long expiresAtMs, byte[] record) {
+            this.token = token;
+            this.expiresAtMs = expiresAtMs;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,684 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.nfc.NdefMessage;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CheckoutStage;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CheckoutPipelineConfig;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+import com.freedomfinancestack.pos_sdk_core.models.StageLatencyStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Staged checkout from customer identification to payment confirmation.
+ *
+ * Each checkout moves through {@link CheckoutStage}s:
+ * <ol>
+ *   <li>IDENTIFY: extract the customer from a tap or sound message</li>
+ *   <li>FETCH_CARDS: {@link ICards#listAllSavedCards(String, String)}</li>
+ *   <li>SELECT_CARD: wait for {@link Checkout#selectCard(Card)}</li>
+ *   <li>INITIATE: {@link IPayment#initiatePayment(Card, float)}</li>
+ *   <li>AWAIT_AUTHENTICATION: wait for {@link Checkout#authenticationCompleted()}</li>
+ *   <li>CONFIRM: {@link IPayment#confirmPayment(String)}</li>
+ * </ol>
+ * Worker stages run on their own small executor behind a bounded queue, so a
+ * slow card backend cannot starve payment confirmation and several lanes can
+ * check out at once. When a stage's queue is full new work fails fast instead
+ * of piling up. Every stage has a deadline covering queueing and execution,
+ * and its latency is recorded per checkout and in {@link #getStageStats(CheckoutStage)}.
+ * Stage work is bound to the checkout's {@link CheckoutTracer} ID, so spans
+ * from traced ICards and IPayment implementations line up per checkout.
+ *
+ * Example usage:
+ * <pre>
+ * CheckoutPipeline pipeline = new CheckoutPipeline(cards, payment,
+ *         CheckoutPipelineConfig.builder().merchantId(merchantId).build(), listener);
+ *
+ * // From an NdefCallback or GGWaveCallback
+ * pipeline.submit("lane-1", message, 499.0f);
+ *
+ * // In listener.onCardsFetched(checkout, cards)
+ * checkout.selectCard(cards.get(0));
+ *
+ * // After the customer finished 3-D Secure at response.getAcsURL()
+ * checkout.authenticationCompleted();
+ * </pre>
+ *
+ * Threading: submit() and the Checkout methods may be called from any thread.
+ * Listener methods are invoked on the main thread. ICards and IPayment are
+ * called on pipeline threads, never the main thread.
+ * Lifecycle: call shutdown() when the pipeline is no longer needed.
+ */
+public class CheckoutPipeline {
+
+    private static final String TAG = "CheckoutPipeline";
+
+    /**
+     * Receives checkout progress on the main thread. Exactly one of onCompleted
+     * or onFailed is called per checkout, unless it is cancelled.
+     */
+    public interface Listener {
+        /**
+         * The customer's saved cards are known. Call {@link Checkout#selectCard(Card)} to continue.
+         * @param cards Saved cards, never empty
+         */
+        void onCardsFetched(@NonNull Checkout checkout, @NonNull List<Card> cards);
+
+        /**
+         * The payment was initiated. Send the customer to the ACS URL, then call
+         * {@link Checkout#authenticationCompleted()} to continue.
+         */
+        void onAuthenticationRequired(@NonNull Checkout checkout, @NonNull PaymentInitiationResponse response);
+
+        /**
+         * The gateway reported the payment status.
+         */
+        void onCompleted(@NonNull Checkout checkout, @NonNull PaymentStatus status);
+
+        /**
+         * The checkout stopped at {@code stage} because of an error, a timeout
+         * or a full stage queue.
+         */
+        void onFailed(@NonNull Checkout checkout, @NonNull CheckoutStage stage, @NonNull String error);
+    }
+
+    private interface StageWork {
+        void run() throws Exception;
+    }
+
+    private final ICards cards;
+    private final IPayment payment;
+    private final CheckoutPipelineConfig config;
+    private final Listener listener;
+    private final CustomerIdentificationRace.NfcIdentityParser nfcParser;
+
+    private final ThreadPoolExecutor identifyExecutor;
+    private final ThreadPoolExecutor fetchCardsExecutor;
+    private final ThreadPoolExecutor initiateExecutor;
+    private final ThreadPoolExecutor confirmExecutor;
+
+    private final StageTimingRecorder[] recorders;
+    private final Set<Checkout> active = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicLong nextId = new AtomicLong();
+    private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CheckoutTracer tracer = CheckoutTracer.getShared();
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param cards Saved card backend, must not be null
+     * @param payment Payment backend, must not be null
+     * @param config Pipeline tuning with a merchant ID, must not be null
+     * @param listener Receives progress on the main thread, must not be null
+     */
+    public CheckoutPipeline(@NonNull ICards cards, @NonNull IPayment payment,
+                            @NonNull CheckoutPipelineConfig config, @NonNull Listener listener) {
+        this(cards, payment, config, listener, CustomerIdentificationRace.DEFAULT_NFC_PARSER);
+    }
+
+    /**
+     * @param nfcParser Extracts the customer from a tap, must not be null
+     * @throws IllegalArgumentException if any argument is null or the config is invalid
+     */
+    public CheckoutPipeline(@NonNull ICards cards, @NonNull IPayment payment,
+                            @NonNull CheckoutPipelineConfig config, @NonNull Listener listener,
+                            @NonNull CustomerIdentificationRace.NfcIdentityParser nfcParser) {
+        if (cards == null || payment == null || config == null || listener == null || nfcParser == null) {
+            throw new IllegalArgumentException("Cards, payment, config, listener and parser cannot be null");
+        }
+        if (config.getMerchantId() == null || config.getMerchantId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Merchant ID cannot be null or empty");
+        }
+        if (config.getQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.cards = cards;
+        this.payment = payment;
+        this.config = config;
+        this.listener = listener;
+        this.nfcParser = nfcParser;
+
+        identifyExecutor = newStageExecutor(CheckoutStage.IDENTIFY, config.getIdentifyThreads());
+        fetchCardsExecutor = newStageExecutor(CheckoutStage.FETCH_CARDS, config.getFetchCardsThreads());
+        initiateExecutor = newStageExecutor(CheckoutStage.INITIATE, config.getInitiateThreads());
+        confirmExecutor = newStageExecutor(CheckoutStage.CONFIRM, config.getConfirmThreads());
+
+        CheckoutStage[] stages = CheckoutStage.values();
+        recorders = new StageTimingRecorder[stages.length];
+        for (CheckoutStage stage : stages) {
+            recorders[stage.ordinal()] = new StageTimingRecorder(stage);
+        }
+    }
+
+    /**
+     * Starts a checkout for a customer identified by an NFC tap.
+     *
+     * @param laneId Checkout lane, used to tell concurrent checkouts apart
+     * @param tap NDEF message from the customer's device
+     * @param amount Amount to charge
+     * @return handle for the checkout; failures are reported to the listener
+     * @throws IllegalArgumentException if laneId or tap is null, or amount is not positive
+     * @throws IllegalStateException if the pipeline was shut down
+     */
+    @NonNull
+    public Checkout submit(@NonNull String laneId, @NonNull NdefMessage tap, float amount) {
+        if (tap == null) {
+            throw new IllegalArgumentException("Tap cannot be null");
+        }
+        return start(laneId, amount, () -> {
+            GGWaveMessage identity = nfcParser.parse(tap);
+            if (identity == null) {
+                throw new IllegalArgumentException("Tap did not carry a customer identity");
+            }
+            return identity;
+        });
+    }
+
+    /**
+     * Starts a checkout for a customer identified over sound.
+     *
+     * @param laneId Checkout lane, used to tell concurrent checkouts apart
+     * @param identity Message received through IGGWave
+     * @param amount Amount to charge
+     * @return handle for the checkout; failures are reported to the listener
+     * @throws IllegalArgumentException if laneId or identity is null, or amount is not positive
+     * @throws IllegalStateException if the pipeline was shut down
+     */
+    @NonNull
+    public Checkout submit(@NonNull String laneId, @NonNull GGWaveMessage identity, float amount) {
+        if (identity == null) {
+            throw new IllegalArgumentException("Identity cannot be null");
+        }
+        return start(laneId, amount, () -> {
+            if (!identity.isValidDrishtiPayMessage()) {
+                throw new IllegalArgumentException("Message is not a DrishtiPay identity");
+            }
+            return identity;
+        });
+    }
+
+    private interface Identifier {
+        GGWaveMessage identify();
+    }
+
+    private Checkout start(String laneId, float amount, Identifier identifier) {
+        if (laneId == null || laneId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Lane ID cannot be null or empty");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Checkout pipeline has been shut down");
+        }
+        // Each lane gets its own trace unless the submitting thread is bound to one;
+        // inheriting the terminal's active checkout would merge concurrent lanes
+        long traceId = tracer.boundCheckoutId();
+        Checkout checkout = new Checkout(nextId.incrementAndGet(),
+                traceId != 0 ? traceId : tracer.newCheckoutId(), laneId, amount);
+        active.add(checkout);
+        Log.d(TAG, "Checkout " + checkout.id + " submitted on " + laneId);
+
+        enqueue(checkout, CheckoutStage.IDENTIFY, identifyExecutor, config.getIdentifyTimeoutMs(), () -> {
+            GGWaveMessage identity = identifier.identify();
+            checkout.contact = identity.getMobileNumber();
+            if (checkout.finish(CheckoutStage.IDENTIFY)) {
+                enqueue(checkout, CheckoutStage.FETCH_CARDS, fetchCardsExecutor,
+                        config.getFetchCardsTimeoutMs(), () -> fetchCards(checkout));
+            }
+        });
+        return checkout;
+    }
+
+    private void fetchCards(Checkout checkout) {
+        List<ListSavedCards> saved = cards.listAllSavedCards(config.getMerchantId(), checkout.contact);
+        List<Card> found = new ArrayList<>();
+        if (saved != null) {
+            for (ListSavedCards entry : saved) {
+                if (entry != null && entry.getCards() != null) {
+                    for (Card card : entry.getCards()) {
+                        if (card != null) {
+                            found.add(card);
+                        }
+                    }
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            checkout.fail(CheckoutStage.FETCH_CARDS, "No saved cards for customer");
+            return;
+        }
+        List<Card> result = Collections.unmodifiableList(found);
+        checkout.cards = result;
+        if (checkout.finish(CheckoutStage.FETCH_CARDS)
+                && checkout.enter(CheckoutStage.SELECT_CARD, config.getCardSelectionTimeoutMs())) {
+            deliver(checkout, () -> listener.onCardsFetched(checkout, result));
+        }
+    }
+
+    private void initiate(Checkout checkout) {
+        PaymentInitiationResponse response = payment.initiatePayment(checkout.selectedCard, checkout.amount);
+        if (response == null || response.getPaymentId() == null) {
+            checkout.fail(CheckoutStage.INITIATE, "Gateway returned no payment");
+            return;
+        }
+        checkout.initiation = response;
+        if (checkout.finish(CheckoutStage.INITIATE)
+                && checkout.enter(CheckoutStage.AWAIT_AUTHENTICATION, config.getAuthenticationTimeoutMs())) {
+            deliver(checkout, () -> listener.onAuthenticationRequired(checkout, response));
+        }
+    }
+
+    private void confirm(Checkout checkout) {
+        PaymentStatus status = payment.confirmPayment(checkout.initiation.getPaymentId());
+        if (status == null) {
+            checkout.fail(CheckoutStage.CONFIRM, "Gateway returned no payment status");
+            return;
+        }
+        if (checkout.finish(CheckoutStage.CONFIRM) && checkout.settle()) {
+            Log.d(TAG, "Checkout " + checkout.id + " completed in " + checkout.getTotalLatencyMs() + "ms");
+            deliver(checkout, () -> listener.onCompleted(checkout, status));
+        }
+    }
+
+    private void enqueue(Checkout checkout, CheckoutStage stage, ThreadPoolExecutor executor,
+                         long timeoutMs, StageWork work) {
+        if (!checkout.enter(stage, timeoutMs)) {
+            return;
+        }
+        try {
+            Future<?> future = executor.submit(() -> {
+                if (!checkout.isIn(stage)) {
+                    return;
+                }
+                CheckoutTracer.Scope scope = tracer.bind(checkout.traceId);
+                try {
+                    work.run();
+                } catch (InterruptedException e) {
+                    // Timed out or cancelled; the checkout is already settled
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    Log.w(TAG, "Checkout " + checkout.id + " failed in " + stage, e);
+                    checkout.fail(stage, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                } finally {
+                    scope.close();
+                }
+            });
+            checkout.setRunning(stage, future);
+        } catch (RejectedExecutionException e) {
+            checkout.fail(stage, shutdown ? "Checkout pipeline has been shut down" : "Stage queue full");
+        }
+    }
+
+    private void deliver(Checkout checkout, Runnable event) {
+        mainHandler.post(() -> {
+            if (!checkout.isCancelled()) {
+                event.run();
+            }
+        });
+    }
+
+    /**
+     * @return latency and outcome counts of {@code stage} across checkouts
+     */
+    @NonNull
+    public StageLatencyStats getStageStats(@NonNull CheckoutStage stage) {
+        return recorders[stage.ordinal()].snapshot();
+    }
+
+    /**
+     * @return checkouts submitted and not yet completed, failed or cancelled
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * @return checkouts queued in front of a worker stage, 0 for waiting stages
+     */
+    public int getQueueDepth(@NonNull CheckoutStage stage) {
+        ThreadPoolExecutor executor = executorFor(stage);
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    /**
+     * Cancels every active checkout and stops the stage executors.
+     * Idempotent; the pipeline cannot be restarted.
+     */
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Checkout checkout : new ArrayList<>(active)) {
+            checkout.cancel();
+        }
+        identifyExecutor.shutdownNow();
+        fetchCardsExecutor.shutdownNow();
+        initiateExecutor.shutdownNow();
+        confirmExecutor.shutdownNow();
+        timers.cancel();
+        Log.d(TAG, "Checkout pipeline shut down");
+    }
+
+    @Nullable
+    private ThreadPoolExecutor executorFor(CheckoutStage stage) {
+        switch (stage) {
+            case IDENTIFY:
+                return identifyExecutor;
+            case FETCH_CARDS:
+                return fetchCardsExecutor;
+            case INITIATE:
+                return initiateExecutor;
+            case CONFIRM:
+                return confirmExecutor;
+            default:
+                return null;
+        }
+    }
+
+    private ThreadPoolExecutor newStageExecutor(CheckoutStage stage, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(stage + " needs at least 1 thread, got " + threads);
+        }
+        String name = "checkout-" + stage.name().toLowerCase(Locale.US).replace('_', '-');
+        return PosScheduler.newBoundedExecutor(name, threads, new ArrayBlockingQueue<>(config.getQueueCapacity()));
+    }
+
+    /**
+     * One customer's checkout on one lane.
+     *
+     * Threading: all methods are safe to call from any thread.
+     */
+    public final class Checkout implements ICancellable {
+
+        private final long id;
+        private final long traceId;
+        private final String laneId;
+        private final float amount;
+        private final long submittedNanos = System.nanoTime();
+        private final long[] stageMs = new long[CheckoutStage.values().length];
+
+        // Written by one stage before it hands off, read by the next
+        private volatile String contact;
+        private volatile List<Card> cards;
+        private volatile Card selectedCard;
+        private volatile PaymentInitiationResponse initiation;
+
+        private CheckoutStage stage;
+        private long stageStartNanos;
+        private long totalMs = -1;
+        private boolean settled;
+        private boolean cancelled;
+        private ICancellable deadline;
+        private Future<?> running;
+
+        Checkout(long id, long traceId, String laneId, float amount) {
+            this.id = id;
+            this.traceId = traceId;
+            this.laneId = laneId;
+            this.amount = amount;
+            Arrays.fill(stageMs, -1);
+        }
+
+        /**
+         * Continues the checkout with the card the customer picked.
+         *
+         * @param card One of the cards passed to {@link Listener#onCardsFetched}
+         * @throws IllegalArgumentException if card is null or not one of the fetched cards
+         * @throws IllegalStateException if the checkout is not waiting for a card
+         */
+        public void selectCard(@NonNull Card card) {
+            if (card == null) {
+                throw new IllegalArgumentException("Card cannot be null");
+            }
+            synchronized (this) {
+                checkWaiting(CheckoutStage.SELECT_CARD);
+                if (!cards.contains(card)) {
+                    throw new IllegalArgumentException("Card is not one of the customer's saved cards");
+                }
+                selectedCard = card;
+                finish(CheckoutStage.SELECT_CARD);
+            }
+            enqueue(this, CheckoutStage.INITIATE, initiateExecutor, config.getInitiateTimeoutMs(),
+                    () -> initiate(this));
+        }
+
+        /**
+         * Continues the checkout once the customer has completed authentication.
+         *
+         * @throws IllegalStateException if the checkout is not waiting for authentication
+         */
+        public void authenticationCompleted() {
+            synchronized (this) {
+                checkWaiting(CheckoutStage.AWAIT_AUTHENTICATION);
+                finish(CheckoutStage.AWAIT_AUTHENTICATION);
+            }
+            enqueue(this, CheckoutStage.CONFIRM, confirmExecutor, config.getConfirmTimeoutMs(),
+                    () -> confirm(this));
+        }
+
+        /**
+         * Abandons the checkout without a listener callback and interrupts
+         * its running stage. Idempotent.
+         */
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                if (settled) {
+                    return;
+                }
+            }
+            settle();
+            Log.d(TAG, "Checkout " + id + " cancelled in " + stage);
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Sequence number of this checkout within the pipeline. */
+        public long getId() {
+            return id;
+        }
+
+        /** Checkout ID of this checkout's spans in {@link CheckoutTracer}. */
+        public long getTraceId() {
+            return traceId;
+        }
+
+        @NonNull
+        public String getLaneId() {
+            return laneId;
+        }
+
+        public float getAmount() {
+            return amount;
+        }
+
+        /**
+         * @return the stage the checkout is in, or stopped at once it is done
+         */
+        @NonNull
+        public synchronized CheckoutStage getStage() {
+            return stage != null ? stage : CheckoutStage.IDENTIFY;
+        }
+
+        /**
+         * @return true once the checkout completed, failed or was cancelled
+         */
+        public synchronized boolean isDone() {
+            return settled;
+        }
+
+        /**
+         * @return time spent in {@code stage} including queueing, or -1 if it did not complete
+         */
+        public synchronized long getStageLatencyMs(@NonNull CheckoutStage stage) {
+            return stageMs[stage.ordinal()];
+        }
+
+        /**
+         * @return time from submit to completion, or -1 while running or after failure
+         */
+        public synchronized long getTotalLatencyMs() {
+            return totalMs;
+        }
+
+        /**
+         * @return the initiated payment, or null before the INITIATE stage completed
+         */
+        @Nullable
+        public PaymentInitiationResponse getPaymentInitiation() {
+            return initiation;
+        }
+
+        synchronized boolean isIn(CheckoutStage expected) {
+            return !settled && stage == expected;
+        }
+
+        /**
+         * Enters {@code next} and arms its deadline.
+         * @return false if the checkout already ended
+         */
+        synchronized boolean enter(CheckoutStage next, long timeoutMs) {
+            if (settled) {
+                return false;
+            }
+            stage = next;
+            stageStartNanos = System.nanoTime();
+            running = null;
+            if (timeoutMs > 0) {
+                deadline = timers.schedule(() -> expire(next, timeoutMs), timeoutMs);
+            }
+            return true;
+        }
+
+        synchronized void setRunning(CheckoutStage owner, Future<?> future) {
+            if (stage != owner) {
+                // The stage already finished and handed off
+                return;
+            }
+            if (settled) {
+                future.cancel(true);
+            } else {
+                running = future;
+            }
+        }
+
+        /**
+         * Records the latency of {@code completed} and disarms its deadline.
+         * @return false if the checkout ended or moved on meanwhile
+         */
+        synchronized boolean finish(CheckoutStage completed) {
+            if (settled || stage != completed) {
+                return false;
+            }
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStartNanos);
+            stageMs[completed.ordinal()] = latencyMs;
+            recorders[completed.ordinal()].recordCompleted(latencyMs);
+            disarm();
+            running = null;
+            return true;
+        }
+
+        void fail(CheckoutStage failedStage, String error) {
+            synchronized (this) {
+                if (settled || stage != failedStage) {
+                    return;
+                }
+            }
+            if (!settle()) {
+                return;
+            }
+            recorders[failedStage.ordinal()].recordFailed();
+            Log.w(TAG, "Checkout " + id + " failed in " + failedStage + ": " + error);
+            deliver(this, () -> listener.onFailed(this, failedStage, error));
+        }
+
+        private void expire(CheckoutStage expiredStage, long timeoutMs) {
+            synchronized (this) {
+                if (settled || stage != expiredStage) {
+                    return;
+                }
+            }
+            if (!settle()) {
+                return;
+            }
+            recorders[expiredStage.ordinal()].recordTimedOut();
+            String error = expiredStage + " timed out after " + timeoutMs + "ms";
+            Log.w(TAG, "Checkout " + id + ": " + error);
+            deliver(this, () -> listener.onFailed(this, expiredStage, error));
+        }
+
+        /**
+         * Ends the checkout, interrupting the running stage if any.
+         * @return true if this call ended it
+         */
+        boolean settle() {
+            Future<?> toCancel;
+            synchronized (this) {
+                if (settled) {
+                    return false;
+                }
+                settled = true;
+                if (stage == CheckoutStage.CONFIRM && stageMs[CheckoutStage.CONFIRM.ordinal()] >= 0) {
+                    totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedNanos);
+                }
+                disarm();
+                toCancel = running;
+                running = null;
+            }
+            active.remove(this);
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+            return true;
+        }
+
+        private void disarm() {
+            if (deadline != null) {
+                deadline.cancel();
+                deadline = null;
+            }
+        }
+
+        private void checkWaiting(CheckoutStage expected) {
+            if (settled || stage != expected) {
+                throw new IllegalStateException("Checkout is not waiting in " + expected +
+                        (settled ? " (already finished)" : ", current stage is " + stage));
+            }
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBatchPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBulkCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIdempotentPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IOrderPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight span recorder that follows one checkout across NFC, GGWave,
+ * saved-card lookup and payment calls.
+ *
+ * Spans are named intervals measured with System.nanoTime() and tagged with
+ * a checkout ID. They are written into a preallocated ring, so recording
+ * allocates nothing and memory stays constant; once the ring is full the
+ * oldest spans are overwritten. {@link #exportTo(File)} writes the ring in
+ * Chrome trace event format, which Perfetto and chrome://tracing open
+ * directly. Each checkout is shown as its own process row.
+ *
+ * A span's checkout ID comes from the calling thread if it was bound with
+ * {@link #bind(long)}, e.g. by {@link CheckoutPipeline} stages. Otherwise it
+ * comes from the terminal's active checkout, set by {@link #beginCheckout()}
+ * when the cashier starts a sale. Spans outside any checkout get ID 0.
+ *
+ * The SDK records {@link #SPAN_NFC_DELIVER} in PosNfcDeviceManager and
+ * {@link #SPAN_GGWAVE_RECEIVE} in GGWaveManager. Backend calls are recorded
+ * by wrapping the app's implementations with {@link #traced(ICards)} and
+ * {@link #traced(IPayment)}.
+ *
+ * Example usage:
+ * <pre>
+ * CheckoutTracer tracer = CheckoutTracer.getShared();
+ * tracer.setEnabled(true);
+ * ICards cards = CheckoutTracer.traced(new MyCards());
+ * IPayment payment = CheckoutTracer.traced(new MyPayment());
+ *
+ * long checkoutId = tracer.beginCheckout();   // amount entered, waiting for tap
+ * ...
+ * tracer.endCheckout(checkoutId);
+ * tracer.exportTo(new File(getFilesDir(), "checkout-trace.json"));
+ * </pre>
+ *
+ * Threading: all methods are thread-safe. Recording is disabled by default
+ * and costs one volatile read while disabled.
+ */
+public final class CheckoutTracer {
+
+    private static final String TAG = "CheckoutTracer";
+
+    public static final String SPAN_NFC_DELIVER = "nfc.deliver";
+    public static final String SPAN_GGWAVE_RECEIVE = "ggwave.receive";
+    public static final String SPAN_LIST_CARDS = "cards.list";
+    public static final String SPAN_PAYMENT_INITIATE = "payment.initiate";
+    public static final String SPAN_ORDER_CREATE = "payment.order";
+    public static final String SPAN_PAYMENT_CONFIRM = "payment.confirm";
+
+    /** Spans kept by the shared tracer. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final CheckoutTracer SHARED = new CheckoutTracer(DEFAULT_CAPACITY);
+
+    private final int mask;
+    private final long[] sequences;
+    private final long[] checkoutIds;
+    private final long[] threadIds;
+    private final long[] startNanos;
+    private final long[] endNanos;
+    private final String[] names;
+    private final boolean[] failed;
+    private final long originNanos = System.nanoTime();
+
+    private final AtomicLong nextCheckoutId = new AtomicLong();
+    private final ThreadLocal<long[]> boundCheckout = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private volatile boolean enabled;
+    private volatile long activeCheckoutId;
+    private long nextSequence = 1;
+
+    /**
+     * @param capacity Spans kept before the oldest are overwritten, rounded up to a power of two
+     */
+    public CheckoutTracer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^24, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        sequences = new long[size];
+        checkoutIds = new long[size];
+        threadIds = new long[size];
+        startNanos = new long[size];
+        endNanos = new long[size];
+        names = new String[size];
+        failed = new boolean[size];
+    }
+
+    /**
+     * Tracer used by the SDK's built-in instrumentation.
+     */
+    @NonNull
+    public static CheckoutTracer getShared() {
+        return SHARED;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Allocates a checkout ID without making it active, e.g. for one of
+     * several concurrent lanes. Bind it with {@link #bind(long)}.
+     */
+    public long newCheckoutId() {
+        return nextCheckoutId.incrementAndGet();
+    }
+
+    /**
+     * Starts a checkout and makes it the terminal's active checkout, so that
+     * taps, tones and backend calls on any thread are attributed to it.
+     *
+     * @return the new checkout ID
+     */
+    public long beginCheckout() {
+        long id = newCheckoutId();
+        activeCheckoutId = id;
+        return id;
+    }
+
+    /**
+     * Ends the active checkout if it is {@code checkoutId}.
+     */
+    public void endCheckout(long checkoutId) {
+        synchronized (this) {
+            if (activeCheckoutId == checkoutId) {
+                activeCheckoutId = 0;
+            }
+        }
+    }
+
+    /**
+     * Attributes spans recorded on the calling thread to {@code checkoutId}
+     * until the returned scope is closed.
+     */
+    @NonNull
+    public Scope bind(long checkoutId) {
+        long[] bound = boundCheckout.get();
+        Scope scope = new Scope(bound, bound[0]);
+        bound[0] = checkoutId;
+        return scope;
+    }
+
+    /**
+     * @return the checkout ID bound to the calling thread with {@link #bind(long)},
+     *         or 0; ignores the terminal's active checkout
+     */
+    public long boundCheckoutId() {
+        return boundCheckout.get()[0];
+    }
+
+    /**
+     * @return the checkout ID bound to the calling thread, else the active
+     *         checkout, else 0
+     */
+    public long currentCheckoutId() {
+        long bound = boundCheckout.get()[0];
+        return bound != 0 ? bound : activeCheckoutId;
+    }
+
+    /**
+     * Starts a span for the current checkout.
+     *
+     * @param name Span name, preferably one of the SPAN_ constants
+     * @return handle for {@link #end(long, boolean)}, or 0 when disabled
+     */
+    public long begin(@NonNull String name) {
+        if (!enabled) {
+            return 0;
+        }
+        long checkoutId = currentCheckoutId();
+        long threadId = Thread.currentThread().getId();
+        long now = System.nanoTime();
+        synchronized (this) {
+            long sequence = nextSequence++;
+            int slot = (int) (sequence & mask);
+            sequences[slot] = sequence;
+            checkoutIds[slot] = checkoutId;
+            threadIds[slot] = threadId;
+            startNanos[slot] = now;
+            endNanos[slot] = 0;
+            names[slot] = name;
+            failed[slot] = false;
+            return sequence;
+        }
+    }
+
+    /**
+     * Ends a span. Spans already overwritten by newer ones are ignored.
+     *
+     * @param span Handle returned by begin(); 0 is ignored
+     * @param ok False if the traced operation failed
+     */
+    public void end(long span, boolean ok) {
+        if (span == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            int slot = (int) (span & mask);
+            if (sequences[slot] == span) {
+                endNanos[slot] = now;
+                failed[slot] = !ok;
+            }
+        }
+    }
+
+    /**
+     * Drops all recorded spans.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = 0;
+            names[i] = null;
+        }
+    }
+
+    /**
+     * Writes finished spans, oldest first, as a Chrome trace event JSON file.
+     * The file is replaced atomically.
+     *
+     * @return number of spans written
+     * @throws IOException if the file cannot be written
+     */
+    public int exportTo(@NonNull File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        int size = sequences.length;
+        long[] seq = new long[size];
+        long[] checkout = new long[size];
+        long[] thread = new long[size];
+        long[] start = new long[size];
+        long[] end = new long[size];
+        String[] name = new String[size];
+        boolean[] error = new boolean[size];
+        long newest;
+        synchronized (this) {
+            System.arraycopy(sequences, 0, seq, 0, size);
+            System.arraycopy(checkoutIds, 0, checkout, 0, size);
+            System.arraycopy(threadIds, 0, thread, 0, size);
+            System.arraycopy(startNanos, 0, start, 0, size);
+            System.arraycopy(endNanos, 0, end, 0, size);
+            System.arraycopy(names, 0, name, 0, size);
+            System.arraycopy(failed, 0, error, 0, size);
+            newest = nextSequence - 1;
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        int written = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            out.write("{\"traceEvents\":[");
+            for (long s = Math.max(1, newest - size + 1); s <= newest; s++) {
+                int slot = (int) (s & mask);
+                if (seq[slot] != s || end[slot] == 0) {
+                    continue;
+                }
+                out.write(written > 0 ? ",\n" : "\n");
+                out.write(String.format(Locale.US,
+                        "{\"name\":\"%s\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":%d,\"tid\":%d,"
+                                + "\"args\":{\"checkout\":%d,\"ok\":%b}}",
+                        escape(name[slot]), (start[slot] - originNanos) / 1e3, (end[slot] - start[slot]) / 1e3,
+                        checkout[slot], thread[slot], checkout[slot], !error[slot]));
+                written++;
+            }
+            out.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file.getName());
+        }
+        Log.d(TAG, "Exported " + written + " spans");
+        return written;
+    }
+
+    private static String escape(String name) {
+        return name.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Records {@link #SPAN_LIST_CARDS} around every lookup on the shared tracer.
+     * The wrapper implements the same card interfaces as {@code cards}, so an
+     * {@link IPagedCards} or {@link IBulkCards} keeps its paging or bulk lookups.
+     */
+    @NonNull
+    public static ICards traced(@NonNull ICards cards) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Cards cannot be null");
+        }
+        List<Class<?>> types = new ArrayList<>();
+        types.add(ICards.class);
+        if (cards instanceof IPagedCards) {
+            types.add(IPagedCards.class);
+        }
+        if (cards instanceof IBulkCards) {
+            types.add(IBulkCards.class);
+        }
+        return (ICards) proxy(cards, types);
+    }
+
+    /**
+     * Records {@link #SPAN_PAYMENT_INITIATE}, {@link #SPAN_PAYMENT_CONFIRM} and
+     * {@link #SPAN_ORDER_CREATE} around every call on the shared tracer. The
+     * wrapper implements the same payment interfaces as {@code payment}: an
+     * {@link IIdempotentPayment} stays one, so StoreAndForwardPayment can still
+     * resend safely, and {@link IBatchPayment} and {@link IOrderPayment} keep
+     * their batch confirmation and two-step flow.
+     */
+    @NonNull
+    public static IPayment traced(@NonNull IPayment payment) {
+        if (payment == null) {
+            throw new IllegalArgumentException("Payment cannot be null");
+        }
+        List<Class<?>> types = new ArrayList<>();
+        types.add(IPayment.class);
+        if (payment instanceof IIdempotentPayment) {
+            types.add(IIdempotentPayment.class);
+        }
+        if (payment instanceof IBatchPayment) {
+            types.add(IBatchPayment.class);
+        }
+        if (payment instanceof IOrderPayment) {
+            types.add(IOrderPayment.class);
+        }
+        return (IPayment) proxy(payment, types);
+    }
+
+    private static Object proxy(Object delegate, List<Class<?>> types) {
+        return Proxy.newProxyInstance(CheckoutTracer.class.getClassLoader(),
+                types.toArray(new Class<?>[0]), new TracingHandler(delegate));
+    }
+
+    /**
+     * Forwards every call to the delegate, timing the backend calls.
+     */
+    private static final class TracingHandler implements InvocationHandler {
+        private final Object delegate;
+
+        TracingHandler(Object delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                return "Traced(" + delegate + ")";
+            }
+            String spanName = spanName(method.getName());
+            long span = spanName != null ? SHARED.begin(spanName) : 0;
+            boolean ok = false;
+            try {
+                Object result = method.invoke(delegate, args);
+                // Payment calls report failure with null; card lookups do not
+                ok = result != null || SPAN_LIST_CARDS.equals(spanName);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                SHARED.end(span, ok);
+            }
+        }
+
+        private static String spanName(String method) {
+            switch (method) {
+                case "listAllSavedCards":
+                case "listSavedCardsPage":
+                case "listSavedCards":
+                    return SPAN_LIST_CARDS;
+                case "initiatePayment":
+                    return SPAN_PAYMENT_INITIATE;
+                case "confirmPayment":
+                case "confirmPayments":
+                    return SPAN_PAYMENT_CONFIRM;
+                case "createOrder":
+                    return SPAN_ORDER_CREATE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Restores the previous thread binding when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final long[] bound;
+        private final long previous;
+
+        Scope(long[] bound, long previous) {
+            this.bound = bound;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            bound[0] = previous;
+        }
+    }
+}
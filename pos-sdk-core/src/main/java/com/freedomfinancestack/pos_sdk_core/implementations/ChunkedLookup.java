@@ -0,0 +1,181 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves many keys through a backend in chunks, with bounded parallelism
+ * under one overall deadline. A failed request only drops its own keys.
+ * Shared by {@link BulkCardLookup} and {@link BatchPaymentConfirmer}.
+ *
+ * Keys are customer contacts or payment IDs, so they are never logged.
+ *
+ * Threading: resolve() blocks and may be called from several threads at
+ * once, sharing the parallelism limit.
+ */
+final class ChunkedLookup<V> {
+
+    /**
+     * One backend request.
+     */
+    interface Fetcher<V> {
+        /**
+         * @param keys Distinct keys, at most the chunk size
+         * @return value per key, omitting keys the backend could not resolve,
+         *         or null if the request returned nothing
+         */
+        @Nullable
+        Map<String, V> fetch(@NonNull List<String> keys);
+    }
+
+    private final String owner;
+    private final int chunkSize;
+    private final long timeoutMs;
+    private final ExecutorService executor;
+
+    private final AtomicLong backendCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    /**
+     * @param owner Class name of the caller, used as log tag and in errors
+     * @param threadName Prefix of the worker thread names
+     * @param chunkSize Keys per request; values below 1 mean 1
+     * @param parallelism Requests in flight at once, must be positive
+     * @param timeoutMs Deadline for each resolve() call, must be positive
+     */
+    ChunkedLookup(@NonNull String owner, @NonNull String threadName, int chunkSize,
+                  int parallelism, long timeoutMs) {
+        if (parallelism <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("Parallelism and timeout must be positive");
+        }
+        this.owner = owner;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.timeoutMs = timeoutMs;
+        this.executor = PosScheduler.newBoundedExecutor(threadName, parallelism, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Resolves every key. Duplicates are requested once.
+     *
+     * @param keys Keys to resolve, must not contain null or empty keys
+     * @param keyName Plural name of the keys for argument errors, e.g. "Contacts"
+     * @param fetcher Sends one request per chunk
+     * @return value per key; keys whose request failed, returned nothing or
+     *         missed the deadline are omitted
+     * @throws IllegalArgumentException if a key is null or empty
+     * @throws IllegalStateException if interrupted or shut down
+     */
+    @NonNull
+    Map<String, V> resolve(@NonNull Collection<String> keys, @NonNull String keyName,
+                           @NonNull Fetcher<V> fetcher) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key == null || key.trim().isEmpty()) {
+                throw new IllegalArgumentException(keyName + " cannot be null or empty");
+            }
+            distinct.add(key);
+        }
+        if (distinct.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<String, V> results = new ConcurrentHashMap<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (List<String> chunk : split(new ArrayList<>(distinct))) {
+                tasks.add(executor.submit(() -> fetchChunk(fetcher, chunk, results)));
+            }
+        } catch (RejectedExecutionException e) {
+            cancelAll(tasks);
+            throw new IllegalStateException(owner + " has been shut down", e);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (Future<?> task : tasks) {
+                try {
+                    task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    // fetchChunk() handles backend failures; this is a bug or an Error
+                    Log.w(owner, "Unexpected chunk failure", e.getCause());
+                }
+            }
+        } catch (TimeoutException e) {
+            Log.w(owner, "Deadline of " + timeoutMs + "ms passed, "
+                    + results.size() + " of " + distinct.size() + " resolved");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + owner, e);
+        } finally {
+            cancelAll(tasks);
+        }
+        return new HashMap<>(results);
+    }
+
+    /** Requests sent to the backend. */
+    long getBackendCallCount() {
+        return backendCalls.get();
+    }
+
+    /** Requests that failed or returned nothing. */
+    long getFailedCallCount() {
+        return failedCalls.get();
+    }
+
+    /** Stops the worker pool and interrupts running requests. */
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<List<String>> split(List<String> keys) {
+        List<List<String>> chunks = new ArrayList<>((keys.size() + chunkSize - 1) / chunkSize);
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+            chunks.add(keys.subList(start, Math.min(keys.size(), start + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private void fetchChunk(Fetcher<V> fetcher, List<String> keys, Map<String, V> results) {
+        backendCalls.incrementAndGet();
+        try {
+            Map<String, V> result = fetcher.fetch(keys);
+            if (result == null) {
+                failedCalls.incrementAndGet();
+                return;
+            }
+            for (String key : keys) {
+                V value = result.get(key);
+                if (value != null) {
+                    results.put(key, value);
+                }
+            }
+        } catch (RuntimeException e) {
+            failedCalls.incrementAndGet();
+            Log.w(owner, "Request for " + keys.size() + " key(s) failed: " + e.getMessage());
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+}
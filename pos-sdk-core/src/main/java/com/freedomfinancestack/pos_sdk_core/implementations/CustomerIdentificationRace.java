@@ -0,0 +1,469 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.nfc.NdefMessage;
+import android.nfc.NdefRecord;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.IdentificationChannel;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICustomerIdentityListener;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IGGWave;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.IdentificationResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Identifies the customer over sound and NFC at the same time.
+ *
+ * Both channels are armed together; the first one to deliver a valid
+ * DrishtiPay identity wins, the other is stopped straight away, and the
+ * caller learns which channel won and how long it took. This replaces
+ * listening on one channel, giving up, then trying the other.
+ *
+ * Example usage:
+ * <pre>
+ * CustomerIdentificationRace race = new CustomerIdentificationRace(ggWave, nfcManager);
+ * race.start(new CustomerIdentificationRace.Callback() {
+ *     public void onIdentified(IdentificationResult result) {
+ *         fetchCards(result.getIdentity().getMobileNumber());
+ *     }
+ *     public void onTimeout(long waitedMs) {
+ *         showMessage("No customer detected");
+ *     }
+ *     public void onError(String error) {
+ *         showMessage(error);
+ *     }
+ * }, 30000);
+ * </pre>
+ *
+ * Threading: call start() and cancel() on the main thread, as required by
+ * {@link IGGWave}. All callbacks are delivered on the main thread; elapsed
+ * times are measured when the identity was detected, before that hop.
+ */
+public class CustomerIdentificationRace {
+
+    private static final String TAG = "CustomerIdentification";
+
+    /**
+     * Callback for the outcome of a race. Exactly one of onIdentified,
+     * onTimeout or onError is called per race, unless it is cancelled.
+     */
+    public interface Callback {
+        /**
+         * Called once with the winning channel and identity.
+         * @param result Winning channel, identity and time to identify, never null
+         */
+        void onIdentified(@NonNull IdentificationResult result);
+
+        /**
+         * Called once if no channel identified the customer before the deadline.
+         * Both channels have already been stopped.
+         * @param waitedMs Milliseconds since the channels were armed
+         */
+        void onTimeout(long waitedMs);
+
+        /**
+         * Called once if neither channel could be armed, or once every armed
+         * channel has failed. While another channel is still armed, an error
+         * is logged and the race goes on.
+         * @param error Error message describing the last failure
+         */
+        void onError(@NonNull String error);
+    }
+
+    /**
+     * Extracts a customer identity from an NFC tap.
+     */
+    public interface NfcIdentityParser {
+        /**
+         * @param message NDEF message read from the customer's device
+         * @return identity carried by the message, or null if the tap does not identify a customer
+         */
+        @Nullable
+        GGWaveMessage parse(@NonNull NdefMessage message);
+    }
+
+    /**
+     * Reads the same JSON identity that is sent over sound from the first
+     * record that holds one. Plain payloads and NFC Forum text records are supported.
+     */
+    public static final NfcIdentityParser DEFAULT_NFC_PARSER = message -> {
+        for (NdefRecord record : message.getRecords()) {
+            byte[] payload = record.getPayload();
+            if (payload == null || payload.length == 0) {
+                continue;
+            }
+            int offset = 0;
+            if (record.getTnf() == NdefRecord.TNF_WELL_KNOWN
+                    && Arrays.equals(record.getType(), NdefRecord.RTD_TEXT)) {
+                // Status byte holds the language code length
+                offset = 1 + (payload[0] & 0x3F);
+                if (offset >= payload.length) {
+                    continue;
+                }
+            }
+            try {
+                GGWaveMessage identity = GGWaveMessage.fromJson(
+                        new String(payload, offset, payload.length - offset, StandardCharsets.UTF_8));
+                if (identity.isValidDrishtiPayMessage()) {
+                    return identity;
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Not an identity record; keep looking
+            }
+        }
+        return null;
+    };
+
+    @Nullable
+    private final IGGWave ggWave;
+    @Nullable
+    private final INfcDeviceManager nfcManager;
+    private final NfcIdentityParser nfcParser;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Object lock = new Object();
+    private Attempt current;
+    private volatile ICustomerIdentityListener identityListener;
+
+    /**
+     * @param ggWave Initialized audio channel, or null to race NFC only
+     * @param nfcManager NFC channel, or null to race audio only
+     */
+    public CustomerIdentificationRace(@Nullable IGGWave ggWave, @Nullable INfcDeviceManager nfcManager) {
+        this(ggWave, nfcManager, DEFAULT_NFC_PARSER);
+    }
+
+    /**
+     * @param ggWave Initialized audio channel, or null to race NFC only
+     * @param nfcManager NFC channel, or null to race audio only
+     * @param nfcParser Extracts the identity from a tap, must not be null
+     * @throws IllegalArgumentException if both channels are null or nfcParser is null
+     */
+    public CustomerIdentificationRace(@Nullable IGGWave ggWave, @Nullable INfcDeviceManager nfcManager,
+                                      @NonNull NfcIdentityParser nfcParser) {
+        if (ggWave == null && nfcManager == null) {
+            throw new IllegalArgumentException("At least one identification channel is required");
+        }
+        if (nfcParser == null) {
+            throw new IllegalArgumentException("NFC identity parser cannot be null");
+        }
+        this.ggWave = ggWave;
+        this.nfcManager = nfcManager;
+        this.nfcParser = nfcParser;
+    }
+
+    /**
+     * Arms both channels and waits for the first identity, without a deadline.
+     * @see #start(Callback, long)
+     */
+    @NonNull
+    public ICancellable start(@NonNull Callback callback) {
+        return start(callback, 0);
+    }
+
+    /**
+     * Arms both channels and waits for the first identity. Starting a new
+     * race cancels the previous one.
+     *
+     * @param callback Receives the outcome on the main thread, must not be null
+     * @param timeoutMs Time to wait for an identity, or 0 to wait until cancelled
+     * @return handle whose cancel() stops both channels without a callback
+     * @throws IllegalArgumentException if callback is null or timeoutMs is negative
+     */
+    @NonNull
+    public ICancellable start(@NonNull Callback callback, long timeoutMs) {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null");
+        }
+        if (timeoutMs < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+
+        Attempt attempt = new Attempt(callback);
+        Attempt previous;
+        synchronized (lock) {
+            previous = current;
+            current = attempt;
+        }
+        if (previous != null) {
+            previous.cancel();
+        }
+        attempt.arm(timeoutMs);
+        return attempt;
+    }
+
+    /**
+     * Sets an opt-in hook told about the winning identity on the thread that
+     * decoded it, before the main-thread hop to {@link Callback#onIdentified},
+     * e.g. a {@link SavedCardPrefetcher}.
+     *
+     * @param listener Listener to notify, or null to remove it
+     */
+    public void setCustomerIdentityListener(@Nullable ICustomerIdentityListener listener) {
+        this.identityListener = listener;
+    }
+
+    /**
+     * Cancels the running race, if any, and stops both channels.
+     */
+    public void cancel() {
+        Attempt attempt;
+        synchronized (lock) {
+            attempt = current;
+        }
+        if (attempt != null) {
+            attempt.cancel();
+        }
+    }
+
+    /**
+     * One race. Settles exactly once; later events from either channel are ignored.
+     */
+    private final class Attempt implements ICancellable {
+
+        private final Callback callback;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+
+        private long startMs;
+        private volatile boolean audioArmed;
+        private volatile boolean nfcArmed;
+        private volatile boolean armingDone;
+        // Set by a channel error, before armingDone is read
+        private volatile boolean nfcFailed;
+        private volatile boolean audioFailed;
+        private volatile String channelError;
+
+        Attempt(Callback callback) {
+            this.callback = callback;
+        }
+
+        void arm(long timeoutMs) {
+            startMs = SystemClock.elapsedRealtime();
+
+            if (nfcManager != null) {
+                // Set first so a tap delivered inside startListening stops NFC when it wins
+                nfcArmed = true;
+                try {
+                    nfcManager.startListening(nfcCallback);
+                } catch (RuntimeException e) {
+                    nfcArmed = false;
+                    Log.w(TAG, "NFC channel could not be armed", e);
+                }
+            }
+            if (ggWave != null && !settled.get()) {
+                if (ggWave.isInitialized()) {
+                    audioArmed = ggWave.startListening(audioCallback);
+                } else {
+                    Log.w(TAG, "GGWave not initialized, racing NFC only");
+                }
+            }
+
+            armingDone = true;
+
+            if (!audioArmed && !nfcArmed) {
+                fail("No identification channel could be started");
+                return;
+            }
+            if (!hasLiveChannel()) {
+                // Every armed channel failed while the other was still arming
+                fail(channelError);
+                return;
+            }
+            if (settled.get()) {
+                // NFC won while audio was arming, after the winner stopped the channels
+                if (audioArmed) {
+                    ggWave.stopListening();
+                }
+                return;
+            }
+            if (timeoutMs > 0) {
+                timers.schedule(this::expire, timeoutMs);
+            }
+            Log.d(TAG, "Identification armed: audio=" + audioArmed + " nfc=" + nfcArmed);
+        }
+
+        private final INfcDeviceManager.NdefCallback nfcCallback = new INfcDeviceManager.NdefCallback() {
+            @Override
+            public void onNdefMessageDiscovered(NdefMessage message) {
+                if (settled.get() || message == null) {
+                    return;
+                }
+                GGWaveMessage identity;
+                try {
+                    identity = nfcParser.parse(message);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "NFC identity parser failed", e);
+                    identity = null;
+                }
+                if (identity == null) {
+                    Log.d(TAG, "Tap did not carry a customer identity, still listening");
+                    return;
+                }
+                win(IdentificationChannel.NFC, identity);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                Log.w(TAG, "NFC channel error: " + errorMessage);
+                channelError = "NFC identification failed: " + errorMessage;
+                nfcFailed = true;
+                if (armingDone && !hasLiveChannel()) {
+                    fail(channelError);
+                }
+            }
+        };
+
+        private final IGGWave.GGWaveCallback audioCallback = new IGGWave.GGWaveCallback() {
+            @Override
+            public boolean onMessageReceived(@NonNull GGWaveMessage message) {
+                if (settled.get()) {
+                    return false;
+                }
+                return !win(IdentificationChannel.AUDIO, message);
+            }
+
+            @Override
+            public boolean onRawMessageReceived(@NonNull String rawMessage) {
+                return !settled.get();
+            }
+
+            @Override
+            public void onError(@NonNull String error) {
+                Log.w(TAG, "Audio channel error: " + error);
+                channelError = "Audio identification failed: " + error;
+                audioFailed = true;
+                if (armingDone && !hasLiveChannel()) {
+                    fail(channelError);
+                }
+            }
+        };
+
+        /**
+         * @return true if a channel is armed and has not reported an error
+         */
+        private boolean hasLiveChannel() {
+            return (nfcArmed && !nfcFailed) || (audioArmed && !audioFailed);
+        }
+
+        /**
+         * @return true if this call decided the race
+         */
+        private boolean win(IdentificationChannel channel, GGWaveMessage identity) {
+            long elapsedMs = SystemClock.elapsedRealtime() - startMs;
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            boolean otherArmed = channel == IdentificationChannel.NFC
+                    ? audioArmed && !audioFailed
+                    : nfcArmed && !nfcFailed;
+            IdentificationResult result = IdentificationResult.builder()
+                    .channel(channel)
+                    .identity(identity)
+                    .elapsedMs(elapsedMs)
+                    .otherChannelArmed(otherArmed)
+                    .build();
+            Log.d(TAG, "Customer identified via " + channel + " in " + elapsedMs + "ms");
+            ICustomerIdentityListener listener = identityListener;
+            if (listener != null) {
+                try {
+                    listener.onCustomerIdentified(identity);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Error in identity listener", e);
+                }
+            }
+            stopChannels();
+            deliver(() -> callback.onIdentified(result));
+            return true;
+        }
+
+        private void expire() {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            long waitedMs = SystemClock.elapsedRealtime() - startMs;
+            Log.d(TAG, "No customer identified within " + waitedMs + "ms");
+            stopChannels();
+            deliver(() -> callback.onTimeout(waitedMs));
+        }
+
+        private void fail(String error) {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            stopChannels();
+            deliver(() -> callback.onError(error));
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return;
+            }
+            if (settled.compareAndSet(false, true)) {
+                stopChannels();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        private void deliver(Runnable outcome) {
+            mainHandler.post(() -> {
+                if (!cancelled.get()) {
+                    outcome.run();
+                }
+            });
+        }
+
+        /**
+         * Stops both channels, unless a newer race already owns them.
+         */
+        private void stopChannels() {
+            timers.cancel();
+            synchronized (lock) {
+                if (current != this) {
+                    return;
+                }
+                current = null;
+            }
+            if (nfcArmed && nfcManager != null) {
+                try {
+                    nfcManager.stopListening();
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Error stopping NFC channel", e);
+                }
+            }
+            if (audioArmed && ggWave != null) {
+                // GGWave is driven by a WebView and must be stopped on the main thread
+                if (Looper.myLooper() == Looper.getMainLooper()) {
+                    ggWave.stopListening();
+                } else {
+                    mainHandler.post(() -> {
+                        synchronized (lock) {
+                            if (current != null) {
+                                // A newer race has re-armed audio meanwhile
+                                return;
+                            }
+                        }
+                        ggWave.stopListening();
+                    });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Common EMV tags and a precomputed lookup of their names and sensitivity.
+ *
+ * Sensitive tags (PAN, track data, cryptograms, cardholder name) must never
+ * be logged or stored; use {@link #isSensitive(int)} to redact.
+ */
+public final class EmvTags {
+
+    // Templates
+    public static final int FCI_TEMPLATE = 0x6F;
+    public static final int FCI_PROPRIETARY_TEMPLATE = 0xA5;
+    public static final int FCI_ISSUER_DISCRETIONARY_DATA = 0xBF0C;
+    public static final int APPLICATION_TEMPLATE = 0x61;
+    public static final int READ_RECORD_TEMPLATE = 0x70;
+    public static final int RESPONSE_TEMPLATE_FORMAT_1 = 0x80;
+    public static final int RESPONSE_TEMPLATE_FORMAT_2 = 0x77;
+
+    // Application selection
+    public static final int DF_NAME = 0x84;
+    public static final int AID = 0x4F;
+    public static final int APPLICATION_LABEL = 0x50;
+    public static final int APPLICATION_PRIORITY_INDICATOR = 0x87;
+    public static final int PDOL = 0x9F38;
+    public static final int LANGUAGE_PREFERENCE = 0x5F2D;
+
+    // Processing options and records
+    public static final int AIP = 0x82;
+    public static final int AFL = 0x94;
+    public static final int CDOL1 = 0x8C;
+    public static final int CDOL2 = 0x8D;
+    public static final int CVM_LIST = 0x8E;
+    public static final int APPLICATION_USAGE_CONTROL = 0x9F07;
+    public static final int IAC_DEFAULT = 0x9F0D;
+    public static final int IAC_DENIAL = 0x9F0E;
+    public static final int IAC_ONLINE = 0x9F0F;
+    public static final int ISSUER_COUNTRY_CODE = 0x5F28;
+    public static final int APPLICATION_EXPIRATION_DATE = 0x5F24;
+    public static final int APPLICATION_EFFECTIVE_DATE = 0x5F25;
+    public static final int PAN_SEQUENCE_NUMBER = 0x5F34;
+    public static final int APPLICATION_VERSION_NUMBER = 0x9F08;
+
+    // Offline data authentication
+    public static final int CA_PUBLIC_KEY_INDEX = 0x8F;
+    public static final int ISSUER_PUBLIC_KEY_CERTIFICATE = 0x90;
+    public static final int ISSUER_PUBLIC_KEY_REMAINDER = 0x92;
+    public static final int ISSUER_PUBLIC_KEY_EXPONENT = 0x9F32;
+    public static final int ICC_PUBLIC_KEY_CERTIFICATE = 0x9F46;
+    public static final int ICC_PUBLIC_KEY_EXPONENT = 0x9F47;
+    public static final int ICC_PUBLIC_KEY_REMAINDER = 0x9F48;
+    public static final int SIGNED_DYNAMIC_APPLICATION_DATA = 0x9F4B;
+
+    // Transaction data
+    public static final int AMOUNT_AUTHORISED = 0x9F02;
+    public static final int AMOUNT_OTHER = 0x9F03;
+    public static final int TRANSACTION_CURRENCY_CODE = 0x5F2A;
+    public static final int APPLICATION_TRANSACTION_COUNTER = 0x9F36;
+    public static final int CRYPTOGRAM_INFORMATION_DATA = 0x9F27;
+    public static final int ISSUER_APPLICATION_DATA = 0x9F10;
+    public static final int UNPREDICTABLE_NUMBER = 0x9F37;
+    public static final int TERMINAL_TRANSACTION_QUALIFIERS = 0x9F66;
+    public static final int CARD_TRANSACTION_QUALIFIERS = 0x9F6C;
+    public static final int FORM_FACTOR_INDICATOR = 0x9F6E;
+
+    // Sensitive: never log or persist
+    public static final int PAN = 0x5A;
+    public static final int TRACK_2_EQUIVALENT_DATA = 0x57;
+    public static final int TRACK_1_DISCRETIONARY_DATA = 0x9F1F;
+    public static final int CARDHOLDER_NAME = 0x5F20;
+    public static final int APPLICATION_CRYPTOGRAM = 0x9F26;
+
+    private static final int[] TAGS = {
+            FCI_TEMPLATE, FCI_PROPRIETARY_TEMPLATE, FCI_ISSUER_DISCRETIONARY_DATA, APPLICATION_TEMPLATE,
+            READ_RECORD_TEMPLATE, RESPONSE_TEMPLATE_FORMAT_1, RESPONSE_TEMPLATE_FORMAT_2,
+            DF_NAME, AID, APPLICATION_LABEL, APPLICATION_PRIORITY_INDICATOR, PDOL, LANGUAGE_PREFERENCE,
+            AIP, AFL, CDOL1, CDOL2, CVM_LIST, APPLICATION_USAGE_CONTROL, IAC_DEFAULT, IAC_DENIAL, IAC_ONLINE,
+            ISSUER_COUNTRY_CODE, APPLICATION_EXPIRATION_DATE, APPLICATION_EFFECTIVE_DATE, PAN_SEQUENCE_NUMBER,
+            APPLICATION_VERSION_NUMBER,
+            CA_PUBLIC_KEY_INDEX, ISSUER_PUBLIC_KEY_CERTIFICATE, ISSUER_PUBLIC_KEY_REMAINDER,
+            ISSUER_PUBLIC_KEY_EXPONENT, ICC_PUBLIC_KEY_CERTIFICATE, ICC_PUBLIC_KEY_EXPONENT,
+            ICC_PUBLIC_KEY_REMAINDER, SIGNED_DYNAMIC_APPLICATION_DATA,
+            AMOUNT_AUTHORISED, AMOUNT_OTHER, TRANSACTION_CURRENCY_CODE, APPLICATION_TRANSACTION_COUNTER,
+            CRYPTOGRAM_INFORMATION_DATA, ISSUER_APPLICATION_DATA, UNPREDICTABLE_NUMBER,
+            TERMINAL_TRANSACTION_QUALIFIERS, CARD_TRANSACTION_QUALIFIERS, FORM_FACTOR_INDICATOR,
+            PAN, TRACK_2_EQUIVALENT_DATA, TRACK_1_DISCRETIONARY_DATA, CARDHOLDER_NAME, APPLICATION_CRYPTOGRAM
+    };
+
+    private static final String[] NAMES = {
+            "FCI Template", "FCI Proprietary Template", "FCI Issuer Discretionary Data", "Application Template",
+            "READ RECORD Response Template", "Response Message Template Format 1",
+            "Response Message Template Format 2",
+            "DF Name", "Application Identifier", "Application Label", "Application Priority Indicator",
+            "PDOL", "Language Preference",
+            "Application Interchange Profile", "Application File Locator", "CDOL1", "CDOL2", "CVM List",
+            "Application Usage Control", "Issuer Action Code - Default", "Issuer Action Code - Denial",
+            "Issuer Action Code - Online",
+            "Issuer Country Code", "Application Expiration Date", "Application Effective Date",
+            "PAN Sequence Number", "Application Version Number",
+            "CA Public Key Index", "Issuer Public Key Certificate", "Issuer Public Key Remainder",
+            "Issuer Public Key Exponent", "ICC Public Key Certificate", "ICC Public Key Exponent",
+            "ICC Public Key Remainder", "Signed Dynamic Application Data",
+            "Amount, Authorised", "Amount, Other", "Transaction Currency Code", "Application Transaction Counter",
+            "Cryptogram Information Data", "Issuer Application Data", "Unpredictable Number",
+            "Terminal Transaction Qualifiers", "Card Transaction Qualifiers", "Form Factor Indicator",
+            "PAN", "Track 2 Equivalent Data", "Track 1 Discretionary Data", "Cardholder Name",
+            "Application Cryptogram"
+    };
+
+    private static final int FIRST_SENSITIVE = TAGS.length - 5;
+
+    private static final TagTable TABLE = new TagTable(TAGS);
+
+    private EmvTags() {
+    }
+
+    /**
+     * @return human-readable name of a known tag, or null if unknown
+     */
+    @Nullable
+    public static String nameOf(int tag) {
+        int slot = TABLE.slotOf(tag);
+        return slot >= 0 ? NAMES[slot] : null;
+    }
+
+    /**
+     * @return true if the tag's value is cardholder data that must be redacted
+     */
+    public static boolean isSensitive(int tag) {
+        return TABLE.slotOf(tag) >= FIRST_SENSITIVE;
+    }
+
+    /**
+     * Formats a tag as upper-case hex, e.g. "9F26".
+     */
+    public static String toHex(int tag) {
+        return Integer.toHexString(tag).toUpperCase(Locale.US);
+    }
+}
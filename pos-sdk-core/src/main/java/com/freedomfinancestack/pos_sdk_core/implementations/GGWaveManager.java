@@ -19,6 +19,7 @@ import android.webkit.WebViewClient;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICustomerIdentityListener;
 import com.freedomfinancestack.pos_sdk_core.interfaces.IGGWave;
 import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
 
@@ -50,6 +51,7 @@ public class GGWaveManager implements IGGWave {
     private WebMessagePort[] messageChannel;
     private GGWaveCallback currentCallback;
     private GGWaveTransmissionCallback currentTransmissionCallback;
+    private volatile ICustomerIdentityListener identityListener;
     private boolean isInitialized = false;
     private boolean isListening = false;
     private int lastVolume;
@@ -169,13 +171,18 @@ public class GGWaveManager implements IGGWave {
         Log.d(TAG, "Received message: [REDACTED]"); // Don't log actual message for privacy
         
         if (currentCallback != null) {
+            CheckoutTracer tracer = CheckoutTracer.getShared();
+            long span = tracer.begin(CheckoutTracer.SPAN_GGWAVE_RECEIVE);
+            boolean ok = false;
             try {
                 // Try to parse as structured DrishtiPay message first
                 try {
                     GGWaveMessage ggWaveMessage = GGWaveMessage.fromJson(rawMessage);
                     if (ggWaveMessage.isValidDrishtiPayMessage()) {
                         Log.d(TAG, "Valid DrishtiPay message received");
+                        notifyIdentified(ggWaveMessage);
                         boolean shouldContinue = currentCallback.onMessageReceived(ggWaveMessage);
+                        ok = true;
                         if (!shouldContinue) {
                             stopListening();
                         }
@@ -188,6 +195,7 @@ public class GGWaveManager implements IGGWave {
                 
                 // If not a valid DrishtiPay message, send as raw message
                 boolean shouldContinue = currentCallback.onRawMessageReceived(rawMessage);
+                ok = true;
                 if (!shouldContinue) {
                     stopListening();
                 }
@@ -195,6 +203,29 @@ public class GGWaveManager implements IGGWave {
             } catch (Exception e) {
                 Log.e(TAG, "Error in message callback", e);
                 currentCallback.onError("Callback error: " + e.getMessage());
+            } finally {
+                tracer.end(span, ok);
+            }
+        }
+    }
+    
+    /**
+     * Sets an opt-in hook told about each valid DrishtiPay identity before
+     * the listening callback, e.g. a {@link SavedCardPrefetcher}.
+     *
+     * @param listener Listener called on the main thread, or null to remove it
+     */
+    public void setCustomerIdentityListener(@Nullable ICustomerIdentityListener listener) {
+        this.identityListener = listener;
+    }
+    
+    private void notifyIdentified(GGWaveMessage message) {
+        ICustomerIdentityListener listener = identityListener;
+        if (listener != null) {
+            try {
+                listener.onCustomerIdentified(message);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error in identity listener", e);
             }
         }
     }
@@ -0,0 +1,490 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pulls the few fields the SDK needs out of gateway JSON responses while
+ * streaming the body.
+ *
+ * Gateway responses carry dozens of fields, but an order needs only its
+ * "id" and a payment only its ID, status and next-action URL. Reading them
+ * with {@link JsonReader} straight from {@link HttpResponse#getBodyStream()}
+ * skips everything else without building the body String or a JSONObject
+ * tree. The reader stops as soon as the wanted fields are known.
+ *
+ * Field names follow the Razorpay API: "id" or "razorpay_payment_id",
+ * "order_id", "status", and "next": [{"action": "redirect", "url": ...}].
+ * Saved cards are read from "items" with a "next_cursor" for paging.
+ * An "error" object is turned into an IllegalStateException carrying its
+ * code and description; a non-2xx response into a {@link GatewayException}
+ * with the HTTP code.
+ *
+ * Example usage:
+ * <pre>
+ * try (HttpResponse response = transport.execute(orderRequest)) {
+ *     String orderId = GatewayResponseReader.readId(response);
+ * }
+ * </pre>
+ *
+ * All methods close the response.
+ */
+public final class GatewayResponseReader {
+
+    private static final int SNIFF_BYTES = 64;
+
+    /**
+     * Thrown for a non-2xx response or a payment the gateway already failed.
+     */
+    public static class GatewayException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private final int httpCode;
+        private final boolean rejection;
+
+        public GatewayException(String message, int httpCode, boolean rejection) {
+            super(message);
+            this.httpCode = httpCode;
+            this.rejection = rejection;
+        }
+
+        /** HTTP status code of the response. */
+        public int getHttpCode() {
+            return httpCode;
+        }
+
+        /**
+         * @return true if the gateway refused the request itself, so sending
+         *         it again cannot succeed: a decline, or a 4xx other than
+         *         408, 409 and 429
+         */
+        public boolean isRejection() {
+            return rejection;
+        }
+    }
+
+    private GatewayResponseReader() {
+    }
+
+    /**
+     * Reads the top-level "id", e.g. of a created order.
+     *
+     * @return the ID, never null
+     * @throws IOException if the body is not valid JSON or has no "id"
+     * @throws IllegalStateException if the gateway returned a non-2xx code or an error object
+     */
+    @NonNull
+    public static String readId(@NonNull HttpResponse response) throws IOException {
+        try (JsonReader reader = openSuccessful(response)) {
+            String id = null;
+            reader.beginObject();
+            while (id == null && reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("id")) {
+                    id = nextStringOrNull(reader);
+                } else if (name.equals("error")) {
+                    throw readError(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            if (id == null) {
+                throw new IOException("Response has no id (HTTP " + response.getCode() + ")");
+            }
+            return id;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Reads the payment ID and next-action URL of a payment creation response.
+     *
+     * Gateways that answer with an HTML page (a 3DS form to post to the
+     * issuer) instead of JSON keep the previous behaviour: the page itself is
+     * returned as the ACS "URL" for a WebView to load. Without a Content-Type
+     * header the body is sniffed.
+     *
+     * "status" is only used to reject a payment the gateway already failed.
+     * PaymentInitiationResponse has no status field; callers learn the live
+     * status from confirmPayment().
+     *
+     * @param orderId Order the payment belongs to, copied into the response
+     * @throws IOException if the body is not valid JSON or has neither a payment ID nor a next URL
+     * @throws IllegalStateException if the gateway returned a non-2xx code, an
+     *         error object or a failed payment
+     */
+    @NonNull
+    public static PaymentInitiationResponse readPaymentInitiation(@NonNull HttpResponse response,
+                                                                  @Nullable String orderId) throws IOException {
+        InputStream body = new BufferedInputStream(response.getBodyStream());
+        try {
+            boolean json = isJson(response, body);
+            if (!response.isSuccessful()) {
+                // Never hand an error page to the WebView as the ACS page
+                throw unsuccessful(response, json ? open(body) : null);
+            }
+            if (!json) {
+                return new PaymentInitiationResponse(readText(body), null, orderId);
+            }
+            JsonReader reader = open(body);
+            String paymentId = null;
+            String nextUrl = null;
+            String responseOrderId = null;
+            String status = null;
+            reader.beginObject();
+            while (reader.hasNext()
+                    && (paymentId == null || nextUrl == null || responseOrderId == null || status == null)) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "id":
+                    case "razorpay_payment_id":
+                        paymentId = nextStringOrNull(reader);
+                        break;
+                    case "order_id":
+                        responseOrderId = nextStringOrNull(reader);
+                        break;
+                    case "status":
+                        status = nextStringOrNull(reader);
+                        break;
+                    case "next":
+                        nextUrl = readNextActionUrl(reader);
+                        break;
+                    case "error":
+                        throw readError(reader);
+                    default:
+                        reader.skipValue();
+                }
+            }
+            if (toPaymentStatus(status) == PaymentStatus.FAILED) {
+                throw new GatewayException("Gateway reported the payment as failed (HTTP "
+                        + response.getCode() + ")", response.getCode(), true);
+            }
+            if (paymentId == null && nextUrl == null) {
+                throw new IOException("Response has no payment id or next action (HTTP " + response.getCode() + ")");
+            }
+            return new PaymentInitiationResponse(nextUrl, paymentId,
+                    responseOrderId != null ? responseOrderId : orderId);
+        } finally {
+            // Closes the body stream the reader wraps
+            response.close();
+        }
+    }
+
+    /**
+     * Reads the top-level "status" of a payment and maps it to a PaymentStatus.
+     *
+     * @return the status, or null if absent or not one the SDK knows
+     * @throws IOException if the body is not valid JSON
+     * @throws IllegalStateException if the gateway returned a non-2xx code or an error object
+     */
+    @Nullable
+    public static PaymentStatus readStatus(@NonNull HttpResponse response) throws IOException {
+        try (JsonReader reader = openSuccessful(response)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("status")) {
+                    return toPaymentStatus(nextStringOrNull(reader));
+                } else if (name.equals("error")) {
+                    throw readError(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            return null;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Reads one page of saved cards: {"items": [{"id", "last4", "network",
+     * "type", "issuer"}, ...], "next_cursor": ...}. Cards are built while the
+     * body streams in, so memory is bounded by the page, not the response.
+     * Network, type and issuer values the SDK has no constant for are left unset.
+     *
+     * @return the page; nextCursor is null when absent
+     * @throws IOException if the body is not valid JSON
+     * @throws IllegalStateException if the gateway returned a non-2xx code or an error object
+     */
+    @NonNull
+    public static CardPage readCardPage(@NonNull HttpResponse response) throws IOException {
+        try (JsonReader reader = openSuccessful(response)) {
+            List<Card> cards = new ArrayList<>();
+            String nextCursor = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("items") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            cards.add(readCard(reader));
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endArray();
+                } else if (name.equals("next_cursor")) {
+                    nextCursor = nextStringOrNull(reader);
+                } else if (name.equals("error")) {
+                    throw readError(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            return new CardPage(cards, nextCursor);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Maps a gateway status string to a PaymentStatus.
+     *
+     * @return the status, or null for unknown values
+     */
+    @Nullable
+    public static PaymentStatus toPaymentStatus(@Nullable String status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status.toLowerCase(Locale.US)) {
+            case "created":
+                return PaymentStatus.CREATED;
+            case "authorized":
+                return PaymentStatus.AUTHORIZED;
+            case "captured":
+            case "paid":
+                return PaymentStatus.PAID;
+            case "failed":
+                return PaymentStatus.FAILED;
+            default:
+                return null;
+        }
+    }
+
+    private static JsonReader open(InputStream body) {
+        return new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens the JSON body of a 2xx response. For any other code, throws the
+     * gateway's error instead, so a proxy's error page or a 5xx with a
+     * partial body is not mistaken for data.
+     */
+    private static JsonReader openSuccessful(HttpResponse response) throws IOException {
+        if (response.isSuccessful()) {
+            return open(response.getBodyStream());
+        }
+        InputStream body = new BufferedInputStream(response.getBodyStream());
+        throw unsuccessful(response, isJson(response, body) ? open(body) : null);
+    }
+
+    /**
+     * Trusts the Content-Type header; without one, peeks at the first
+     * non-whitespace byte. {@code body} must support mark/reset.
+     */
+    private static boolean isJson(HttpResponse response, InputStream body) throws IOException {
+        String contentType = response.getHeader("Content-Type");
+        if (contentType != null) {
+            return contentType.toLowerCase(Locale.US).contains("json");
+        }
+        body.mark(SNIFF_BYTES);
+        try {
+            for (int i = 0; i < SNIFF_BYTES; i++) {
+                int b = body.read();
+                if (b == '{' || b == '[') {
+                    return true;
+                }
+                if (b < 0 || !Character.isWhitespace(b)) {
+                    return false;
+                }
+            }
+            return false;
+        } finally {
+            body.reset();
+        }
+    }
+
+    private static String readText(InputStream body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads "next": [{"action": ..., "url": ...}] and returns the URL of the
+     * redirect action, or of the first action with a URL.
+     */
+    @Nullable
+    private static String readNextActionUrl(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        String first = null;
+        String redirect = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String action = null;
+            String url = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("action")) {
+                    action = nextStringOrNull(reader);
+                } else if (name.equals("url")) {
+                    url = nextStringOrNull(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (url != null) {
+                if (first == null) {
+                    first = url;
+                }
+                if (redirect == null && "redirect".equals(action)) {
+                    redirect = url;
+                }
+            }
+        }
+        reader.endArray();
+        return redirect != null ? redirect : first;
+    }
+
+    private static Card readCard(JsonReader reader) throws IOException {
+        Card.CardBuilder card = Card.builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            String value = nextStringOrNull(reader);
+            if (value == null) {
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    card.cardId(value);
+                    break;
+                case "last4":
+                    card.last4Digits(value);
+                    break;
+                case "network":
+                    card.network(toEnum(Network.class, value));
+                    break;
+                case "type":
+                    card.cardType(toEnum(CardType.class, value));
+                    break;
+                case "issuer":
+                    card.issuerBank(toEnum(IssuerBank.class, value));
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.endObject();
+        return card.build();
+    }
+
+    @Nullable
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the exception for a non-2xx response, using the gateway's error
+     * object when the body is JSON and has one.
+     *
+     * @param reader Reader over a JSON body, or null if the body is not JSON
+     */
+    private static GatewayException unsuccessful(HttpResponse response, @Nullable JsonReader reader) {
+        int code = response.getCode();
+        boolean rejection = code >= 400 && code < 500 && code != 408 && code != 409 && code != 429;
+        if (reader != null) {
+            try {
+                if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals("error")) {
+                            IllegalStateException error = readError(reader);
+                            return new GatewayException(error.getMessage() + " (HTTP " + code + ")", code, rejection);
+                        }
+                        reader.skipValue();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Malformed error body; report the status code alone
+            }
+        }
+        return new GatewayException("Gateway returned HTTP " + code, code, rejection);
+    }
+
+    private static IllegalStateException readError(JsonReader reader) throws IOException {
+        String code = null;
+        String description = null;
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("code")) {
+                    code = nextStringOrNull(reader);
+                } else if (name.equals("description")) {
+                    description = nextStringOrNull(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } else {
+            description = nextStringOrNull(reader);
+        }
+        return new IllegalStateException("Gateway error " + (code != null ? code : "unknown")
+                + (description != null ? ": " + description : ""));
+    }
+
+    @Nullable
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+}
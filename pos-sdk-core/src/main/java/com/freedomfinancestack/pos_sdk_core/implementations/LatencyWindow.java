@@ -0,0 +1,75 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Most recent latency samples in a fixed-size ring, so memory stays constant
+ * on long-running terminals, with nearest-rank percentiles over them.
+ *
+ * Threading: not thread-safe; owners guard it with their own lock.
+ */
+final class LatencyWindow {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final long[] samples;
+    private int next = 0;
+    private int size = 0;
+
+    LatencyWindow() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Samples kept, at least 1
+     */
+    LatencyWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        samples = new long[capacity];
+    }
+
+    /** Adds a sample, replacing the oldest once the window is full. */
+    void add(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /** Number of samples held, at most the capacity. */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the held samples in ascending order, for {@link #percentile}
+     */
+    @NonNull
+    long[] sorted() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Nearest-rank percentile of samples returned by {@link #sorted()}.
+     *
+     * @param p Fraction in (0, 1], e.g. 0.95
+     * @return the percentile, or 0 if there are no samples
+     */
+    static long percentile(@NonNull long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,290 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.content.Context;
+import android.nfc.NdefMessage;
+import android.nfc.NdefRecord;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic high-rate tap generator for throughput testing.
+ *
+ * Emits NDEF messages with a configurable payload size at a target aggregate
+ * rate, spread across several generator threads. Each payload carries its
+ * emission time so consumers can measure dispatch latency with
+ * {@link #getEmitNanos(NdefMessage)}.
+ *
+ * Deliveries are either made directly on the generator threads or posted to a
+ * {@link Looper} (typically the main looper) to expose queueing on that thread.
+ * At most {@code maxInFlight} deliveries may be pending at once; taps emitted
+ * beyond that are counted as dropped instead of piling up on the looper.
+ *
+ * Threading: callbacks run on the dispatch looper if one is configured,
+ * otherwise concurrently on generator threads.
+ */
+public class LoadGeneratorPosPlugin implements IPosNfcPlugin {
+
+    private static final String TAG = "LoadGeneratorPlugin";
+
+    /** MIME type of generated records. */
+    public static final String MIME_TYPE = "application/vnd.drishtipay.load";
+
+    /** Bytes at the start of every payload reserved for emission time and sequence. */
+    public static final int HEADER_BYTES = 16;
+
+    private static final long JOIN_TIMEOUT_MS = 1000;
+
+    private final int payloadBytes;
+    private final int targetRatePerSecond;
+    private final int threadCount;
+    private final int maxInFlight;
+    private final Handler dispatchHandler;
+
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile boolean isListening = false;
+    private Thread[] generators;
+
+    /**
+     * @param payloadBytes Size of each NDEF record payload, at least {@link #HEADER_BYTES}
+     * @param targetRatePerSecond Aggregate tap rate across all generator threads
+     * @param threadCount Number of generator threads
+     * @param maxInFlight Maximum pending deliveries before taps are dropped
+     * @param dispatchLooper Looper to deliver callbacks on, or null to deliver on generator threads
+     */
+    public LoadGeneratorPosPlugin(int payloadBytes, int targetRatePerSecond, int threadCount,
+                                  int maxInFlight, @Nullable Looper dispatchLooper) {
+        if (payloadBytes < HEADER_BYTES) {
+            throw new IllegalArgumentException("Payload must be at least " + HEADER_BYTES + " bytes, got " + payloadBytes);
+        }
+        if (targetRatePerSecond <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive, got " + targetRatePerSecond);
+        }
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threadCount);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight must be positive, got " + maxInFlight);
+        }
+        this.payloadBytes = payloadBytes;
+        this.targetRatePerSecond = targetRatePerSecond;
+        this.threadCount = threadCount;
+        this.maxInFlight = maxInFlight;
+        this.dispatchHandler = dispatchLooper != null ? new Handler(dispatchLooper) : null;
+    }
+
+    @Override
+    public void initialize(Context context) throws Exception {
+        Log.d(TAG, "Load generator initialized: " + targetRatePerSecond + " taps/s, " +
+              payloadBytes + " byte payloads, " + threadCount + " threads");
+    }
+
+    @Override
+    public void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null");
+        }
+        Thread[] previous;
+        synchronized (this) {
+            isListening = false;
+            previous = detachGenerators();
+        }
+        joinGenerators(previous);
+
+        synchronized (this) {
+            // A concurrent startListening() may have started generators meanwhile
+            detachGenerators();
+            isListening = true;
+            long intervalNanos = 1_000_000_000L * threadCount / targetRatePerSecond;
+            generators = new Thread[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                // Stagger threads so the aggregate stream is evenly spaced
+                long offsetNanos = intervalNanos * i / threadCount;
+                generators[i] = new Thread(() -> generate(callback, intervalNanos, offsetNanos), TAG + "-" + i);
+                generators[i].start();
+            }
+        }
+    }
+
+    private void generate(INfcDeviceManager.NdefCallback callback, long intervalNanos, long offsetNanos) {
+        long dueNanos = System.nanoTime() + offsetNanos;
+        while (isListening && !Thread.currentThread().isInterrupted()) {
+            long remaining;
+            while ((remaining = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+                if (!isListening || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            dueNanos += intervalNanos;
+            emit(callback);
+        }
+    }
+
+    private void emit(INfcDeviceManager.NdefCallback callback) {
+        emitted.incrementAndGet();
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+
+        NdefMessage message = createMessage(sequence.getAndIncrement());
+        if (dispatchHandler == null) {
+            dispatch(callback, message);
+        } else if (!dispatchHandler.post(() -> dispatch(callback, message))) {
+            // Looper is quitting
+            inFlight.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void dispatch(INfcDeviceManager.NdefCallback callback, NdefMessage message) {
+        try {
+            // Deliveries still queued when listening stops are discarded, not counted as drops
+            if (isListening) {
+                callback.onNdefMessageDiscovered(message);
+                delivered.incrementAndGet();
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private NdefMessage createMessage(long seq) {
+        byte[] payload = new byte[payloadBytes];
+        ByteBuffer.wrap(payload).putLong(System.nanoTime()).putLong(seq);
+        return new NdefMessage(NdefRecord.createMime(MIME_TYPE, payload));
+    }
+
+    /**
+     * Reads the emission time embedded by this plugin.
+     * @param message A message produced by this plugin
+     * @return System.nanoTime() at emission, or -1 if the message was not generated here
+     */
+    public static long getEmitNanos(@NonNull NdefMessage message) {
+        NdefRecord[] records = message.getRecords();
+        if (records.length == 0) {
+            return -1;
+        }
+        byte[] payload = records[0].getPayload();
+        if (payload == null || payload.length < HEADER_BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(payload).getLong(0);
+    }
+
+    @Override
+    public void stopListening() throws Exception {
+        Thread[] stopped;
+        synchronized (this) {
+            isListening = false;
+            stopped = detachGenerators();
+        }
+        joinGenerators(stopped);
+    }
+
+    /**
+     * Interrupts the generator threads and forgets them. Called with the
+     * instance lock held.
+     *
+     * @return the interrupted threads, or null if none were running
+     */
+    private Thread[] detachGenerators() {
+        Thread[] detached = generators;
+        generators = null;
+        if (detached != null) {
+            for (Thread generator : detached) {
+                generator.interrupt();
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Waits for detached generator threads, so no delivery made on a
+     * generator thread is still running once listening has stopped. Called
+     * without the instance lock, so a callback that stops listening from its
+     * generator thread is not blocked behind the join.
+     */
+    private static void joinGenerators(Thread[] detached) {
+        if (detached == null) {
+            return;
+        }
+        for (Thread generator : detached) {
+            // A callback may stop listening from its generator thread
+            if (generator == Thread.currentThread()) {
+                continue;
+            }
+            try {
+                generator.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    @Override
+    public boolean isListening() {
+        return isListening;
+    }
+
+    @Override
+    public String getPluginInfo() {
+        return "Load Generator Plugin v1.0 (" + targetRatePerSecond + " taps/s, " +
+               payloadBytes + " bytes, " + threadCount + " threads)";
+    }
+
+    @Override
+    public String getSupportedDevices() {
+        return "Any device (synthetic load, no hardware required)";
+    }
+
+    @Override
+    public void cleanup() {
+        try {
+            stopListening();
+        } catch (Exception e) {
+            Log.e(TAG, "Error during cleanup", e);
+        }
+    }
+
+    /** Taps produced by generator threads, including dropped ones. */
+    public long getEmittedCount() {
+        return emitted.get();
+    }
+
+    /** Taps handed to the callback. */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /** Taps discarded because too many deliveries were already pending. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Resets emitted, delivered and dropped counters. */
+    public void resetCounters() {
+        emitted.set(0);
+        delivered.set(0);
+        dropped.set(0);
+    }
+}
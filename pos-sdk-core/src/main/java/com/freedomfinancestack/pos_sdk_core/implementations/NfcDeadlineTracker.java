@@ -0,0 +1,241 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.nfc.NdefMessage;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager.DeadlineCallback;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager.NdefCallback;
+import com.freedomfinancestack.pos_sdk_core.models.NfcReadStats;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implements {@link INfcDeviceManager#startListening(DeadlineCallback, long)}
+ * for a manager: keeps the deadline of the current listen on the shared
+ * {@link PosScheduler} and records taps, timeouts and cancellations.
+ *
+ * The manager reports every listen it starts and every stop, so a deadline
+ * superseded by a later listen is discarded and can no longer power down the
+ * reader that the later listen is using.
+ *
+ * Example usage in a manager:
+ * <pre>
+ * private final NfcDeadlineTracker deadlines = new NfcDeadlineTracker(this);
+ *
+ * public ICancellable startListening(DeadlineCallback callback, long timeoutMs) {
+ *     return deadlines.start(callback, timeoutMs);
+ * }
+ *
+ * public void startListening(NdefCallback callback) {
+ *     deadlines.onListenStarted(callback);
+ *     plugin.startListening(callback);
+ * }
+ *
+ * public void stopListening() {
+ *     plugin.stopListening();
+ *     deadlines.onListenStopped();
+ * }
+ * </pre>
+ *
+ * Threading: thread-safe. onTimeout() is delivered on a scheduler thread.
+ */
+public final class NfcDeadlineTracker {
+
+    private static final String TAG = "NfcDeadline";
+
+    private final INfcDeviceManager manager;
+    private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+    private final ReadTimingRecorder readTiming = new ReadTimingRecorder();
+
+    private final Object lock = new Object();
+    private Listen current;
+
+    /**
+     * @param manager Manager whose startListening/stopListening drive the reader
+     */
+    public NfcDeadlineTracker(@NonNull INfcDeviceManager manager) {
+        if (manager == null) {
+            throw new IllegalArgumentException("Manager cannot be null");
+        }
+        this.manager = manager;
+    }
+
+    /**
+     * Starts a deadline-bound listen through the manager's
+     * {@link INfcDeviceManager#startListening(NdefCallback)}.
+     *
+     * @param callback The callback for taps, errors and the timeout, must not be null
+     * @param timeoutMs Time to wait for the first tap, must be positive
+     * @return handle whose cancel() discards the deadline and, if this listen
+     *         is still the current one, stops listening
+     * @throws IllegalArgumentException if callback is null or timeoutMs is not positive
+     */
+    @NonNull
+    public ICancellable start(@NonNull DeadlineCallback callback, long timeoutMs) {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null");
+        }
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive, got " + timeoutMs);
+        }
+
+        Listen listen = new Listen(callback);
+        manager.startListening(listen);
+        listen.arm(timeoutMs);
+        return listen;
+    }
+
+    /**
+     * Call when the manager starts listening with {@code callback}. Any other
+     * listen's deadline is discarded.
+     */
+    public void onListenStarted(@Nullable NdefCallback callback) {
+        replaceCurrent(callback instanceof Listen && ((Listen) callback).owner() == this
+                ? (Listen) callback : null);
+    }
+
+    /**
+     * Call when the manager stops listening. The current deadline is discarded.
+     */
+    public void onListenStopped() {
+        replaceCurrent(null);
+    }
+
+    /**
+     * Taps, timeouts, cancellations and time-to-tap distribution of the
+     * deadline-bound listens started through this tracker.
+     */
+    @NonNull
+    public NfcReadStats getReadStats() {
+        return readTiming.snapshot();
+    }
+
+    /**
+     * Clears the statistics returned by {@link #getReadStats()}.
+     */
+    public void resetReadStats() {
+        readTiming.reset();
+    }
+
+    private void replaceCurrent(@Nullable Listen listen) {
+        Listen previous;
+        synchronized (lock) {
+            previous = current;
+            current = listen;
+        }
+        if (previous != null && previous != listen) {
+            previous.discardDeadline();
+        }
+    }
+
+    private boolean isCurrent(Listen listen) {
+        synchronized (lock) {
+            return current == listen;
+        }
+    }
+
+    /**
+     * One deadline-bound listen. Forwards events to the caller and settles
+     * exactly once: by the first tap, an error, the timeout, cancel, or being
+     * superseded.
+     */
+    private final class Listen implements NdefCallback, ICancellable {
+        private final DeadlineCallback callback;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+        private volatile ICancellable timer;
+
+        Listen(DeadlineCallback callback) {
+            this.callback = callback;
+        }
+
+        NfcDeadlineTracker owner() {
+            return NfcDeadlineTracker.this;
+        }
+
+        void arm(long timeoutMs) {
+            if (settled.get()) {
+                // Failed to start, tapped or cancelled already
+                return;
+            }
+            timer = timers.schedule(this::expire, timeoutMs);
+            if (settled.get()) {
+                // Settled before the timer was stored
+                timer.cancel();
+            }
+        }
+
+        private long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        private void disarm() {
+            ICancellable t = timer;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        @Override
+        public void onNdefMessageDiscovered(NdefMessage message) {
+            if (settled.compareAndSet(false, true)) {
+                disarm();
+                readTiming.recordTap(elapsedMs());
+            }
+            callback.onNdefMessageDiscovered(message);
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            // The caller has its outcome; a timeout must not follow
+            if (settled.compareAndSet(false, true)) {
+                disarm();
+            }
+            callback.onError(errorMessage);
+        }
+
+        private void expire() {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            long waitedMs = elapsedMs();
+            if (isCurrent(this)) {
+                Log.d(TAG, "No tap within deadline, powering reader down");
+                manager.stopListening();
+            }
+            readTiming.recordTimeout();
+            try {
+                callback.onTimeout(waitedMs);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error in timeout callback", e);
+            }
+        }
+
+        void discardDeadline() {
+            if (settled.compareAndSet(false, true)) {
+                disarm();
+                readTiming.recordCancelled();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            discardDeadline();
+            if (isCurrent(this)) {
+                manager.stopListening();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
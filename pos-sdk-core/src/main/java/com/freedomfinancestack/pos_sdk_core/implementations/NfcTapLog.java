@@ -0,0 +1,192 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary log of NFC tap events, shared by {@link RecordingPosPlugin}
+ * and {@link ReplayPosPlugin}.
+ *
+ * Layout: 4 byte magic "DPNT", 1 byte version, then a sequence of entries
+ * until end of file. Each entry is
+ * <pre>
+ * [kind:1][delta micros since previous entry:varint][length:varint][payload:length]
+ * </pre>
+ * where the payload is {@code NdefMessage.toByteArray()} for taps and UTF-8
+ * text for errors. Recordings are treated as untrusted input on read.
+ */
+final class NfcTapLog {
+
+    static final byte KIND_MESSAGE = 0;
+    static final byte KIND_ERROR = 1;
+
+    /** Upper bound for a single payload; guards against corrupt or hostile files. */
+    static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    private static final byte[] MAGIC = {'D', 'P', 'N', 'T'};
+    private static final byte VERSION = 1;
+
+    private NfcTapLog() {
+    }
+
+    /**
+     * A single recorded event. Instances are reused by {@link Reader#next(Entry)}.
+     */
+    static final class Entry {
+        byte kind;
+        long deltaMicros;
+        byte[] payload;
+        int length;
+
+        @NonNull
+        String errorText() {
+            return new String(payload, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Appends entries to a recording. Not thread-safe; callers synchronize.
+     */
+    static final class Writer implements Closeable {
+        private final OutputStream out;
+        private long lastNanos;
+
+        Writer(@NonNull File file) throws IOException {
+            this.out = new BufferedOutputStream(new FileOutputStream(file), 16 * 1024);
+            out.write(MAGIC);
+            out.write(VERSION);
+            lastNanos = System.nanoTime();
+        }
+
+        void writeMessage(@NonNull byte[] ndefBytes) throws IOException {
+            write(KIND_MESSAGE, ndefBytes);
+        }
+
+        void writeError(@NonNull String error) throws IOException {
+            write(KIND_ERROR, error.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void write(byte kind, byte[] payload) throws IOException {
+            long now = System.nanoTime();
+            long deltaMicros = Math.max(0, (now - lastNanos) / 1000);
+            lastNanos = now;
+
+            out.write(kind);
+            writeVarLong(out, deltaMicros);
+            writeVarLong(out, payload.length);
+            out.write(payload);
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Sequential reader over a recording.
+     */
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        Reader(@NonNull File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 16 * 1024));
+            try {
+                byte[] magic = new byte[MAGIC.length];
+                in.readFully(magic);
+                for (int i = 0; i < MAGIC.length; i++) {
+                    if (magic[i] != MAGIC[i]) {
+                        throw new IOException("Not an NFC tap recording: " + file.getName());
+                    }
+                }
+                int version = in.readUnsignedByte();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported NFC tap recording version: " + version);
+                }
+            } catch (EOFException e) {
+                in.close();
+                throw new IOException("Truncated NFC tap recording header: " + file.getName(), e);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the next entry into {@code reuse}.
+         * @return the filled entry, or null at end of recording
+         * @throws IOException if the entry is truncated or malformed
+         */
+        @Nullable
+        Entry next(@NonNull Entry reuse) throws IOException {
+            int kind = in.read();
+            if (kind < 0) {
+                return null;
+            }
+            if (kind != KIND_MESSAGE && kind != KIND_ERROR) {
+                throw new IOException("Unknown entry kind in NFC tap recording: " + kind);
+            }
+
+            long deltaMicros = readVarLong(in);
+            long length = readVarLong(in);
+            if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                throw new IOException("Invalid entry length in NFC tap recording: " + length);
+            }
+
+            if (reuse.payload == null || reuse.payload.length < length) {
+                reuse.payload = new byte[(int) length];
+            }
+            in.readFully(reuse.payload, 0, (int) length);
+
+            reuse.kind = (byte) kind;
+            reuse.deltaMicros = deltaMicros;
+            reuse.length = (int) length;
+            return reuse;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint in NFC tap recording");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in NFC tap recording");
+    }
+}
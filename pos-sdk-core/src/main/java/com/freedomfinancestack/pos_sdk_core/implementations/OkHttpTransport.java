@@ -0,0 +1,291 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport;
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * {@link IHttpTransport} backed by a single pooled OkHttp client.
+ *
+ * All instances in the process share one connection pool and dispatcher, so
+ * payment and card backends reuse each other's connections to the same host.
+ * Connections stay alive between checkouts and HTTP/2 is negotiated where the
+ * server supports it, multiplexing concurrent lanes over one TLS connection.
+ * An EventListener counts reused connections versus new handshakes.
+ *
+ * Example usage:
+ * <pre>
+ * // Application.onCreate()
+ * IHttpTransport transport = new OkHttpTransport(BuildConfig.BASE_URL);
+ * transport.warmup();
+ *
+ * // Inside an IPayment implementation
+ * try (HttpResponse response = transport.execute(HttpRequest.builder()
+ *         .method("POST").path("orders")
+ *         .header("Authorization", credentials)
+ *         .contentType("application/json").body(json)
+ *         .build())) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * The base URL may point at a local mock server (e.g. http://127.0.0.1:8080/),
+ * which makes implementations testable without the real gateway.
+ *
+ * Threading: execute() blocks; never call it on the main thread.
+ */
+public class OkHttpTransport implements IHttpTransport {
+
+    private static final String TAG = "OkHttpTransport";
+
+    public static final long DEFAULT_CONNECT_TIMEOUT_MS = 10_000;
+    public static final long DEFAULT_READ_TIMEOUT_MS = 30_000;
+
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static final Object WARMUP_TAG = new Object();
+
+    private static volatile OkHttpClient root;
+
+    private final HttpUrl baseUrl;
+    private final OkHttpClient client;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong tlsHandshakes = new AtomicLong();
+    private final AtomicLong dnsLookups = new AtomicLong();
+    private final AtomicLong http2Calls = new AtomicLong();
+    private final AtomicLong warmups = new AtomicLong();
+
+    /**
+     * @param baseUrl Backend base URL, e.g. "https://api.razorpay.com/v1/"
+     * @throws IllegalArgumentException if the URL is not a valid http(s) URL
+     */
+    public OkHttpTransport(@NonNull String baseUrl) {
+        this(baseUrl, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS);
+    }
+
+    /**
+     * @param baseUrl Backend base URL, e.g. "https://api.razorpay.com/v1/"
+     * @param connectTimeoutMs Connect and TLS handshake timeout
+     * @param readTimeoutMs Read and write timeout
+     * @throws IllegalArgumentException if the URL is not a valid http(s) URL
+     */
+    public OkHttpTransport(@NonNull String baseUrl, long connectTimeoutMs, long readTimeoutMs) {
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("Base URL cannot be null");
+        }
+        HttpUrl parsed = HttpUrl.parse(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid base URL");
+        }
+        this.baseUrl = parsed;
+        this.client = getRoot().newBuilder()
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .eventListenerFactory(call -> new CountingListener())
+                .build();
+    }
+
+    /**
+     * The underlying client, for integrators who need raw OkHttp. It shares
+     * this transport's pool and counters.
+     */
+    @NonNull
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    @NonNull
+    @Override
+    public HttpResponse execute(@NonNull HttpRequest request) throws IOException {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null");
+        }
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase(Locale.US) : "GET";
+        String path = request.getPath() != null ? request.getPath() : "";
+        HttpUrl url = baseUrl.resolve(path);
+        if (url == null) {
+            throw new IllegalArgumentException("Invalid request path");
+        }
+
+        Request.Builder builder = new Request.Builder().url(url);
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        MediaType contentType = request.getContentType() != null ? MediaType.parse(request.getContentType()) : null;
+        RequestBody body = null;
+        if (request.getBody() != null) {
+            body = RequestBody.create(request.getBody(), contentType);
+        } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+            body = RequestBody.create(new byte[0], contentType);
+        }
+        builder.method(method, body);
+
+        Call call = client.newCall(builder.build());
+        if (request.getTimeoutMs() > 0) {
+            call.timeout().timeout(request.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        Response response = call.execute();
+
+        Map<String, String> headers = new HashMap<>();
+        for (String name : response.headers().names()) {
+            headers.put(name, response.header(name));
+        }
+        ResponseBody responseBody = response.body();
+        InputStream stream = responseBody != null ? responseBody.byteStream() : new ByteArrayInputStream(new byte[0]);
+        return new HttpResponse(response.code(), headers, stream, response);
+    }
+
+    @Override
+    public void warmup() {
+        warmups.incrementAndGet();
+        Request request = new Request.Builder().url(baseUrl).head().tag(WARMUP_TAG).build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+                Log.d(TAG, "Warmed up connection, protocol " + response.protocol());
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "Warmup failed: " + e.getMessage());
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public HttpTransportStats getStats() {
+        ConnectionPool pool = client.connectionPool();
+        return HttpTransportStats.builder()
+                .callCount(calls.get())
+                .failedCallCount(failedCalls.get())
+                .reusedConnections(reusedConnections.get())
+                .newConnections(newConnections.get())
+                .tlsHandshakes(tlsHandshakes.get())
+                .dnsLookups(dnsLookups.get())
+                .http2Calls(http2Calls.get())
+                .warmups(warmups.get())
+                .idleConnections(pool.idleConnectionCount())
+                .openConnections(pool.connectionCount())
+                .build();
+    }
+
+    private static OkHttpClient getRoot() {
+        OkHttpClient instance = root;
+        if (instance == null) {
+            synchronized (OkHttpTransport.class) {
+                instance = root;
+                if (instance == null) {
+                    instance = new OkHttpClient.Builder()
+                            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                            .retryOnConnectionFailure(true)
+                            .build();
+                    root = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Per-call listener; a call that acquires a connection without opening
+     * one reused a pooled connection.
+     */
+    private final class CountingListener extends EventListener {
+
+        private boolean connected;
+        private boolean warmup;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            warmup = call.request().tag() == WARMUP_TAG;
+            if (!warmup) {
+                calls.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsLookups.incrementAndGet();
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                                 @NonNull Proxy proxy) {
+            connected = true;
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            tlsHandshakes.incrementAndGet();
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                               @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            newConnections.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            if (warmup) {
+                return;
+            }
+            if (!connected) {
+                reusedConnections.incrementAndGet();
+            }
+            if (connection.protocol() == Protocol.HTTP_2) {
+                http2Calls.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            if (!warmup) {
+                failedCalls.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.JournaledPaymentState;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.JournaledPayment;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only journal of payment state changes.
+ *
+ * Every change to a payment is appended as a full {@link JournaledPayment}
+ * snapshot; on open the journal replays all segments and the latest snapshot
+ * per idempotency key wins. Snapshots of payments that are not yet terminal
+ * are available through {@link #getPending()}, so work interrupted by a crash
+ * or a network outage can be resumed.
+ *
+ * Appends only encode the snapshot and queue it, which takes well under a
+ * millisecond and is safe on the main thread. A single writer thread drains
+ * the queue, writes everything queued so far with one FileChannel write and
+ * makes it durable with one fsync (group commit). The returned
+ * {@link PendingResult} completes once the record is on disk.
+ *
+ * Layout: the directory holds segments named {@code segment-<sequence>.log}.
+ * Each segment starts with the 4 byte magic "DPPJ" and a 1 byte version,
+ * followed by records
+ * <pre>
+ * [payload length:4][CRC32 of payload:4][payload:length]
+ * </pre>
+ * A torn or corrupt record ends replay of its segment. When the active
+ * segment exceeds the size limit, and on every open, a new segment is started
+ * with the latest snapshot of each pending payment and older segments are
+ * deleted, so the journal stays proportional to the outstanding work.
+ *
+ * Card numbers are never written; snapshots hold the saved card reference only.
+ *
+ * Example usage:
+ * <pre>
+ * PaymentJournal journal = new PaymentJournal(new File(context.getFilesDir(), "payments"));
+ * for (JournaledPayment pending : journal.getPending()) {
+ *     ...
+ * }
+ * journal.append(snapshot);                 // returns immediately
+ * journal.append(snapshot).get();           // waits until durable; not on the main thread
+ * </pre>
+ */
+public class PaymentJournal implements Closeable {
+
+    private static final String TAG = "PaymentJournal";
+
+    /** Segment size after which a new segment is started. */
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 1024 * 1024;
+
+    /** Upper bound for one record; guards against corrupt length fields. */
+    static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private static final byte[] MAGIC = {'D', 'P', 'P', 'J'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = MAGIC.length + 1;
+    private static final int RECORD_OVERHEAD = 8;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Records written per fsync at most. */
+    private static final int MAX_BATCH = 256;
+
+    private final File directory;
+    private final long maxSegmentBytes;
+
+    // Latest snapshot per pending key as appended; read by callers
+    private final Map<String, JournaledPayment> latest = new LinkedHashMap<>();
+    private boolean closed;
+
+    // Writer thread only: encoded latest record of each non-terminal key on disk
+    private final Map<String, byte[]> durablePending = new LinkedHashMap<>();
+    private long segmentSequence;
+    private RandomAccessFile segmentFile;
+    private FileChannel segment;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(16 * 1024);
+
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    private final Append closeMarker = new Append(null, null, null, null);
+    private final Thread writer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong corruptRecords = new AtomicLong();
+
+    /**
+     * Opens or creates a journal with the default segment size.
+     *
+     * @param directory Directory used only by this journal; created if missing
+     * @throws IOException if the directory cannot be created or a segment cannot be written
+     */
+    public PaymentJournal(@NonNull File directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens or creates a journal, replaying existing segments. Blocks on disk
+     * I/O; open the journal off the main thread.
+     *
+     * @param directory Directory used only by this journal; created if missing
+     * @param maxSegmentBytes Size after which a new segment is started
+     * @throws IOException if the directory cannot be created or a segment cannot be written
+     */
+    public PaymentJournal(@NonNull File directory, long maxSegmentBytes) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        if (maxSegmentBytes < HEADER_BYTES + RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Segment size too small");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory: " + directory);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+
+        long lastSequence = replay();
+        startSegment(lastSequence + 1);
+
+        writer = new Thread(this::writeLoop, "payment-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records a payment snapshot. Returns immediately.
+     *
+     * @param payment Snapshot to record; later changes to the object are not recorded
+     * @return call completing with the record's sequence number once it is durable
+     * @throws IllegalArgumentException if the key or state is missing or the snapshot is too large
+     * @throws IllegalStateException if the journal is closed
+     */
+    @NonNull
+    public PendingResult<Long> append(@NonNull JournaledPayment payment) {
+        if (payment == null || payment.getIdempotencyKey() == null || payment.getState() == null) {
+            throw new IllegalArgumentException("Payment must have an idempotency key and state");
+        }
+        byte[] record = encode(payment);
+        JournaledPayment copy = payment.toBuilder().build();
+        PendingResult<Long> call = new PendingResult<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("PaymentJournal is closed");
+            }
+            if (copy.getState().isTerminal()) {
+                latest.remove(copy.getIdempotencyKey());
+            } else {
+                latest.put(copy.getIdempotencyKey(), copy);
+            }
+            // Queued under the lock so the write order matches the order of `latest`
+            queue.add(new Append(copy.getIdempotencyKey(), copy.getState(), record, call));
+        }
+        appends.incrementAndGet();
+        return call;
+    }
+
+    /**
+     * @return latest snapshot of the pending payment with this key, or null if
+     *         unknown or already terminal
+     */
+    @Nullable
+    public synchronized JournaledPayment get(@NonNull String idempotencyKey) {
+        JournaledPayment payment = latest.get(idempotencyKey);
+        return payment != null ? payment.toBuilder().build() : null;
+    }
+
+    /**
+     * @return latest snapshot of the non-terminal payment with this gateway payment ID, or null
+     */
+    @Nullable
+    public synchronized JournaledPayment findByPaymentId(@NonNull String paymentId) {
+        for (JournaledPayment payment : latest.values()) {
+            if (paymentId.equals(payment.getPaymentId())) {
+                return payment.toBuilder().build();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return latest snapshots of all payments that are not yet terminal, oldest first
+     */
+    @NonNull
+    public synchronized List<JournaledPayment> getPending() {
+        List<JournaledPayment> pending = new ArrayList<>();
+        for (JournaledPayment payment : latest.values()) {
+            pending.add(payment.toBuilder().build());
+        }
+        return pending;
+    }
+
+    /** Snapshots appended since open. */
+    public long getAppendCount() {
+        return appends.get();
+    }
+
+    /** fsync calls since open; lower than the append count when appends are grouped. */
+    public long getSyncCount() {
+        return syncs.get();
+    }
+
+    /** Torn or corrupt records skipped during replay. */
+    public long getCorruptRecordCount() {
+        return corruptRecords.get();
+    }
+
+    /**
+     * Writes everything already appended, then closes the journal. Blocks.
+     * Idempotent.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(closeMarker);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- Writer thread ----
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Only close() stops the writer
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            int marker = batch.indexOf(closeMarker);
+            if (marker >= 0) {
+                // Nothing can be queued after the marker
+                batch.remove(marker);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            batch.clear();
+        }
+        closeSegment();
+    }
+
+    private void writeBatch(List<Append> batch) {
+        long end = -1;
+        try {
+            writeBuffer.clear();
+            for (Append append : batch) {
+                putRecord(append.record);
+            }
+            writeBuffer.flip();
+            end = segment.position();
+            while (writeBuffer.hasRemaining()) {
+                segment.write(writeBuffer);
+            }
+            segment.force(false);
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            Log.e(TAG, "Journal write failed", e);
+            if (end >= 0) {
+                dropPartialBatch(end);
+            }
+            for (Append append : batch) {
+                append.call.fail(e);
+            }
+            return;
+        }
+
+        for (Append append : batch) {
+            if (append.state.isTerminal()) {
+                durablePending.remove(append.key);
+            } else {
+                durablePending.put(append.key, append.record);
+            }
+            append.call.complete(sequence.incrementAndGet());
+        }
+
+        try {
+            if (segment.size() >= maxSegmentBytes) {
+                startSegment(segmentSequence + 1);
+            }
+        } catch (IOException e) {
+            // Keep appending to the current segment; rotation is retried after the next batch
+            Log.w(TAG, "Journal rotation failed", e);
+        }
+    }
+
+    /**
+     * Removes the records of a failed batch so that replay neither stops at a
+     * torn record nor resurrects appends whose callers were told they failed.
+     * Starts a new segment if the file cannot be cut back.
+     */
+    private void dropPartialBatch(long end) {
+        try {
+            segment.truncate(end);
+            segment.force(false);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not drop partial batch, starting a new segment", e);
+            try {
+                startSegment(segmentSequence + 1);
+            } catch (IOException rotation) {
+                // Replay stops at the torn record; the next rotation retries
+                Log.w(TAG, "Journal rotation failed", rotation);
+            }
+        }
+    }
+
+    private void putRecord(byte[] record) {
+        if (writeBuffer.remaining() < record.length + RECORD_OVERHEAD) {
+            int needed = writeBuffer.position() + record.length + RECORD_OVERHEAD;
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, writeBuffer.capacity() * 2));
+            writeBuffer.flip();
+            larger.put(writeBuffer);
+            writeBuffer = larger;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        writeBuffer.putInt(record.length);
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.put(record);
+    }
+
+    /**
+     * Starts segment {@code next} with the pending snapshots, makes it durable,
+     * then deletes every older segment.
+     */
+    private void startSegment(long next) throws IOException {
+        File file = segmentFile(next);
+        RandomAccessFile newFile = new RandomAccessFile(file, "rw");
+        FileChannel newSegment = newFile.getChannel();
+        try {
+            newSegment.truncate(0);
+            writeBuffer.clear();
+            writeBuffer.put(MAGIC).put(VERSION);
+            for (byte[] record : durablePending.values()) {
+                putRecord(record);
+            }
+            writeBuffer.flip();
+            while (writeBuffer.hasRemaining()) {
+                newSegment.write(writeBuffer);
+            }
+            newSegment.force(true);
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            newFile.close();
+            if (!file.delete()) {
+                Log.w(TAG, "Could not remove partial segment " + file.getName());
+            }
+            throw e;
+        }
+
+        closeSegment();
+        segmentFile = newFile;
+        segment = newSegment;
+        segmentSequence = next;
+
+        for (long old : listSegments()) {
+            if (old < next && !segmentFile(old).delete()) {
+                Log.w(TAG, "Could not delete old segment " + old);
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (segmentFile != null) {
+            try {
+                segmentFile.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Closing segment failed", e);
+            }
+        }
+    }
+
+    // ---- Replay ----
+
+    /**
+     * Reads all segments into {@link #latest} and {@link #durablePending}.
+     *
+     * @return sequence of the newest segment, or 0 if there is none
+     */
+    private long replay() {
+        long last = 0;
+        for (long number : listSegments()) {
+            File file = segmentFile(number);
+            try {
+                replaySegment(file);
+            } catch (IOException e) {
+                Log.w(TAG, "Stopped replaying " + file.getName() + ": " + e.getMessage());
+            }
+            last = number;
+        }
+        Iterator<JournaledPayment> replayed = latest.values().iterator();
+        while (replayed.hasNext()) {
+            if (replayed.next().getState().isTerminal()) {
+                replayed.remove();
+            }
+        }
+        for (JournaledPayment payment : latest.values()) {
+            durablePending.put(payment.getIdempotencyKey(), encode(payment));
+        }
+        if (!durablePending.isEmpty()) {
+            Log.i(TAG, "Replayed " + durablePending.size() + " pending payment(s)");
+        }
+        return last;
+    }
+
+    private void replaySegment(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 16 * 1024))) {
+            byte[] magic = new byte[MAGIC.length];
+            try {
+                in.readFully(magic);
+                if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                    throw new IOException("Not a payment journal segment");
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated segment header", e);
+            }
+
+            byte[] payload = new byte[256];
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    int expected = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("Invalid record length " + length);
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[length];
+                    }
+                    in.readFully(payload, 0, length);
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != expected) {
+                        throw new IOException("Checksum mismatch");
+                    }
+                } catch (EOFException e) {
+                    // A torn write at the tail after a crash
+                    corruptRecords.incrementAndGet();
+                    throw new IOException("Truncated record", e);
+                } catch (IOException e) {
+                    corruptRecords.incrementAndGet();
+                    throw e;
+                }
+                JournaledPayment payment;
+                try {
+                    payment = decode(payload, length);
+                } catch (IOException | IllegalArgumentException e) {
+                    corruptRecords.incrementAndGet();
+                    Log.w(TAG, "Skipping undecodable record: " + e.getMessage());
+                    continue;
+                }
+                latest.put(payment.getIdempotencyKey(), payment);
+            }
+        }
+    }
+
+    private long[] listSegments() {
+        File[] files = directory.listFiles();
+        List<Long> numbers = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                        // Not ours
+                    }
+                }
+            }
+        }
+        long[] sorted = new long[numbers.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = numbers.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private File segmentFile(long number) {
+        return new File(directory, String.format(Locale.US, "%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    // ---- Encoding ----
+
+    private static byte[] encode(JournaledPayment payment) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(payment.getIdempotencyKey());
+            out.writeUTF(payment.getState().name());
+            out.writeFloat(payment.getAmount());
+            out.writeInt(payment.getAttempts());
+            out.writeLong(payment.getCreatedAtMs());
+            out.writeLong(payment.getUpdatedAtMs());
+            writeOptional(out, payment.getPaymentId());
+            writeOptional(out, payment.getStatus() != null ? payment.getStatus().name() : null);
+            Card card = payment.getCard();
+            out.writeBoolean(card != null);
+            if (card != null) {
+                writeOptional(out, card.getCardId());
+                writeOptional(out, card.getLast4Digits());
+                writeOptional(out, card.getNetwork() != null ? card.getNetwork().name() : null);
+                writeOptional(out, card.getCardType() != null ? card.getCardType().name() : null);
+                writeOptional(out, card.getIssuerBank() != null ? card.getIssuerBank().name() : null);
+            }
+        } catch (IOException e) {
+            // Strings over 64 KB; no legitimate snapshot gets here
+            throw new IllegalArgumentException("Payment snapshot too large", e);
+        }
+        if (bytes.size() > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Payment snapshot too large");
+        }
+        return bytes.toByteArray();
+    }
+
+    private static JournaledPayment decode(byte[] payload, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+        JournaledPayment.JournaledPaymentBuilder builder = JournaledPayment.builder()
+                .idempotencyKey(in.readUTF())
+                .state(JournaledPaymentState.valueOf(in.readUTF()))
+                .amount(in.readFloat())
+                .attempts(in.readInt())
+                .createdAtMs(in.readLong())
+                .updatedAtMs(in.readLong())
+                .paymentId(readOptional(in));
+        String status = readOptional(in);
+        builder.status(status != null ? PaymentStatus.valueOf(status) : null);
+        if (in.readBoolean()) {
+            String cardId = readOptional(in);
+            String last4 = readOptional(in);
+            String network = readOptional(in);
+            String cardType = readOptional(in);
+            String issuerBank = readOptional(in);
+            builder.card(Card.builder()
+                    .cardId(cardId)
+                    .last4Digits(last4)
+                    .network(network != null ? Network.valueOf(network) : null)
+                    .cardType(cardType != null ? CardType.valueOf(cardType) : null)
+                    .issuerBank(issuerBank != null ? IssuerBank.valueOf(issuerBank) : null)
+                    .build());
+        }
+        return builder.build();
+    }
+
+    private static void writeOptional(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    @Nullable
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Append {
+        final String key;
+        final JournaledPaymentState state;
+        final byte[] record;
+        final PendingResult<Long> call;
+
+        Append(String key, JournaledPaymentState state, byte[] record, PendingResult<Long> call) {
+            this.key = key;
+            this.state = state;
+            this.record = record;
+            this.call = call;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPendingResult;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentPollingConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks payment status without hammering the gateway.
+ *
+ * Concurrent status requests for the same payment ID share one in-flight
+ * gateway call, whether they come from {@link #confirmPayment(String)},
+ * {@link #requestStatus(String)} or the poller. {@link #track(String, Listener)}
+ * polls a payment until it reaches a terminal status, backing off
+ * exponentially (with jitter) while nothing changes and pushing each
+ * transition to every subscriber of that payment.
+ *
+ * Example usage:
+ * <pre>
+ * PaymentStatusTracker tracker = new PaymentStatusTracker(new InitiatePayment());
+ * ICancellable subscription = tracker.track(paymentId, new PaymentStatusTracker.Listener() {
+ *     public void onStatusChanged(String id, PaymentStatus previous, PaymentStatus current) {
+ *         if (current == PaymentStatus.PAID) showReceipt();
+ *     }
+ *     public void onTrackingFailed(String id, Throwable error) {
+ *         showMessage("Could not confirm payment");
+ *     }
+ * });
+ * </pre>
+ *
+ * A status request that fails or returns null counts as "no news" for the
+ * poller and is retried after the next backoff interval.
+ *
+ * Threading: methods may be called from any thread; listeners are called on
+ * the main thread. confirmPayment() and initiatePayment() block.
+ */
+public class PaymentStatusTracker implements IPayment {
+
+    private static final String TAG = "PaymentStatusTracker";
+
+    /**
+     * Receives status transitions of a tracked payment.
+     */
+    public interface Listener {
+        /**
+         * @param paymentId Tracked payment
+         * @param previous Last status seen, or null for the first one
+         * @param current New status
+         */
+        void onStatusChanged(@NonNull String paymentId, @Nullable PaymentStatus previous,
+                             @NonNull PaymentStatus current);
+
+        /**
+         * Tracking stopped before a terminal status was seen.
+         *
+         * @param error TimeoutException if the tracking timeout passed
+         */
+        void onTrackingFailed(@NonNull String paymentId, @NonNull Throwable error);
+    }
+
+    private final IPayment payment;
+    private final PaymentPollingConfig config;
+    private final ExecutorService executor;
+    private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+
+    private final Map<String, PendingResult<PaymentStatus>> inFlight = new HashMap<>();
+    private final Map<String, Tracked> tracked = new HashMap<>();
+    private boolean shutdown;
+
+    private final AtomicLong gatewayRequests = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong polls = new AtomicLong();
+
+    /**
+     * @param payment Gateway to query, must not be null
+     */
+    public PaymentStatusTracker(@NonNull IPayment payment) {
+        this(payment, PaymentPollingConfig.builder().build());
+    }
+
+    /**
+     * @param payment Gateway to query, must not be null
+     * @param config Backoff and timeout tuning, must not be null
+     */
+    public PaymentStatusTracker(@NonNull IPayment payment, @NonNull PaymentPollingConfig config) {
+        if (payment == null || config == null) {
+            throw new IllegalArgumentException("Payment and config cannot be null");
+        }
+        if (config.getInitialIntervalMs() <= 0 || config.getMaxIntervalMs() < config.getInitialIntervalMs()) {
+            throw new IllegalArgumentException("Poll intervals must be positive and max >= initial");
+        }
+        if (config.getMultiplier() < 1 || config.getJitter() < 0 || config.getJitter() >= 1) {
+            throw new IllegalArgumentException("Multiplier must be >= 1 and jitter in [0, 1)");
+        }
+        if (config.getThreads() <= 0 || config.getTrackingTimeoutMs() < 0) {
+            throw new IllegalArgumentException("Threads must be positive and timeout non-negative");
+        }
+        this.payment = payment;
+        this.config = config;
+
+        this.executor = PosScheduler.newBoundedExecutor("payment-status", config.getThreads(), new LinkedBlockingQueue<>());
+    }
+
+    @Override
+    public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+        return payment.initiatePayment(card, amount);
+    }
+
+    /**
+     * Returns the current status, joining an in-flight request for the same
+     * payment if there is one. Blocks.
+     *
+     * @throws IllegalStateException if the gateway returned no status or the wait was interrupted
+     */
+    @Override
+    public PaymentStatus confirmPayment(String paymentId) {
+        try {
+            return requestStatus(paymentId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while confirming payment", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Could not confirm payment", e.getCause());
+        }
+    }
+
+    /**
+     * Asynchronous status request. Calls for the same payment ID made while a
+     * request is in flight share its result. Cancelling the returned call
+     * detaches this caller only.
+     *
+     * @throws IllegalStateException if shut down
+     */
+    @NonNull
+    public PendingResult<PaymentStatus> requestStatus(@NonNull String paymentId) {
+        requireId(paymentId);
+        PendingResult<PaymentStatus> shared;
+        boolean start;
+        synchronized (this) {
+            if (shutdown) {
+                throw new IllegalStateException("PaymentStatusTracker has been shut down");
+            }
+            shared = inFlight.get(paymentId);
+            start = shared == null;
+            if (start) {
+                shared = new PendingResult<>();
+                inFlight.put(paymentId, shared);
+            }
+        }
+        if (start) {
+            gatewayRequests.incrementAndGet();
+            fetch(paymentId, shared);
+        } else {
+            coalescedRequests.incrementAndGet();
+        }
+
+        PendingResult<PaymentStatus> mine = new PendingResult<>();
+        shared.whenComplete(new IPendingResult.Callback<PaymentStatus>() {
+            @Override
+            public void onSuccess(@NonNull PaymentStatus result) {
+                mine.complete(result);
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable error) {
+                mine.fail(error);
+            }
+        }, Runnable::run);
+        return mine;
+    }
+
+    /**
+     * Polls the payment until it reaches a terminal status. Subscribers of a
+     * payment share one poller; a late subscriber is first told the last
+     * status seen.
+     *
+     * @return handle that unsubscribes the listener; polling stops with the last subscriber
+     * @throws IllegalStateException if shut down
+     */
+    @NonNull
+    public ICancellable track(@NonNull String paymentId, @NonNull Listener listener) {
+        requireId(paymentId);
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        Tracked entry;
+        boolean start;
+        PaymentStatus known;
+        synchronized (this) {
+            if (shutdown) {
+                throw new IllegalStateException("PaymentStatusTracker has been shut down");
+            }
+            entry = tracked.get(paymentId);
+            start = entry == null;
+            if (start) {
+                entry = new Tracked(paymentId, config.getInitialIntervalMs());
+                tracked.put(paymentId, entry);
+            }
+            entry.listeners.add(listener);
+            known = entry.status;
+        }
+        if (start) {
+            Tracked first = entry;
+            timers.post(() -> poll(first));
+        } else if (known != null) {
+            mainHandler.post(() -> listener.onStatusChanged(paymentId, null, known));
+        }
+        return new Subscription(entry, listener);
+    }
+
+    /** Status requests actually sent to the gateway. */
+    public long getGatewayRequestCount() {
+        return gatewayRequests.get();
+    }
+
+    /** Status requests that joined one already in flight. */
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.get();
+    }
+
+    /** Polls made by tracked payments. */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /** Payments currently being polled. */
+    public synchronized int getTrackedCount() {
+        return tracked.size();
+    }
+
+    /**
+     * Stops all polling and fails pending status requests. Subscribers are not
+     * notified. Idempotent.
+     */
+    public void shutdown() {
+        List<PendingResult<PaymentStatus>> pending;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            pending = new ArrayList<>(inFlight.values());
+            inFlight.clear();
+            tracked.clear();
+        }
+        timers.cancel();
+        for (PendingResult<PaymentStatus> call : pending) {
+            call.fail(new IllegalStateException("PaymentStatusTracker has been shut down"));
+        }
+        executor.shutdownNow();
+    }
+
+    private void fetch(String paymentId, PendingResult<PaymentStatus> call) {
+        try {
+            executor.execute(() -> {
+                PaymentStatus status = null;
+                RuntimeException error = null;
+                try {
+                    status = payment.confirmPayment(paymentId);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                // Later callers start a fresh request rather than join a finished one
+                synchronized (this) {
+                    removeInFlight(paymentId, call);
+                }
+                if (error != null) {
+                    call.fail(error);
+                } else {
+                    call.complete(status);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                removeInFlight(paymentId, call);
+            }
+            call.fail(e);
+        }
+    }
+
+    /**
+     * Removes the call only if it is still the one in flight. Caller holds the lock.
+     * Map.remove(key, value) would do this but needs API 24.
+     */
+    private void removeInFlight(String paymentId, PendingResult<PaymentStatus> call) {
+        if (inFlight.get(paymentId) == call) {
+            inFlight.remove(paymentId);
+        }
+    }
+
+    private void poll(Tracked entry) {
+        synchronized (this) {
+            if (tracked.get(entry.paymentId) != entry) {
+                return;
+            }
+        }
+        polls.incrementAndGet();
+        PendingResult<PaymentStatus> call;
+        try {
+            call = requestStatus(entry.paymentId);
+        } catch (IllegalStateException e) {
+            // Shut down between the check and the request
+            return;
+        }
+        call.whenComplete(new IPendingResult.Callback<PaymentStatus>() {
+            @Override
+            public void onSuccess(@NonNull PaymentStatus result) {
+                onPolled(entry, result);
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable error) {
+                Log.w(TAG, "Status request failed: " + error.getMessage());
+                onPolled(entry, null);
+            }
+        }, Runnable::run);
+    }
+
+    private void onPolled(Tracked entry, @Nullable PaymentStatus status) {
+        PaymentStatus previous;
+        boolean changed;
+        boolean finished;
+        boolean expired = false;
+        synchronized (this) {
+            if (tracked.get(entry.paymentId) != entry) {
+                return;
+            }
+            previous = entry.status;
+            changed = status != null && status != previous;
+            finished = status != null && status.isTerminal();
+            if (changed) {
+                entry.status = status;
+                entry.intervalMs = config.getInitialIntervalMs();
+            } else {
+                entry.intervalMs = Math.min(config.getMaxIntervalMs(),
+                        (long) (entry.intervalMs * config.getMultiplier()));
+            }
+            if (!finished && config.getTrackingTimeoutMs() > 0) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.startedAtNanos);
+                expired = elapsedMs >= config.getTrackingTimeoutMs();
+            }
+            if (finished || expired) {
+                tracked.remove(entry.paymentId);
+            } else {
+                entry.timer = timers.schedule(() -> poll(entry), jittered(entry.intervalMs));
+            }
+        }
+
+        if (changed) {
+            for (Listener listener : entry.listeners) {
+                mainHandler.post(() -> listener.onStatusChanged(entry.paymentId, previous, status));
+            }
+        }
+        if (expired) {
+            Log.w(TAG, "Gave up tracking payment after " + config.getTrackingTimeoutMs() + "ms");
+            TimeoutException timeout = new TimeoutException(
+                    "No final status after " + config.getTrackingTimeoutMs() + "ms");
+            for (Listener listener : entry.listeners) {
+                mainHandler.post(() -> listener.onTrackingFailed(entry.paymentId, timeout));
+            }
+        }
+    }
+
+    private long jittered(long intervalMs) {
+        double jitter = config.getJitter();
+        double factor;
+        synchronized (random) {
+            factor = 1 - jitter + 2 * jitter * random.nextDouble();
+        }
+        return Math.max(1, Math.round(intervalMs * factor));
+    }
+
+    private void unsubscribe(Tracked entry, Listener listener) {
+        ICancellable timer = null;
+        synchronized (this) {
+            entry.listeners.remove(listener);
+            if (entry.listeners.isEmpty() && tracked.get(entry.paymentId) == entry) {
+                tracked.remove(entry.paymentId);
+                timer = entry.timer;
+            }
+        }
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private static void requireId(String paymentId) {
+        if (paymentId == null || paymentId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Payment ID cannot be null or empty");
+        }
+    }
+
+    private static final class Tracked {
+        final String paymentId;
+        final long startedAtNanos = System.nanoTime();
+        final List<Listener> listeners = new CopyOnWriteArrayList<>();
+        PaymentStatus status;
+        long intervalMs;
+        ICancellable timer;
+
+        Tracked(String paymentId, long intervalMs) {
+            this.paymentId = paymentId;
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    private final class Subscription implements ICancellable {
+        private final Tracked entry;
+        private final Listener listener;
+        private volatile boolean cancelled;
+
+        Subscription(Tracked entry, Listener listener) {
+            this.entry = entry;
+            this.listener = listener;
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                unsubscribe(entry, listener);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPendingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link IPendingResult} that SDK components complete themselves.
+ *
+ * Example usage:
+ * <pre>
+ * asyncPayment.initiatePayment(card, amount).whenComplete(new IPendingResult.Callback&lt;&gt;() {
+ *     public void onSuccess(PaymentInitiationResponse response) {
+ *         openAcsPage(response.getAcsURL());
+ *     }
+ *     public void onFailure(Throwable error) {
+ *         showMessage("Payment failed: " + error.getMessage());
+ *     }
+ * });
+ * </pre>
+ *
+ * Implementations of async SDK interfaces create a result, start their work,
+ * register a cancel action and later call {@link #complete(Object)} or
+ * {@link #fail(Throwable)}.
+ *
+ * Threading: all methods are safe to call from any thread.
+ */
+public final class PendingResult<T> implements IPendingResult<T> {
+
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private static volatile Handler mainHandler;
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final List<Runnable> listeners = new ArrayList<>();
+
+    private int state = PENDING;
+    private T value;
+    private Throwable error;
+    private Runnable cancelAction;
+
+    /**
+     * Creates a pending result.
+     */
+    public PendingResult() {
+    }
+
+    /**
+     * @return a result that has already succeeded with {@code value}
+     */
+    @NonNull
+    public static <T> PendingResult<T> completed(@NonNull T value) {
+        PendingResult<T> call = new PendingResult<>();
+        call.complete(value);
+        return call;
+    }
+
+    /**
+     * @return a result that has already failed with {@code error}
+     */
+    @NonNull
+    public static <T> PendingResult<T> failed(@NonNull Throwable error) {
+        PendingResult<T> call = new PendingResult<>();
+        call.fail(error);
+        return call;
+    }
+
+    /**
+     * Completes the result. A null value fails it instead, since backends
+     * signal "no answer" that way.
+     *
+     * @return true if this changed the state
+     */
+    public boolean complete(@Nullable T result) {
+        if (result == null) {
+            return fail(new IllegalStateException("Backend returned no result"));
+        }
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = SUCCEEDED;
+            value = result;
+            toRun = drainListeners();
+        }
+        done.countDown();
+        runAll(toRun);
+        return true;
+    }
+
+    /**
+     * Fails the result.
+     *
+     * @return true if this changed the state
+     */
+    public boolean fail(@NonNull Throwable cause) {
+        if (cause == null) {
+            cause = new IllegalStateException("Unknown failure");
+        }
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = FAILED;
+            error = cause;
+            toRun = drainListeners();
+        }
+        done.countDown();
+        runAll(toRun);
+        return true;
+    }
+
+    /**
+     * Sets the action that aborts the underlying work, e.g. cancelling an
+     * HTTP request. Runs immediately if the result was already cancelled.
+     */
+    public void setCancelAction(@Nullable Runnable action) {
+        boolean runNow;
+        synchronized (this) {
+            runNow = state == CANCELLED;
+            if (!runNow) {
+                cancelAction = action;
+            }
+        }
+        if (runNow && action != null) {
+            action.run();
+        }
+    }
+
+    @NonNull
+    @Override
+    public PendingResult<T> whenComplete(@NonNull Callback<T> callback) {
+        return whenComplete(callback, runnable -> getMainHandler().post(runnable));
+    }
+
+    @NonNull
+    @Override
+    public PendingResult<T> whenComplete(@NonNull Callback<T> callback, @NonNull Executor executor) {
+        if (callback == null || executor == null) {
+            throw new IllegalArgumentException("Callback and executor cannot be null");
+        }
+        Runnable notify = () -> executor.execute(() -> {
+            int outcome;
+            T result;
+            Throwable cause;
+            synchronized (this) {
+                outcome = state;
+                result = value;
+                cause = error;
+            }
+            if (outcome == SUCCEEDED) {
+                callback.onSuccess(result);
+            } else if (outcome == FAILED) {
+                callback.onFailure(cause);
+            }
+        });
+        synchronized (this) {
+            if (state == PENDING) {
+                listeners.add(notify);
+                return this;
+            }
+        }
+        notify.run();
+        return this;
+    }
+
+    @Override
+    public void cancel() {
+        cancel(true);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        Runnable action;
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = CANCELLED;
+            action = cancelAction;
+            cancelAction = null;
+            listeners.clear();
+        }
+        done.countDown();
+        if (action != null && mayInterruptIfRunning) {
+            action.run();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    @Override
+    public synchronized boolean isSuccessful() {
+        return state == SUCCEEDED;
+    }
+
+    /**
+     * Blocks until the result is done. Never call from the main thread.
+     */
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return report();
+    }
+
+    /**
+     * Blocks until the result is done or the wait times out. The operation
+     * itself keeps running after a wait timeout.
+     */
+    @Override
+    public T get(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("Result still pending after " + unit.toMillis(timeout) + "ms");
+        }
+        return report();
+    }
+
+    private synchronized T report() throws ExecutionException {
+        if (state == SUCCEEDED) {
+            return value;
+        }
+        if (state == CANCELLED) {
+            throw new CancellationException("Operation was cancelled");
+        }
+        throw new ExecutionException(error);
+    }
+
+    private List<Runnable> drainListeners() {
+        cancelAction = null;
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        List<Runnable> toRun = new ArrayList<>(listeners);
+        listeners.clear();
+        return toRun;
+    }
+
+    private static void runAll(@Nullable List<Runnable> toRun) {
+        if (toRun != null) {
+            for (Runnable runnable : toRun) {
+                runnable.run();
+            }
+        }
+    }
+
+    private static Handler getMainHandler() {
+        Handler handler = mainHandler;
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+            mainHandler = handler;
+        }
+        return handler;
+    }
+}
@@ -4,8 +4,17 @@ import android.content.Context;
 import android.nfc.NdefMessage;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIsoDepChannel;
 import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
 import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+import com.freedomfinancestack.pos_sdk_core.models.ApduBatch;
+import com.freedomfinancestack.pos_sdk_core.models.NfcReadStats;
+
+import java.io.IOException;
 
 /**
  * Universal POS Terminal NFC implementation using plugin architecture.
@@ -29,10 +38,11 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
     private static final String TAG = "PosNfcManager";
     
     private Context context;
-    private NdefCallback currentCallback;
     private IPosNfcPlugin plugin;
     private boolean isInitialized = false;
     
+    private final NfcDeadlineTracker deadlines = new NfcDeadlineTracker(this);
+    
     /**
      * Constructor that accepts a POS NFC plugin
      * @param context Android application context
@@ -75,6 +85,23 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
     
     @Override
     public void startListening(NdefCallback callback) {
+        startPluginListening(callback);
+    }
+    
+    /**
+     * Starts listening with a deadline for the first tap.
+     *
+     * Expiry stops the plugin (powering the reader down), delivers
+     * {@link DeadlineCallback#onTimeout(long)} on an SDK scheduler thread and is
+     * counted in {@link #getReadStats()}; so are taps and cancellations.
+     */
+    @NonNull
+    @Override
+    public ICancellable startListening(@NonNull DeadlineCallback callback, long timeoutMs) {
+        return deadlines.start(callback, timeoutMs);
+    }
+    
+    private void startPluginListening(NdefCallback callback) {
         if (!isInitialized) {
             Log.e(TAG, "Plugin not initialized");
             if (callback != null) {
@@ -88,14 +115,15 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
             return;
         }
         
-        this.currentCallback = callback;
+        deadlines.onListenStarted(callback);
         Log.d(TAG, "Starting NFC listening via plugin...");
         
         try {
-            plugin.startListening(callback);
+            plugin.startListening(new TracedNdefCallback(callback));
         } catch (Exception e) {
             Log.e(TAG, "Failed to start listening via plugin", e);
             callback.onError("Failed to start NFC: " + e.getMessage());
+            deadlines.onListenStopped();
         }
     }
     
@@ -111,7 +139,23 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
             Log.e(TAG, "Error stopping NFC via plugin", e);
         }
         
-        this.currentCallback = null;
+        deadlines.onListenStopped();
+    }
+    
+    /**
+     * Statistics for reads started with a deadline: taps, timeouts,
+     * cancellations and time-to-tap distribution.
+     */
+    @NonNull
+    public NfcReadStats getReadStats() {
+        return deadlines.getReadStats();
+    }
+    
+    /**
+     * Clears the statistics returned by {@link #getReadStats()}.
+     */
+    public void resetReadStats() {
+        deadlines.resetReadStats();
     }
     
     /**
@@ -135,6 +179,39 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
         return plugin != null ? plugin.getSupportedDevices() : "Unknown";
     }
     
+    /**
+     * Raw ISO-DEP channel to the card in the field, if the plugin supports it.
+     * @return the channel, or null if unsupported or no card is present
+     */
+    @Nullable
+    public IIsoDepChannel getIsoDepChannel() {
+        return plugin != null ? plugin.getIsoDepChannel() : null;
+    }
+    
+    /**
+     * Exchanges a batch of APDUs with the card in the field, pipelined when the
+     * plugin supports it. Per-APDU and total latency are recorded in the batch.
+     *
+     * Threading: blocking I/O, never call from the main thread.
+     *
+     * @param batch Commands to send; responses are written to its reusable buffers
+     * @throws IOException if no card is connected or an exchange fails
+     * @throws UnsupportedOperationException if the plugin has no ISO-DEP channel
+     */
+    public void transceive(@NonNull ApduBatch batch) throws IOException {
+        IIsoDepChannel channel = getIsoDepChannel();
+        if (channel == null) {
+            throw new UnsupportedOperationException("Plugin does not support raw ISO-DEP: " + getPluginInfo());
+        }
+        if (!channel.isConnected()) {
+            throw new IOException("No ISO-DEP card in the reader field");
+        }
+        channel.transceive(batch);
+        Log.d(TAG, "APDU batch of " + batch.size() + " completed in " +
+              (batch.getTotalNanos() / 1_000_000) + "ms" +
+              (channel.supportsPipelining() ? " (pipelined)" : ""));
+    }
+    
     /**
      * Clean up resources
      */
@@ -145,11 +222,42 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
         }
     }
     
+    /**
+     * Records a {@link CheckoutTracer#SPAN_NFC_DELIVER} span around each tap
+     * delivered by the plugin.
+     */
+    private static final class TracedNdefCallback implements NdefCallback {
+        private final NdefCallback callback;
+        
+        TracedNdefCallback(NdefCallback callback) {
+            this.callback = callback;
+        }
+        
+        @Override
+        public void onNdefMessageDiscovered(NdefMessage message) {
+            CheckoutTracer tracer = CheckoutTracer.getShared();
+            long span = tracer.begin(CheckoutTracer.SPAN_NFC_DELIVER);
+            boolean ok = false;
+            try {
+                callback.onNdefMessageDiscovered(message);
+                ok = true;
+            } finally {
+                tracer.end(span, ok);
+            }
+        }
+        
+        @Override
+        public void onError(String errorMessage) {
+            callback.onError(errorMessage);
+        }
+    }
+    
     /**
      * Mock plugin for testing when real manufacturer SDK is not available
      */
     private static class MockPosPlugin implements IPosNfcPlugin {
-        private boolean listening = false;
+        private volatile boolean listening = false;
+        private PosScheduler.Session session;
         
         @Override
         public void initialize(Context context) throws Exception {
@@ -157,30 +265,35 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
         }
         
         @Override
-        public void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+        public synchronized void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+            cancelSession();
             listening = true;
+            session = PosScheduler.getShared().openSession(TAG);
             Log.d(TAG, "Mock: Starting NFC listening");
             
             // Simulate NFC tap after 3 seconds for testing
-            new Thread(() -> {
-                try {
-                    Thread.sleep(3000);
-                    if (listening) {
-                        Log.d(TAG, "Mock: Simulating NFC tap");
-                        // callback.onNdefMessageDiscovered(mockMessage);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+            session.schedule(() -> {
+                if (listening) {
+                    Log.d(TAG, "Mock: Simulating NFC tap");
+                    // callback.onNdefMessageDiscovered(mockMessage);
                 }
-            }).start();
+            }, 3000);
         }
         
         @Override
-        public void stopListening() throws Exception {
+        public synchronized void stopListening() throws Exception {
             listening = false;
+            cancelSession();
             Log.d(TAG, "Mock: Stopping NFC listening");
         }
         
+        private void cancelSession() {
+            if (session != null) {
+                session.cancel();
+                session = null;
+            }
+        }
+        
         @Override
         public boolean isListening() {
             return listening;
@@ -197,8 +310,9 @@ public class PosNfcDeviceManager implements INfcDeviceManager {
         }
         
         @Override
-        public void cleanup() {
+        public synchronized void cleanup() {
             listening = false;
+            cancelSession();
             Log.d(TAG, "Mock: Plugin cleaned up");
         }
     }
@@ -0,0 +1,350 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SDK-wide scheduler for timed plugin work.
+ *
+ * Replaces ad-hoc {@code new Thread(...)} + {@code Thread.sleep} and per-plugin
+ * Handlers. Work is grouped into {@link Session}s, typically one per
+ * startListening() call; cancelling the session cancels everything it
+ * scheduled and nothing else. The number of live threads is capped, and idle
+ * threads time out so an unused scheduler holds no threads at all.
+ *
+ * Example usage in a plugin:
+ * <pre>
+ * public void startListening(NdefCallback callback) {
+ *     session = PosScheduler.getShared().openSession(TAG);
+ *     session.schedule(() -> simulateTap(callback), 3000);
+ * }
+ *
+ * public void stopListening() {
+ *     if (session != null) session.cancel();
+ * }
+ * </pre>
+ *
+ * Threading: tasks run on scheduler threads, never the main thread. Post to a
+ * main-looper Handler from the task if UI work is required.
+ */
+public final class PosScheduler {
+
+    private static final String TAG = "PosScheduler";
+
+    /** Thread cap of the shared scheduler. */
+    public static final int DEFAULT_MAX_THREADS = 2;
+
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    private static volatile PosScheduler shared;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Returns the process-wide scheduler used by SDK components and plugins.
+     */
+    @NonNull
+    public static PosScheduler getShared() {
+        PosScheduler instance = shared;
+        if (instance == null) {
+            synchronized (PosScheduler.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = new PosScheduler("pos-sdk", DEFAULT_MAX_THREADS);
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a private scheduler. Most callers should use {@link #getShared()}.
+     *
+     * @param name Thread name prefix
+     * @param maxThreads Maximum number of live threads, at least 1
+     */
+    public PosScheduler(@NonNull String name, int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1, got " + maxThreads);
+        }
+        executor = new ScheduledThreadPoolExecutor(maxThreads, daemonThreads(name));
+        executor.setKeepAliveTime(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Creates a bounded pool for blocking work, such as backend calls, that
+     * does not fit the shared scheduler's small thread cap. Threads are
+     * daemons named {@code name-N}, and idle threads time out like the
+     * scheduler's own, so an unused pool holds no threads at all.
+     *
+     * Pass an unbounded {@link java.util.concurrent.LinkedBlockingQueue} to
+     * queue work behind busy threads, or a bounded queue to reject it once full.
+     *
+     * @param name Thread name prefix
+     * @param threads Maximum number of live threads, at least 1
+     * @param queue Queue for tasks waiting for a thread
+     * @return the pool; the caller owns it and shuts it down
+     */
+    @NonNull
+    public static ThreadPoolExecutor newBoundedExecutor(@NonNull String name, int threads,
+                                                        @NonNull BlockingQueue<Runnable> queue) {
+        return newBoundedExecutor(name, threads, threads, queue);
+    }
+
+    /**
+     * Like {@link #newBoundedExecutor(String, int, BlockingQueue)}, but starts
+     * threads beyond {@code coreThreads} only when the queue refuses a task.
+     * With a {@link java.util.concurrent.SynchronousQueue} and no core threads,
+     * idle threads are reused before new ones start, and a task is rejected
+     * once all {@code maxThreads} are busy.
+     *
+     * @param coreThreads Threads started before tasks are queued, 0 or more
+     * @param maxThreads Maximum number of live threads, at least 1 and at least coreThreads
+     */
+    @NonNull
+    public static ThreadPoolExecutor newBoundedExecutor(@NonNull String name, int coreThreads, int maxThreads,
+                                                        @NonNull BlockingQueue<Runnable> queue) {
+        if (maxThreads < 1 || coreThreads < 0 || coreThreads > maxThreads) {
+            throw new IllegalArgumentException("Invalid thread counts: core " + coreThreads + ", max " + maxThreads);
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(coreThreads, maxThreads,
+                IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS, queue, daemonThreads(name));
+        pool.allowCoreThreadTimeOut(coreThreads > 0);
+        return pool;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Opens a new session. Tasks scheduled through it are cancelled together.
+     *
+     * @param owner Short label used in logs, e.g. the plugin TAG
+     */
+    @NonNull
+    public Session openSession(@NonNull String owner) {
+        return new Session(owner);
+    }
+
+    /**
+     * @return number of threads currently alive in this scheduler
+     */
+    public int getLiveThreadCount() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * @return number of tasks scheduled but not yet started
+     */
+    public int getPendingTaskCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops this scheduler and cancels all pending tasks. The shared scheduler
+     * cannot be shut down.
+     */
+    public void shutdown() {
+        if (this == shared) {
+            throw new IllegalStateException("The shared PosScheduler cannot be shut down");
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Group of tasks tied to one listening session or operation.
+     *
+     * Cancelling the session cancels all of its pending tasks, interrupts
+     * running ones and makes further schedule() calls return cancelled handles.
+     */
+    public final class Session implements ICancellable {
+
+        private final String owner;
+        private final Set<Task> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean cancelled = false;
+
+        private Session(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Run a task as soon as a scheduler thread is free.
+         */
+        @NonNull
+        public ICancellable post(@NonNull Runnable task) {
+            return schedule(task, 0);
+        }
+
+        /**
+         * Run a task after a delay.
+         *
+         * @param task Work to run on a scheduler thread, must not be null
+         * @param delayMs Delay in milliseconds, negative values are treated as 0
+         * @return handle that cancels only this task
+         */
+        @NonNull
+        public ICancellable schedule(@NonNull Runnable task, long delayMs) {
+            if (task == null) {
+                throw new IllegalArgumentException("Task cannot be null");
+            }
+            Task wrapper = new Task(this, task);
+            synchronized (this) {
+                if (cancelled) {
+                    wrapper.cancelled = true;
+                    return wrapper;
+                }
+                tasks.add(wrapper);
+            }
+            try {
+                wrapper.attach(executor.schedule(wrapper, Math.max(0, delayMs), TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException e) {
+                Log.e(TAG, owner + ": scheduler is shut down, task rejected");
+                wrapper.cancel();
+            }
+            return wrapper;
+        }
+
+        /**
+         * Run a task repeatedly with a fixed delay between the end of one run
+         * and the start of the next.
+         *
+         * @param task Work to run on a scheduler thread, must not be null
+         * @param initialDelayMs Delay before the first run
+         * @param delayMs Delay between runs, must be positive
+         * @return handle that cancels only this task
+         */
+        @NonNull
+        public ICancellable scheduleWithFixedDelay(@NonNull Runnable task, long initialDelayMs, long delayMs) {
+            if (task == null) {
+                throw new IllegalArgumentException("Task cannot be null");
+            }
+            if (delayMs <= 0) {
+                throw new IllegalArgumentException("Delay must be positive, got " + delayMs);
+            }
+            Task wrapper = new Task(this, task, true);
+            synchronized (this) {
+                if (cancelled) {
+                    wrapper.cancelled = true;
+                    return wrapper;
+                }
+                tasks.add(wrapper);
+            }
+            try {
+                wrapper.attach(executor.scheduleWithFixedDelay(
+                        wrapper, Math.max(0, initialDelayMs), delayMs, TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException e) {
+                Log.e(TAG, owner + ": scheduler is shut down, task rejected");
+                wrapper.cancel();
+            }
+            return wrapper;
+        }
+
+        @Override
+        public void cancel() {
+            Task[] pending;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                pending = tasks.toArray(new Task[0]);
+                tasks.clear();
+            }
+            for (Task task : pending) {
+                task.cancel();
+            }
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized void remove(Task task) {
+            tasks.remove(task);
+        }
+    }
+
+    private static final class Task implements Runnable, ICancellable {
+        private final Session session;
+        private final Runnable delegate;
+        private final boolean periodic;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled = false;
+
+        Task(Session session, Runnable delegate) {
+            this(session, delegate, false);
+        }
+
+        Task(Session session, Runnable delegate, boolean periodic) {
+            this.session = session;
+            this.delegate = delegate;
+            this.periodic = periodic;
+        }
+
+        void attach(ScheduledFuture<?> scheduled) {
+            future = scheduled;
+            // cancel() may have raced with scheduling
+            if (cancelled) {
+                scheduled.cancel(true);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                delegate.run();
+            } catch (RuntimeException e) {
+                // Keep the scheduler thread alive; surface the failure instead of hiding it
+                Log.e(TAG, session.owner + ": scheduled task failed", e);
+            } finally {
+                if (!periodic) {
+                    session.remove(this);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+            session.remove(this);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
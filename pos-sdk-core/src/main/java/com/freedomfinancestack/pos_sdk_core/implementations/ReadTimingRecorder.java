@@ -0,0 +1,58 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.NfcReadStats;
+
+/**
+ * Records outcomes of deadline-bound NFC reads. Percentiles cover the latest
+ * {@link LatencyWindow#DEFAULT_CAPACITY} taps.
+ */
+final class ReadTimingRecorder {
+
+    private final LatencyWindow window = new LatencyWindow();
+    private long taps = 0;
+    private long timeouts = 0;
+    private long cancelled = 0;
+    private long totalMs = 0;
+    private long maxMs = 0;
+
+    synchronized void recordTap(long timeToTapMs) {
+        window.add(timeToTapMs);
+        taps++;
+        totalMs += timeToTapMs;
+        maxMs = Math.max(maxMs, timeToTapMs);
+    }
+
+    synchronized void recordTimeout() {
+        timeouts++;
+    }
+
+    synchronized void recordCancelled() {
+        cancelled++;
+    }
+
+    synchronized void reset() {
+        window.clear();
+        taps = 0;
+        timeouts = 0;
+        cancelled = 0;
+        totalMs = 0;
+        maxMs = 0;
+    }
+
+    @NonNull
+    synchronized NfcReadStats snapshot() {
+        long[] sorted = window.sorted();
+        return NfcReadStats.builder()
+                .tapCount(taps)
+                .timeoutCount(timeouts)
+                .cancelledCount(cancelled)
+                .meanTimeToTapMs(taps > 0 ? totalMs / taps : 0)
+                .p50TimeToTapMs(LatencyWindow.percentile(sorted, 0.50))
+                .p90TimeToTapMs(LatencyWindow.percentile(sorted, 0.90))
+                .p99TimeToTapMs(LatencyWindow.percentile(sorted, 0.99))
+                .maxTimeToTapMs(maxMs)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.content.Context;
+import android.nfc.NdefMessage;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Plugin decorator that records every NFC event delivered by a real plugin.
+ *
+ * Wrap your manufacturer plugin with this class on a test lane; each
+ * NdefMessage and error is forwarded unchanged to the caller's callback and
+ * appended, with its timing, to a compact binary recording. The recording can
+ * later be fed back through {@link ReplayPosPlugin} on a CI box without hardware.
+ *
+ * Example usage:
+ * <pre>
+ * IPosNfcPlugin plugin = new RecordingPosPlugin(new PaxPlugin(), new File(dir, "lane1.dpnt"));
+ * INfcDeviceManager nfc = new PosNfcDeviceManager(context, plugin);
+ * </pre>
+ *
+ * Threading: events are recorded on whichever thread the delegate invokes the
+ * callback; writes are buffered and flushed on stopListening().
+ * Privacy: recordings contain raw NDEF payloads. Only record on test lanes and
+ * never with live customer data.
+ */
+public class RecordingPosPlugin implements IPosNfcPlugin {
+
+    private static final String TAG = "RecordingPosPlugin";
+
+    private final IPosNfcPlugin delegate;
+    private final File recordingFile;
+    private final Object lock = new Object();
+
+    private NfcTapLog.Writer writer;
+    private int recordedCount = 0;
+
+    /**
+     * @param delegate The real plugin whose events are recorded, must not be null
+     * @param recordingFile Destination file, truncated when the plugin is initialized
+     */
+    public RecordingPosPlugin(@NonNull IPosNfcPlugin delegate, @NonNull File recordingFile) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate plugin cannot be null");
+        }
+        if (recordingFile == null) {
+            throw new IllegalArgumentException("Recording file cannot be null");
+        }
+        this.delegate = delegate;
+        this.recordingFile = recordingFile;
+    }
+
+    @Override
+    public void initialize(Context context) throws Exception {
+        delegate.initialize(context);
+
+        synchronized (lock) {
+            if (writer == null) {
+                writer = new NfcTapLog.Writer(recordingFile);
+                Log.d(TAG, "Recording NFC events to " + recordingFile.getName());
+            }
+        }
+    }
+
+    @Override
+    public void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null");
+        }
+        synchronized (lock) {
+            if (writer == null) {
+                throw new IllegalStateException("Plugin not initialized. Call initialize() first.");
+            }
+        }
+
+        delegate.startListening(new INfcDeviceManager.NdefCallback() {
+            @Override
+            public void onNdefMessageDiscovered(NdefMessage message) {
+                if (message != null) {
+                    record(message.toByteArray(), null);
+                }
+                callback.onNdefMessageDiscovered(message);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                record(null, errorMessage != null ? errorMessage : "");
+                callback.onError(errorMessage);
+            }
+        });
+    }
+
+    private void record(byte[] ndefBytes, String error) {
+        synchronized (lock) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                if (ndefBytes != null) {
+                    writer.writeMessage(ndefBytes);
+                } else {
+                    writer.writeError(error);
+                }
+                recordedCount++;
+            } catch (IOException e) {
+                // Recording is best effort; never break the live tap path
+                Log.e(TAG, "Failed to record NFC event", e);
+            }
+        }
+    }
+
+    @Override
+    public void stopListening() throws Exception {
+        try {
+            delegate.stopListening();
+        } finally {
+            synchronized (lock) {
+                if (writer != null) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isListening() {
+        return delegate.isListening();
+    }
+
+    @Override
+    public String getPluginInfo() {
+        return "Recording Plugin v1.0 wrapping " + delegate.getPluginInfo();
+    }
+
+    @Override
+    public String getSupportedDevices() {
+        return delegate.getSupportedDevices();
+    }
+
+    @Override
+    public void cleanup() {
+        delegate.cleanup();
+
+        synchronized (lock) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Error closing NFC recording", e);
+                }
+                writer = null;
+            }
+        }
+        Log.d(TAG, "Recording closed after " + recordedCount + " events");
+    }
+
+    /**
+     * Number of events written to the recording so far.
+     */
+    public int getRecordedCount() {
+        synchronized (lock) {
+            return recordedCount;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.content.Context;
+import android.nfc.FormatException;
+import android.nfc.NdefMessage;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plugin that replays a recording made by {@link RecordingPosPlugin}.
+ *
+ * Lets the tap-to-payment pipeline be load tested with production-like
+ * traffic on machines without POS hardware. Events are replayed at their
+ * original pace, scaled by a speed factor, or as fast as possible.
+ *
+ * Example usage:
+ * <pre>
+ * // Replay at 10x the recorded pace, looping until stopped
+ * IPosNfcPlugin plugin = new ReplayPosPlugin(recording, 10f, true);
+ * INfcDeviceManager nfc = new PosNfcDeviceManager(context, plugin);
+ * </pre>
+ *
+ * Threading: callbacks are invoked on a dedicated replay thread, not the main
+ * thread. Callbacks should hand heavy work off rather than block replay pacing.
+ */
+public class ReplayPosPlugin implements IPosNfcPlugin {
+
+    private static final String TAG = "ReplayPosPlugin";
+
+    /** Replay at the pace the events were recorded. */
+    public static final float SPEED_ORIGINAL = 1f;
+
+    /** Replay without any delay between events. */
+    public static final float SPEED_UNTHROTTLED = 0f;
+
+    private final File recordingFile;
+    private final float speedFactor;
+    private final boolean loop;
+
+    private volatile Session session;
+    private volatile int replayedCount = 0;
+    private boolean isInitialized = false;
+    private Thread replayThread;
+
+    /**
+     * Replays the recording once at its original pace.
+     * @param recordingFile Recording produced by RecordingPosPlugin
+     */
+    public ReplayPosPlugin(@NonNull File recordingFile) {
+        this(recordingFile, SPEED_ORIGINAL, false);
+    }
+
+    /**
+     * @param recordingFile Recording produced by RecordingPosPlugin
+     * @param speedFactor Pace multiplier; 1 for original, N for N times faster,
+     *                    {@link #SPEED_UNTHROTTLED} for as fast as possible
+     * @param loop true to restart from the beginning when the recording ends
+     */
+    public ReplayPosPlugin(@NonNull File recordingFile, float speedFactor, boolean loop) {
+        if (recordingFile == null) {
+            throw new IllegalArgumentException("Recording file cannot be null");
+        }
+        if (speedFactor < 0 || Float.isNaN(speedFactor) || Float.isInfinite(speedFactor)) {
+            throw new IllegalArgumentException("Speed factor must be a finite value >= 0, got " + speedFactor);
+        }
+        this.recordingFile = recordingFile;
+        this.speedFactor = speedFactor;
+        this.loop = loop;
+    }
+
+    @Override
+    public void initialize(Context context) throws Exception {
+        if (!recordingFile.isFile()) {
+            throw new IOException("NFC recording not found: " + recordingFile.getAbsolutePath());
+        }
+        // Validate the header up front so misconfiguration fails at init, not mid-test
+        new NfcTapLog.Reader(recordingFile).close();
+        isInitialized = true;
+        Log.d(TAG, "Replay plugin initialized with " + recordingFile.getName() + " at speed " + speedFactor);
+    }
+
+    @Override
+    public synchronized void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+        if (!isInitialized) {
+            throw new IllegalStateException("Plugin not initialized. Call initialize() first.");
+        }
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null");
+        }
+
+        stopReplayThread();
+        Session current = new Session();
+        session = current;
+        replayThread = new Thread(() -> replay(current, callback), TAG);
+        replayThread.start();
+        Log.d(TAG, "Started replaying NFC events");
+    }
+
+    private void replay(Session current, INfcDeviceManager.NdefCallback callback) {
+        NfcTapLog.Entry entry = new NfcTapLog.Entry();
+        do {
+            try (NfcTapLog.Reader reader = new NfcTapLog.Reader(recordingFile)) {
+                long dueNanos = System.nanoTime();
+                while (current.active && reader.next(entry) != null) {
+                    if (speedFactor > 0) {
+                        dueNanos += (long) (entry.deltaMicros * 1000d / speedFactor);
+                        waitUntil(dueNanos, current);
+                    }
+                    if (!current.active) {
+                        return;
+                    }
+                    deliver(entry, callback);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "NFC recording replay failed", e);
+                if (current.active) {
+                    current.active = false;
+                    callback.onError("NFC replay failed: " + e.getMessage());
+                }
+                return;
+            }
+        } while (loop && current.active);
+
+        // Recording exhausted; only this session's flag is cleared
+        current.active = false;
+        Log.d(TAG, "Replay finished after " + replayedCount + " events");
+    }
+
+    private static void waitUntil(long dueNanos, Session current) {
+        long remaining;
+        while (current.active && (remaining = dueNanos - System.nanoTime()) > 0) {
+            // stopReplayThread() interrupts to cut the wait short
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void deliver(NfcTapLog.Entry entry, INfcDeviceManager.NdefCallback callback) {
+        replayedCount++;
+        if (entry.kind == NfcTapLog.KIND_ERROR) {
+            callback.onError(entry.errorText());
+            return;
+        }
+        try {
+            callback.onNdefMessageDiscovered(new NdefMessage(Arrays.copyOf(entry.payload, entry.length)));
+        } catch (FormatException e) {
+            Log.w(TAG, "Skipping malformed NDEF message in recording");
+            callback.onError("Malformed NDEF message in recording: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void stopListening() throws Exception {
+        stopReplayThread();
+        Log.d(TAG, "Stopped replaying NFC events");
+    }
+
+    /** Ends the current session. Called with the instance lock held. */
+    private void stopReplayThread() {
+        Session current = session;
+        if (current != null) {
+            current.active = false;
+            session = null;
+        }
+        if (replayThread != null) {
+            replayThread.interrupt();
+            replayThread = null;
+        }
+    }
+
+    @Override
+    public boolean isListening() {
+        Session current = session;
+        return current != null && current.active;
+    }
+
+    @Override
+    public String getPluginInfo() {
+        return "Replay Plugin v1.0 (" + recordingFile.getName() + ", speed " +
+               (speedFactor == SPEED_UNTHROTTLED ? "unthrottled" : speedFactor + "x") +
+               (loop ? ", looping" : "") + ")";
+    }
+
+    @Override
+    public String getSupportedDevices() {
+        return "Any device (replays recorded NFC traffic, no hardware required)";
+    }
+
+    @Override
+    public void cleanup() {
+        try {
+            stopListening();
+        } catch (Exception e) {
+            Log.e(TAG, "Error during cleanup", e);
+        }
+        isInitialized = false;
+    }
+
+    /**
+     * Number of events delivered since the plugin was created.
+     */
+    public int getReplayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * One startListening() call. Its replay thread only checks its own flag,
+     * so a callback that swallows the interrupt cannot keep an old replay
+     * running into a newer session.
+     */
+    private static final class Session {
+        volatile boolean active = true;
+    }
+}
@@ -0,0 +1,533 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CircuitState;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport;
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+import com.freedomfinancestack.pos_sdk_core.models.ResilienceConfig;
+import com.freedomfinancestack.pos_sdk_core.models.ResilienceStats;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IHttpTransport} decorator that bounds tail latency at the till.
+ *
+ * <ul>
+ *   <li>Every attempt gets a deadline ({@link ResilienceConfig#getCallTimeoutMs()}),
+ *       so a stalled gateway cannot hold a lane for the full socket timeout.</li>
+ *   <li>A circuit breaker watches the failure and slow-call rate over the
+ *       most recent calls. When either crosses its threshold, calls fail fast
+ *       with {@link CircuitOpenException} until a few trial calls succeed.</li>
+ *   <li>Idempotent requests (GET, HEAD, PUT, DELETE, or any request carrying
+ *       an Idempotency-Key header) are retried on network errors and 5xx
+ *       responses, limited by a retry budget proportional to traffic so
+ *       retries cannot amplify an outage.</li>
+ *   <li>Optionally, idempotent requests are hedged: if no answer arrives by
+ *       the recent p95 latency, a second attempt is sent and the first
+ *       usable response wins.</li>
+ * </ul>
+ *
+ * Example usage:
+ * <pre>
+ * ResilientHttpTransport transport = new ResilientHttpTransport(
+ *         new OkHttpTransport(BuildConfig.BASE_URL),
+ *         ResilienceConfig.builder().hedgingEnabled(true).build());
+ * // Pass `transport` to IPayment and ICards implementations as usual
+ * </pre>
+ *
+ * Threading: execute() blocks and may be called from several lanes at once.
+ */
+public class ResilientHttpTransport implements IHttpTransport {
+
+    private static final String TAG = "ResilientHttpTransport";
+
+    private static final int MAX_HEDGE_THREADS = 8;
+
+    private static final byte OUTCOME_OK = 0;
+    private static final byte OUTCOME_FAILED = 1;
+    private static final byte OUTCOME_SLOW = 2;
+
+    /**
+     * Thrown instead of calling the backend while the breaker is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private final IHttpTransport delegate;
+    private final ResilienceConfig config;
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    // Guarded by this
+    private CircuitState state = CircuitState.CLOSED;
+    private final byte[] outcomes;
+    private int outcomeNext;
+    private int outcomeSize;
+    // System.nanoTime() based, so wall-clock changes cannot stretch or skip the open state
+    private long openUntilNanos;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private double retryTokens;
+    private final LatencyWindow latencies = new LatencyWindow();
+
+    private long calls;
+    private long failedCalls;
+    private long slowCalls;
+    private long rejectedCalls;
+    private long trips;
+    private long retries;
+    private long retriesDenied;
+    private long hedgedCalls;
+    private long hedgeWins;
+
+    /**
+     * Wraps a transport with the default configuration (hedging off).
+     */
+    public ResilientHttpTransport(@NonNull IHttpTransport delegate) {
+        this(delegate, ResilienceConfig.builder().build());
+    }
+
+    /**
+     * @param delegate Transport that sends the requests, must not be null
+     * @param config Breaker, retry and hedging tuning, must not be null
+     */
+    public ResilientHttpTransport(@NonNull IHttpTransport delegate, @NonNull ResilienceConfig config) {
+        if (delegate == null || config == null) {
+            throw new IllegalArgumentException("Delegate and config cannot be null");
+        }
+        if (config.getWindowSize() <= 0 || config.getMinimumCalls() <= 0 || config.getHalfOpenProbes() <= 0) {
+            throw new IllegalArgumentException("Window size, minimum calls and probes must be positive");
+        }
+        if (config.getHedgePercentile() <= 0 || config.getHedgePercentile() > 1) {
+            throw new IllegalArgumentException("Hedge percentile must be in (0, 1]");
+        }
+        this.delegate = delegate;
+        this.config = config;
+        this.outcomes = new byte[config.getWindowSize()];
+        this.retryTokens = config.getMaxRetryTokens();
+
+        // No queue: when all threads are busy a call runs unhedged instead of waiting
+        this.hedgeExecutor = PosScheduler.newBoundedExecutor("http-hedge", 0, MAX_HEDGE_THREADS,
+                new SynchronousQueue<>());
+    }
+
+    @NonNull
+    @Override
+    public HttpResponse execute(@NonNull HttpRequest request) throws IOException {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null");
+        }
+        HttpRequest bounded = withDeadline(request);
+        boolean idempotent = isIdempotent(request);
+        depositRetryToken();
+
+        int attempt = 0;
+        while (true) {
+            boolean probe = acquirePermission();
+            long start = System.nanoTime();
+            HttpResponse response = null;
+            IOException error = null;
+            try {
+                response = idempotent && config.isHedgingEnabled() ? executeHedged(bounded) : delegate.execute(bounded);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                record(probe, true, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                throw e;
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            boolean failed = error != null || isServerError(response);
+            record(probe, failed, elapsedMs);
+
+            if (!failed) {
+                return response;
+            }
+            if (Thread.currentThread().isInterrupted() || !idempotent || attempt >= 1 || !spendRetryToken()) {
+                if (error != null) {
+                    throw error;
+                }
+                return response;
+            }
+            if (response != null) {
+                response.close();
+            }
+            attempt++;
+            try {
+                Thread.sleep(config.getRetryBackoffMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted before retry");
+            }
+        }
+    }
+
+    @Override
+    public void warmup() {
+        delegate.warmup();
+    }
+
+    /**
+     * @return connection counters of the wrapped transport
+     */
+    @NonNull
+    @Override
+    public HttpTransportStats getStats() {
+        return delegate.getStats();
+    }
+
+    /**
+     * @return breaker, retry and hedging counters since creation
+     */
+    @NonNull
+    public synchronized ResilienceStats getResilienceStats() {
+        long[] sorted = latencies.sorted();
+        return ResilienceStats.builder()
+                .state(currentState())
+                .callCount(calls)
+                .failedCallCount(failedCalls)
+                .slowCallCount(slowCalls)
+                .rejectedCallCount(rejectedCalls)
+                .circuitTrips(trips)
+                .retryCount(retries)
+                .retriesDeniedByBudget(retriesDenied)
+                .hedgedCallCount(hedgedCalls)
+                .hedgeWinCount(hedgeWins)
+                .hedgeDelayMs(hedgeDelayMs(sorted))
+                .p50Ms(LatencyWindow.percentile(sorted, 0.50))
+                .p95Ms(LatencyWindow.percentile(sorted, 0.95))
+                .p99Ms(LatencyWindow.percentile(sorted, 0.99))
+                .build();
+    }
+
+    /**
+     * @return the breaker state; an open breaker whose wait has passed reports HALF_OPEN
+     */
+    @NonNull
+    public synchronized CircuitState getState() {
+        return currentState();
+    }
+
+    // ---- Circuit breaker ----
+
+    /**
+     * @return true if this call is a half-open trial call
+     * @throws CircuitOpenException if the breaker rejects the call
+     */
+    private synchronized boolean acquirePermission() throws CircuitOpenException {
+        if (state == CircuitState.OPEN) {
+            long remainingNanos = openUntilNanos - System.nanoTime();
+            if (remainingNanos > 0) {
+                rejectedCalls++;
+                throw new CircuitOpenException("Gateway circuit open, retry in "
+                        + TimeUnit.NANOSECONDS.toMillis(remainingNanos) + "ms");
+            }
+            state = CircuitState.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= config.getHalfOpenProbes()) {
+                rejectedCalls++;
+                throw new CircuitOpenException("Gateway circuit half-open, trial calls in progress");
+            }
+            probesInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void record(boolean probe, boolean failed, long elapsedMs) {
+        calls++;
+        boolean slow = !failed && elapsedMs >= config.getSlowCallThresholdMs();
+        if (failed) {
+            failedCalls++;
+        } else {
+            latencies.add(elapsedMs);
+        }
+        if (slow) {
+            slowCalls++;
+        }
+
+        if (probe) {
+            probesInFlight--;
+            if (state != CircuitState.HALF_OPEN) {
+                return;
+            }
+            if (failed || slow) {
+                trip("trial call " + (failed ? "failed" : "was slow"));
+            } else if (++probeSuccesses >= config.getHalfOpenProbes()) {
+                state = CircuitState.CLOSED;
+                outcomeSize = 0;
+                outcomeNext = 0;
+                Log.i(TAG, "Gateway circuit closed");
+            }
+            return;
+        }
+        if (state != CircuitState.CLOSED) {
+            return;
+        }
+
+        outcomes[outcomeNext] = failed ? OUTCOME_FAILED : slow ? OUTCOME_SLOW : OUTCOME_OK;
+        outcomeNext = (outcomeNext + 1) % outcomes.length;
+        outcomeSize = Math.min(outcomeSize + 1, outcomes.length);
+        if (outcomeSize < config.getMinimumCalls()) {
+            return;
+        }
+        int failures = 0;
+        int slows = 0;
+        for (int i = 0; i < outcomeSize; i++) {
+            if (outcomes[i] == OUTCOME_FAILED) {
+                failures++;
+            } else if (outcomes[i] == OUTCOME_SLOW) {
+                slows++;
+            }
+        }
+        if (failures >= config.getFailureRateThreshold() * outcomeSize) {
+            trip(failures + " of " + outcomeSize + " recent calls failed");
+        } else if (slows >= config.getSlowCallRateThreshold() * outcomeSize) {
+            trip(slows + " of " + outcomeSize + " recent calls were slow");
+        }
+    }
+
+    private void trip(String reason) {
+        state = CircuitState.OPEN;
+        openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getOpenStateMs());
+        outcomeSize = 0;
+        outcomeNext = 0;
+        trips++;
+        Log.w(TAG, "Gateway circuit opened for " + config.getOpenStateMs() + "ms: " + reason);
+    }
+
+    private CircuitState currentState() {
+        if (state == CircuitState.OPEN && openUntilNanos - System.nanoTime() <= 0) {
+            return CircuitState.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // ---- Retry budget ----
+
+    private synchronized void depositRetryToken() {
+        retryTokens = Math.min(config.getMaxRetryTokens(), retryTokens + config.getRetryBudgetRatio());
+    }
+
+    private synchronized boolean spendRetryToken() {
+        if (retryTokens >= 1) {
+            retryTokens -= 1;
+            retries++;
+            return true;
+        }
+        retriesDenied++;
+        return false;
+    }
+
+    // ---- Hedging ----
+
+    private HttpResponse executeHedged(HttpRequest request) throws IOException {
+        long delayMs;
+        synchronized (this) {
+            delayMs = hedgeDelayMs(latencies.sorted());
+        }
+
+        Race race = new Race();
+        if (!race.launch(request, 0)) {
+            // Hedge pool saturated; run plainly on the calling thread
+            return delegate.execute(request);
+        }
+        synchronized (race) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            try {
+                long remaining;
+                while (!race.settled && race.pending > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(race, remaining);
+                }
+            } catch (InterruptedException e) {
+                race.abandon();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for gateway");
+            }
+        }
+        // Hedge only if the first attempt is still outstanding; a fast failure goes to the retry logic
+        boolean stillRunning;
+        synchronized (race) {
+            stillRunning = !race.settled && race.pending > 0;
+        }
+        if (stillRunning && race.launch(request, 1)) {
+            synchronized (this) {
+                hedgedCalls++;
+            }
+        }
+
+        synchronized (race) {
+            race.hedgeDecided = true;
+            if (!race.settled && race.pending == 0) {
+                race.settle();
+            }
+            try {
+                while (!race.settled) {
+                    race.wait();
+                }
+            } catch (InterruptedException e) {
+                race.abandon();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for gateway");
+            }
+            if (race.winner != null) {
+                if (race.winnerIndex == 1) {
+                    synchronized (this) {
+                        hedgeWins++;
+                    }
+                }
+                return race.winner;
+            }
+            throw race.error != null ? race.error : new IOException("Gateway call failed");
+        }
+    }
+
+    private long hedgeDelayMs(long[] sortedLatencies) {
+        long delay = sortedLatencies.length < config.getMinimumCalls()
+                ? config.getInitialHedgeDelayMs()
+                : LatencyWindow.percentile(sortedLatencies, config.getHedgePercentile());
+        return Math.max(config.getMinHedgeDelayMs(), Math.min(config.getMaxHedgeDelayMs(), delay));
+    }
+
+    /**
+     * Up to two attempts of one request; the first usable response settles it.
+     * Responses that lose the race are closed so their connections return to the pool.
+     */
+    private final class Race {
+        boolean settled;
+        boolean hedgeDecided;
+        int pending;
+        HttpResponse winner;
+        int winnerIndex;
+        HttpResponse fallback;
+        IOException error;
+
+        /**
+         * @return true if the attempt was started
+         */
+        boolean launch(HttpRequest request, int index) {
+            synchronized (this) {
+                if (settled) {
+                    return false;
+                }
+                pending++;
+            }
+            try {
+                hedgeExecutor.execute(() -> attempt(request, index));
+                return true;
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    pending--;
+                }
+                return false;
+            }
+        }
+
+        private void attempt(HttpRequest request, int index) {
+            HttpResponse response = null;
+            IOException failure = null;
+            try {
+                response = delegate.execute(request);
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e);
+            }
+            synchronized (this) {
+                pending--;
+                if (settled) {
+                    if (response != null) {
+                        response.close();
+                    }
+                    return;
+                }
+                if (response != null && !isServerError(response)) {
+                    settled = true;
+                    winner = response;
+                    winnerIndex = index;
+                    if (fallback != null) {
+                        fallback.close();
+                        fallback = null;
+                    }
+                } else if (response != null) {
+                    // A 5xx is kept in case the other attempt does no better
+                    if (fallback != null) {
+                        fallback.close();
+                    }
+                    fallback = response;
+                } else {
+                    error = failure;
+                }
+                if (!settled && pending == 0 && hedgeDecided) {
+                    settle();
+                }
+                notifyAll();
+            }
+        }
+
+        /** All attempts finished without a usable response: hand out the 5xx, if any. */
+        void settle() {
+            settled = true;
+            winner = fallback;
+            winnerIndex = 0;
+            fallback = null;
+        }
+
+        synchronized void abandon() {
+            settled = true;
+            if (fallback != null) {
+                fallback.close();
+                fallback = null;
+            }
+            winner = null;
+        }
+    }
+
+    // ---- Helpers ----
+
+    private HttpRequest withDeadline(HttpRequest request) {
+        long limit = config.getCallTimeoutMs();
+        if (limit <= 0 || (request.getTimeoutMs() > 0 && request.getTimeoutMs() <= limit)) {
+            return request;
+        }
+        return request.toBuilder().timeoutMs(limit).build();
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase(Locale.US) : "GET";
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("PUT") || method.equals("DELETE")) {
+            return true;
+        }
+        Map<String, String> headers = request.getHeaders();
+        if (headers != null) {
+            for (String name : headers.keySet()) {
+                if (name.equalsIgnoreCase("Idempotency-Key") || name.equalsIgnoreCase("X-Idempotency-Key")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isServerError(HttpResponse response) {
+        return response != null && response.getCode() >= 500;
+    }
+}
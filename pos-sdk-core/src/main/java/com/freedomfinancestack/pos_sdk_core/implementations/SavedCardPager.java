@@ -0,0 +1,200 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads a customer's saved cards page by page.
+ *
+ * With an {@link IPagedCards} backend the first page is requested with a
+ * small size so the UI can show cards after one short round trip, and later
+ * pages use the regular size. Only the current page is held, so memory stays
+ * bounded however many cards the customer has. Plain {@link ICards} backends
+ * are fetched once in full and then handed out in pages of the same sizes,
+ * so UI code can use one API for both.
+ *
+ * Use {@link #nextPage()} to render a page at a time, or iterate card by
+ * card; pages are fetched as the iteration reaches them.
+ *
+ * Example usage:
+ * <pre>
+ * SavedCardPager pager = new SavedCardPager(cards, merchantId, contact);
+ * showCards(pager.nextPage());          // first cards, fast
+ * while (pager.hasMorePages()) {
+ *     appendCards(pager.nextPage());    // e.g. as the list scrolls
+ * }
+ * </pre>
+ *
+ * Threading: not thread-safe; use from one background thread. nextPage(),
+ * hasNext() and next() block when a page has to be fetched.
+ */
+public class SavedCardPager implements Iterator<Card> {
+
+    /** Size of the first page, small so it arrives quickly. */
+    public static final int DEFAULT_FIRST_PAGE_SIZE = 4;
+
+    /** Size of later pages for backends that are not paged. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ICards cards;
+    private final String merchantId;
+    private final String contact;
+    private final int firstPageSize;
+    private final int pageSize;
+
+    private String cursor;
+    // Every cursor returned so far; a repeat means the backend is cycling
+    private final Set<String> seenCursors = new HashSet<>();
+    private boolean started;
+    private boolean exhausted;
+    private List<Card> unpaged;
+    private int unpagedOffset;
+
+    private List<Card> current = Collections.emptyList();
+    private int currentIndex;
+    private int pagesFetched;
+
+    /**
+     * Uses {@link #DEFAULT_FIRST_PAGE_SIZE} and the backend's default page size.
+     */
+    public SavedCardPager(@NonNull ICards cards, @NonNull String merchantId, @NonNull String contact) {
+        this(cards, merchantId, contact, DEFAULT_FIRST_PAGE_SIZE,
+                cards instanceof IPagedCards ? ((IPagedCards) cards).getDefaultPageSize() : DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param cards Backend, paged or not, must not be null
+     * @param merchantId Merchant the cards are saved for, must not be null
+     * @param contact Customer's mobile number, must not be null
+     * @param firstPageSize Size of the first page, positive
+     * @param pageSize Size of later pages, positive
+     */
+    public SavedCardPager(@NonNull ICards cards, @NonNull String merchantId, @NonNull String contact,
+                          int firstPageSize, int pageSize) {
+        if (cards == null || merchantId == null || contact == null) {
+            throw new IllegalArgumentException("Cards, merchant ID and contact cannot be null");
+        }
+        if (firstPageSize <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Page sizes must be positive");
+        }
+        this.cards = cards;
+        this.merchantId = merchantId;
+        this.contact = contact;
+        this.firstPageSize = firstPageSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return true until the last page has been returned by nextPage() or
+     *         reached by the iteration
+     */
+    public boolean hasMorePages() {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the rest of the current page if the iteration is inside one,
+     * otherwise fetches the next page.
+     *
+     * @return up to one page of cards; may be empty, e.g. for a customer with no cards
+     * @throws NoSuchElementException if there are no more pages
+     * @throws IllegalStateException if the backend returns a cursor it already returned
+     */
+    @NonNull
+    public List<Card> nextPage() {
+        if (currentIndex < current.size()) {
+            List<Card> rest = current.subList(currentIndex, current.size());
+            currentIndex = current.size();
+            return rest;
+        }
+        if (exhausted) {
+            throw new NoSuchElementException("No more saved-card pages");
+        }
+        fetch();
+        currentIndex = current.size();
+        return current;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (currentIndex >= current.size()) {
+            if (exhausted) {
+                return false;
+            }
+            fetch();
+        }
+        return true;
+    }
+
+    @Override
+    public Card next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more saved cards");
+        }
+        return current.get(currentIndex++);
+    }
+
+    /** Pages requested from the backend so far. */
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    private void fetch() {
+        int size = started ? pageSize : firstPageSize;
+        started = true;
+        currentIndex = 0;
+        if (cards instanceof IPagedCards) {
+            CardPage page = ((IPagedCards) cards).listSavedCardsPage(merchantId, contact, cursor, size);
+            if (page == null) {
+                throw new IllegalStateException("Backend returned no page");
+            }
+            pagesFetched++;
+            String next = page.getNextCursor();
+            if (next != null && !seenCursors.add(next)) {
+                throw new IllegalStateException("Backend returned the same cursor twice");
+            }
+            cursor = next;
+            exhausted = next == null;
+            current = page.getCards() != null ? page.getCards() : Collections.<Card>emptyList();
+            return;
+        }
+
+        if (unpaged == null) {
+            unpaged = flatten(cards.listAllSavedCards(merchantId, contact));
+            pagesFetched++;
+        }
+        int end = Math.min(unpaged.size(), unpagedOffset + size);
+        current = unpaged.subList(unpagedOffset, end);
+        unpagedOffset = end;
+        exhausted = end == unpaged.size();
+    }
+
+    private static List<Card> flatten(List<ListSavedCards> saved) {
+        List<Card> all = new ArrayList<>();
+        if (saved != null) {
+            for (ListSavedCards entry : saved) {
+                if (entry != null && entry.getCards() != null) {
+                    for (Card card : entry.getCards()) {
+                        if (card != null) {
+                            all.add(card);
+                        }
+                    }
+                }
+            }
+        }
+        return all;
+    }
+}
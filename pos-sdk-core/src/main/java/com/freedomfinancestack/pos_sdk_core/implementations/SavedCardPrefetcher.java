@@ -0,0 +1,268 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICustomerIdentityListener;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ICards} decorator that starts fetching a customer's saved cards the
+ * moment they are identified, and hands the result to the app's later
+ * listAllSavedCards() call.
+ *
+ * Without it the contact travels from the decoder to app code, the UI
+ * changes screens, and only then does the card request start. Registered as
+ * the {@link ICustomerIdentityListener} of {@link GGWaveManager} or
+ * {@link CustomerIdentificationRace}, the prefetcher starts the request right
+ * after the identity is validated, so the network round trip overlaps the UI
+ * transition. Apps that decode identities themselves call
+ * {@link #prefetch(String)} directly.
+ *
+ * A prefetch is used once: the first listAllSavedCards() for the same
+ * merchant and contact within {@link #DEFAULT_MAX_AGE_MS} waits for it
+ * instead of sending a new request. If the prefetch failed, the call goes to
+ * the backend itself. Unclaimed prefetches expire and are counted as wasted.
+ *
+ * Example usage:
+ * <pre>
+ * SavedCardPrefetcher cards = new SavedCardPrefetcher(new MyCardsBackend(), merchantId);
+ * ggWaveManager.setCustomerIdentityListener(cards);
+ * ...
+ * // In GGWaveCallback.onMessageReceived, after switching screens
+ * List&lt;ListSavedCards&gt; saved = cards.listAllSavedCards(merchantId, message.getMobileNumber());
+ * </pre>
+ *
+ * Threading: prefetch() and onCustomerIdentified() return immediately and
+ * are safe on the main thread. listAllSavedCards() blocks; never call it on
+ * the main thread.
+ */
+public class SavedCardPrefetcher implements ICards, ICustomerIdentityListener {
+
+    private static final String TAG = "SavedCardPrefetcher";
+
+    /** How long a prefetched result waits to be claimed. */
+    public static final long DEFAULT_MAX_AGE_MS = 60_000;
+
+    /** Prefetches kept at once; the oldest is dropped beyond this. */
+    private static final int MAX_PENDING = 16;
+
+    private static final int THREADS = 2;
+
+    private final ICards delegate;
+    private final String merchantId;
+    private final long maxAgeMs;
+    private final ExecutorService executor;
+
+    // Insertion-ordered, so iteration starts at the oldest prefetch
+    private final LinkedHashMap<String, Prefetch> pending = new LinkedHashMap<>();
+
+    private final AtomicLong prefetches = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong wasted = new AtomicLong();
+    private final AtomicLong failedPrefetches = new AtomicLong();
+
+    /**
+     * @param delegate Backend to fetch from, must not be null
+     * @param merchantId Merchant whose cards are prefetched, must not be null
+     */
+    public SavedCardPrefetcher(@NonNull ICards delegate, @NonNull String merchantId) {
+        this(delegate, merchantId, DEFAULT_MAX_AGE_MS);
+    }
+
+    /**
+     * @param delegate Backend to fetch from, must not be null
+     * @param merchantId Merchant whose cards are prefetched, must not be null
+     * @param maxAgeMs How long a prefetched result waits to be claimed, must be positive
+     */
+    public SavedCardPrefetcher(@NonNull ICards delegate, @NonNull String merchantId, long maxAgeMs) {
+        if (delegate == null || merchantId == null) {
+            throw new IllegalArgumentException("Delegate and merchant ID cannot be null");
+        }
+        if (maxAgeMs <= 0) {
+            throw new IllegalArgumentException("Max age must be positive, got " + maxAgeMs);
+        }
+        this.delegate = delegate;
+        this.merchantId = merchantId;
+        this.maxAgeMs = maxAgeMs;
+
+        this.executor = PosScheduler.newBoundedExecutor("card-prefetch", THREADS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Prefetches the cards of a validated identity.
+     */
+    @Override
+    public void onCustomerIdentified(@NonNull GGWaveMessage identity) {
+        if (identity != null && identity.isValidDrishtiPayMessage()) {
+            prefetch(identity.getMobileNumber());
+        }
+    }
+
+    /**
+     * Starts fetching the contact's cards in the background, unless a
+     * prefetch for them is already pending.
+     *
+     * @param contact Customer's mobile number, must not be null
+     */
+    public void prefetch(@NonNull String contact) {
+        if (contact == null) {
+            throw new IllegalArgumentException("Contact cannot be null");
+        }
+        long now = nowMs();
+        Prefetch prefetch;
+        synchronized (this) {
+            expire(now);
+            if (pending.containsKey(contact)) {
+                return;
+            }
+            if (pending.size() >= MAX_PENDING) {
+                Iterator<Prefetch> oldest = pending.values().iterator();
+                oldest.next().call.cancel(true);
+                oldest.remove();
+                wasted.incrementAndGet();
+            }
+            prefetch = new Prefetch(now);
+            pending.put(contact, prefetch);
+        }
+        prefetches.incrementAndGet();
+        try {
+            Future<?> task = executor.submit(() -> run(contact, prefetch));
+            prefetch.call.setCancelAction(() -> task.cancel(true));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                // Map.remove(key, value) needs API 24
+                if (pending.get(contact) == prefetch) {
+                    pending.remove(contact);
+                }
+            }
+            prefetch.call.fail(e);
+            Log.w(TAG, "Prefetcher has been shut down");
+        }
+    }
+
+    /**
+     * Returns the prefetched cards if a prefetch for this merchant and contact
+     * is pending, waiting for it if still in flight; otherwise asks the backend.
+     */
+    @Override
+    public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+        Prefetch prefetch = null;
+        if (this.merchantId.equals(merchantId) && contact != null) {
+            synchronized (this) {
+                expire(nowMs());
+                prefetch = pending.remove(contact);
+            }
+        }
+        if (prefetch != null) {
+            claimed.incrementAndGet();
+            try {
+                return prefetch.call.get().cards;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while fetching saved cards", e);
+            } catch (ExecutionException | CancellationException e) {
+                Log.d(TAG, "Prefetch failed, fetching again");
+            }
+        }
+        return delegate.listAllSavedCards(merchantId, contact);
+    }
+
+    /** Prefetches started. */
+    public long getPrefetchCount() {
+        return prefetches.get();
+    }
+
+    /** listAllSavedCards() calls served by a prefetch. */
+    public long getClaimedCount() {
+        return claimed.get();
+    }
+
+    /** Prefetches that expired or were displaced before being claimed. */
+    public long getWastedCount() {
+        return wasted.get();
+    }
+
+    /** Prefetches whose backend request failed. */
+    public long getFailedPrefetchCount() {
+        return failedPrefetches.get();
+    }
+
+    /**
+     * Cancels pending prefetches and stops the worker threads.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            for (Prefetch prefetch : pending.values()) {
+                prefetch.call.cancel(true);
+            }
+            pending.clear();
+        }
+        executor.shutdownNow();
+    }
+
+    private void run(String contact, Prefetch prefetch) {
+        try {
+            prefetch.call.complete(new Result(delegate.listAllSavedCards(merchantId, contact)));
+        } catch (RuntimeException e) {
+            if (prefetch.call.isCancelled()) {
+                return;
+            }
+            failedPrefetches.incrementAndGet();
+            // Never log the contact; it is the customer's phone number
+            Log.w(TAG, "Saved-card prefetch failed: " + e.getMessage());
+            prefetch.call.fail(e);
+        }
+    }
+
+    /** Called with the lock held. */
+    private void expire(long now) {
+        Iterator<Prefetch> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Prefetch prefetch = it.next();
+            if (now - prefetch.startedAtMs < maxAgeMs) {
+                break;
+            }
+            prefetch.call.cancel(true);
+            it.remove();
+            wasted.incrementAndGet();
+        }
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class Prefetch {
+        final PendingResult<Result> call = new PendingResult<>();
+        final long startedAtMs;
+
+        Prefetch(long startedAtMs) {
+            this.startedAtMs = startedAtMs;
+        }
+    }
+
+    /** Wraps the backend's list, which may be null. */
+    private static final class Result {
+        final List<ListSavedCards> cards;
+
+        Result(List<ListSavedCards> cards) {
+            this.cards = cards;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IOrderPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IPayment} that creates the gateway order before the card is chosen.
+ *
+ * Call {@link #prepareOrder(String, float)} as soon as the basket total is
+ * final. The order is created in the background while the customer picks a
+ * card, and {@link #initiatePayment(String, Card, float)} then only has to
+ * create the payment, saving one gateway round trip on the critical path. If
+ * the prepared order is still in flight, initiation waits for it up to a
+ * bounded time. If it failed, took too long or the amount changed, a fresh
+ * order is created inline as before.
+ *
+ * Unused orders are released through {@link IOrderPayment#releaseOrder(String)}
+ * when the session prepares a new amount, when {@link #cancelOrder(String)} is
+ * called, or when they expire unused.
+ *
+ * Example usage:
+ * <pre>
+ * SpeculativeOrderPayment payment = new SpeculativeOrderPayment(gateway);
+ *
+ * // Basket totalled on lane 1
+ * payment.prepareOrder("lane-1", total);
+ *
+ * // Later, on a worker thread, after the customer chose a card
+ * PaymentInitiationResponse response = payment.initiatePayment("lane-1", card, total);
+ * </pre>
+ *
+ * Threading: prepareOrder() and cancelOrder() return immediately and are safe
+ * on the main thread. initiatePayment() and confirmPayment() block.
+ */
+public class SpeculativeOrderPayment implements IPayment {
+
+    private static final String TAG = "SpeculativeOrder";
+
+    /** Session used by the plain IPayment methods. */
+    public static final String DEFAULT_SESSION = "default";
+
+    /** How long a prepared order waits for its payment before it is released. */
+    public static final long DEFAULT_ORDER_TTL_MS = 10 * 60_000;
+
+    /** How long initiation waits for a prepared order that is still being created. */
+    public static final long DEFAULT_ORDER_WAIT_MS = 10_000;
+
+    private static final int THREADS = 2;
+
+    private final IOrderPayment gateway;
+    private final long orderTtlMs;
+    private final long orderWaitMs;
+    private final ExecutorService executor;
+    private final PosScheduler.Session timers = PosScheduler.getShared().openSession(TAG);
+
+    private final Map<String, Prepared> prepared = new HashMap<>();
+    private boolean shutdown;
+
+    private final AtomicLong preparedCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong releasedCount = new AtomicLong();
+
+    /**
+     * @param gateway Two-step gateway, must not be null
+     */
+    public SpeculativeOrderPayment(@NonNull IOrderPayment gateway) {
+        this(gateway, DEFAULT_ORDER_TTL_MS);
+    }
+
+    /**
+     * @param gateway Two-step gateway, must not be null
+     * @param orderTtlMs Lifetime of an unused prepared order, must be positive
+     */
+    public SpeculativeOrderPayment(@NonNull IOrderPayment gateway, long orderTtlMs) {
+        this(gateway, orderTtlMs, DEFAULT_ORDER_WAIT_MS);
+    }
+
+    /**
+     * @param gateway Two-step gateway, must not be null
+     * @param orderTtlMs Lifetime of an unused prepared order, must be positive
+     * @param orderWaitMs Longest wait for a prepared order still in flight before
+     *                    creating one inline, must be positive
+     */
+    public SpeculativeOrderPayment(@NonNull IOrderPayment gateway, long orderTtlMs, long orderWaitMs) {
+        if (gateway == null) {
+            throw new IllegalArgumentException("Gateway cannot be null");
+        }
+        if (orderTtlMs <= 0) {
+            throw new IllegalArgumentException("Order TTL must be positive");
+        }
+        if (orderWaitMs <= 0) {
+            throw new IllegalArgumentException("Order wait must be positive");
+        }
+        this.gateway = gateway;
+        this.orderTtlMs = orderTtlMs;
+        this.orderWaitMs = orderWaitMs;
+
+        this.executor = PosScheduler.newBoundedExecutor("order-prefetch", THREADS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Prepares an order for the default session.
+     * @see #prepareOrder(String, float)
+     */
+    public void prepareOrder(float amount) {
+        prepareOrder(DEFAULT_SESSION, amount);
+    }
+
+    /**
+     * Starts creating an order for {@code amount} in the background. Replaces
+     * and releases any order previously prepared for the session.
+     *
+     * @param sessionId Lane or basket the order belongs to, must not be null
+     * @param amount Final basket amount, must be positive
+     * @throws IllegalStateException if shut down
+     */
+    public void prepareOrder(@NonNull String sessionId, float amount) {
+        if (sessionId == null) {
+            throw new IllegalArgumentException("Session ID cannot be null");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        PendingResult<String> order = new PendingResult<>();
+        Prepared entry = new Prepared(sessionId, toMinorUnits(amount), order);
+        Prepared previous;
+        synchronized (this) {
+            if (shutdown) {
+                throw new IllegalStateException("SpeculativeOrderPayment has been shut down");
+            }
+            previous = prepared.put(sessionId, entry);
+        }
+        if (previous != null) {
+            release(previous);
+        }
+
+        preparedCount.incrementAndGet();
+        try {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    String orderId = gateway.createOrder(amount);
+                    if (!order.complete(orderId) && orderId != null) {
+                        // Released while the order was being created
+                        releaseQuietly(orderId);
+                    }
+                } catch (RuntimeException e) {
+                    order.fail(e);
+                }
+            });
+            order.setCancelAction(() -> task.cancel(true));
+        } catch (RejectedExecutionException e) {
+            order.fail(e);
+        }
+        entry.expiry = timers.schedule(() -> expire(entry), orderTtlMs);
+    }
+
+    /**
+     * Releases the order prepared for the session, e.g. when the basket is
+     * abandoned. No-op if none is prepared.
+     */
+    public void cancelOrder(@NonNull String sessionId) {
+        Prepared entry;
+        synchronized (this) {
+            entry = prepared.remove(sessionId);
+        }
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    /**
+     * Initiates payment for the default session.
+     * @see #initiatePayment(String, Card, float)
+     */
+    @Override
+    public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+        return initiatePayment(DEFAULT_SESSION, card, amount);
+    }
+
+    /**
+     * Initiates payment using the order prepared for the session if its amount
+     * matches and it is ready in time, otherwise creates a fresh order first. Blocks.
+     *
+     * @param sessionId Session passed to prepareOrder()
+     * @param card Saved card chosen by the customer
+     * @param amount Amount to charge
+     * @return the gateway's initiation response
+     */
+    public PaymentInitiationResponse initiatePayment(@NonNull String sessionId, Card card, float amount) {
+        Prepared entry;
+        synchronized (this) {
+            entry = prepared.remove(sessionId);
+        }
+
+        String orderId = null;
+        if (entry != null) {
+            cancelExpiry(entry);
+            if (entry.amountMinorUnits == toMinorUnits(amount)) {
+                try {
+                    orderId = entry.order.get(orderWaitMs, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    Log.w(TAG, "Prepared order failed, creating a new one", e.getCause());
+                } catch (TimeoutException e) {
+                    Log.w(TAG, "Prepared order not ready after " + orderWaitMs + "ms, creating a new one");
+                    release(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    release(entry);
+                    throw new IllegalStateException("Interrupted while waiting for prepared order", e);
+                }
+            } else {
+                Log.d(TAG, "Amount changed since the order was prepared, creating a new one");
+                release(entry);
+            }
+        }
+
+        if (orderId != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            orderId = gateway.createOrder(amount);
+        }
+        return gateway.initiatePayment(card, amount, orderId);
+    }
+
+    @Override
+    public PaymentStatus confirmPayment(String paymentId) {
+        return gateway.confirmPayment(paymentId);
+    }
+
+    /** Orders prepared through prepareOrder(). */
+    public long getPreparedCount() {
+        return preparedCount.get();
+    }
+
+    /** Payments that used a prepared order. */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** Payments that had to create their order inline. */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /** Prepared orders released unused. */
+    public long getReleasedCount() {
+        return releasedCount.get();
+    }
+
+    /**
+     * Releases all prepared orders and stops background work. Idempotent.
+     */
+    public void shutdown() {
+        List<Prepared> pending;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            pending = new ArrayList<>(prepared.values());
+            prepared.clear();
+        }
+        for (Prepared entry : pending) {
+            release(entry);
+        }
+        timers.cancel();
+        executor.shutdown();
+    }
+
+    private void expire(Prepared entry) {
+        synchronized (this) {
+            if (prepared.get(entry.sessionId) != entry) {
+                return;
+            }
+            prepared.remove(entry.sessionId);
+        }
+        Log.d(TAG, "Prepared order expired unused");
+        release(entry);
+    }
+
+    /**
+     * Abandons a prepared order: stops its creation if still running, or
+     * releases it at the gateway if it exists.
+     */
+    private void release(Prepared entry) {
+        cancelExpiry(entry);
+        releasedCount.incrementAndGet();
+        if (entry.order.cancel(true)) {
+            return;
+        }
+        if (entry.order.isSuccessful()) {
+            try {
+                // Already complete, so this never waits
+                String orderId = entry.order.get(0, TimeUnit.MILLISECONDS);
+                executor.execute(() -> releaseQuietly(orderId));
+            } catch (ExecutionException | InterruptedException | TimeoutException
+                     | RejectedExecutionException e) {
+                Log.w(TAG, "Could not release prepared order", e);
+            }
+        }
+    }
+
+    private void releaseQuietly(String orderId) {
+        try {
+            gateway.releaseOrder(orderId);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Gateway failed to release order", e);
+        }
+    }
+
+    private static void cancelExpiry(Prepared entry) {
+        ICancellable expiry = entry.expiry;
+        if (expiry != null) {
+            expiry.cancel();
+        }
+    }
+
+    private static long toMinorUnits(float amount) {
+        return Math.round(amount * 100d);
+    }
+
+    private static final class Prepared {
+        final String sessionId;
+        final long amountMinorUnits;
+        final PendingResult<String> order;
+        volatile ICancellable expiry;
+
+        Prepared(String sessionId, long amountMinorUnits, PendingResult<String> order) {
+            this.sessionId = sessionId;
+            this.amountMinorUnits = amountMinorUnits;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CheckoutStage;
+import com.freedomfinancestack.pos_sdk_core.models.StageLatencyStats;
+
+/**
+ * Records outcomes of one checkout pipeline stage. Percentiles cover the
+ * latest {@link LatencyWindow#DEFAULT_CAPACITY} completions.
+ */
+final class StageTimingRecorder {
+
+    private final CheckoutStage stage;
+    private final LatencyWindow window = new LatencyWindow();
+    private long completed = 0;
+    private long failed = 0;
+    private long timedOut = 0;
+    private long totalMs = 0;
+    private long maxMs = 0;
+
+    StageTimingRecorder(CheckoutStage stage) {
+        this.stage = stage;
+    }
+
+    synchronized void recordCompleted(long latencyMs) {
+        window.add(latencyMs);
+        completed++;
+        totalMs += latencyMs;
+        maxMs = Math.max(maxMs, latencyMs);
+    }
+
+    synchronized void recordFailed() {
+        failed++;
+    }
+
+    synchronized void recordTimedOut() {
+        timedOut++;
+    }
+
+    @NonNull
+    synchronized StageLatencyStats snapshot() {
+        long[] sorted = window.sorted();
+        return StageLatencyStats.builder()
+                .stage(stage)
+                .completedCount(completed)
+                .failedCount(failed)
+                .timedOutCount(timedOut)
+                .meanMs(completed > 0 ? totalMs / completed : 0)
+                .p50Ms(LatencyWindow.percentile(sorted, 0.50))
+                .p95Ms(LatencyWindow.percentile(sorted, 0.95))
+                .p99Ms(LatencyWindow.percentile(sorted, 0.99))
+                .maxMs(maxMs)
+                .build();
+    }
+}
@@ -0,0 +1,441 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.JournaledPaymentState;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIdempotentPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.JournaledPayment;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link IPayment} that journals every payment before it reaches the gateway
+ * and forwards interrupted work once connectivity returns.
+ *
+ * initiatePayment() makes a QUEUED record durable, marks it SENDING, calls
+ * the gateway and records the outcome. If the call fails, the payment stays
+ * in the {@link PaymentJournal} instead of being lost:
+ * <ul>
+ *   <li>With an {@link IIdempotentPayment} gateway it is re-queued and
+ *       {@link #forwardPending()} resends it under the same idempotency key,
+ *       so the gateway never creates it twice. After the configured number
+ *       of attempts it is marked IN_DOUBT instead.</li>
+ *   <li>With a plain IPayment the request may or may not have reached the
+ *       gateway, so it is marked IN_DOUBT for manual reconciliation rather
+ *       than risk a double charge.</li>
+ *   <li>If the gateway rejected the request, as reported by a
+ *       {@link GatewayResponseReader.GatewayException}, it is marked FAILED
+ *       and never resent.</li>
+ * </ul>
+ * forwardPending() also re-checks INITIATED payments through confirmPayment(),
+ * so their final status is journaled even if the confirmation was missed.
+ * Payments this instance is sending right now are skipped, and only SENDING
+ * records already in the journal when this instance was created count as
+ * interrupted by a crash.
+ *
+ * Example usage:
+ * <pre>
+ * PaymentJournal journal = new PaymentJournal(new File(getFilesDir(), "payments"));
+ * StoreAndForwardPayment payment = new StoreAndForwardPayment(gateway, journal);
+ * payment.setListener(listener);
+ * payment.startAutoForward(context);   // replays pending work now and on reconnect
+ * </pre>
+ *
+ * startAutoForward() needs the ACCESS_NETWORK_STATE permission. The SDK
+ * declares no permissions beyond NFC, so apps that call it declare it themselves.
+ *
+ * Threading: initiatePayment() and confirmPayment() block. forwardPending()
+ * returns immediately and works on a background thread; listeners are called
+ * on the main thread.
+ */
+public class StoreAndForwardPayment implements IPayment {
+
+    private static final String TAG = "StoreAndForwardPayment";
+
+    /**
+     * Receives the outcome of forwarded work.
+     */
+    public interface Listener {
+        /**
+         * A queued payment reached the gateway.
+         *
+         * @param payment Journaled snapshot, now INITIATED
+         * @param response Gateway response, including the ACS URL for the OTP
+         */
+        void onForwarded(@NonNull JournaledPayment payment, @NonNull PaymentInitiationResponse response);
+
+        /**
+         * A previously initiated payment reached a final or new status.
+         */
+        void onStatusResolved(@NonNull JournaledPayment payment);
+
+        /**
+         * A forwarded request failed; the payment stays pending, becomes
+         * IN_DOUBT for gateways without idempotency keys or once its attempts
+         * are used up, or FAILED if the gateway rejected it.
+         */
+        void onForwardFailed(@NonNull JournaledPayment payment, @NonNull Throwable error);
+    }
+
+    /** Sends of one payment, including the first, before it is marked IN_DOUBT. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final IPayment gateway;
+    private final PaymentJournal journal;
+    private final int maxAttempts;
+    private final ExecutorService forwarder;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean forwarding = new AtomicBoolean();
+    private final AtomicBoolean forwardAgain = new AtomicBoolean();
+
+    // Both guarded by busy: keys being sent or forwarded right now, and SENDING keys found at creation
+    private final Set<String> busy = new HashSet<>();
+    private final Set<String> interrupted = new HashSet<>();
+
+    private volatile Listener listener;
+    private ConnectivityManager connectivityManager;
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    /**
+     * @param gateway Gateway to forward to; implement IIdempotentPayment for automatic resends
+     * @param journal Open journal, owned and closed by the caller
+     */
+    public StoreAndForwardPayment(@NonNull IPayment gateway, @NonNull PaymentJournal journal) {
+        this(gateway, journal, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * @param gateway Gateway to forward to; implement IIdempotentPayment for automatic resends
+     * @param journal Open journal, owned and closed by the caller
+     * @param maxAttempts Sends of one payment before it is marked IN_DOUBT, at least 1
+     */
+    public StoreAndForwardPayment(@NonNull IPayment gateway, @NonNull PaymentJournal journal, int maxAttempts) {
+        if (gateway == null || journal == null) {
+            throw new IllegalArgumentException("Gateway and journal cannot be null");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1, got " + maxAttempts);
+        }
+        this.gateway = gateway;
+        this.journal = journal;
+        this.maxAttempts = maxAttempts;
+        for (JournaledPayment payment : journal.getPending()) {
+            if (payment.getState() == JournaledPaymentState.SENDING) {
+                interrupted.add(payment.getIdempotencyKey());
+            }
+        }
+        this.forwarder = PosScheduler.newBoundedExecutor("payment-forward", 1, new LinkedBlockingQueue<>());
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Journals the payment, then initiates it at the gateway.
+     *
+     * @throws IllegalStateException if the journal cannot persist the payment
+     * @throws RuntimeException the gateway's failure; the payment stays journaled
+     */
+    @Override
+    public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+        long now = System.currentTimeMillis();
+        JournaledPayment queued = JournaledPayment.builder()
+                .idempotencyKey(UUID.randomUUID().toString())
+                .card(card)
+                .amount(amount)
+                .state(JournaledPaymentState.QUEUED)
+                .createdAtMs(now)
+                .updatedAtMs(now)
+                .build();
+        claim(queued.getIdempotencyKey());
+        try {
+            awaitDurable(journal.append(queued));
+            return send(queued);
+        } finally {
+            release(queued.getIdempotencyKey());
+        }
+    }
+
+    /**
+     * Confirms the status at the gateway and journals it for the matching payment.
+     */
+    @Override
+    public PaymentStatus confirmPayment(String paymentId) {
+        PaymentStatus status = gateway.confirmPayment(paymentId);
+        if (status != null && paymentId != null) {
+            JournaledPayment payment = journal.findByPaymentId(paymentId);
+            if (payment != null) {
+                recordStatus(payment, status);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Resends queued payments and re-checks initiated ones in the background.
+     * Calls made while a pass is running schedule one more pass.
+     */
+    public void forwardPending() {
+        forwardAgain.set(true);
+        if (!forwarding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            forwarder.execute(this::forwardLoop);
+        } catch (RejectedExecutionException e) {
+            forwarding.set(false);
+            Log.w(TAG, "Forwarder has been shut down");
+        }
+    }
+
+    /**
+     * Forwards pending work now and whenever a network with internet access
+     * becomes available. Call {@link #stopAutoForward()} or {@link #shutdown()}
+     * when done.
+     *
+     * The app must declare ACCESS_NETWORK_STATE in its own manifest; the SDK does not.
+     */
+    public synchronized void startAutoForward(@NonNull Context context) {
+        if (networkCallback != null) {
+            return;
+        }
+        connectivityManager = (ConnectivityManager) context.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                Log.d(TAG, "Network available, forwarding pending payments");
+                forwardPending();
+            }
+        };
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+        connectivityManager.registerNetworkCallback(request, networkCallback);
+        forwardPending();
+    }
+
+    public synchronized void stopAutoForward() {
+        if (networkCallback != null) {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+            networkCallback = null;
+            connectivityManager = null;
+        }
+    }
+
+    /**
+     * Stops automatic forwarding and the forwarder thread. Does not close the journal.
+     */
+    public void shutdown() {
+        stopAutoForward();
+        forwarder.shutdownNow();
+    }
+
+    private void forwardLoop() {
+        try {
+            while (forwardAgain.getAndSet(false)) {
+                for (JournaledPayment payment : journal.getPending()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    forward(payment);
+                }
+            }
+        } finally {
+            forwarding.set(false);
+        }
+        // A request that arrived between the last check and the reset
+        if (forwardAgain.get()) {
+            forwardPending();
+        }
+    }
+
+    private void forward(JournaledPayment snapshot) {
+        String key = snapshot.getIdempotencyKey();
+        if (!claim(key)) {
+            // initiatePayment() is sending it right now
+            return;
+        }
+        try {
+            // The snapshot may be stale; act on what the journal holds now
+            JournaledPayment payment = journal.get(key);
+            if (payment != null) {
+                forwardClaimed(payment);
+            }
+        } finally {
+            release(key);
+        }
+    }
+
+    private void forwardClaimed(JournaledPayment payment) {
+        switch (payment.getState()) {
+            case SENDING:
+                if (!wasInterrupted(payment.getIdempotencyKey())) {
+                    // Not from a crash; its sender is still responsible for it
+                    return;
+                }
+                if (gateway instanceof IIdempotentPayment) {
+                    // Safe to resend under the same key
+                    resend(payment);
+                } else {
+                    journal.append(update(payment, JournaledPaymentState.IN_DOUBT));
+                }
+                return;
+            case QUEUED:
+                resend(payment);
+                return;
+            case INITIATED:
+                try {
+                    PaymentStatus status = gateway.confirmPayment(payment.getPaymentId());
+                    if (status != null && status != payment.getStatus()) {
+                        JournaledPayment resolved = recordStatus(payment, status);
+                        notify(l -> l.onStatusResolved(resolved));
+                    }
+                } catch (RuntimeException e) {
+                    notify(l -> l.onForwardFailed(payment, e));
+                }
+                return;
+            default:
+                // IN_DOUBT waits for manual reconciliation
+        }
+    }
+
+    private void resend(JournaledPayment payment) {
+        try {
+            PaymentInitiationResponse response = send(payment);
+            JournaledPayment initiated = journal.get(payment.getIdempotencyKey());
+            notify(l -> l.onForwarded(initiated != null ? initiated : payment, response));
+        } catch (RuntimeException e) {
+            JournaledPayment current = journal.get(payment.getIdempotencyKey());
+            notify(l -> l.onForwardFailed(current != null ? current : payment, e));
+        }
+    }
+
+    /**
+     * @return true if the key was free and is now held by the caller
+     */
+    private boolean claim(String key) {
+        synchronized (busy) {
+            return busy.add(key);
+        }
+    }
+
+    private void release(String key) {
+        synchronized (busy) {
+            busy.remove(key);
+        }
+    }
+
+    /**
+     * @return true once for a key that was SENDING when this instance was created
+     */
+    private boolean wasInterrupted(String key) {
+        synchronized (busy) {
+            return interrupted.remove(key);
+        }
+    }
+
+    private PaymentInitiationResponse send(JournaledPayment payment) {
+        JournaledPayment sending = update(payment, JournaledPaymentState.SENDING).toBuilder()
+                .attempts(payment.getAttempts() + 1)
+                .build();
+        // Must be durable before the request leaves, or a crash could resend it
+        awaitDurable(journal.append(sending));
+
+        PaymentInitiationResponse response;
+        try {
+            if (gateway instanceof IIdempotentPayment) {
+                response = ((IIdempotentPayment) gateway).initiatePayment(
+                        payment.getCard(), payment.getAmount(), payment.getIdempotencyKey());
+            } else {
+                response = gateway.initiatePayment(payment.getCard(), payment.getAmount());
+            }
+            if (response == null || response.getPaymentId() == null) {
+                throw new IllegalStateException("Gateway returned no payment");
+            }
+        } catch (RuntimeException e) {
+            JournaledPaymentState next;
+            if (e instanceof GatewayResponseReader.GatewayException
+                    && ((GatewayResponseReader.GatewayException) e).isRejection()) {
+                // Refused outright, so nothing was created and a resend cannot help
+                next = JournaledPaymentState.FAILED;
+            } else if (!(gateway instanceof IIdempotentPayment) || sending.getAttempts() >= maxAttempts) {
+                next = JournaledPaymentState.IN_DOUBT;
+            } else {
+                next = JournaledPaymentState.QUEUED;
+            }
+            journal.append(update(sending, next));
+            Log.w(TAG, "Payment not initiated, journaled as " + next + ": " + e.getMessage());
+            throw e;
+        }
+
+        journal.append(update(sending, JournaledPaymentState.INITIATED).toBuilder()
+                .paymentId(response.getPaymentId())
+                .build());
+        return response;
+    }
+
+    private JournaledPayment recordStatus(JournaledPayment payment, PaymentStatus status) {
+        JournaledPaymentState state;
+        if (status == PaymentStatus.PAID) {
+            state = JournaledPaymentState.COMPLETED;
+        } else if (status == PaymentStatus.FAILED) {
+            state = JournaledPaymentState.FAILED;
+        } else {
+            state = payment.getState();
+        }
+        JournaledPayment updated = update(payment, state).toBuilder().status(status).build();
+        journal.append(updated);
+        return updated;
+    }
+
+    private static JournaledPayment update(JournaledPayment payment, JournaledPaymentState state) {
+        return payment.toBuilder()
+                .state(state)
+                .updatedAtMs(System.currentTimeMillis())
+                .build();
+    }
+
+    private static void awaitDurable(PendingResult<Long> append) {
+        try {
+            append.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while journaling payment", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not journal payment", e.getCause());
+        }
+    }
+
+    private void notify(ListenerAction action) {
+        Listener current = listener;
+        if (current != null) {
+            mainHandler.post(() -> action.run(current));
+        }
+    }
+
+    private interface ListenerAction {
+        void run(Listener listener);
+    }
+}
@@ -0,0 +1,60 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed open-addressing map from BER-TLV tag to a dense slot index.
+ * Built once, then read without allocation or boxing.
+ */
+final class TagTable {
+
+    private final int[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * @param tags Distinct tags; slot i is assigned to tags[i]
+     */
+    TagTable(int[] tags) {
+        int capacity = Integer.highestOneBit(Math.max(4, tags.length * 2 - 1)) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(slots, -1);
+
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == 0) {
+                throw new IllegalArgumentException("Invalid tag: " + tags[i]);
+            }
+            int h = hash(tags[i]) & mask;
+            while (slots[h] != -1) {
+                if (keys[h] == tags[i]) {
+                    throw new IllegalArgumentException("Duplicate tag: " + EmvTags.toHex(tags[i]));
+                }
+                h = (h + 1) & mask;
+            }
+            keys[h] = tags[i];
+            slots[h] = i;
+        }
+    }
+
+    /**
+     * @return slot assigned to {@code tag}, or -1 if the tag is not in the table
+     */
+    int slotOf(int tag) {
+        int h = hash(tag) & mask;
+        int slot;
+        while ((slot = slots[h]) != -1) {
+            if (keys[h] == tag) {
+                return slot;
+            }
+            h = (h + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(int tag) {
+        int h = tag * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,102 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Single-pass index of the tags a caller cares about in a BER-TLV response.
+ *
+ * The wanted tags are hashed once at construction; each {@link #scan(ByteBuffer)}
+ * walks the whole tree a single time and records the offset and length of the
+ * first occurrence of every wanted tag. Lookups afterwards are a table probe,
+ * and neither scanning nor lookup allocates.
+ *
+ * Example usage:
+ * <pre>
+ * TlvTagIndex index = new TlvTagIndex(EmvTags.AIP, EmvTags.AFL, EmvTags.APPLICATION_TRANSACTION_COUNTER);
+ * index.scan(gpoResponse);
+ * int atcOffset = index.valueOffset(EmvTags.APPLICATION_TRANSACTION_COUNTER);
+ * </pre>
+ *
+ * Threading: not thread-safe. Reuse one index per thread.
+ */
+public final class TlvTagIndex {
+
+    private final TagTable table;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final BerTlvReader reader = new BerTlvReader();
+
+    /**
+     * @param tags Distinct tags to index, e.g. constants from {@link EmvTags}
+     * @throws IllegalArgumentException if a tag is zero or repeated
+     */
+    public TlvTagIndex(@NonNull int... tags) {
+        if (tags == null || tags.length == 0) {
+            throw new IllegalArgumentException("At least one tag is required");
+        }
+        this.table = new TagTable(tags.clone());
+        this.offsets = new int[tags.length];
+        this.lengths = new int[tags.length];
+        Arrays.fill(offsets, -1);
+        Arrays.fill(lengths, -1);
+    }
+
+    /**
+     * Indexes the remaining bytes of {@code data}, replacing the previous scan.
+     * The buffer's position and limit are not modified; offsets index into it.
+     *
+     * @return number of wanted tags found
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public int scan(@NonNull ByteBuffer data) {
+        Arrays.fill(offsets, -1);
+        Arrays.fill(lengths, -1);
+        BerTlvReader r = reader.reset(data);
+        int found = 0;
+        while (found < offsets.length) {
+            if (r.next()) {
+                int slot = table.slotOf(r.tag());
+                if (slot >= 0 && offsets[slot] < 0) {
+                    offsets[slot] = r.valueOffset();
+                    lengths[slot] = r.valueLength();
+                    found++;
+                }
+                if (r.isConstructed()) {
+                    r.enter();
+                }
+            } else if (r.depth() > 0) {
+                r.exit();
+            } else {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return true if the last scan found {@code tag}
+     */
+    public boolean contains(int tag) {
+        int slot = table.slotOf(tag);
+        return slot >= 0 && offsets[slot] >= 0;
+    }
+
+    /**
+     * @return absolute offset of the tag's value in the scanned buffer, or -1 if absent
+     */
+    public int valueOffset(int tag) {
+        int slot = table.slotOf(tag);
+        return slot >= 0 ? offsets[slot] : -1;
+    }
+
+    /**
+     * @return length of the tag's value in bytes, or -1 if absent
+     */
+    public int valueLength(int tag) {
+        int slot = table.slotOf(tag);
+        return slot >= 0 ? lengths[slot] : -1;
+    }
+}
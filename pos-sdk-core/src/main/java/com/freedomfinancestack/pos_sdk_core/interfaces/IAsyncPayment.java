@@ -0,0 +1,44 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+/**
+ * Non-blocking counterpart of {@link IPayment}.
+ *
+ * Every method returns immediately with an {@link IPendingResult} that completes
+ * when the gateway answers, fails with a TimeoutException when the
+ * implementation's deadline passes, and can be cancelled. This lets payment
+ * I/O overlap with UI work and with other lanes.
+ *
+ * Use {@link com.freedomfinancestack.pos_sdk_core.implementations.AsyncPaymentAdapter}
+ * to run an existing synchronous IPayment this way.
+ *
+ * Threading: methods may be called from any thread, including the main thread.
+ */
+public interface IAsyncPayment {
+
+    /**
+     * Initiate payment with the selected saved card.
+     *
+     * @param card Saved card chosen by the customer, must not be null
+     * @param amount Amount to charge, must be positive
+     * @return result completing with the ACS URL and payment ID
+     * @throws IllegalArgumentException if card is null or amount is not positive
+     */
+    @NonNull
+    IPendingResult<PaymentInitiationResponse> initiatePayment(@NonNull Card card, float amount);
+
+    /**
+     * Confirm payment status for the given payment ID.
+     *
+     * @param paymentId ID returned by initiatePayment, must not be null or empty
+     * @return result completing with the gateway's payment status
+     * @throws IllegalArgumentException if paymentId is null or empty
+     */
+    @NonNull
+    IPendingResult<PaymentStatus> confirmPayment(@NonNull String paymentId);
+}
@@ -0,0 +1,35 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IPayment} for gateways that can report the status of several
+ * payments in one request.
+ *
+ * Implement this alongside IPayment when the backend offers a bulk status
+ * endpoint; {@link com.freedomfinancestack.pos_sdk_core.implementations.BatchPaymentConfirmer}
+ * then splits large reconciliations into as few calls as the gateway allows.
+ *
+ * Threading: all methods block on network I/O. Never call from the main thread.
+ */
+public interface IBatchPayment extends IPayment {
+
+    /**
+     * @return largest number of payment IDs {@link #confirmPayments(List)} accepts, at least 1
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Confirms the status of several payments in a single backend call.
+     *
+     * @param paymentIds Distinct payment IDs, at most {@link #getMaxBatchSize()}
+     * @return status per payment ID; IDs the gateway does not know are omitted
+     */
+    @NonNull
+    Map<String, PaymentStatus> confirmPayments(@NonNull List<String> paymentIds);
+}
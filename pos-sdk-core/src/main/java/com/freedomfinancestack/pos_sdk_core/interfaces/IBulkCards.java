@@ -0,0 +1,37 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ICards} for backends that can list the saved cards of several
+ * contacts in one request.
+ *
+ * Implement this alongside ICards when the backend offers a bulk lookup
+ * endpoint; {@link com.freedomfinancestack.pos_sdk_core.implementations.BulkCardLookup}
+ * then resolves family or shared-wallet contacts in as few calls as the
+ * backend allows.
+ *
+ * Threading: all methods block on network I/O. Never call from the main thread.
+ */
+public interface IBulkCards extends ICards {
+
+    /**
+     * @return largest number of contacts {@link #listSavedCards(String, List)} accepts, at least 1
+     */
+    int getMaxBulkSize();
+
+    /**
+     * Lists the saved cards of several contacts in a single backend call.
+     *
+     * @param merchantId Merchant the cards are saved for
+     * @param contacts Distinct contacts, at most {@link #getMaxBulkSize()}
+     * @return cards per contact; contacts the backend could not resolve are omitted
+     */
+    @NonNull
+    Map<String, List<ListSavedCards>> listSavedCards(@NonNull String merchantId, @NonNull List<String> contacts);
+}
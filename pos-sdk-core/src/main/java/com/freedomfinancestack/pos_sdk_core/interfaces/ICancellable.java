@@ -0,0 +1,19 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+/**
+ * Handle to pending or ongoing SDK work that the caller may abandon.
+ *
+ * Threading: both methods are safe to call from any thread.
+ */
+public interface ICancellable {
+
+    /**
+     * Cancel the work. Idempotent; has no effect if the work already finished.
+     */
+    void cancel();
+
+    /**
+     * @return true if cancel() has been called on this handle
+     */
+    boolean isCancelled();
+}
@@ -0,0 +1,24 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+
+/**
+ * Told as soon as the SDK has validated a customer identity, before the
+ * identity reaches app callbacks. Lets work that only needs the customer,
+ * such as fetching saved cards, start while the UI is still transitioning.
+ *
+ * Set on {@link com.freedomfinancestack.pos_sdk_core.implementations.GGWaveManager}
+ * and {@link com.freedomfinancestack.pos_sdk_core.implementations.CustomerIdentificationRace}.
+ *
+ * Threading: called on the thread that decoded the identity, which may be
+ * the main thread. Implementations must return quickly and never block.
+ */
+public interface ICustomerIdentityListener {
+
+    /**
+     * @param identity Valid DrishtiPay identity; its mobile number is personal data and must not be logged
+     */
+    void onCustomerIdentified(@NonNull GGWaveMessage identity);
+}
@@ -0,0 +1,47 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+
+import java.io.IOException;
+
+/**
+ * HTTP transport shared by IPayment and ICards implementations.
+ *
+ * One transport instance owns one pool of keep-alive connections to the
+ * backend's base URL, so every request after the first skips DNS, TCP and
+ * TLS setup. Pass the same instance to all backend implementations.
+ *
+ * Threading: execute() blocks and must not be called on the main thread.
+ * warmup() returns immediately and is safe on any thread.
+ * Error handling: execute() throws IOException for network failures; HTTP
+ * error statuses are returned as responses.
+ */
+public interface IHttpTransport {
+
+    /**
+     * Sends a request relative to the transport's base URL.
+     *
+     * @param request Request to send, must not be null
+     * @return response whose body must be closed by the caller
+     * @throws IOException if the request could not be completed
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    @NonNull
+    HttpResponse execute(@NonNull HttpRequest request) throws IOException;
+
+    /**
+     * Opens a connection to the base URL in the background so the first real
+     * request does not pay for connection setup. Call at app start.
+     */
+    void warmup();
+
+    /**
+     * @return connection reuse and handshake counters since creation
+     */
+    @NonNull
+    HttpTransportStats getStats();
+}
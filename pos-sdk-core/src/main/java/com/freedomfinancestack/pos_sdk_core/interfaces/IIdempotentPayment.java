@@ -0,0 +1,39 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import java.util.UUID;
+
+/**
+ * {@link IPayment} for gateways that deduplicate requests by idempotency key.
+ *
+ * Sending the same key twice must not create a second payment, which lets
+ * {@link com.freedomfinancestack.pos_sdk_core.implementations.StoreAndForwardPayment}
+ * safely resend payments whose outcome was lost to a network failure.
+ *
+ * Threading: all methods block on network I/O. Never call from the main thread.
+ */
+public interface IIdempotentPayment extends IPayment {
+
+    /**
+     * Initiates payment, or returns the existing payment for a key the
+     * gateway has already seen.
+     *
+     * @param card Saved card chosen by the customer, must not be null
+     * @param amount Amount to charge
+     * @param idempotencyKey Unique per payment attempt, must not be null
+     * @return the ACS URL for entering the issuer OTP, plus the payment ID
+     */
+    PaymentInitiationResponse initiatePayment(@NonNull Card card, float amount, @NonNull String idempotencyKey);
+
+    /**
+     * Initiates payment under a fresh idempotency key.
+     */
+    @Override
+    default PaymentInitiationResponse initiatePayment(Card card, float amount) {
+        return initiatePayment(card, amount, UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,76 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.ApduBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Raw ISO-DEP (ISO 14443-4) channel to the card or wallet currently in the
+ * reader field, for APDU conversations that do not fit in an NdefMessage.
+ *
+ * Plugins expose it through {@link IPosNfcPlugin#getIsoDepChannel()} when the
+ * vendor SDK allows raw transceive.
+ *
+ * Threading: blocking I/O. Never call from the main thread.
+ * Error handling: throws IOException when the card leaves the field or the
+ * exchange fails; the channel is then no longer connected.
+ */
+public interface IIsoDepChannel {
+
+    /**
+     * @return true while a card is in the field and exchanges are possible
+     */
+    boolean isConnected();
+
+    /**
+     * @return largest command APDU accepted by the reader, in bytes
+     */
+    int getMaxTransceiveLength();
+
+    /**
+     * @return true if {@link #transceive(ApduBatch)} overlaps commands instead
+     *         of running them one round trip at a time
+     */
+    boolean supportsPipelining();
+
+    /**
+     * Exchanges a single APDU.
+     *
+     * @param command Command bytes between position and limit; position is not modified
+     * @param response Destination buffer; cleared, filled with the response including SW1-SW2, then flipped
+     * @return response length in bytes
+     * @throws IOException if the card is gone or the exchange fails
+     * @throws java.nio.BufferOverflowException if the response does not fit
+     */
+    int transceive(@NonNull ByteBuffer command, @NonNull ByteBuffer response) throws IOException;
+
+    /**
+     * Exchanges every APDU of the batch, recording per-APDU and total latency
+     * in the batch. Implementations whose vendor SDK can pipeline commands
+     * override this; the default runs them sequentially.
+     *
+     * Responses are written to the batch's reusable buffers. Processing stops at
+     * the first failed exchange.
+     *
+     * @param batch Commands to send, must not be null
+     * @throws IOException if any exchange fails
+     */
+    default void transceive(@NonNull ApduBatch batch) throws IOException {
+        if (batch == null) {
+            throw new IllegalArgumentException("APDU batch cannot be null");
+        }
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                long exchangeStart = System.nanoTime();
+                transceive(batch.getCommand(i), batch.getResponse(i));
+                batch.setLatencyNanos(i, System.nanoTime() - exchangeStart);
+            }
+        } finally {
+            batch.setTotalNanos(System.nanoTime() - start);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.freedomfinancestack.pos_sdk_core.interfaces;
 
 import android.nfc.NdefMessage;
+
+import androidx.annotation.NonNull;
+
 public interface INfcDeviceManager {
 
     /**
@@ -10,6 +13,29 @@ public interface INfcDeviceManager {
      */
     void startListening(NdefCallback callback);
 
+    /**
+     * Starts listening for NFC taps, giving up if no tap arrives before the deadline.
+     *
+     * On expiry the reader is powered down exactly as by {@link #stopListening()}
+     * and {@link DeadlineCallback#onTimeout(long)} is delivered instead of an error.
+     * Once a tap or an error arrives the deadline no longer applies and
+     * listening continues until stopped. Starting another listen, or calling
+     * stopListening(), supersedes this deadline.
+     *
+     * Managers without a deadline of their own can delegate to
+     * {@code NfcDeadlineTracker}, reporting their listens and stops to it.
+     *
+     * Threading: onTimeout() is invoked on an SDK scheduler thread, not the main thread.
+     *
+     * @param callback The callback for taps, errors and the timeout, must not be null
+     * @param timeoutMs Time to wait for the first tap, must be positive
+     * @return handle whose cancel() discards the deadline and stops this listen
+     *         unless another one has superseded it
+     * @throws IllegalArgumentException if callback is null or timeoutMs is not positive
+     */
+    @NonNull
+    ICancellable startListening(@NonNull DeadlineCallback callback, long timeoutMs);
+
     /**
      * Stops listening for NFC taps.
      */
@@ -33,4 +59,18 @@ public interface INfcDeviceManager {
          */
         void onError(String errorMessage);
     }
+
+    /**
+     * Callback for {@link #startListening(DeadlineCallback, long)} that also
+     * learns when the customer never tapped.
+     */
+    interface DeadlineCallback extends NdefCallback {
+        /**
+         * Called once when the deadline passes without a tap. The reader has
+         * already been powered down.
+         *
+         * @param waitedMs Milliseconds the reader was listening
+         */
+        void onTimeout(long waitedMs);
+    }
 } 
\ No newline at end of file
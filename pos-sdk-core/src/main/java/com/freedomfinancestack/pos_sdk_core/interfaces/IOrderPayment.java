@@ -0,0 +1,56 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+/**
+ * {@link IPayment} for gateways that create an order before taking payment.
+ *
+ * Splitting the two steps lets the SDK create the order as soon as the amount
+ * is final and take it off the critical path after card selection; see
+ * {@link com.freedomfinancestack.pos_sdk_core.implementations.SpeculativeOrderPayment}.
+ *
+ * Threading: all methods block on network I/O. Never call from the main thread.
+ * Error handling: methods throw RuntimeException subclasses on gateway
+ * failures, like IPayment.
+ */
+public interface IOrderPayment extends IPayment {
+
+    /**
+     * Creates a gateway order for the amount.
+     *
+     * @param amount Amount to charge, must be positive
+     * @return order ID, never null
+     */
+    @NonNull
+    String createOrder(float amount);
+
+    /**
+     * Initiates payment against an order created by {@link #createOrder(float)}.
+     *
+     * @param card Saved card chosen by the customer, must not be null
+     * @param amount Amount the order was created for
+     * @param orderId Order to pay, must not be null
+     * @return the ACS URL for entering the issuer OTP, plus payment and order IDs
+     */
+    PaymentInitiationResponse initiatePayment(@NonNull Card card, float amount, @NonNull String orderId);
+
+    /**
+     * Releases an order that will not be paid, e.g. because the basket
+     * changed. Gateways whose orders simply expire can keep the default no-op.
+     *
+     * @param orderId Order created by this gateway
+     */
+    default void releaseOrder(@NonNull String orderId) {
+    }
+
+    /**
+     * Creates the order and initiates payment in one call.
+     */
+    @Override
+    default PaymentInitiationResponse initiatePayment(Card card, float amount) {
+        return initiatePayment(card, amount, createOrder(amount));
+    }
+}
@@ -0,0 +1,74 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link ICards} for backends that return saved cards a page at a time.
+ *
+ * Customers with many cards, such as corporate contacts, produce responses
+ * that take long to download and parse in full. Fetching a small first page
+ * lets the UI show cards at once, and reading page by page keeps memory
+ * bounded by the page size. Use
+ * {@link com.freedomfinancestack.pos_sdk_core.implementations.SavedCardPager}
+ * to iterate.
+ *
+ * Threading: all methods block on network I/O. Never call from the main thread.
+ */
+public interface IPagedCards extends ICards {
+
+    /**
+     * Fetches one page of a customer's saved cards.
+     *
+     * @param merchantId Merchant the cards are saved for
+     * @param contact Customer's mobile number
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param pageSize Most cards to return, positive; backends may return fewer
+     * @return the page; its nextCursor is null on the last page
+     */
+    @NonNull
+    CardPage listSavedCardsPage(@NonNull String merchantId, @NonNull String contact,
+                                @Nullable String cursor, int pageSize);
+
+    /**
+     * Preferred page size for this backend.
+     */
+    default int getDefaultPageSize() {
+        return 20;
+    }
+
+    /**
+     * Collects every page into a single entry for the contact.
+     *
+     * @throws IllegalStateException if the backend returns a cursor it already returned
+     */
+    @Override
+    default List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+        List<Card> all = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            CardPage page = listSavedCardsPage(merchantId, contact, cursor, getDefaultPageSize());
+            if (page.getCards() != null) {
+                all.addAll(page.getCards());
+            }
+            String next = page.getNextCursor();
+            if (next != null && !seen.add(next)) {
+                // Would otherwise loop forever, re-reading a cycle of pages
+                throw new IllegalStateException("Backend returned the same cursor twice");
+            }
+            cursor = next;
+        } while (cursor != null);
+        return Collections.singletonList(new ListSavedCards(contact, all.toArray(new Card[0])));
+    }
+}
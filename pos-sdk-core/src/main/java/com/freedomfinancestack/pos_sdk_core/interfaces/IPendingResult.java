@@ -0,0 +1,59 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Result of an asynchronous SDK operation, such as a payment, a card lookup
+ * or a journal write.
+ *
+ * A {@link Future} that also accepts completion callbacks, since
+ * CompletableFuture is not available on every supported API level.
+ * It completes once: with a value, with an error, or by cancellation.
+ * Cancelling interrupts the underlying work and delivers no callback.
+ *
+ * Threading: all methods are safe to call from any thread.
+ */
+public interface IPendingResult<T> extends Future<T>, ICancellable {
+
+    /**
+     * Receives the outcome of an operation.
+     */
+    interface Callback<T> {
+        /**
+         * @param result Value the operation completed with, never null
+         */
+        void onSuccess(@NonNull T result);
+
+        /**
+         * @param error Cause of the failure; a TimeoutException if the deadline passed
+         */
+        void onFailure(@NonNull Throwable error);
+    }
+
+    /**
+     * Registers a callback delivered on the main thread. If the operation is
+     * already done, the callback is posted right away.
+     *
+     * @return this result
+     */
+    @NonNull
+    IPendingResult<T> whenComplete(@NonNull Callback<T> callback);
+
+    /**
+     * Registers a callback delivered through {@code executor}. Callbacks are
+     * not delivered for cancelled operations.
+     *
+     * @return this result
+     * @throws IllegalArgumentException if callback or executor is null
+     */
+    @NonNull
+    IPendingResult<T> whenComplete(@NonNull Callback<T> callback, @NonNull Executor executor);
+
+    /**
+     * @return true if the operation completed with a value
+     */
+    boolean isSuccessful();
+}
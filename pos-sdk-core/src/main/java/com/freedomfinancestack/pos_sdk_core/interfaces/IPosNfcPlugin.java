@@ -2,6 +2,8 @@ package com.freedomfinancestack.pos_sdk_core.interfaces;
 
 import android.content.Context;
 
+import androidx.annotation.Nullable;
+
 /**
  * Plugin interface for POS NFC implementations.
  * 
@@ -52,4 +54,16 @@ public interface IPosNfcPlugin {
      * Clean up resources
      */
     void cleanup();
+    
+    /**
+     * Optional raw ISO-DEP channel to the card currently in the field, for
+     * APDU conversations (contactless card and wallet reads). Plugins whose
+     * vendor SDK supports raw transceive override this; batching and
+     * pipelining are described on {@link IIsoDepChannel}.
+     * @return the channel, or null if unsupported or no card is present
+     */
+    @Nullable
+    default IIsoDepChannel getIsoDepChannel() {
+        return null;
+    }
 } 
\ No newline at end of file
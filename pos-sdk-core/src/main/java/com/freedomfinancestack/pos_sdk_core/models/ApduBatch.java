@@ -0,0 +1,176 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable batch of ISO 7816-4 APDU exchanges for one tap.
+ *
+ * Commands are referenced, not copied. Response buffers are allocated once per
+ * slot and reused across taps, so a checkout loop can run the same batch
+ * repeatedly without producing garbage. After a transceive, each response
+ * buffer is positioned at 0 with its limit at the response length; a buffer
+ * that has not received a response has a limit of 0.
+ *
+ * Threading: not thread-safe. Use one batch per lane.
+ */
+public final class ApduBatch {
+
+    /** Maximum short APDU response: 256 data bytes plus SW1-SW2. */
+    public static final int DEFAULT_MAX_RESPONSE_BYTES = 258;
+
+    private final int maxResponseBytes;
+    private final ByteBuffer[] commands;
+    private final ByteBuffer[] responses;
+    private final long[] latencyNanos;
+    private int size = 0;
+    private long totalNanos = 0;
+
+    /**
+     * @param capacity Maximum number of APDUs per batch
+     */
+    public ApduBatch(int capacity) {
+        this(capacity, DEFAULT_MAX_RESPONSE_BYTES);
+    }
+
+    /**
+     * @param capacity Maximum number of APDUs per batch
+     * @param maxResponseBytes Size of each reusable response buffer; use 65538 for extended APDUs
+     */
+    public ApduBatch(int capacity, int maxResponseBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        if (maxResponseBytes < 2) {
+            throw new IllegalArgumentException("Response buffers must hold at least SW1-SW2, got " + maxResponseBytes);
+        }
+        this.maxResponseBytes = maxResponseBytes;
+        this.commands = new ByteBuffer[capacity];
+        this.responses = new ByteBuffer[capacity];
+        this.latencyNanos = new long[capacity];
+    }
+
+    /**
+     * Removes all commands and timings but keeps response buffers for reuse.
+     * Kept buffers are emptied so an old response is not mistaken for a new one.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            commands[i] = null;
+            latencyNanos[i] = 0;
+            if (responses[i] != null) {
+                responses[i].clear().limit(0);
+            }
+        }
+        size = 0;
+        totalNanos = 0;
+    }
+
+    /**
+     * Appends a command. The buffer's remaining bytes are sent; it is not copied
+     * and must not be modified until the batch has been transceived.
+     *
+     * @return index of the command in this batch
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(@NonNull ByteBuffer command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+        if (size == commands.length) {
+            throw new IllegalStateException("APDU batch is full (" + commands.length + ")");
+        }
+        commands[size] = command;
+        return size++;
+    }
+
+    /**
+     * Appends a command held in a byte array. See {@link #add(ByteBuffer)}.
+     */
+    public int add(@NonNull byte[] command) {
+        return add(ByteBuffer.wrap(command));
+    }
+
+    /** Number of commands in the batch. */
+    public int size() {
+        return size;
+    }
+
+    /** Capacity given at construction. */
+    public int capacity() {
+        return commands.length;
+    }
+
+    /**
+     * Command at {@code index}. Channels should read it through
+     * {@code duplicate()} so the caller's position is preserved.
+     */
+    @NonNull
+    public ByteBuffer getCommand(int index) {
+        checkIndex(index);
+        return commands[index];
+    }
+
+    /**
+     * Reusable response buffer for {@code index}. Channels clear it, write the
+     * response and flip it; callers read it until the next transceive.
+     */
+    @NonNull
+    public ByteBuffer getResponse(int index) {
+        checkIndex(index);
+        ByteBuffer response = responses[index];
+        if (response == null) {
+            response = ByteBuffer.allocate(maxResponseBytes);
+            // Empty until a channel writes a response, so getStatusWord() reports -1
+            response.flip();
+            responses[index] = response;
+        }
+        return response;
+    }
+
+    /**
+     * Status word (SW1-SW2) of the response at {@code index}, e.g. 0x9000,
+     * or -1 if no response was received or it is shorter than two bytes.
+     */
+    public int getStatusWord(int index) {
+        ByteBuffer response = getResponse(index);
+        int limit = response.limit();
+        if (limit < 2) {
+            return -1;
+        }
+        return ((response.get(limit - 2) & 0xFF) << 8) | (response.get(limit - 1) & 0xFF);
+    }
+
+    /**
+     * Duration of the exchange at {@code index}: from sending its command until
+     * its response was available. With a pipelining channel exchanges overlap,
+     * so the durations can add up to more than {@link #getTotalNanos()}.
+     */
+    public long getLatencyNanos(int index) {
+        checkIndex(index);
+        return latencyNanos[index];
+    }
+
+    /** Records the duration of one exchange. Called by channel implementations. */
+    public void setLatencyNanos(int index, long nanos) {
+        checkIndex(index);
+        latencyNanos[index] = nanos;
+    }
+
+    /** Time the whole batch took, i.e. how long the card had to stay in the field. */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /** Records the duration of the whole batch. Called by channel implementations. */
+    public void setTotalNanos(long nanos) {
+        totalNanos = nanos;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("APDU index " + index + " out of range [0, " + size + ")");
+        }
+    }
+}
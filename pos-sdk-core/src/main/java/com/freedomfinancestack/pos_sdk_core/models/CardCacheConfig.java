@@ -0,0 +1,27 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tuning for {@link com.freedomfinancestack.pos_sdk_core.implementations.CachingCards}.
+ * An entry is fresh for ttlMs; for staleWhileRevalidateMs after that it is
+ * still served while a background refresh runs, and then it expires.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class CardCacheConfig {
+    /** Customers kept; the least recently used is evicted first. */
+    @Builder.Default
+    private int maxEntries = 500;
+    @Builder.Default
+    private long ttlMs = 5 * 60_000;
+    /** 0 disables serving stale entries. */
+    @Builder.Default
+    private long staleWhileRevalidateMs = 30 * 60_000;
+    /** Background refreshes that may run at once. */
+    @Builder.Default
+    private int refreshThreads = 1;
+}
@@ -0,0 +1,25 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Counters of a saved-card cache. Stale hits are served from cache while a
+ * background refresh runs; coalesced misses waited for another caller's
+ * backend request instead of sending their own.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class CardCacheStats {
+    private long hitCount;
+    private long staleHitCount;
+    private long missCount;
+    private long coalescedMissCount;
+    private long refreshCount;
+    private long refreshFailureCount;
+    private long evictionCount;
+    private long invalidationCount;
+    private int size;
+}
@@ -0,0 +1,20 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of a customer's saved cards from
+ * {@link com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards}.
+ * nextCursor is opaque to the SDK and null on the last page.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class CardPage {
+    private List<Card> cards;
+    private String nextCursor;
+}
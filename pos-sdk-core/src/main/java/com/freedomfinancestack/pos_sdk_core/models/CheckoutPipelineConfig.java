@@ -0,0 +1,42 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tuning for {@link com.freedomfinancestack.pos_sdk_core.implementations.CheckoutPipeline}.
+ * Only merchantId is required. A timeout of 0 disables the deadline for that stage.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class CheckoutPipelineConfig {
+    private String merchantId;
+
+    /** Checkouts that may wait in front of each worker stage before new ones are rejected. */
+    @Builder.Default
+    private int queueCapacity = 16;
+
+    @Builder.Default
+    private int identifyThreads = 1;
+    @Builder.Default
+    private int fetchCardsThreads = 2;
+    @Builder.Default
+    private int initiateThreads = 2;
+    @Builder.Default
+    private int confirmThreads = 2;
+
+    @Builder.Default
+    private long identifyTimeoutMs = 2_000;
+    @Builder.Default
+    private long fetchCardsTimeoutMs = 10_000;
+    @Builder.Default
+    private long cardSelectionTimeoutMs = 60_000;
+    @Builder.Default
+    private long initiateTimeoutMs = 15_000;
+    @Builder.Default
+    private long authenticationTimeoutMs = 180_000;
+    @Builder.Default
+    private long confirmTimeoutMs = 15_000;
+}
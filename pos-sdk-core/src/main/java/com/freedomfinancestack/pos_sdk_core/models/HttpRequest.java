@@ -0,0 +1,50 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request sent through an {@link com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport}.
+ * The path is resolved against the transport's base URL, e.g. "orders".
+ * Headers and body are excluded from toString() since they carry credentials and card data.
+ */
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+public class HttpRequest {
+    @Builder.Default
+    private String method = "GET";
+    private String path;
+    @ToString.Exclude
+    private Map<String, String> headers;
+    @ToString.Exclude
+    private byte[] body;
+    private String contentType;
+    /** Deadline for the whole call, or 0 for the transport's defaults. */
+    private long timeoutMs;
+
+    /**
+     * Adds header() to the generated builder. Written by hand because
+     * {@code @Singular} on a map generates a redundant cast warning.
+     */
+    public static class HttpRequestBuilder {
+        private Map<String, String> headers = Collections.emptyMap();
+
+        /**
+         * Adds or replaces one header. Built requests never share a mutable map
+         * with the builder, so a builder from toBuilder() can add headers safely.
+         */
+        public HttpRequestBuilder header(String name, String value) {
+            Map<String, String> copy = new LinkedHashMap<>(headers != null ? headers : Collections.<String, String>emptyMap());
+            copy.put(name, value);
+            headers = Collections.unmodifiableMap(copy);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response returned by an {@link com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport}.
+ *
+ * The body is a stream backed by the connection; read it once, then close
+ * the response (try-with-resources) so the connection returns to the pool.
+ * {@link #getBodyString()} reads and closes in one step.
+ */
+public final class HttpResponse implements Closeable {
+
+    private final int code;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final Closeable resource;
+
+    /**
+     * @param code HTTP status code
+     * @param headers Response headers; names are matched case-insensitively
+     * @param body Body stream, must not be null
+     * @param resource Released on close(), e.g. the underlying HTTP response, nullable
+     */
+    public HttpResponse(int code, @Nullable Map<String, String> headers, @NonNull InputStream body,
+                        @Nullable Closeable resource) {
+        if (body == null) {
+            throw new IllegalArgumentException("Body cannot be null");
+        }
+        Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            copy.putAll(headers);
+        }
+        this.code = code;
+        this.headers = Collections.unmodifiableMap(copy);
+        this.body = body;
+        this.resource = resource;
+    }
+
+    /**
+     * Creates an in-memory response, e.g. for fakes and cached answers.
+     */
+    @NonNull
+    public static HttpResponse of(int code, @NonNull String body) {
+        return new HttpResponse(code, null,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return true for 2xx status codes
+     */
+    public boolean isSuccessful() {
+        return code >= 200 && code < 300;
+    }
+
+    /**
+     * @return first value of the header, or null if absent
+     */
+    @Nullable
+    public String getHeader(@NonNull String name) {
+        return headers.get(name);
+    }
+
+    @NonNull
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return body stream for incremental parsing; close the response when done
+     */
+    @NonNull
+    public InputStream getBodyStream() {
+        return body;
+    }
+
+    /**
+     * Reads the whole body as UTF-8 and closes the response.
+     */
+    @NonNull
+    public String getBodyString() throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do; the connection is discarded
+        }
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (IOException ignored) {
+                // Same as above
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Connection counters of an HTTP transport. A healthy shared transport shows
+ * reusedConnections close to callCount and few handshakes.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class HttpTransportStats {
+    private long callCount;
+    private long failedCallCount;
+    private long reusedConnections;
+    private long newConnections;
+    private long tlsHandshakes;
+    private long dnsLookups;
+    private long http2Calls;
+    private long warmups;
+    private int idleConnections;
+    private int openConnections;
+}
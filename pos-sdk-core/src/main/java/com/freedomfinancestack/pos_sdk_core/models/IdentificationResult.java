@@ -0,0 +1,23 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import com.freedomfinancestack.pos_sdk_core.enums.IdentificationChannel;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * Outcome of a customer identification race: who the customer is, which
+ * channel recognised them first and how long it took from arming both channels.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class IdentificationResult {
+    private IdentificationChannel channel;
+    @ToString.Exclude
+    private GGWaveMessage identity;
+    private long elapsedMs;
+    private boolean otherChannelArmed;
+}
@@ -0,0 +1,41 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import com.freedomfinancestack.pos_sdk_core.enums.JournaledPaymentState;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * Snapshot of a payment as recorded in the
+ * {@link com.freedomfinancestack.pos_sdk_core.implementations.PaymentJournal}.
+ * Each state change appends a new snapshot under the same idempotency key.
+ */
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+public class JournaledPayment {
+    /** Unique per payment attempt; sent to gateways that support idempotent requests. */
+    private String idempotencyKey;
+
+    /** Saved card reference; the journal never holds the card number. */
+    @ToString.Exclude
+    private Card card;
+
+    private float amount;
+    private JournaledPaymentState state;
+
+    /** Set once the gateway accepted the payment. */
+    private String paymentId;
+
+    /** Last status reported by the gateway, if any. */
+    private PaymentStatus status;
+
+    /** Times the payment was sent to the gateway. */
+    private int attempts;
+
+    private long createdAtMs;
+    private long updatedAtMs;
+}
@@ -0,0 +1,23 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+/**
+ * Snapshot of deadline-bound NFC reads, used to tune reader power budgets.
+ * Time-to-tap percentiles cover the most recent taps only.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class NfcReadStats {
+    private long tapCount;
+    private long timeoutCount;
+    private long cancelledCount;
+    private long meanTimeToTapMs;
+    private long p50TimeToTapMs;
+    private long p90TimeToTapMs;
+    private long p99TimeToTapMs;
+    private long maxTimeToTapMs;
+}
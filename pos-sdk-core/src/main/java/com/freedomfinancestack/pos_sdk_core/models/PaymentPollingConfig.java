@@ -0,0 +1,34 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tuning for {@link com.freedomfinancestack.pos_sdk_core.implementations.PaymentStatusTracker}.
+ * The poll interval starts at initialIntervalMs, grows by multiplier while the
+ * status is unchanged, and resets when it changes.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class PaymentPollingConfig {
+    @Builder.Default
+    private long initialIntervalMs = 1_000;
+    @Builder.Default
+    private long maxIntervalMs = 15_000;
+    @Builder.Default
+    private double multiplier = 2.0;
+
+    /** Fraction of each interval randomised, so terminals do not poll in lockstep. */
+    @Builder.Default
+    private double jitter = 0.2;
+
+    /** How long a payment is tracked before subscribers get a TimeoutException; 0 for no limit. */
+    @Builder.Default
+    private long trackingTimeoutMs = 10 * 60_000;
+
+    /** Status requests that may run at once. */
+    @Builder.Default
+    private int threads = 2;
+}
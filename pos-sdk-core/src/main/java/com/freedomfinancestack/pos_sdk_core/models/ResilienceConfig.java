@@ -0,0 +1,63 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tuning for {@link com.freedomfinancestack.pos_sdk_core.implementations.ResilientHttpTransport}.
+ * Defaults keep hedging off; enable it only for gateways that honour idempotency keys.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class ResilienceConfig {
+
+    /** Upper bound for a single attempt unless the request sets a shorter one. */
+    @Builder.Default
+    private long callTimeoutMs = 10_000;
+
+    /** Calls over this latency count as slow for the breaker. */
+    @Builder.Default
+    private long slowCallThresholdMs = 5_000;
+
+    /** Recent calls the breaker looks at. */
+    @Builder.Default
+    private int windowSize = 20;
+    /** Calls needed in the window before the breaker may trip. */
+    @Builder.Default
+    private int minimumCalls = 10;
+    @Builder.Default
+    private double failureRateThreshold = 0.5;
+    @Builder.Default
+    private double slowCallRateThreshold = 0.5;
+
+    /** How long the breaker stays open before trial calls are let through. */
+    @Builder.Default
+    private long openStateMs = 10_000;
+    /** Successful trial calls needed to close the breaker again. */
+    @Builder.Default
+    private int halfOpenProbes = 3;
+
+    /** Retries allowed per call, as a fraction of recent calls (0.1 = 10%). */
+    @Builder.Default
+    private double retryBudgetRatio = 0.1;
+    /** Retries that can be saved up while the backend is healthy. */
+    @Builder.Default
+    private int maxRetryTokens = 10;
+    @Builder.Default
+    private long retryBackoffMs = 100;
+
+    @Builder.Default
+    private boolean hedgingEnabled = false;
+    /** Latency percentile after which a second attempt is sent. */
+    @Builder.Default
+    private double hedgePercentile = 0.95;
+    /** Hedge delay used until enough latencies have been recorded. */
+    @Builder.Default
+    private long initialHedgeDelayMs = 1_000;
+    @Builder.Default
+    private long minHedgeDelayMs = 50;
+    @Builder.Default
+    private long maxHedgeDelayMs = 5_000;
+}
@@ -0,0 +1,31 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CircuitState;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Breaker, retry and hedging counters of a resilient transport. Latency
+ * percentiles cover the most recent calls only.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class ResilienceStats {
+    private CircuitState state;
+    private long callCount;
+    private long failedCallCount;
+    private long slowCallCount;
+    private long rejectedCallCount;
+    private long circuitTrips;
+    private long retryCount;
+    private long retriesDeniedByBudget;
+    private long hedgedCallCount;
+    private long hedgeWinCount;
+    private long hedgeDelayMs;
+    private long p50Ms;
+    private long p95Ms;
+    private long p99Ms;
+}
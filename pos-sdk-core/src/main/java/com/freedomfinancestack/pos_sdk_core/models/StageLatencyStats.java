@@ -0,0 +1,27 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CheckoutStage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Latency of one checkout pipeline stage, from entering the stage (including
+ * time queued behind other lanes) to handing off to the next one.
+ * Percentiles cover the most recent checkouts only.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class StageLatencyStats {
+    private CheckoutStage stage;
+    private long completedCount;
+    private long failedCount;
+    private long timedOutCount;
+    private long meanMs;
+    private long p50Ms;
+    private long p95Ms;
+    private long p99Ms;
+    private long maxMs;
+}
@@ -0,0 +1,289 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.implementations.BerTlvReader;
+import com.freedomfinancestack.pos_sdk_core.implementations.EmvTags;
+import com.freedomfinancestack.pos_sdk_core.implementations.TlvTagIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Microbenchmark for BER-TLV parsing on realistic EMV responses.
+ *
+ * Compares three ways of pulling fields out of the same records:
+ * <ul>
+ *   <li>walk: full depth-first traversal with {@link BerTlvReader}</li>
+ *   <li>index: single-pass {@link TlvTagIndex} lookup of the fields a kernel needs</li>
+ *   <li>copy: the naive approach of copying every value into a HashMap keyed by hex tag</li>
+ * </ul>
+ *
+ * Records mirror typical contactless responses: SELECT FCI (~60 bytes),
+ * GET PROCESSING OPTIONS format 2 (~130 bytes), READ RECORD with track data
+ * (~190 bytes) and an issuer certificate record (~230 bytes). Card data is a
+ * well-known test PAN, never real cardholder data.
+ *
+ * Lives in the unit test source set so it never ships in the library; it only
+ * needs the JVM, not a device.
+ *
+ * Example usage (from a unit test):
+ * <pre>
+ * for (TlvParserBenchmark.Result result : new TlvParserBenchmark().runAll(200_000)) {
+ *     System.out.println(result);
+ * }
+ * </pre>
+ */
+public class TlvParserBenchmark {
+
+    private static final String TAG = "TlvParserBenchmark";
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+
+    private static final int[] WANTED_TAGS = {
+            EmvTags.AID, EmvTags.AIP, EmvTags.AFL, EmvTags.APPLICATION_TRANSACTION_COUNTER,
+            EmvTags.CRYPTOGRAM_INFORMATION_DATA, EmvTags.APPLICATION_EXPIRATION_DATE,
+            EmvTags.ISSUER_PUBLIC_KEY_CERTIFICATE
+    };
+
+    private final BerTlvReader reader = new BerTlvReader();
+    private final TlvTagIndex index = new TlvTagIndex(WANTED_TAGS);
+
+    /** Sink that keeps the JIT from eliminating the measured work. */
+    private long blackhole;
+
+    /**
+     * Runs every parser on every sample record.
+     *
+     * @param iterations Measured iterations per parser and record
+     * @return one result per parser and record
+     */
+    @NonNull
+    public List<Result> runAll(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        List<Result> results = new ArrayList<>();
+        String[] names = {"fci", "gpo", "record", "certificate"};
+        byte[][] records = {selectFci(), gpoResponse(), readRecord(), certificateRecord()};
+        for (int i = 0; i < records.length; i++) {
+            ByteBuffer buffer = ByteBuffer.wrap(records[i]);
+            results.add(measure("walk", names[i], buffer, iterations));
+            results.add(measure("index", names[i], buffer, iterations));
+            results.add(measure("copy", names[i], buffer, iterations));
+        }
+        for (Result result : results) {
+            Log.i(TAG, result.toString());
+        }
+        return results;
+    }
+
+    private Result measure(String parser, String record, ByteBuffer buffer, int iterations) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runOnce(parser, buffer);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            runOnce(parser, buffer);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(parser, record, buffer.remaining(), iterations, (double) elapsed / iterations);
+    }
+
+    private void runOnce(String parser, ByteBuffer buffer) {
+        switch (parser) {
+            case "walk":
+                blackhole += walk(buffer);
+                break;
+            case "index":
+                blackhole += index.scan(buffer) + index.valueOffset(EmvTags.APPLICATION_TRANSACTION_COUNTER);
+                break;
+            default:
+                blackhole += copyAll(buffer).size();
+                break;
+        }
+    }
+
+    private int walk(ByteBuffer buffer) {
+        BerTlvReader r = reader.reset(buffer);
+        int sum = 0;
+        while (true) {
+            if (r.next()) {
+                sum += r.tag() + r.valueLength();
+                if (r.isConstructed()) {
+                    r.enter();
+                }
+            } else if (r.depth() > 0) {
+                r.exit();
+            } else {
+                return sum;
+            }
+        }
+    }
+
+    private Map<String, byte[]> copyAll(ByteBuffer buffer) {
+        Map<String, byte[]> values = new HashMap<>();
+        BerTlvReader r = new BerTlvReader().reset(buffer);
+        while (true) {
+            if (r.next()) {
+                byte[] value = new byte[r.valueLength()];
+                r.copyValue(value, 0);
+                values.put(EmvTags.toHex(r.tag()), value);
+                if (r.isConstructed()) {
+                    r.enter();
+                }
+            } else if (r.depth() > 0) {
+                r.exit();
+            } else {
+                return values;
+            }
+        }
+    }
+
+    // Sample records
+
+    private static byte[] selectFci() {
+        byte[] aid = bytes(0xA0, 0x00, 0x00, 0x00, 0x03, 0x10, 0x10);
+        return tlv(EmvTags.FCI_TEMPLATE,
+                tlv(EmvTags.DF_NAME, aid),
+                tlv(EmvTags.FCI_PROPRIETARY_TEMPLATE,
+                        tlv(EmvTags.APPLICATION_LABEL, "VISA CREDIT".getBytes(StandardCharsets.US_ASCII)),
+                        tlv(EmvTags.APPLICATION_PRIORITY_INDICATOR, bytes(0x01)),
+                        tlv(EmvTags.PDOL, bytes(0x9F, 0x66, 0x04, 0x9F, 0x02, 0x06, 0x9F, 0x37, 0x04, 0x5F, 0x2A, 0x02)),
+                        tlv(EmvTags.LANGUAGE_PREFERENCE, "enhi".getBytes(StandardCharsets.US_ASCII)),
+                        tlv(EmvTags.FCI_ISSUER_DISCRETIONARY_DATA,
+                                tlv(EmvTags.AID, aid))));
+    }
+
+    private static byte[] gpoResponse() {
+        return tlv(EmvTags.RESPONSE_TEMPLATE_FORMAT_2,
+                tlv(EmvTags.AIP, bytes(0x20, 0x00)),
+                tlv(EmvTags.AFL, bytes(0x08, 0x01, 0x01, 0x00, 0x10, 0x01, 0x02, 0x00)),
+                tlv(EmvTags.APPLICATION_TRANSACTION_COUNTER, bytes(0x00, 0x2A)),
+                tlv(EmvTags.CRYPTOGRAM_INFORMATION_DATA, bytes(0x80)),
+                tlv(EmvTags.APPLICATION_CRYPTOGRAM, filler(8, 0x3C)),
+                tlv(EmvTags.ISSUER_APPLICATION_DATA, filler(32, 0x06)),
+                tlv(EmvTags.CARD_TRANSACTION_QUALIFIERS, bytes(0x00, 0x00)),
+                tlv(EmvTags.FORM_FACTOR_INDICATOR, bytes(0x20, 0x70, 0x00, 0x00)),
+                tlv(EmvTags.TRACK_2_EQUIVALENT_DATA, testTrack2()),
+                tlv(EmvTags.PAN_SEQUENCE_NUMBER, bytes(0x01)),
+                tlv(EmvTags.SIGNED_DYNAMIC_APPLICATION_DATA, filler(24, 0x5D)));
+    }
+
+    private static byte[] readRecord() {
+        return tlv(EmvTags.READ_RECORD_TEMPLATE,
+                tlv(EmvTags.TRACK_2_EQUIVALENT_DATA, testTrack2()),
+                tlv(EmvTags.PAN, bytes(0x41, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11)),
+                tlv(EmvTags.CARDHOLDER_NAME, "TEST/CARD".getBytes(StandardCharsets.US_ASCII)),
+                tlv(EmvTags.APPLICATION_EXPIRATION_DATE, bytes(0x30, 0x12, 0x31)),
+                tlv(EmvTags.APPLICATION_EFFECTIVE_DATE, bytes(0x24, 0x01, 0x01)),
+                tlv(EmvTags.ISSUER_COUNTRY_CODE, bytes(0x03, 0x56)),
+                tlv(EmvTags.APPLICATION_USAGE_CONTROL, bytes(0xFF, 0x00)),
+                tlv(EmvTags.APPLICATION_VERSION_NUMBER, bytes(0x00, 0x8C)),
+                tlv(EmvTags.CDOL1, filler(27, 0x9F)),
+                tlv(EmvTags.CDOL2, filler(20, 0x8A)),
+                tlv(EmvTags.CVM_LIST, filler(18, 0x1E)),
+                tlv(EmvTags.IAC_DEFAULT, filler(5, 0xFC)),
+                tlv(EmvTags.IAC_DENIAL, filler(5, 0x00)),
+                tlv(EmvTags.IAC_ONLINE, filler(5, 0xFC)),
+                tlv(EmvTags.TRACK_1_DISCRETIONARY_DATA, filler(24, 0x30)));
+    }
+
+    private static byte[] certificateRecord() {
+        return tlv(EmvTags.READ_RECORD_TEMPLATE,
+                tlv(EmvTags.CA_PUBLIC_KEY_INDEX, bytes(0x92)),
+                tlv(EmvTags.ISSUER_PUBLIC_KEY_CERTIFICATE, filler(176, 0x6A)),
+                tlv(EmvTags.ISSUER_PUBLIC_KEY_REMAINDER, filler(36, 0x4B)),
+                tlv(EmvTags.ISSUER_PUBLIC_KEY_EXPONENT, bytes(0x03)));
+    }
+
+    /** Track 2 for test PAN 4111 1111 1111 1111, expiry 3012. */
+    private static byte[] testTrack2() {
+        return bytes(0x41, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11, 0xD3, 0x01, 0x22, 0x01,
+                0x00, 0x00, 0x00, 0x00, 0x00, 0x0F);
+    }
+
+    private static byte[] tlv(int tag, byte[]... values) {
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        for (byte[] v : values) {
+            value.write(v, 0, v.length);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if ((tag & 0xFF000000) != 0) {
+            out.write(tag >>> 24);
+        }
+        if ((tag & 0xFFFF0000) != 0) {
+            out.write(tag >>> 16);
+        }
+        if ((tag & 0xFFFFFF00) != 0) {
+            out.write(tag >>> 8);
+        }
+        out.write(tag);
+        int length = value.size();
+        if (length > 0xFF) {
+            out.write(0x82);
+            out.write(length >>> 8);
+        } else if (length > 0x7F) {
+            out.write(0x81);
+        }
+        out.write(length);
+        byte[] body = value.toByteArray();
+        out.write(body, 0, body.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] filler(int length, int value) {
+        byte[] result = new byte[length];
+        Arrays.fill(result, (byte) value);
+        return result;
+    }
+
+    /**
+     * Outcome of one parser on one record.
+     */
+    public static final class Result {
+        private final String parser;
+        private final String record;
+        private final int recordBytes;
+        private final int iterations;
+        private final double nanosPerOp;
+
+        Result(String parser, String record, int recordBytes, int iterations, double nanosPerOp) {
+            this.parser = parser;
+            this.record = record;
+            this.recordBytes = recordBytes;
+            this.iterations = iterations;
+            this.nanosPerOp = nanosPerOp;
+        }
+
+        public String getParser() { return parser; }
+        public String getRecord() { return record; }
+        public int getRecordBytes() { return recordBytes; }
+        public int getIterations() { return iterations; }
+        public double getNanosPerOp() { return nanosPerOp; }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "parser=%s record=%s size=%dB iterations=%d %.1fns/op",
+                    parser, record, recordBytes, iterations, nanosPerOp);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.freedomfinancestack.pos_sdk_core.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class TlvParserBenchmarkTest {
+
+    @Test
+    public void runAllMeasuresEveryParserOnEveryRecord() {
+        List<TlvParserBenchmark.Result> results = new TlvParserBenchmark().runAll(1_000);
+
+        assertEquals(12, results.size());
+        for (TlvParserBenchmark.Result result : results) {
+            assertEquals(1_000, result.getIterations());
+            assertTrue(result.getRecordBytes() > 0);
+            assertTrue(result.getNanosPerOp() >= 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void runAllRejectsNonPositiveIterations() {
+        new TlvParserBenchmark().runAll(0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AsyncPaymentAdapterTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    /** Gateway that answers at once, or blocks until interrupted. */
+    private static final class FakePayment implements IPayment {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        volatile boolean block = false;
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            return PaymentInitiationResponse.builder().paymentId("pay-" + card.getCardId()).build();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            if (block) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }
+            if (paymentId.startsWith("bad")) {
+                throw new IllegalStateException("gateway error");
+            }
+            return PaymentStatus.PAID;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void completesWithGatewayAnswer() throws Exception {
+        AsyncPaymentAdapter adapter = new AsyncPaymentAdapter(new FakePayment(), executor, 1_000);
+
+        PaymentInitiationResponse response = adapter
+                .initiatePayment(Card.builder().cardId("c1").build(), 10f)
+                .get(2, TimeUnit.SECONDS);
+        assertEquals("pay-c1", response.getPaymentId());
+        assertEquals(PaymentStatus.PAID, adapter.confirmPayment("p1").get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gatewayErrorFailsTheResult() throws Exception {
+        AsyncPaymentAdapter adapter = new AsyncPaymentAdapter(new FakePayment(), executor, 1_000);
+        try {
+            adapter.confirmPayment("bad-1").get(2, TimeUnit.SECONDS);
+            fail("Expected the gateway error");
+        } catch (ExecutionException expected) {
+            assertEquals("gateway error", expected.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void deadlineFailsAndInterruptsTheRequest() throws Exception {
+        FakePayment payment = new FakePayment();
+        payment.block = true;
+        AsyncPaymentAdapter adapter = new AsyncPaymentAdapter(payment, executor, 50);
+
+        try {
+            adapter.confirmPayment("p1").get(2, TimeUnit.SECONDS);
+            fail("Expected the deadline to fail the result");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof TimeoutException);
+        }
+        assertTrue(payment.interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelInterruptsTheRequest() throws Exception {
+        FakePayment payment = new FakePayment();
+        payment.block = true;
+        AsyncPaymentAdapter adapter = new AsyncPaymentAdapter(payment, executor, 0);
+
+        PendingResult<PaymentStatus> result = adapter.confirmPayment("p1");
+        Thread.sleep(20);
+        result.cancel();
+
+        assertTrue(result.isCancelled());
+        assertTrue(payment.interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveAmount() {
+        new AsyncPaymentAdapter(new FakePayment(), executor, 0)
+                .initiatePayment(Card.builder().cardId("c1").build(), 0f);
+    }
+}
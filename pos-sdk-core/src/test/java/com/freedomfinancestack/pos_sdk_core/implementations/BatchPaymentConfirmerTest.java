@@ -0,0 +1,217 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBatchPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BatchPaymentConfirmerTest {
+
+    private BatchPaymentConfirmer confirmer;
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add("pay_" + i);
+        }
+        return ids;
+    }
+
+    /**
+     * Bulk gateway that fails any batch containing {@code failing} and hangs
+     * on any batch containing {@code slow}.
+     */
+    private static class FakeBatchPayment implements IBatchPayment {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final int maxBatchSize;
+        volatile String failing;
+        volatile String slow;
+
+        FakeBatchPayment(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @NonNull
+        @Override
+        public Map<String, PaymentStatus> confirmPayments(@NonNull List<String> paymentIds) {
+            batches.add(new ArrayList<>(paymentIds));
+            if (paymentIds.contains(failing)) {
+                throw new IllegalStateException("gateway error");
+            }
+            if (paymentIds.contains(slow)) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyMap();
+            }
+            Map<String, PaymentStatus> statuses = new HashMap<>();
+            for (String id : paymentIds) {
+                statuses.put(id, PaymentStatus.PAID);
+            }
+            return statuses;
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            throw new AssertionError("Batch gateways are queried in batches");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (confirmer != null) {
+            confirmer.shutdown();
+        }
+    }
+
+    @Test
+    public void idsAreSplitIntoBatchesOfTheGatewaySize() {
+        FakeBatchPayment gateway = new FakeBatchPayment(3);
+        confirmer = new BatchPaymentConfirmer(gateway);
+
+        Map<String, PaymentStatus> statuses = confirmer.confirmAll(ids(8));
+
+        assertEquals(8, statuses.size());
+        assertEquals(3, gateway.batches.size());
+        int total = 0;
+        for (List<String> batch : gateway.batches) {
+            assertTrue(batch.toString(), batch.size() <= 3);
+            total += batch.size();
+        }
+        assertEquals(8, total);
+        assertEquals(3, confirmer.getBackendCallCount());
+        assertEquals(0, confirmer.getFailedCallCount());
+    }
+
+    @Test
+    public void duplicateIdsAreConfirmedOnce() {
+        FakeBatchPayment gateway = new FakeBatchPayment(10);
+        confirmer = new BatchPaymentConfirmer(gateway);
+
+        Map<String, PaymentStatus> statuses =
+                confirmer.confirmAll(Arrays.asList("pay_1", "pay_2", "pay_1", "pay_3", "pay_2"));
+
+        assertEquals(3, statuses.size());
+        assertEquals(1, gateway.batches.size());
+        List<String> sent = gateway.batches.get(0);
+        assertEquals(3, sent.size());
+        assertEquals(3, new HashSet<>(sent).size());
+    }
+
+    @Test
+    public void failedBatchDropsOnlyItsIds() {
+        FakeBatchPayment gateway = new FakeBatchPayment(2);
+        gateway.failing = "pay_2";
+        confirmer = new BatchPaymentConfirmer(gateway);
+
+        Map<String, PaymentStatus> statuses = confirmer.confirmAll(ids(6));
+
+        // pay_2 shares its batch with pay_3; the other four are still confirmed
+        assertEquals(4, statuses.size());
+        assertFalse(statuses.containsKey("pay_2"));
+        assertFalse(statuses.containsKey("pay_3"));
+        assertEquals(PaymentStatus.PAID, statuses.get("pay_5"));
+        assertEquals(3, confirmer.getBackendCallCount());
+        assertEquals(1, confirmer.getFailedCallCount());
+    }
+
+    @Test
+    public void deadlineReturnsWhatWasConfirmedInTime() throws InterruptedException {
+        FakeBatchPayment gateway = new FakeBatchPayment(2);
+        gateway.slow = "pay_0";
+        confirmer = new BatchPaymentConfirmer(gateway, 4, 200);
+
+        long start = System.nanoTime();
+        Map<String, PaymentStatus> statuses = confirmer.confirmAll(ids(6));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Took " + elapsedMs + "ms", elapsedMs < 2_000);
+        assertEquals(4, statuses.size());
+        assertFalse(statuses.containsKey("pay_0"));
+        // The straggler is cancelled, not left running
+        assertTrue(gateway.interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void plainGatewayIsQueriedPerId() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        confirmer = new BatchPaymentConfirmer(new IPayment() {
+            @Override
+            public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public PaymentStatus confirmPayment(String paymentId) {
+                calls.add(paymentId);
+                // No status for pay_1 counts as a failed request
+                return paymentId.equals("pay_1") ? null : PaymentStatus.AUTHORIZED;
+            }
+        });
+
+        Map<String, PaymentStatus> statuses = confirmer.confirmAll(ids(3));
+
+        assertEquals(3, calls.size());
+        assertEquals(2, statuses.size());
+        assertEquals(PaymentStatus.AUTHORIZED, statuses.get("pay_2"));
+        assertEquals(1, confirmer.getFailedCallCount());
+    }
+
+    @Test
+    public void invalidIdsAndShutdownAreRejected() {
+        FakeBatchPayment gateway = new FakeBatchPayment(2);
+        confirmer = new BatchPaymentConfirmer(gateway);
+
+        try {
+            confirmer.confirmAll(Arrays.asList("pay_1", ""));
+            fail("Expected an empty payment ID to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Empty ID
+        }
+        assertTrue(gateway.batches.isEmpty());
+
+        confirmer.shutdown();
+        try {
+            confirmer.confirmAll(Collections.singletonList("pay_1"));
+            fail("Expected a shut-down confirmer to refuse work");
+        } catch (IllegalStateException expected) {
+            // Shut down
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class BerTlvReaderTest {
+
+    private static byte[] bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i] = (byte) values[i];
+        }
+        return out;
+    }
+
+    private static void assertMalformed(byte[] data) {
+        BerTlvReader reader = new BerTlvReader().reset(data, 0, data.length);
+        try {
+            while (reader.next()) {
+                if (reader.isConstructed()) {
+                    reader.enter();
+                }
+            }
+            fail("Expected malformed TLV to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Malformed
+        }
+    }
+
+    @Test
+    public void readsMultiByteTagsAndSkipsPadding() {
+        // 9F26 (2-byte tag), padding, then 5F24 expiry 25-12-31 in BCD
+        byte[] data = bytes(0x9F, 0x26, 0x02, 0x01, 0x02, 0x00, 0xFF, 0x5F, 0x24, 0x03, 0x25, 0x12, 0x31);
+        BerTlvReader reader = new BerTlvReader().reset(data, 0, data.length);
+
+        assertTrue(reader.next());
+        assertEquals(0x9F26, reader.tag());
+        assertEquals(0x0102, reader.valueAsInt());
+        assertTrue(reader.next());
+        assertEquals(EmvTags.APPLICATION_EXPIRATION_DATE, reader.tag());
+        assertEquals(251231, reader.valueAsBcdInt());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void readsLongFormLengths() {
+        byte[] data = new byte[3 + 200];
+        data[0] = 0x5A;
+        data[1] = (byte) 0x81;
+        data[2] = (byte) 200;
+        data[202] = 7;
+        BerTlvReader reader = new BerTlvReader().reset(data, 0, data.length);
+
+        assertTrue(reader.next());
+        assertEquals(200, reader.valueLength());
+        assertEquals(3, reader.valueOffset());
+        assertEquals(7, reader.valueByte(199));
+        assertEquals(200, reader.valueSlice().remaining());
+    }
+
+    @Test
+    public void walksAndFindsInsideConstructedValues() {
+        // 70 { 61 { 4F aid }, 50 label }
+        byte[] data = bytes(0x70, 0x0A, 0x61, 0x04, 0x4F, 0x02, 0xA0, 0x01, 0x50, 0x02, 0x41, 0x42);
+        BerTlvReader reader = new BerTlvReader().reset(ByteBuffer.wrap(data));
+
+        assertTrue(reader.next());
+        assertTrue(reader.isConstructed());
+        reader.enter();
+        assertTrue(reader.next());
+        assertEquals(EmvTags.APPLICATION_TEMPLATE, reader.tag());
+        assertTrue(reader.next());
+        assertEquals(EmvTags.APPLICATION_LABEL, reader.tag());
+        assertTrue(reader.valueEquals(bytes(0x41, 0x42)));
+        assertFalse(reader.next());
+        reader.exit();
+        assertFalse(reader.next());
+
+        reader.reset(ByteBuffer.wrap(data));
+        assertTrue(reader.find(EmvTags.AID));
+        assertEquals(2, reader.depth());
+        assertEquals(0xA001, reader.valueAsInt());
+        reader.reset(ByteBuffer.wrap(data));
+        assertFalse(reader.find(EmvTags.PDOL));
+    }
+
+    @Test
+    public void rejectsTruncatedAndOversizedInput() {
+        // Value runs past the end
+        assertMalformed(bytes(0x5A, 0x05, 0x01, 0x02));
+        // Long-form length cut short
+        assertMalformed(bytes(0x5A, 0x82, 0x01));
+        // Tag cut short, and tag longer than 4 bytes
+        assertMalformed(bytes(0x9F));
+        assertMalformed(bytes(0x9F, 0x81, 0x81, 0x81, 0x01, 0x00));
+        // Missing length, indefinite length, 4-byte length field
+        assertMalformed(bytes(0x5A));
+        assertMalformed(bytes(0x5A, 0x80, 0x00, 0x00));
+        assertMalformed(bytes(0x5A, 0x84, 0x00, 0x00, 0x00, 0x01, 0x00));
+        // Child overruns its constructed parent
+        assertMalformed(bytes(0x70, 0x03, 0x5A, 0x05, 0x01, 0x02, 0x03, 0x04, 0x05));
+    }
+
+    @Test
+    public void rejectsNestingDeeperThanLimit() {
+        int levels = BerTlvReader.MAX_DEPTH + 1;
+        byte[] data = new byte[levels * 2];
+        for (int i = 0; i < levels; i++) {
+            data[i * 2] = 0x70;
+            data[i * 2 + 1] = (byte) (data.length - i * 2 - 2);
+        }
+        assertMalformed(data);
+    }
+
+    @Test
+    public void rangeOutsideArrayIsRejectedWithoutOverflow() {
+        byte[] data = new byte[8];
+        try {
+            new BerTlvReader().reset(data, 4, Integer.MAX_VALUE);
+            fail("Expected the range to be rejected");
+        } catch (IndexOutOfBoundsException expected) {
+            // offset + length would overflow to a negative number
+        }
+        try {
+            new BerTlvReader().reset(data, 4, 5);
+            fail("Expected the range to be rejected");
+        } catch (IndexOutOfBoundsException expected) {
+            // One byte past the end
+        }
+    }
+
+    @Test
+    public void decodesUnsignedValuesWithoutSignFlip() {
+        byte[] data = bytes(0x9F, 0x37, 0x04, 0xFF, 0xFF, 0xFF, 0xFE);
+        BerTlvReader reader = new BerTlvReader().reset(data, 0, data.length);
+        assertTrue(reader.next());
+
+        assertEquals(0xFFFFFFFEL, reader.valueAsLong());
+        try {
+            reader.valueAsInt();
+            fail("Expected a value above Integer.MAX_VALUE to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Does not fit in an int
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBulkCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BulkCardLookupTest {
+
+    private static final String MERCHANT = "merchant";
+
+    private BulkCardLookup lookup;
+
+    private static List<ListSavedCards> savedFor(String contact) {
+        Card card = Card.builder().cardId("card-" + contact).last4Digits("4242").build();
+        return Collections.singletonList(new ListSavedCards(contact, new Card[]{card}));
+    }
+
+    /** Bulk backend that fails any request containing {@code failing}. */
+    private static class FakeBulkCards implements IBulkCards {
+        final List<List<String>> requests = new CopyOnWriteArrayList<>();
+        final int maxBulkSize;
+        volatile String failing;
+
+        FakeBulkCards(int maxBulkSize) {
+            this.maxBulkSize = maxBulkSize;
+        }
+
+        @Override
+        public int getMaxBulkSize() {
+            return maxBulkSize;
+        }
+
+        @NonNull
+        @Override
+        public Map<String, List<ListSavedCards>> listSavedCards(@NonNull String merchantId,
+                                                                @NonNull List<String> contacts) {
+            requests.add(contacts);
+            if (contacts.contains(failing)) {
+                throw new IllegalStateException("backend error");
+            }
+            Map<String, List<ListSavedCards>> result = new HashMap<>();
+            for (String contact : contacts) {
+                result.put(contact, savedFor(contact));
+            }
+            return result;
+        }
+
+        @Override
+        public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+            throw new AssertionError("Bulk backends are queried in bulk");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (lookup != null) {
+            lookup.shutdown();
+        }
+    }
+
+    @Test
+    public void bulkBackendIsQueriedInChunksWithoutDuplicates() {
+        FakeBulkCards cards = new FakeBulkCards(2);
+        lookup = new BulkCardLookup(cards);
+
+        Map<String, List<ListSavedCards>> saved =
+                lookup.lookupAll(MERCHANT, Arrays.asList("c1", "c2", "c3", "c1", "c4", "c5"));
+
+        assertEquals(5, saved.size());
+        assertEquals("card-c4", saved.get("c4").get(0).getCards()[0].getCardId());
+        assertEquals(3, cards.requests.size());
+        for (List<String> request : cards.requests) {
+            assertTrue(request.size() <= 2);
+        }
+        assertEquals(3, lookup.getBackendCallCount());
+        assertEquals(0, lookup.getFailedCallCount());
+    }
+
+    @Test
+    public void failedChunkDropsOnlyItsContacts() {
+        FakeBulkCards cards = new FakeBulkCards(2);
+        cards.failing = "c3";
+        lookup = new BulkCardLookup(cards);
+
+        Map<String, List<ListSavedCards>> saved =
+                lookup.lookupAll(MERCHANT, Arrays.asList("c1", "c2", "c3", "c4", "c5"));
+
+        assertEquals(3, saved.size());
+        assertTrue(saved.containsKey("c1"));
+        assertTrue(saved.containsKey("c5"));
+        assertEquals(1, lookup.getFailedCallCount());
+    }
+
+    @Test
+    public void plainBackendIsQueriedPerContact() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        lookup = new BulkCardLookup((merchantId, contact) -> {
+            calls.add(contact);
+            // No answer for c2 counts as a failed request
+            return contact.equals("c2") ? null : savedFor(contact);
+        });
+
+        Map<String, List<ListSavedCards>> saved = lookup.lookupAll(MERCHANT, Arrays.asList("c1", "c2", "c3"));
+
+        assertEquals(3, calls.size());
+        assertEquals(2, saved.size());
+        assertEquals(3, lookup.getBackendCallCount());
+        assertEquals(1, lookup.getFailedCallCount());
+    }
+
+    @Test
+    public void deadlineReturnsWhatResolvedInTime() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ICards cards = (merchantId, contact) -> {
+            if (contact.equals("slow")) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+            return savedFor(contact);
+        };
+        lookup = new BulkCardLookup(cards, 4, 200);
+
+        long start = System.nanoTime();
+        Map<String, List<ListSavedCards>> saved = lookup.lookupAll(MERCHANT, Arrays.asList("c1", "slow", "c2"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Took " + elapsedMs + "ms", elapsedMs < 2_000);
+        assertEquals(2, saved.size());
+        try {
+            // The straggler is cancelled, not left running
+            assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void invalidContactsAndShutdownAreRejected() {
+        lookup = new BulkCardLookup((merchantId, contact) -> savedFor(contact));
+
+        assertTrue(lookup.lookupAll(MERCHANT, Collections.<String>emptyList()).isEmpty());
+        try {
+            lookup.lookupAll(MERCHANT, Arrays.asList("c1", " "));
+            fail("Expected an empty contact to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Empty contact
+        }
+        assertEquals(0, lookup.getBackendCallCount());
+
+        lookup.shutdown();
+        try {
+            lookup.lookupAll(MERCHANT, Collections.singletonList("c1"));
+            fail("Expected a shut-down lookup to refuse work");
+        } catch (IllegalStateException expected) {
+            // Shut down
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardCacheConfig;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CachingCardsTest {
+
+    private static final String MERCHANT = "merchant";
+    private static final String CONTACT = "+919000000001";
+
+    /** Backend whose answer carries the call number as the card's last four digits. */
+    private static class CountingCards implements ICards {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+            int call = calls.incrementAndGet();
+            Card card = Card.builder().cardId("card").last4Digits(String.valueOf(call)).build();
+            return Collections.singletonList(new ListSavedCards(contact, new Card[]{card}));
+        }
+    }
+
+    private static String version(List<ListSavedCards> cards) {
+        return cards.get(0).getCards()[0].getLast4Digits();
+    }
+
+    @Test
+    public void servesFreshEntriesUntilTtlExpires() throws Exception {
+        CountingCards backend = new CountingCards();
+        CachingCards cards = new CachingCards(backend, CardCacheConfig.builder()
+                .ttlMs(100)
+                .staleWhileRevalidateMs(0)
+                .build());
+
+        assertEquals("1", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        assertEquals("1", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        assertEquals(1, backend.calls.get());
+
+        Thread.sleep(150);
+        assertEquals("2", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        assertEquals(2, backend.calls.get());
+        assertEquals(1, cards.getStats().getHitCount());
+        assertEquals(2, cards.getStats().getMissCount());
+        cards.shutdown();
+    }
+
+    @Test
+    public void servesStaleEntryWhileRefreshingInBackground() throws Exception {
+        CountingCards backend = new CountingCards();
+        CachingCards cards = new CachingCards(backend, CardCacheConfig.builder()
+                .ttlMs(50)
+                .staleWhileRevalidateMs(60_000)
+                .build());
+
+        cards.listAllSavedCards(MERCHANT, CONTACT);
+        Thread.sleep(80);
+
+        // Stale: answered from the cache at once while one refresh runs
+        assertEquals("1", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (backend.calls.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+
+        assertEquals("2", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        assertEquals(2, backend.calls.get());
+        assertEquals(1, cards.getStats().getStaleHitCount());
+        assertEquals(1, cards.getStats().getRefreshCount());
+        cards.shutdown();
+    }
+
+    @Test
+    public void invalidationDuringLoadIsNotCachedOrJoined() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountingCards backend = new CountingCards() {
+            @Override
+            public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+                List<ListSavedCards> result = super.listAllSavedCards(merchantId, contact);
+                if ("1".equals(version(result))) {
+                    firstStarted.countDown();
+                    try {
+                        releaseFirst.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return result;
+            }
+        };
+        CachingCards cards = new CachingCards(backend);
+
+        AtomicReference<String> first = new AtomicReference<>();
+        Thread loader = new Thread(() -> first.set(version(cards.listAllSavedCards(MERCHANT, CONTACT))));
+        loader.start();
+        assertTrue(firstStarted.await(1, TimeUnit.SECONDS));
+
+        // The customer saved a card while the old list was still loading
+        cards.invalidate(MERCHANT, CONTACT);
+        assertEquals("2", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+
+        releaseFirst.countDown();
+        loader.join(1_000);
+        assertEquals("1", first.get());
+
+        // The pre-invalidation answer did not overwrite the newer one
+        assertEquals("2", version(cards.listAllSavedCards(MERCHANT, CONTACT)));
+        assertEquals(2, backend.calls.get());
+        cards.shutdown();
+    }
+}
@@ -0,0 +1,148 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class CardColumnsTest {
+
+    private static Card card(String id, String last4, Network network, CardType type) {
+        return Card.builder().cardId(id).last4Digits(last4).network(network).cardType(type).build();
+    }
+
+    @Test
+    public void rowsReadBackAcrossArenaGrowth() {
+        CardColumns columns = new CardColumns(1);
+        for (int i = 0; i < 100; i++) {
+            String contact = i < 50 ? "9000000001" : "9000000002";
+            columns.add(contact, card("card_" + i + "_padded_past_the_average_id_length",
+                    String.format("%04d", i), Network.VISA, CardType.DEBIT));
+        }
+
+        assertEquals(100, columns.size());
+        // Consecutive cards of one contact share one copy
+        assertEquals(2, columns.getContactCount());
+        assertEquals("card_0_padded_past_the_average_id_length", columns.getCardId(0));
+        assertEquals("card_99_padded_past_the_average_id_length", columns.getCardId(99));
+        assertEquals("9000000001", columns.getContact(49));
+        assertEquals("9000000002", columns.getContact(50));
+        assertEquals(73, columns.indexOfCardId("card_73_padded_past_the_average_id_length"));
+        assertEquals(-1, columns.indexOfCardId("card_73"));
+    }
+
+    @Test
+    public void nullContactAndAttributesStayNull() {
+        CardColumns columns = new CardColumns();
+        int row = columns.add(null, Card.builder().cardId("c1").build());
+
+        assertNull(columns.getContact(row));
+        assertNull(columns.getNetwork(row));
+        assertNull(columns.getCardType(row));
+        assertNull(columns.getIssuerBank(row));
+        assertNull(columns.getLast4Digits(row));
+        assertEquals(-1, columns.getLast4(row));
+    }
+
+    @Test
+    public void lastFourRoundTrips() {
+        CardColumns columns = new CardColumns();
+        columns.add(null, card("a", "0042", null, null));
+        columns.add(null, card("b", "9999", null, null));
+        columns.add(null, card("c", "XX42", null, null));
+        columns.add(null, card("d", "123", null, null));
+        columns.add(null, card("e", "", null, null));
+
+        assertEquals("0042", columns.getLast4Digits(0));
+        assertEquals(42, columns.getLast4(0));
+        assertEquals("9999", columns.getLast4Digits(1));
+        // Values that are not four digits are kept as given, without a number
+        assertEquals("XX42", columns.getLast4Digits(2));
+        assertEquals(-1, columns.getLast4(2));
+        assertEquals("123", columns.getLast4Digits(3));
+        assertEquals("", columns.toCard(4).getLast4Digits());
+    }
+
+    @Test
+    public void utf8IdsAndContactsCompareWithoutDecoding() {
+        CardColumns columns = new CardColumns();
+        columns.add("Zo\u00eb", card("\u0438\u0434-1", "1111", null, null));
+        columns.add("Zo\u00eb", card("id-2", "2222", null, null));
+        columns.add("Zoe", card("\u0438\u0434-10", "3333", null, null));
+
+        assertEquals(2, columns.getContactCount());
+        assertEquals("Zo\u00eb", columns.getContact(1));
+        assertTrue(columns.cardIdEquals(0, "\u0438\u0434-1"));
+        assertFalse(columns.cardIdEquals(0, "\u0438\u0434-10"));
+        assertFalse(columns.cardIdEquals(2, "\u0438\u0434-1"));
+        assertFalse(columns.cardIdEquals(1, "id-2\u00e9"));
+        assertFalse(columns.cardIdEquals(1, null));
+        assertEquals(2, columns.indexOfCardId("\u0438\u0434-10"));
+    }
+
+    @Test
+    public void filtersByAttributes() {
+        CardColumns columns = CardColumns.of(Arrays.asList(
+                new ListSavedCards("9000000001", new Card[] {
+                        card("a", "1111", Network.RUPAY, CardType.CREDIT),
+                        null,
+                        card("b", "2222", Network.VISA, CardType.CREDIT)}),
+                null,
+                new ListSavedCards("9000000002", new Card[] {
+                        Card.builder().cardId("c").network(Network.RUPAY).cardType(CardType.CREDIT)
+                                .issuerBank(IssuerBank.values()[0]).build()})));
+
+        assertEquals(3, columns.size());
+        assertEquals(2, columns.count(Network.RUPAY, CardType.CREDIT, null));
+        assertEquals(1, columns.count(null, null, IssuerBank.values()[0]));
+        assertEquals(0, columns.nextMatch(0, Network.RUPAY, null, null));
+        assertEquals(2, columns.nextMatch(1, Network.RUPAY, null, null));
+        assertEquals(-1, columns.nextMatch(3, null, null, null));
+
+        CardColumns.CardView view = columns.view();
+        assertEquals(-1, view.getIndex());
+        assertEquals("b", view.moveTo(1).getCardId());
+        assertEquals(Network.VISA, view.toCard().getNetwork());
+        assertEquals("9000000002", view.moveTo(2).getContact());
+    }
+
+    @Test
+    public void trimToSizeDropsSpareCapacityOnly() {
+        CardColumns columns = new CardColumns(64);
+        columns.add("9000000001", card("c1", "1234", Network.AMEX, CardType.CREDIT));
+        columns.add("9000000002", card("c2", "AB12", null, null));
+        long before = columns.getColumnBytes();
+
+        columns.trimToSize();
+
+        assertTrue(columns.getColumnBytes() < before);
+        // 2 rows x (3 byte columns + short + 2 int columns), 2 contact ends, 4 ID bytes, 20 contact bytes
+        assertEquals(2 * (3 + 2 + 8) + 2 * 4 + 4 + 20, columns.getColumnBytes());
+        assertEquals("c2", columns.getCardId(1));
+        assertEquals("AB12", columns.getLast4Digits(1));
+        assertEquals(Network.AMEX, columns.getNetwork(0));
+
+        // Still appendable after trimming
+        columns.add("9000000002", card("c3", "0001", null, null));
+        assertEquals(3, columns.size());
+        assertEquals(2, columns.getContactCount());
+        assertEquals("c3", columns.getCardId(2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheEndFails() {
+        CardColumns columns = new CardColumns();
+        columns.add(null, card("a", "1111", null, null));
+        columns.getCardId(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CardType;
+import com.freedomfinancestack.pos_sdk_core.enums.IssuerBank;
+import com.freedomfinancestack.pos_sdk_core.enums.Network;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CardFilterIndexTest {
+
+    private static Card card(String id, Network network, CardType cardType, IssuerBank issuerBank) {
+        return Card.builder()
+                .cardId(id)
+                .last4Digits("4242")
+                .network(network)
+                .cardType(cardType)
+                .issuerBank(issuerBank)
+                .build();
+    }
+
+    @Test
+    public void addIndexesEveryAttribute() {
+        CardFilterIndex index = CardFilterIndex.of(Collections.singletonList(new ListSavedCards("+919000000001",
+                new Card[]{
+                        card("a", Network.RUPAY, CardType.CREDIT, IssuerBank.HDFC),
+                        card("b", Network.VISA, CardType.DEBIT, IssuerBank.HDFC),
+                        null,
+                        card("c", Network.RUPAY, CardType.DEBIT, IssuerBank.SBI),
+                })));
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.count(Network.RUPAY, null, null));
+        assertEquals(2, index.count(null, null, IssuerBank.HDFC));
+        List<Card> rupayDebit = index.find(Network.RUPAY, CardType.DEBIT, null);
+        assertEquals(1, rupayDebit.size());
+        assertEquals("c", rupayDebit.get(0).getCardId());
+        assertFalse(index.contains(Network.AMEX, null, null));
+        assertEquals(3, index.find(null, null, null).size());
+    }
+
+    @Test
+    public void addWithSameIdReplacesCard() {
+        CardFilterIndex index = new CardFilterIndex();
+        index.add(card("a", Network.RUPAY, CardType.CREDIT, IssuerBank.HDFC));
+        index.add(card("a", Network.VISA, CardType.DEBIT, IssuerBank.AXIS));
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.count(Network.RUPAY, null, null));
+        assertEquals(0, index.count(null, CardType.CREDIT, null));
+        assertEquals(0, index.count(null, null, IssuerBank.HDFC));
+        assertEquals(1, index.count(Network.VISA, CardType.DEBIT, IssuerBank.AXIS));
+    }
+
+    @Test
+    public void removeClearsBitsAndReusesSlot() {
+        CardFilterIndex index = new CardFilterIndex();
+        index.add(card("a", Network.RUPAY, CardType.CREDIT, IssuerBank.HDFC));
+        index.add(card("b", Network.VISA, CardType.DEBIT, IssuerBank.SBI));
+
+        assertTrue(index.remove("a"));
+        assertFalse(index.remove("a"));
+        assertFalse(index.remove(null));
+        assertNull(index.get("a"));
+        assertEquals(1, index.size());
+        assertFalse(index.contains(Network.RUPAY, null, null));
+
+        // The freed slot holds the new card, with none of the old card's bits
+        index.add(card("c", Network.MASTERCARD, CardType.DEBIT, null));
+        assertEquals("c", index.find(null, null, null).get(0).getCardId());
+        assertEquals(0, index.count(null, CardType.CREDIT, null));
+        assertEquals(0, index.count(null, null, IssuerBank.HDFC));
+        assertEquals(2, index.count(null, CardType.DEBIT, null));
+    }
+
+    @Test
+    public void mutatingCallerCardsDoesNotCorruptIndex() {
+        CardFilterIndex index = new CardFilterIndex();
+        Card added = card("a", Network.RUPAY, CardType.CREDIT, IssuerBank.HDFC);
+        index.add(added);
+
+        // Caller reuses its object after adding it
+        added.setNetwork(Network.VISA);
+        added.setIssuerBank(IssuerBank.SBI);
+        assertEquals(Network.RUPAY, index.get("a").getNetwork());
+        index.find(null, null, null).get(0).setCardType(CardType.DEBIT);
+        assertEquals(CardType.CREDIT, index.get("a").getCardType());
+
+        // remove() clears the bits the card was indexed under
+        assertTrue(index.remove("a"));
+        assertEquals(0, index.count(Network.RUPAY, null, null));
+        assertEquals(0, index.count(null, CardType.CREDIT, null));
+        assertEquals(0, index.count(null, null, IssuerBank.HDFC));
+        index.add(card("b", null, null, null));
+        assertFalse(index.contains(Network.RUPAY, null, null));
+        assertFalse(index.contains(null, null, IssuerBank.HDFC));
+    }
+}
@@ -0,0 +1,149 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.freedomfinancestack.pos_sdk_core.models.CardToken;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigInteger;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+public class CardTokenVaultTest {
+
+    private static final String MERCHANT = "merchant";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static SecretKey key(int seed) {
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (seed + i);
+        }
+        return new SecretKeySpec(bytes, "AES");
+    }
+
+    private static CardToken token(String id, long createdAtMs) {
+        return CardToken.builder()
+                .id(id)
+                .merchantId(MERCHANT)
+                .createdAt(BigInteger.valueOf(createdAtMs))
+                .build();
+    }
+
+    @Test
+    public void replaysTokensAfterReopen() throws Exception {
+        File file = new File(folder.getRoot(), "tokens.vault");
+        long now = System.currentTimeMillis();
+        CardTokenVault vault = new CardTokenVault(file, key(1));
+        vault.put("card-a", token("tok-a", now));
+        vault.put("card-b", token("tok-b", now));
+        vault.put("card-a", token("tok-a2", now));
+        assertTrue(vault.remove(MERCHANT, "card-b"));
+        vault.close();
+
+        CardTokenVault reopened = new CardTokenVault(file, key(1));
+        assertEquals(1, reopened.size());
+        assertEquals("tok-a2", reopened.get(MERCHANT, "card-a").getId());
+        assertEquals(BigInteger.valueOf(now), reopened.get(MERCHANT, "card-a").getCreatedAt());
+        assertNull(reopened.get(MERCHANT, "card-b"));
+        assertEquals(0, reopened.getCorruptRecordCount());
+        reopened.close();
+
+        // Records sealed with another key are skipped, not served
+        CardTokenVault rotated = new CardTokenVault(file, key(2));
+        assertEquals(0, rotated.size());
+        assertEquals(1, rotated.getCorruptRecordCount());
+        rotated.close();
+    }
+
+    @Test
+    public void expiredTokensAreNotServedOrReplayed() throws Exception {
+        File file = new File(folder.getRoot(), "tokens.vault");
+        long now = System.currentTimeMillis();
+        CardTokenVault vault = new CardTokenVault(file, key(1), 100);
+
+        // Already expired on arrival: not stored
+        vault.put("card-old", token("tok-old", now - 1_000));
+        assertEquals(0, vault.size());
+
+        vault.put("card-a", token("tok-a", now));
+        vault.put("card-b", token("tok-b", now));
+        assertEquals("tok-a", vault.get(MERCHANT, "card-a").getId());
+        Thread.sleep(150);
+
+        assertNull(vault.get(MERCHANT, "card-a"));
+        assertEquals(1, vault.getExpiredCount());
+        assertEquals(1, vault.getHitCount());
+        assertEquals(1, vault.getMissCount());
+        vault.close();
+
+        CardTokenVault reopened = new CardTokenVault(file, key(1), 100);
+        assertEquals(0, reopened.size());
+        assertNull(reopened.get(MERCHANT, "card-b"));
+        reopened.close();
+    }
+
+    @Test
+    public void compactionKeepsOnlyLiveTokens() throws Exception {
+        File file = new File(folder.getRoot(), "tokens.vault");
+        long now = System.currentTimeMillis();
+        CardTokenVault vault = new CardTokenVault(file, key(1));
+        vault.put("card-a", token("tok-a", now));
+        long oneToken = file.length();
+        // Less the 5 byte header
+        long recordBytes = oneToken - 5;
+
+        // Replacements leave dead records until the vault compacts
+        for (int i = 0; i < 20; i++) {
+            vault.put("card-b", token("tok-b" + i, now));
+        }
+        assertTrue(file.length() > 2 * oneToken);
+        vault.compact();
+        long compacted = file.length();
+        assertTrue("compacted to " + compacted, compacted < 2 * oneToken);
+
+        // Enough dead records trigger a compaction without compact()
+        for (int i = 0; i < 200; i++) {
+            vault.put("card-b", token("tok-b" + i, now));
+        }
+        assertTrue("grew to " + file.length(), file.length() < 70 * recordBytes);
+        vault.close();
+
+        CardTokenVault reopened = new CardTokenVault(file, key(1));
+        assertEquals(2, reopened.size());
+        assertEquals("tok-b199", reopened.get(MERCHANT, "card-b").getId());
+        assertEquals(0, reopened.getCorruptRecordCount());
+        reopened.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCreationTimeInEpochSeconds() throws Exception {
+        CardTokenVault vault = new CardTokenVault(new File(folder.getRoot(), "tokens.vault"), key(1));
+        vault.put("card-a", token("tok-a", System.currentTimeMillis() / 1000));
+    }
+
+    @Test
+    public void closedVaultRejectsWrites() throws Exception {
+        CardTokenVault vault = new CardTokenVault(new File(folder.getRoot(), "tokens.vault"), key(1));
+        vault.put("card-a", token("tok-a", System.currentTimeMillis()));
+        vault.close();
+
+        assertNull(vault.get(MERCHANT, "card-a"));
+        try {
+            vault.put("card-a", token("tok-a", System.currentTimeMillis()));
+            fail("put on a closed vault should fail");
+        } catch (IllegalStateException expected) {
+            // Closed
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CheckoutStage;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CheckoutPipelineConfig;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+import com.freedomfinancestack.pos_sdk_core.models.StageLatencyStats;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stage flow, deadlines and back-pressure. Listener events go through the
+ * main looper, so these tests watch the checkout and stage stats instead.
+ */
+public class CheckoutPipelineTest {
+
+    private static final GGWaveMessage CUSTOMER = new GGWaveMessage("9000000001");
+    private static final Card CARD = Card.builder().cardId("card-1").last4Digits("4242").build();
+
+    private CheckoutPipeline pipeline;
+
+    /** Card backend that holds every call until released. */
+    private static class GatedCards implements ICards {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger interrupts = new AtomicInteger();
+        volatile boolean ignoreInterrupts;
+
+        GatedCards open() {
+            release.countDown();
+            return this;
+        }
+
+        @Override
+        public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+            calls.incrementAndGet();
+            boolean released = false;
+            while (!released) {
+                try {
+                    released = release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupts.incrementAndGet();
+                    if (!ignoreInterrupts) {
+                        throw new IllegalStateException("interrupted");
+                    }
+                }
+            }
+            return Collections.singletonList(new ListSavedCards(contact, new Card[]{CARD}));
+        }
+    }
+
+    private static class FakePayment implements IPayment {
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            return new PaymentInitiationResponse("https://acs", "pay-1", "order-1");
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            return PaymentStatus.PAID;
+        }
+    }
+
+    /** Progress arrives through the main looper, which local tests do not run. */
+    private static class IgnoringListener implements CheckoutPipeline.Listener {
+        @Override
+        public void onCardsFetched(@NonNull CheckoutPipeline.Checkout checkout, @NonNull List<Card> cards) {
+        }
+
+        @Override
+        public void onAuthenticationRequired(@NonNull CheckoutPipeline.Checkout checkout,
+                                             @NonNull PaymentInitiationResponse response) {
+        }
+
+        @Override
+        public void onCompleted(@NonNull CheckoutPipeline.Checkout checkout, @NonNull PaymentStatus status) {
+        }
+
+        @Override
+        public void onFailed(@NonNull CheckoutPipeline.Checkout checkout, @NonNull CheckoutStage stage,
+                             @NonNull String error) {
+        }
+    }
+
+    private static CheckoutPipelineConfig.CheckoutPipelineConfigBuilder config() {
+        return CheckoutPipelineConfig.builder().merchantId("merchant");
+    }
+
+    private CheckoutPipeline newPipeline(ICards cards, CheckoutPipelineConfig config) {
+        pipeline = new CheckoutPipeline(cards, new FakePayment(), config, new IgnoringListener());
+        return pipeline;
+    }
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    private static void await(String what, Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.holds()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static void awaitStage(CheckoutPipeline.Checkout checkout, CheckoutStage stage)
+            throws InterruptedException {
+        await(stage.name(), () -> checkout.getStage() == stage);
+    }
+
+    @Test
+    public void checkoutRunsEveryStageAndRecordsLatency() throws InterruptedException {
+        newPipeline(new GatedCards().open(), config().build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        awaitStage(checkout, CheckoutStage.SELECT_CARD);
+        checkout.selectCard(CARD);
+        awaitStage(checkout, CheckoutStage.AWAIT_AUTHENTICATION);
+        assertEquals("pay-1", checkout.getPaymentInitiation().getPaymentId());
+        checkout.authenticationCompleted();
+        await("completion", checkout::isDone);
+
+        assertFalse(checkout.isCancelled());
+        assertTrue(checkout.getTotalLatencyMs() >= 0);
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            assertTrue(stage + " latency", checkout.getStageLatencyMs(stage) >= 0);
+            assertEquals(1, pipeline.getStageStats(stage).getCompletedCount());
+        }
+        assertEquals(0, pipeline.getActiveCount());
+    }
+
+    @Test
+    public void stageDeadlineFailsCheckoutAndInterruptsWork() throws InterruptedException {
+        GatedCards cards = new GatedCards();
+        newPipeline(cards, config().fetchCardsTimeoutMs(100).build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        await("timeout", checkout::isDone);
+
+        assertEquals(CheckoutStage.FETCH_CARDS, checkout.getStage());
+        assertEquals(-1, checkout.getStageLatencyMs(CheckoutStage.FETCH_CARDS));
+        await("interrupt", () -> cards.interrupts.get() == 1);
+        StageLatencyStats stats = pipeline.getStageStats(CheckoutStage.FETCH_CARDS);
+        assertEquals(1, stats.getTimedOutCount());
+        assertEquals(0, stats.getFailedCount());
+        assertEquals(0, pipeline.getActiveCount());
+    }
+
+    @Test
+    public void lateResultAfterDeadlineIsDiscarded() throws InterruptedException {
+        GatedCards cards = new GatedCards();
+        cards.ignoreInterrupts = true;
+        newPipeline(cards, config().fetchCardsTimeoutMs(100).build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        await("timeout", checkout::isDone);
+        cards.open();
+        Thread.sleep(100);
+
+        // The deadline already settled the checkout; the stale answer cannot move it on
+        assertEquals(CheckoutStage.FETCH_CARDS, checkout.getStage());
+        assertEquals(0, pipeline.getStageStats(CheckoutStage.FETCH_CARDS).getCompletedCount());
+        try {
+            checkout.selectCard(CARD);
+            fail("Expected a timed-out checkout to refuse a card");
+        } catch (IllegalStateException expected) {
+            // Already finished
+        }
+    }
+
+    @Test
+    public void fullStageQueueRejectsNewWork() throws InterruptedException {
+        GatedCards cards = new GatedCards();
+        newPipeline(cards, config().fetchCardsThreads(1).queueCapacity(1).build());
+
+        CheckoutPipeline.Checkout running = pipeline.submit("lane-1", CUSTOMER, 100f);
+        await("first fetch", () -> cards.calls.get() == 1);
+        CheckoutPipeline.Checkout queued = pipeline.submit("lane-2", CUSTOMER, 100f);
+        await("queued fetch", () -> pipeline.getQueueDepth(CheckoutStage.FETCH_CARDS) == 1);
+        CheckoutPipeline.Checkout rejected = pipeline.submit("lane-3", CUSTOMER, 100f);
+        await("rejection", rejected::isDone);
+
+        assertEquals(CheckoutStage.FETCH_CARDS, rejected.getStage());
+        assertEquals(1, pipeline.getStageStats(CheckoutStage.FETCH_CARDS).getFailedCount());
+        assertFalse(running.isDone());
+        assertFalse(queued.isDone());
+
+        cards.open();
+        awaitStage(running, CheckoutStage.SELECT_CARD);
+        awaitStage(queued, CheckoutStage.SELECT_CARD);
+        assertEquals(2, cards.calls.get());
+    }
+
+    @Test
+    public void cancelInterruptsRunningStageWithoutFailure() throws InterruptedException {
+        GatedCards cards = new GatedCards();
+        newPipeline(cards, config().build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        await("fetch", () -> cards.calls.get() == 1);
+        checkout.cancel();
+        checkout.cancel();
+
+        assertTrue(checkout.isCancelled());
+        assertTrue(checkout.isDone());
+        await("interrupt", () -> cards.interrupts.get() == 1);
+        StageLatencyStats stats = pipeline.getStageStats(CheckoutStage.FETCH_CARDS);
+        assertEquals(0, stats.getFailedCount());
+        assertEquals(0, stats.getTimedOutCount());
+        assertEquals(0, pipeline.getActiveCount());
+    }
+
+    @Test
+    public void cardCanOnlyBeSelectedOnce() throws InterruptedException {
+        newPipeline(new GatedCards().open(), config().build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        awaitStage(checkout, CheckoutStage.SELECT_CARD);
+        try {
+            checkout.selectCard(Card.builder().cardId("other").build());
+            fail("Expected a card the customer does not have to be refused");
+        } catch (IllegalArgumentException expected) {
+            // Not one of the fetched cards
+        }
+        checkout.selectCard(CARD);
+        try {
+            checkout.selectCard(CARD);
+            fail("Expected a second selection to be refused");
+        } catch (IllegalStateException expected) {
+            // Already moved on to INITIATE
+        }
+        awaitStage(checkout, CheckoutStage.AWAIT_AUTHENTICATION);
+        assertEquals(1, pipeline.getStageStats(CheckoutStage.INITIATE).getCompletedCount());
+    }
+
+    @Test
+    public void shutdownCancelsActiveCheckoutsAndRefusesNewOnes() throws InterruptedException {
+        GatedCards cards = new GatedCards();
+        newPipeline(cards, config().build());
+
+        CheckoutPipeline.Checkout checkout = pipeline.submit("lane-1", CUSTOMER, 100f);
+        await("fetch", () -> cards.calls.get() == 1);
+        pipeline.shutdown();
+
+        assertTrue(checkout.isCancelled());
+        assertEquals(0, pipeline.getActiveCount());
+        await("interrupt", () -> cards.interrupts.get() == 1);
+        try {
+            pipeline.submit("lane-2", CUSTOMER, 100f);
+            fail("Expected a shut-down pipeline to refuse checkouts");
+        } catch (IllegalStateException expected) {
+            // Shut down
+        }
+        assertNotNull(pipeline.getStageStats(CheckoutStage.FETCH_CARDS));
+        pipeline.shutdown();
+    }
+}
@@ -0,0 +1,152 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBatchPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IBulkCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIdempotentPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IOrderPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CheckoutTracerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final class OrderBatchGateway implements IOrderPayment, IBatchPayment {
+        @Override
+        public String createOrder(float amount) {
+            return "order_1";
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount, String orderId) {
+            return PaymentInitiationResponse.builder().paymentId("pay_1").orderId(orderId).build();
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            return IOrderPayment.super.initiatePayment(card, amount);
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            return PaymentStatus.PAID;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 10;
+        }
+
+        @Override
+        public Map<String, PaymentStatus> confirmPayments(List<String> paymentIds) {
+            Map<String, PaymentStatus> statuses = new HashMap<>();
+            for (String id : paymentIds) {
+                statuses.put(id, PaymentStatus.PAID);
+            }
+            return statuses;
+        }
+    }
+
+    private static final class BulkCards implements IBulkCards {
+        @Override
+        public int getMaxBulkSize() {
+            return 5;
+        }
+
+        @Override
+        public Map<String, List<ListSavedCards>> listSavedCards(String merchantId, List<String> contacts) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+            return Collections.emptyList();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        CheckoutTracer.getShared().setEnabled(false);
+        CheckoutTracer.getShared().clear();
+    }
+
+    @Test
+    public void tracedPaymentKeepsCapabilities() {
+        IPayment traced = CheckoutTracer.traced(new OrderBatchGateway());
+
+        assertTrue(traced instanceof IOrderPayment);
+        assertTrue(traced instanceof IBatchPayment);
+        assertFalse(traced instanceof IIdempotentPayment);
+        assertEquals("order_1", ((IOrderPayment) traced).createOrder(5f));
+        assertEquals(10, ((IBatchPayment) traced).getMaxBatchSize());
+        assertEquals("order_1", traced.initiatePayment(Card.builder().build(), 5f).getOrderId());
+    }
+
+    @Test
+    public void tracedCardsKeepCapabilities() {
+        ICards traced = CheckoutTracer.traced(new BulkCards());
+
+        assertTrue(traced instanceof IBulkCards);
+        assertFalse(traced instanceof IPagedCards);
+        assertEquals(5, ((IBulkCards) traced).getMaxBulkSize());
+    }
+
+    @Test
+    public void recordsSpansForBackendCalls() throws Exception {
+        CheckoutTracer tracer = CheckoutTracer.getShared();
+        tracer.clear();
+        tracer.setEnabled(true);
+        IPayment traced = CheckoutTracer.traced(new OrderBatchGateway());
+
+        CheckoutTracer.Scope scope = tracer.bind(42);
+        try {
+            assertEquals(42, tracer.boundCheckoutId());
+            ((IOrderPayment) traced).createOrder(5f);
+            ((IBatchPayment) traced).confirmPayments(Collections.singletonList("pay_1"));
+            // Not a backend call; no span
+            ((IBatchPayment) traced).getMaxBatchSize();
+        } finally {
+            scope.close();
+        }
+        assertEquals(0, tracer.boundCheckoutId());
+
+        assertEquals(2, tracer.exportTo(new File(folder.getRoot(), "trace.json")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void delegateExceptionsPassThroughUnwrapped() {
+        IPayment failing = new IPayment() {
+            @Override
+            public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+                throw new IllegalStateException("declined");
+            }
+
+            @Override
+            public PaymentStatus confirmPayment(String paymentId) {
+                return null;
+            }
+        };
+        CheckoutTracer.traced(failing).initiatePayment(Card.builder().build(), 1f);
+    }
+}
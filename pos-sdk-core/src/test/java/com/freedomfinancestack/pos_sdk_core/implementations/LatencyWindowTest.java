@@ -0,0 +1,39 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyWindowTest {
+
+    @Test
+    public void keepsOnlyTheNewestSamples() {
+        LatencyWindow window = new LatencyWindow(4);
+        for (long ms = 1; ms <= 6; ms++) {
+            window.add(ms * 10);
+        }
+
+        assertEquals(4, window.size());
+        assertArrayEquals(new long[]{30, 40, 50, 60}, window.sorted());
+
+        window.clear();
+        assertEquals(0, window.size());
+        assertEquals(0, window.sorted().length);
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        LatencyWindow window = new LatencyWindow();
+        for (long ms = 100; ms >= 1; ms--) {
+            window.add(ms);
+        }
+        long[] sorted = window.sorted();
+
+        assertEquals(50, LatencyWindow.percentile(sorted, 0.50));
+        assertEquals(95, LatencyWindow.percentile(sorted, 0.95));
+        assertEquals(100, LatencyWindow.percentile(sorted, 1.0));
+        assertEquals(1, LatencyWindow.percentile(sorted, 0.001));
+        assertEquals(0, LatencyWindow.percentile(new long[0], 0.99));
+    }
+}
@@ -0,0 +1,62 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.nfc.NdefMessage;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LoadGeneratorPosPluginTest {
+
+    @Test
+    public void stopIsNotHeldUpByCallbackThatAlsoStops() throws Exception {
+        LoadGeneratorPosPlugin plugin = new LoadGeneratorPosPlugin(
+                LoadGeneratorPosPlugin.HEADER_BYTES, 1_000, 1, 16, null);
+        CountDownLatch delivering = new CountDownLatch(1);
+        AtomicBoolean stopRequested = new AtomicBoolean();
+
+        plugin.startListening(new INfcDeviceManager.NdefCallback() {
+            @Override
+            public void onNdefMessageDiscovered(NdefMessage message) {
+                if (delivering.getCount() == 0) {
+                    return;
+                }
+                delivering.countDown();
+                // Busy-wait: the generator's interrupt must not cut this short
+                while (!stopRequested.get()) {
+                    Thread.yield();
+                }
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+                while (System.nanoTime() < until) {
+                    Thread.yield();
+                }
+                // The tap handler ends the session too, while stopListening() is under way
+                try {
+                    plugin.stopListening();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+            }
+        });
+
+        assertTrue(delivering.await(2, TimeUnit.SECONDS));
+        stopRequested.set(true);
+        long start = System.nanoTime();
+        plugin.stopListening();
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(plugin.isListening());
+        assertTrue("stopListening took " + ms + "ms", ms < 500);
+    }
+}
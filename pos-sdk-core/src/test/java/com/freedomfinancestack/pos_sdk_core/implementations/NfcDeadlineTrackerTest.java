@@ -0,0 +1,144 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.nfc.NdefMessage;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Locks the semantics of deadline-bound listens for a manager that delegates
+ * to {@link NfcDeadlineTracker}.
+ */
+public class NfcDeadlineTrackerTest {
+
+    /** Manager that records stops and reports listens to its tracker. */
+    private static final class BasicManager implements INfcDeviceManager {
+        final NfcDeadlineTracker deadlines = new NfcDeadlineTracker(this);
+        volatile NdefCallback callback;
+        final AtomicInteger stops = new AtomicInteger();
+
+        @Override
+        public void startListening(NdefCallback callback) {
+            deadlines.onListenStarted(callback);
+            this.callback = callback;
+        }
+
+        @Override
+        public ICancellable startListening(DeadlineCallback callback, long timeoutMs) {
+            return deadlines.start(callback, timeoutMs);
+        }
+
+        @Override
+        public void stopListening() {
+            stops.incrementAndGet();
+            deadlines.onListenStopped();
+        }
+    }
+
+    static class RecordingCallback implements INfcDeviceManager.DeadlineCallback {
+        final CountDownLatch timedOut = new CountDownLatch(1);
+        final AtomicInteger taps = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public void onTimeout(long waitedMs) {
+            timedOut.countDown();
+        }
+
+        @Override
+        public void onNdefMessageDiscovered(NdefMessage message) {
+            taps.incrementAndGet();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            errors.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void timeoutStopsListeningAndNotifies() throws InterruptedException {
+        BasicManager manager = new BasicManager();
+        RecordingCallback callback = new RecordingCallback();
+
+        manager.startListening(callback, 50);
+
+        assertTrue(callback.timedOut.await(2, TimeUnit.SECONDS));
+        assertEquals(1, manager.stops.get());
+        assertEquals(1, manager.deadlines.getReadStats().getTimeoutCount());
+    }
+
+    @Test
+    public void firstTapDisarmsDeadline() throws InterruptedException {
+        BasicManager manager = new BasicManager();
+        RecordingCallback callback = new RecordingCallback();
+
+        manager.startListening(callback, 100);
+        manager.callback.onNdefMessageDiscovered(null);
+
+        assertFalse(callback.timedOut.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, callback.taps.get());
+        assertEquals(0, manager.stops.get());
+        assertEquals(1, manager.deadlines.getReadStats().getTapCount());
+    }
+
+    @Test
+    public void errorDisarmsDeadline() throws InterruptedException {
+        BasicManager manager = new BasicManager();
+        RecordingCallback callback = new RecordingCallback();
+
+        manager.startListening(callback, 100);
+        manager.callback.onError("Tag lost");
+
+        assertFalse(callback.timedOut.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, callback.errors.get());
+        assertEquals(0, manager.stops.get());
+    }
+
+    @Test
+    public void cancelStopsListeningWithoutTimeout() throws InterruptedException {
+        BasicManager manager = new BasicManager();
+        RecordingCallback callback = new RecordingCallback();
+
+        ICancellable handle = manager.startListening(callback, 100);
+        handle.cancel();
+
+        assertTrue(handle.isCancelled());
+        assertEquals(1, manager.stops.get());
+        assertFalse(callback.timedOut.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, manager.deadlines.getReadStats().getCancelledCount());
+    }
+
+    @Test
+    public void supersededListenNeitherTimesOutNorStopsTheNewOne() throws InterruptedException {
+        BasicManager manager = new BasicManager();
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        ICancellable stale = manager.startListening(first, 50);
+        manager.startListening(second, 10_000);
+        INfcDeviceManager.NdefCallback active = manager.callback;
+        stale.cancel();
+
+        assertFalse(first.timedOut.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, manager.stops.get());
+        assertSame(active, manager.callback);
+        assertEquals(1, manager.deadlines.getReadStats().getCancelledCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveTimeout() {
+        new BasicManager().startListening(new RecordingCallback(), 0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+public class NfcTapLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(byte[] bytes) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    private static void assertUnreadable(File file) {
+        try (NfcTapLog.Reader reader = new NfcTapLog.Reader(file)) {
+            NfcTapLog.Entry entry = new NfcTapLog.Entry();
+            while (reader.next(entry) != null) {
+                // Drain until the bad entry
+            }
+            fail("Expected the recording to be rejected");
+        } catch (IOException expected) {
+            // Rejected
+        }
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() throws Exception {
+        File file = folder.newFile();
+        byte[] large = new byte[300];
+        Arrays.fill(large, (byte) 7);
+        try (NfcTapLog.Writer writer = new NfcTapLog.Writer(file)) {
+            writer.writeMessage(new byte[]{1, 2, 3});
+            writer.writeError("Tag lost");
+            writer.writeMessage(large);
+        }
+
+        try (NfcTapLog.Reader reader = new NfcTapLog.Reader(file)) {
+            NfcTapLog.Entry entry = new NfcTapLog.Entry();
+            assertEquals(NfcTapLog.KIND_MESSAGE, reader.next(entry).kind);
+            assertArrayEquals(new byte[]{1, 2, 3}, Arrays.copyOf(entry.payload, entry.length));
+            assertTrue(entry.deltaMicros >= 0);
+
+            assertEquals(NfcTapLog.KIND_ERROR, reader.next(entry).kind);
+            assertEquals("Tag lost", entry.errorText());
+
+            // Two-byte varint length, and the payload buffer grows on reuse
+            assertEquals(NfcTapLog.KIND_MESSAGE, reader.next(entry).kind);
+            assertEquals(300, entry.length);
+            assertEquals(7, entry.payload[299]);
+
+            assertNull(reader.next(entry));
+        }
+    }
+
+    @Test
+    public void rejectsForeignOrTruncatedHeader() throws Exception {
+        try {
+            new NfcTapLog.Reader(write(new byte[]{'N', 'O', 'P', 'E', 1})).close();
+            fail("Expected a bad magic to be rejected");
+        } catch (IOException expected) {
+            // Not a recording
+        }
+        try {
+            new NfcTapLog.Reader(write(new byte[]{'D', 'P'})).close();
+            fail("Expected a truncated header to be rejected");
+        } catch (IOException expected) {
+            // Truncated
+        }
+        try {
+            new NfcTapLog.Reader(write(new byte[]{'D', 'P', 'N', 'T', 9})).close();
+            fail("Expected an unknown version to be rejected");
+        } catch (IOException expected) {
+            // Newer format
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedEntry() throws Exception {
+        File file = folder.newFile();
+        try (NfcTapLog.Writer writer = new NfcTapLog.Writer(file)) {
+            writer.writeMessage(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        assertUnreadable(file);
+    }
+
+    @Test
+    public void rejectsOversizedLengthAndUnknownKind() throws Exception {
+        // Length 0x7FFFFFFF as a varint, far over MAX_PAYLOAD_BYTES
+        assertUnreadable(write(new byte[]{'D', 'P', 'N', 'T', 1,
+                NfcTapLog.KIND_MESSAGE, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}));
+        assertUnreadable(write(new byte[]{'D', 'P', 'N', 'T', 1, 5, 0, 0}));
+        // A varint that never terminates
+        byte[] endless = new byte[20];
+        Arrays.fill(endless, (byte) 0xFF);
+        byte[] bytes = Arrays.copyOf(new byte[]{'D', 'P', 'N', 'T', 1, NfcTapLog.KIND_ERROR}, 6 + endless.length);
+        System.arraycopy(endless, 0, bytes, 6, endless.length);
+        assertUnreadable(write(bytes));
+    }
+}
@@ -0,0 +1,134 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class OkHttpTransportTest {
+
+    private MockWebServer server;
+    private OkHttpTransport transport;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        transport = new OkHttpTransport(server.url("/v1/").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static HttpRequest get(String path) {
+        return HttpRequest.builder().path(path).build();
+    }
+
+    @Test
+    public void sendsRequestAndStreamsResponse() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(201)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"id\": \"order_1\"}"));
+
+        HttpResponse response = transport.execute(HttpRequest.builder()
+                .method("post").path("orders")
+                .header("Authorization", "Basic abc")
+                .contentType("application/json")
+                .body("{\"amount\": 100}".getBytes(StandardCharsets.UTF_8))
+                .build());
+
+        assertEquals(201, response.getCode());
+        assertEquals("application/json", response.getHeader("content-type"));
+        assertEquals("{\"id\": \"order_1\"}", response.getBodyString());
+        RecordedRequest recorded = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("POST", recorded.getMethod());
+        assertEquals("/v1/orders", recorded.getPath());
+        assertEquals("Basic abc", recorded.getHeader("Authorization"));
+        assertEquals("{\"amount\": 100}", recorded.getBody().readUtf8());
+    }
+
+    @Test
+    public void reusesPooledConnectionForSequentialCalls() throws Exception {
+        server.enqueue(new MockResponse().setBody("one"));
+        server.enqueue(new MockResponse().setBody("two"));
+
+        assertEquals("one", transport.execute(get("payments/1")).getBodyString());
+        assertEquals("two", transport.execute(get("payments/2")).getBodyString());
+
+        // Sequence numbers count requests per connection
+        assertEquals(0, server.takeRequest(1, TimeUnit.SECONDS).getSequenceNumber());
+        assertEquals(1, server.takeRequest(1, TimeUnit.SECONDS).getSequenceNumber());
+        HttpTransportStats stats = transport.getStats();
+        assertEquals(2, stats.getCallCount());
+        assertEquals(1, stats.getNewConnections());
+        assertEquals(1, stats.getReusedConnections());
+        // Cleartext mock server, so neither TLS nor HTTP/2
+        assertEquals(0, stats.getTlsHandshakes());
+        assertEquals(0, stats.getHttp2Calls());
+        assertEquals(0, stats.getFailedCallCount());
+    }
+
+    @Test
+    public void errorStatusIsReturnedNotCountedAsFailure() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setBody("busy"));
+
+        HttpResponse response = transport.execute(get("cards"));
+
+        assertEquals(503, response.getCode());
+        assertFalse(response.isSuccessful());
+        response.close();
+        assertEquals(1, transport.getStats().getCallCount());
+        assertEquals(0, transport.getStats().getFailedCallCount());
+    }
+
+    @Test
+    public void unreachableServerCountsFailedCall() throws Exception {
+        server.shutdown();
+
+        try {
+            transport.execute(get("cards"));
+            fail("Expected the connection to be refused");
+        } catch (IOException expected) {
+            // Nothing listening
+        }
+
+        assertEquals(1, transport.getStats().getCallCount());
+        assertEquals(1, transport.getStats().getFailedCallCount());
+    }
+
+    @Test
+    public void perRequestTimeoutBoundsTheWholeCall() throws Exception {
+        server.enqueue(new MockResponse().setBody("late").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        try {
+            transport.execute(HttpRequest.builder().path("payments/1").timeoutMs(200).build());
+            fail("Expected the call to time out");
+        } catch (InterruptedIOException expected) {
+            // Call timeout, well before the 30s read timeout
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Took " + elapsedMs + "ms", elapsedMs < 1_500);
+        assertEquals(1, transport.getStats().getFailedCallCount());
+    }
+}
@@ -0,0 +1,152 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.enums.JournaledPaymentState;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.JournaledPayment;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+public class PaymentJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JournaledPayment payment(String key, JournaledPaymentState state) {
+        return JournaledPayment.builder()
+                .idempotencyKey(key)
+                .card(Card.builder().cardId("card-1").last4Digits("4242").build())
+                .amount(12.5f)
+                .state(state)
+                .createdAtMs(1_700_000_000_000L)
+                .updatedAtMs(1_700_000_000_000L)
+                .build();
+    }
+
+    private File newestSegment(File directory) {
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith("segment-"));
+        Arrays.sort(segments);
+        return segments[segments.length - 1];
+    }
+
+    @Test
+    public void replaysPendingPaymentsAfterReopen() throws Exception {
+        File directory = folder.newFolder();
+        PaymentJournal journal = new PaymentJournal(directory);
+        journal.append(payment("a", JournaledPaymentState.QUEUED));
+        journal.append(payment("b", JournaledPaymentState.QUEUED));
+        journal.append(payment("a", JournaledPaymentState.INITIATED).toBuilder().paymentId("pay-a").build());
+        journal.append(payment("b", JournaledPaymentState.COMPLETED)).get();
+        journal.close();
+
+        PaymentJournal reopened = new PaymentJournal(directory);
+        List<JournaledPayment> pending = reopened.getPending();
+        assertEquals(1, pending.size());
+        assertEquals(JournaledPaymentState.INITIATED, pending.get(0).getState());
+        assertEquals("4242", pending.get(0).getCard().getLast4Digits());
+        assertEquals("a", reopened.findByPaymentId("pay-a").getIdempotencyKey());
+        assertNull(reopened.get("b"));
+        assertEquals(0, reopened.getCorruptRecordCount());
+        reopened.close();
+    }
+
+    @Test
+    public void tornTailKeepsEarlierRecords() throws Exception {
+        File directory = folder.newFolder();
+        PaymentJournal journal = new PaymentJournal(directory);
+        journal.append(payment("a", JournaledPaymentState.QUEUED));
+        journal.append(payment("b", JournaledPaymentState.QUEUED)).get();
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(newestSegment(directory), "rw")) {
+            // Cut the last record short, as a crash mid-write would
+            file.setLength(file.length() - 5);
+        }
+
+        PaymentJournal reopened = new PaymentJournal(directory);
+        assertEquals(1, reopened.getPending().size());
+        assertEquals("a", reopened.getPending().get(0).getIdempotencyKey());
+        assertEquals(1, reopened.getCorruptRecordCount());
+        reopened.close();
+    }
+
+    @Test
+    public void corruptTailFailsChecksumAndIsSkipped() throws Exception {
+        File directory = folder.newFolder();
+        PaymentJournal journal = new PaymentJournal(directory);
+        journal.append(payment("a", JournaledPaymentState.QUEUED));
+        journal.append(payment("b", JournaledPaymentState.QUEUED)).get();
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(newestSegment(directory), "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xFF);
+        }
+
+        PaymentJournal reopened = new PaymentJournal(directory);
+        assertEquals(1, reopened.getPending().size());
+        assertNull(reopened.get("b"));
+        assertEquals(1, reopened.getCorruptRecordCount());
+
+        // The journal keeps working after recovering from the corrupt tail
+        reopened.append(payment("c", JournaledPaymentState.QUEUED)).get();
+        reopened.close();
+        PaymentJournal again = new PaymentJournal(directory);
+        assertEquals(2, again.getPending().size());
+        again.close();
+    }
+
+    @Test
+    public void rotationKeepsOnlyPendingWork() throws Exception {
+        File directory = folder.newFolder();
+        PaymentJournal journal = new PaymentJournal(directory, 512);
+        for (int i = 0; i < 50; i++) {
+            String key = "done-" + i;
+            journal.append(payment(key, JournaledPaymentState.QUEUED));
+            journal.append(payment(key, JournaledPaymentState.COMPLETED)).get();
+        }
+        journal.append(payment("open", JournaledPaymentState.SENDING).toBuilder().attempts(3).build()).get();
+        journal.close();
+
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith("segment-"));
+        assertTrue("segments left: " + segments.length, segments.length <= 2);
+        long bytes = 0;
+        for (File segment : segments) {
+            bytes += segment.length();
+        }
+        assertTrue("journal size " + bytes, bytes < 2 * 512 + 256);
+
+        PaymentJournal reopened = new PaymentJournal(directory, 512);
+        List<JournaledPayment> pending = reopened.getPending();
+        assertEquals(1, pending.size());
+        assertEquals(JournaledPaymentState.SENDING, pending.get(0).getState());
+        assertEquals(3, pending.get(0).getAttempts());
+        reopened.close();
+    }
+
+    @Test
+    public void groupsConcurrentAppendsIntoFewerSyncs() throws Exception {
+        PaymentJournal journal = new PaymentJournal(folder.newFolder());
+        PendingResult<Long> last = null;
+        for (int i = 0; i < 200; i++) {
+            last = journal.append(payment("k" + i, JournaledPaymentState.QUEUED));
+        }
+        last.get();
+        assertEquals(200, journal.getAppendCount());
+        assertTrue(journal.getSyncCount() <= journal.getAppendCount());
+        journal.close();
+    }
+}
@@ -0,0 +1,219 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentPollingConfig;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request coalescing and poll scheduling. Listener delivery goes through the
+ * main looper and is covered by PaymentStatusTrackerNotificationTest.
+ */
+public class PaymentStatusTrackerTest {
+
+    private PaymentStatusTracker tracker;
+
+    /** Gateway answering from a script, repeating its last status. */
+    private static class ScriptedGateway implements IPayment {
+        final List<PaymentStatus> script;
+        final List<Long> callNanos = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate;
+        volatile RuntimeException error;
+
+        ScriptedGateway(PaymentStatus... script) {
+            this.script = Arrays.asList(script);
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            callNanos.add(System.nanoTime());
+            CountDownLatch waitFor = gate;
+            if (waitFor != null) {
+                try {
+                    waitFor.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            return script.get(Math.min(callNanos.size(), script.size()) - 1);
+        }
+
+        /** Milliseconds between consecutive calls. */
+        List<Long> gapsMs() {
+            List<Long> gaps = new ArrayList<>();
+            for (int i = 1; i < callNanos.size(); i++) {
+                gaps.add(TimeUnit.NANOSECONDS.toMillis(callNanos.get(i) - callNanos.get(i - 1)));
+            }
+            return gaps;
+        }
+    }
+
+    private static final PaymentStatusTracker.Listener IGNORE = new PaymentStatusTracker.Listener() {
+        @Override
+        public void onStatusChanged(@NonNull String paymentId, @Nullable PaymentStatus previous,
+                                    @NonNull PaymentStatus current) {
+        }
+
+        @Override
+        public void onTrackingFailed(@NonNull String paymentId, @NonNull Throwable error) {
+        }
+    };
+
+    @After
+    public void tearDown() {
+        if (tracker != null) {
+            tracker.shutdown();
+        }
+    }
+
+    private static void await(String what, Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (!condition.holds()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    @Test
+    public void concurrentRequestsShareOneGatewayCall() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway(PaymentStatus.AUTHORIZED, PaymentStatus.PAID);
+        gateway.gate = new CountDownLatch(1);
+        tracker = new PaymentStatusTracker(gateway);
+
+        PendingResult<PaymentStatus> first = tracker.requestStatus("pay_1");
+        PendingResult<PaymentStatus> second = tracker.requestStatus("pay_1");
+        PendingResult<PaymentStatus> third = tracker.requestStatus("pay_1");
+        // Detaching one caller leaves the shared request running for the others
+        third.cancel();
+        gateway.gate.countDown();
+
+        assertEquals(PaymentStatus.AUTHORIZED, first.get(1, TimeUnit.SECONDS));
+        assertEquals(PaymentStatus.AUTHORIZED, second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, tracker.getGatewayRequestCount());
+        assertEquals(2, tracker.getCoalescedRequestCount());
+
+        // A finished request is not joined; the next caller gets a fresh answer
+        assertEquals(PaymentStatus.PAID, tracker.confirmPayment("pay_1"));
+        assertEquals(2, gateway.callNanos.size());
+    }
+
+    @Test
+    public void coalescedCallersShareTheFailure() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway(PaymentStatus.PAID);
+        gateway.gate = new CountDownLatch(1);
+        gateway.error = new IllegalStateException("gateway down");
+        tracker = new PaymentStatusTracker(gateway);
+
+        PendingResult<PaymentStatus> first = tracker.requestStatus("pay_1");
+        PendingResult<PaymentStatus> second = tracker.requestStatus("pay_1");
+        gateway.gate.countDown();
+
+        for (PendingResult<PaymentStatus> call : Arrays.asList(first, second)) {
+            try {
+                call.get(1, TimeUnit.SECONDS);
+                fail("Expected the gateway failure");
+            } catch (ExecutionException e) {
+                assertSame(gateway.error, e.getCause());
+            }
+        }
+        assertEquals(1, gateway.callNanos.size());
+    }
+
+    @Test
+    public void backoffGrowsWhileUnchangedAndResetsOnChange() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway(
+                PaymentStatus.CREATED, PaymentStatus.CREATED, PaymentStatus.CREATED, PaymentStatus.CREATED,
+                PaymentStatus.AUTHORIZED, PaymentStatus.AUTHORIZED, PaymentStatus.PAID);
+        tracker = new PaymentStatusTracker(gateway, PaymentPollingConfig.builder()
+                .initialIntervalMs(50).maxIntervalMs(200).multiplier(2).jitter(0).trackingTimeoutMs(0)
+                .build());
+
+        tracker.track("pay_1", IGNORE);
+        await("terminal status", () -> tracker.getTrackedCount() == 0);
+
+        List<Long> gaps = gateway.gapsMs();
+        assertEquals(gaps.toString(), 6, gaps.size());
+        // New status CREATED: 50, then doubling while unchanged, capped at 200
+        assertTrue(gaps.toString(), gaps.get(0) >= 45);
+        assertTrue(gaps.toString(), gaps.get(1) >= 95);
+        assertTrue(gaps.toString(), gaps.get(2) >= 190);
+        assertTrue(gaps.toString(), gaps.get(3) >= 190 && gaps.get(3) < 390);
+        // AUTHORIZED is a change, so the interval starts over
+        assertTrue(gaps.toString(), gaps.get(4) >= 45 && gaps.get(4) < 190);
+        assertEquals(7, tracker.getPollCount());
+
+        Thread.sleep(250);
+        assertEquals("Polling stops at a terminal status", 7, gateway.callNanos.size());
+    }
+
+    @Test
+    public void trackingStopsAtTheTimeout() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway(PaymentStatus.CREATED);
+        tracker = new PaymentStatusTracker(gateway, PaymentPollingConfig.builder()
+                .initialIntervalMs(30).maxIntervalMs(30).multiplier(1).jitter(0).trackingTimeoutMs(150)
+                .build());
+
+        tracker.track("pay_1", IGNORE);
+        assertEquals(1, tracker.getTrackedCount());
+        await("tracking timeout", () -> tracker.getTrackedCount() == 0);
+        int calls = gateway.callNanos.size();
+
+        Thread.sleep(100);
+        assertEquals(calls, gateway.callNanos.size());
+        assertTrue("Polled " + calls + " times", calls >= 3);
+    }
+
+    @Test
+    public void cancellingOrShuttingDownStopsTracking() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway(PaymentStatus.CREATED);
+        tracker = new PaymentStatusTracker(gateway, PaymentPollingConfig.builder()
+                .initialIntervalMs(30).maxIntervalMs(30).multiplier(1).jitter(0).build());
+
+        tracker.track("pay_1", IGNORE).cancel();
+        tracker.track("pay_2", IGNORE);
+        assertEquals(1, tracker.getTrackedCount());
+
+        tracker.shutdown();
+        assertEquals(0, tracker.getTrackedCount());
+        try {
+            tracker.requestStatus("pay_1");
+            fail("Expected a shut-down tracker to refuse requests");
+        } catch (IllegalStateException expected) {
+            // Shut down
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPendingResult;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PendingResultTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    /** Records outcomes in delivery order, tagged with a name. */
+    private static final class Recorder implements IPendingResult.Callback<String> {
+        private final String name;
+        private final List<String> log;
+
+        Recorder(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Override
+        public void onSuccess(@NonNull String result) {
+            log.add(name + ":" + result);
+        }
+
+        @Override
+        public void onFailure(@NonNull Throwable error) {
+            log.add(name + ":" + error.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void completesOnceAndNotifiesInRegistrationOrder() throws Exception {
+        List<String> log = new CopyOnWriteArrayList<>();
+        PendingResult<String> result = new PendingResult<>();
+        result.whenComplete(new Recorder("a", log), DIRECT);
+        result.whenComplete(new Recorder("b", log), DIRECT);
+        assertFalse(result.isDone());
+
+        assertTrue(result.complete("ok"));
+        assertFalse(result.complete("again"));
+        assertFalse(result.fail(new IllegalStateException()));
+        // Registered after completion: delivered right away
+        result.whenComplete(new Recorder("c", log), DIRECT);
+
+        assertEquals("[a:ok, b:ok, c:ok]", log.toString());
+        assertTrue(result.isSuccessful());
+        assertEquals("ok", result.get());
+        assertEquals("ok", result.get(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void nullValueFailsTheResult() throws Exception {
+        PendingResult<String> result = new PendingResult<>();
+        assertTrue(result.complete(null));
+        assertFalse(result.isSuccessful());
+        try {
+            result.get();
+            fail("Expected the null result to fail");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void failureIsReportedToCallbacksAndGet() throws Exception {
+        List<String> log = new CopyOnWriteArrayList<>();
+        IllegalArgumentException cause = new IllegalArgumentException("declined");
+        PendingResult<String> result = PendingResult.failed(cause);
+        result.whenComplete(new Recorder("a", log), DIRECT);
+
+        assertEquals("[a:IllegalArgumentException]", log.toString());
+        try {
+            result.get();
+            fail("Expected the failure to be rethrown");
+        } catch (ExecutionException expected) {
+            assertSame(cause, expected.getCause());
+        }
+    }
+
+    @Test
+    public void cancelRunsCancelActionAndSkipsCallbacks() throws Exception {
+        List<String> log = new CopyOnWriteArrayList<>();
+        AtomicInteger aborted = new AtomicInteger();
+        PendingResult<String> result = new PendingResult<>();
+        result.setCancelAction(aborted::incrementAndGet);
+        result.whenComplete(new Recorder("a", log), DIRECT);
+
+        assertTrue(result.cancel(true));
+        assertFalse(result.cancel(true));
+        assertFalse(result.complete("late"));
+
+        assertEquals(1, aborted.get());
+        assertTrue(result.isCancelled());
+        assertTrue(result.isDone());
+        assertTrue(log.isEmpty());
+        try {
+            result.get();
+            fail("Expected cancellation");
+        } catch (CancellationException expected) {
+            // Cancelled
+        }
+
+        // An action set after cancellation runs at once
+        result.setCancelAction(aborted::incrementAndGet);
+        assertEquals(2, aborted.get());
+    }
+
+    @Test
+    public void completionDropsCancelAction() {
+        AtomicInteger aborted = new AtomicInteger();
+        PendingResult<String> result = new PendingResult<>();
+        result.setCancelAction(aborted::incrementAndGet);
+        result.complete("ok");
+
+        assertFalse(result.cancel(true));
+        assertEquals(0, aborted.get());
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void boundedWaitTimesOutWhilePending() throws Exception {
+        new PendingResult<String>().get(20, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullCallback() {
+        new PendingResult<String>().whenComplete(null, DIRECT);
+    }
+}
@@ -0,0 +1,155 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.nfc.NdefMessage;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICancellable;
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+import com.freedomfinancestack.pos_sdk_core.models.NfcReadStats;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deadline-bound reads through the plugin of a {@link PosNfcDeviceManager}.
+ */
+public class PosNfcDeviceManagerTest {
+
+    /** Plugin whose events are fired by the test. */
+    private static final class ScriptedPlugin implements IPosNfcPlugin {
+        volatile INfcDeviceManager.NdefCallback callback;
+        final AtomicInteger stops = new AtomicInteger();
+        volatile boolean failStart = false;
+
+        @Override
+        public void initialize(Context context) {
+        }
+
+        @Override
+        public void startListening(INfcDeviceManager.NdefCallback callback) throws Exception {
+            if (failStart) {
+                throw new Exception("reader busy");
+            }
+            this.callback = callback;
+        }
+
+        @Override
+        public void stopListening() {
+            stops.incrementAndGet();
+            callback = null;
+        }
+
+        @Override
+        public boolean isListening() {
+            return callback != null;
+        }
+
+        @Override
+        public String getPluginInfo() {
+            return "Scripted";
+        }
+
+        @Override
+        public String getSupportedDevices() {
+            return "None";
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+
+    private static final INfcDeviceManager.NdefCallback IGNORE = new INfcDeviceManager.NdefCallback() {
+        @Override
+        public void onNdefMessageDiscovered(NdefMessage message) {
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+        }
+    };
+
+    @Test
+    public void timeoutPowersReaderDownAndIsCounted() throws InterruptedException {
+        ScriptedPlugin plugin = new ScriptedPlugin();
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(null, plugin);
+        NfcDeadlineTrackerTest.RecordingCallback callback = new NfcDeadlineTrackerTest.RecordingCallback();
+
+        manager.startListening(callback, 50);
+
+        assertTrue(callback.timedOut.await(2, TimeUnit.SECONDS));
+        assertEquals(1, plugin.stops.get());
+        assertFalse(manager.isListening());
+        assertEquals(1, manager.getReadStats().getTimeoutCount());
+    }
+
+    @Test
+    public void tapIsDeliveredAndTimed() throws InterruptedException {
+        ScriptedPlugin plugin = new ScriptedPlugin();
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(null, plugin);
+        NfcDeadlineTrackerTest.RecordingCallback callback = new NfcDeadlineTrackerTest.RecordingCallback();
+
+        manager.startListening(callback, 100);
+        plugin.callback.onNdefMessageDiscovered(null);
+
+        assertFalse(callback.timedOut.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, callback.taps.get());
+        assertTrue(manager.isListening());
+        NfcReadStats stats = manager.getReadStats();
+        assertEquals(1, stats.getTapCount());
+        assertEquals(0, stats.getTimeoutCount());
+
+        manager.resetReadStats();
+        assertEquals(0, manager.getReadStats().getTapCount());
+    }
+
+    @Test
+    public void failedStartReportsErrorWithoutTimeout() throws InterruptedException {
+        ScriptedPlugin plugin = new ScriptedPlugin();
+        plugin.failStart = true;
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(null, plugin);
+        NfcDeadlineTrackerTest.RecordingCallback callback = new NfcDeadlineTrackerTest.RecordingCallback();
+
+        manager.startListening(callback, 50);
+
+        assertEquals(1, callback.errors.get());
+        assertFalse(callback.timedOut.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, manager.getReadStats().getCancelledCount());
+    }
+
+    @Test
+    public void laterListenDiscardsDeadline() throws InterruptedException {
+        ScriptedPlugin plugin = new ScriptedPlugin();
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(null, plugin);
+        NfcDeadlineTrackerTest.RecordingCallback callback = new NfcDeadlineTrackerTest.RecordingCallback();
+
+        ICancellable stale = manager.startListening(callback, 50);
+        manager.startListening(IGNORE);
+        stale.cancel();
+
+        assertFalse(callback.timedOut.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, plugin.stops.get());
+        assertTrue(manager.isListening());
+        assertEquals(1, manager.getReadStats().getCancelledCount());
+    }
+
+    @Test
+    public void cancelStopsCurrentRead() {
+        ScriptedPlugin plugin = new ScriptedPlugin();
+        PosNfcDeviceManager manager = new PosNfcDeviceManager(null, plugin);
+
+        ICancellable handle = manager.startListening(new NfcDeadlineTrackerTest.RecordingCallback(), 10_000);
+        handle.cancel();
+
+        assertTrue(handle.isCancelled());
+        assertEquals(1, plugin.stops.get());
+        assertFalse(manager.isListening());
+    }
+}
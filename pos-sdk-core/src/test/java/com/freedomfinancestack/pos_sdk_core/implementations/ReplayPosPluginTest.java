@@ -0,0 +1,189 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.nfc.NdefMessage;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.INfcDeviceManager;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPosNfcPlugin;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records through {@link RecordingPosPlugin} and plays back through
+ * {@link ReplayPosPlugin}. Events are errors, which carry plain text, so the
+ * round trip does not depend on the NdefMessage implementation.
+ */
+public class ReplayPosPluginTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Plugin whose events are fired by the test. */
+    private static final class ScriptedPlugin implements IPosNfcPlugin {
+        volatile INfcDeviceManager.NdefCallback callback;
+
+        @Override
+        public void initialize(Context context) {
+        }
+
+        @Override
+        public void startListening(INfcDeviceManager.NdefCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void stopListening() {
+            callback = null;
+        }
+
+        @Override
+        public boolean isListening() {
+            return callback != null;
+        }
+
+        @Override
+        public String getPluginInfo() {
+            return "Scripted";
+        }
+
+        @Override
+        public String getSupportedDevices() {
+            return "None";
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+
+    private static class CollectingCallback implements INfcDeviceManager.NdefCallback {
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        final CountDownLatch done;
+
+        CollectingCallback(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onNdefMessageDiscovered(NdefMessage message) {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            errors.add(errorMessage);
+            done.countDown();
+        }
+    }
+
+    private File record(String... errors) throws Exception {
+        File file = new File(folder.getRoot(), "lane.dpnt");
+        ScriptedPlugin device = new ScriptedPlugin();
+        RecordingPosPlugin recorder = new RecordingPosPlugin(device, file);
+        recorder.initialize(null);
+        CollectingCallback live = new CollectingCallback(errors.length);
+        recorder.startListening(live);
+        for (String error : errors) {
+            device.callback.onError(error);
+        }
+        recorder.stopListening();
+        recorder.cleanup();
+        assertEquals(errors.length, recorder.getRecordedCount());
+        assertEquals(errors.length, live.errors.size());
+        return file;
+    }
+
+    @Test
+    public void replaysRecordingInOrder() throws Exception {
+        File file = record("first", "second", "third");
+
+        ReplayPosPlugin replay = new ReplayPosPlugin(file, ReplayPosPlugin.SPEED_UNTHROTTLED, false);
+        replay.initialize(null);
+        CollectingCallback callback = new CollectingCallback(3);
+        replay.startListening(callback);
+
+        assertTrue(callback.done.await(2, TimeUnit.SECONDS));
+        assertEquals("first", callback.errors.get(0));
+        assertEquals("third", callback.errors.get(2));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (replay.isListening() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(replay.isListening());
+        assertEquals(3, replay.getReplayedCount());
+    }
+
+    @Test
+    public void truncatedRecordingReportsErrorAndStops() throws Exception {
+        File file = record("first", "second");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+
+        ReplayPosPlugin replay = new ReplayPosPlugin(file, ReplayPosPlugin.SPEED_UNTHROTTLED, false);
+        replay.initialize(null);
+        CollectingCallback callback = new CollectingCallback(2);
+        replay.startListening(callback);
+
+        assertTrue(callback.done.await(2, TimeUnit.SECONDS));
+        assertEquals("first", callback.errors.get(0));
+        assertTrue(callback.errors.get(1).startsWith("NFC replay failed"));
+        assertFalse(replay.isListening());
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void initializeRejectsCorruptRecording() throws Exception {
+        File file = folder.newFile("corrupt.dpnt");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[]{'X', 'X', 'X', 'X', 1});
+        }
+        new ReplayPosPlugin(file).initialize(null);
+    }
+
+    @Test
+    public void oldSessionStopsEvenIfCallbackSwallowsInterrupt() throws Exception {
+        File file = record("tap");
+        ReplayPosPlugin replay = new ReplayPosPlugin(file, ReplayPosPlugin.SPEED_UNTHROTTLED, true);
+        replay.initialize(null);
+
+        AtomicInteger oldEvents = new AtomicInteger();
+        CountDownLatch oldRunning = new CountDownLatch(1);
+        replay.startListening(new CollectingCallback(0) {
+            @Override
+            public void onError(String errorMessage) {
+                oldEvents.incrementAndGet();
+                oldRunning.countDown();
+                // A badly behaved callback that clears the interrupt
+                Thread.interrupted();
+            }
+        });
+        assertTrue(oldRunning.await(2, TimeUnit.SECONDS));
+
+        CollectingCallback current = new CollectingCallback(1);
+        replay.startListening(current);
+        assertTrue(current.done.await(2, TimeUnit.SECONDS));
+
+        Thread.sleep(20);
+        int settled = oldEvents.get();
+        Thread.sleep(50);
+        assertEquals(settled, oldEvents.get());
+        assertTrue(replay.isListening());
+
+        replay.stopListening();
+        assertFalse(replay.isListening());
+    }
+}
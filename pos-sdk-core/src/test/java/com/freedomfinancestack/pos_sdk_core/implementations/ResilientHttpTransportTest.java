@@ -0,0 +1,182 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.freedomfinancestack.pos_sdk_core.enums.CircuitState;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IHttpTransport;
+import com.freedomfinancestack.pos_sdk_core.models.HttpRequest;
+import com.freedomfinancestack.pos_sdk_core.models.HttpResponse;
+import com.freedomfinancestack.pos_sdk_core.models.HttpTransportStats;
+import com.freedomfinancestack.pos_sdk_core.models.ResilienceConfig;
+import com.freedomfinancestack.pos_sdk_core.models.ResilienceStats;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResilientHttpTransportTest {
+
+    private interface Answer {
+        HttpResponse answer(int call) throws IOException;
+    }
+
+    /** Delegate that answers each call through a script and counts calls. */
+    private static final class ScriptedTransport implements IHttpTransport {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile Answer answer;
+
+        ScriptedTransport(Answer answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) throws IOException {
+            return answer.answer(calls.incrementAndGet());
+        }
+
+        @Override
+        public void warmup() {
+        }
+
+        @Override
+        public HttpTransportStats getStats() {
+            return HttpTransportStats.builder().build();
+        }
+    }
+
+    private static HttpRequest get() {
+        return HttpRequest.builder().path("payments/pay_1").build();
+    }
+
+    private static HttpRequest post() {
+        return HttpRequest.builder().method("POST").path("orders").build();
+    }
+
+    @Test
+    public void breakerTripsAndRecoversAfterTrialCall() throws Exception {
+        ScriptedTransport delegate = new ScriptedTransport(call -> HttpResponse.of(500, "{}"));
+        ResilientHttpTransport transport = new ResilientHttpTransport(delegate, ResilienceConfig.builder()
+                .windowSize(4)
+                .minimumCalls(4)
+                .openStateMs(100)
+                .halfOpenProbes(1)
+                .build());
+
+        for (int i = 0; i < 4; i++) {
+            transport.execute(post()).close();
+        }
+        assertEquals(CircuitState.OPEN, transport.getState());
+
+        try {
+            transport.execute(post());
+            fail("Open breaker should reject the call");
+        } catch (ResilientHttpTransport.CircuitOpenException expected) {
+            // Rejected without reaching the gateway
+        }
+        assertEquals(4, delegate.calls.get());
+
+        Thread.sleep(150);
+        assertEquals(CircuitState.HALF_OPEN, transport.getState());
+
+        delegate.answer = call -> HttpResponse.of(200, "{}");
+        assertEquals(200, transport.execute(post()).getCode());
+        assertEquals(CircuitState.CLOSED, transport.getState());
+
+        ResilienceStats stats = transport.getResilienceStats();
+        assertEquals(1, stats.getCircuitTrips());
+        assertEquals(1, stats.getRejectedCallCount());
+    }
+
+    @Test
+    public void failedTrialCallReopensBreaker() throws Exception {
+        ScriptedTransport delegate = new ScriptedTransport(call -> HttpResponse.of(503, "{}"));
+        ResilientHttpTransport transport = new ResilientHttpTransport(delegate, ResilienceConfig.builder()
+                .windowSize(2)
+                .minimumCalls(2)
+                .openStateMs(50)
+                .halfOpenProbes(1)
+                .build());
+
+        transport.execute(post()).close();
+        transport.execute(post()).close();
+        Thread.sleep(80);
+        transport.execute(post()).close();
+
+        assertEquals(CircuitState.OPEN, transport.getState());
+        assertEquals(2, transport.getResilienceStats().getCircuitTrips());
+    }
+
+    @Test
+    public void retryBudgetLimitsRetries() throws Exception {
+        ScriptedTransport delegate = new ScriptedTransport(call -> HttpResponse.of(503, "{}"));
+        ResilientHttpTransport transport = new ResilientHttpTransport(delegate, ResilienceConfig.builder()
+                .windowSize(100)
+                .minimumCalls(100)
+                .retryBudgetRatio(0)
+                .maxRetryTokens(2)
+                .retryBackoffMs(0)
+                .build());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(503, transport.execute(get()).getCode());
+        }
+
+        // Two calls spend the two saved tokens on a retry each; the rest are not retried
+        assertEquals(6, delegate.calls.get());
+        ResilienceStats stats = transport.getResilienceStats();
+        assertEquals(2, stats.getRetryCount());
+        assertEquals(2, stats.getRetriesDeniedByBudget());
+    }
+
+    @Test
+    public void nonIdempotentRequestsAreNotRetried() throws Exception {
+        ScriptedTransport delegate = new ScriptedTransport(call -> {
+            throw new IOException("connection reset");
+        });
+        ResilientHttpTransport transport = new ResilientHttpTransport(delegate, ResilienceConfig.builder()
+                .retryBackoffMs(0)
+                .build());
+
+        try {
+            transport.execute(post());
+            fail("Expected the network error");
+        } catch (IOException expected) {
+            // Surfaced on the first failure
+        }
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    public void hedgeWinsWhenFirstAttemptStalls() throws Exception {
+        ScriptedTransport delegate = new ScriptedTransport(call -> {
+            if (call == 1) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return HttpResponse.of(200, "slow");
+            }
+            return HttpResponse.of(200, "fast");
+        });
+        ResilientHttpTransport transport = new ResilientHttpTransport(delegate, ResilienceConfig.builder()
+                .hedgingEnabled(true)
+                .initialHedgeDelayMs(20)
+                .minHedgeDelayMs(10)
+                .build());
+
+        long start = System.nanoTime();
+        HttpResponse response = transport.execute(get());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("fast", response.getBodyString());
+        assertTrue("took " + elapsedMs + "ms", elapsedMs < 800);
+        ResilienceStats stats = transport.getResilienceStats();
+        assertEquals(1, stats.getHedgedCallCount());
+        assertEquals(1, stats.getHedgeWinCount());
+    }
+}
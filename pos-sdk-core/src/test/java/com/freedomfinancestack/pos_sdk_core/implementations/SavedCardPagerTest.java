@@ -0,0 +1,184 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPagedCards;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class SavedCardPagerTest {
+
+    private static final String MERCHANT = "merchant";
+    private static final String CONTACT = "+919000000001";
+
+    private static List<Card> cards(int count) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(Card.builder().cardId("card-" + i).build());
+        }
+        return cards;
+    }
+
+    /** Paged backend whose cursor is the offset of the next page. */
+    private static class OffsetPagedCards implements IPagedCards {
+        final List<Card> all;
+        final List<Integer> requestedSizes = new ArrayList<>();
+        final List<String> requestedCursors = new ArrayList<>();
+
+        OffsetPagedCards(int count) {
+            all = cards(count);
+        }
+
+        @NonNull
+        @Override
+        public CardPage listSavedCardsPage(@NonNull String merchantId, @NonNull String contact,
+                                          @Nullable String cursor, int pageSize) {
+            requestedSizes.add(pageSize);
+            requestedCursors.add(cursor);
+            int start = cursor == null ? 0 : Integer.parseInt(cursor);
+            int end = Math.min(all.size(), start + pageSize);
+            return new CardPage(all.subList(start, end), end < all.size() ? String.valueOf(end) : null);
+        }
+
+        @Override
+        public int getDefaultPageSize() {
+            return 3;
+        }
+    }
+
+    /** Paged backend that hands out the given cursors in order, forever. */
+    private static class CyclingPagedCards implements IPagedCards {
+        final List<String> cursors;
+        int calls;
+
+        CyclingPagedCards(String... cursors) {
+            this.cursors = Arrays.asList(cursors);
+        }
+
+        @NonNull
+        @Override
+        public CardPage listSavedCardsPage(@NonNull String merchantId, @NonNull String contact,
+                                          @Nullable String cursor, int pageSize) {
+            String next = cursors.get(calls++ % cursors.size());
+            return new CardPage(cards(1), next);
+        }
+    }
+
+    @Test
+    public void firstPageIsSmallAndLaterPagesUseBackendSize() {
+        OffsetPagedCards backend = new OffsetPagedCards(10);
+        SavedCardPager pager = new SavedCardPager(backend, MERCHANT, CONTACT);
+
+        assertEquals(4, pager.nextPage().size());
+        assertEquals(3, pager.nextPage().size());
+        assertTrue(pager.hasMorePages());
+        assertEquals(3, pager.nextPage().size());
+
+        assertFalse(pager.hasMorePages());
+        assertEquals(Arrays.asList(4, 3, 3), backend.requestedSizes);
+        assertEquals(Arrays.asList(null, "4", "7"), backend.requestedCursors);
+        assertEquals(3, pager.getPagesFetched());
+    }
+
+    @Test
+    public void iterationFetchesPagesAsItReachesThem() {
+        OffsetPagedCards backend = new OffsetPagedCards(10);
+        SavedCardPager pager = new SavedCardPager(backend, MERCHANT, CONTACT, 2, 5);
+
+        assertEquals("card-0", pager.next().getCardId());
+        assertEquals(1, pager.getPagesFetched());
+        // nextPage() inside a page returns the rest of it without fetching
+        assertEquals(Collections.singletonList(backend.all.get(1)), pager.nextPage());
+        assertEquals(1, pager.getPagesFetched());
+
+        List<String> rest = new ArrayList<>();
+        while (pager.hasNext()) {
+            rest.add(pager.next().getCardId());
+        }
+        assertEquals(8, rest.size());
+        assertEquals("card-9", rest.get(7));
+        assertEquals(3, pager.getPagesFetched());
+    }
+
+    @Test
+    public void cursorCycleIsDetected() {
+        // a -> b -> a would re-read pages forever if only the previous cursor were checked
+        SavedCardPager pager = new SavedCardPager(new CyclingPagedCards("a", "b"), MERCHANT, CONTACT);
+        pager.nextPage();
+        pager.nextPage();
+        try {
+            pager.nextPage();
+            fail("Expected the repeated cursor to be rejected");
+        } catch (IllegalStateException expected) {
+            // Cycle
+        }
+
+        try {
+            new CyclingPagedCards("a", "b", "c").listAllSavedCards(MERCHANT, CONTACT);
+            fail("Expected listAllSavedCards to reject the repeated cursor");
+        } catch (IllegalStateException expected) {
+            // Cycle
+        }
+    }
+
+    @Test
+    public void listAllSavedCardsCollectsEveryPage() {
+        List<ListSavedCards> saved = new OffsetPagedCards(7).listAllSavedCards(MERCHANT, CONTACT);
+
+        assertEquals(1, saved.size());
+        assertEquals(CONTACT, saved.get(0).getContact());
+        assertEquals(7, saved.get(0).getCards().length);
+    }
+
+    @Test
+    public void plainBackendIsFetchedOnceAndHandedOutInPages() {
+        int[] calls = new int[1];
+        SavedCardPager pager = new SavedCardPager((merchantId, contact) -> {
+            calls[0]++;
+            return Arrays.asList(
+                    new ListSavedCards(contact, cards(4).toArray(new Card[0])),
+                    null,
+                    new ListSavedCards(contact, new Card[]{null, Card.builder().cardId("extra").build()}));
+        }, MERCHANT, CONTACT, 2, 2);
+
+        assertEquals(2, pager.nextPage().size());
+        assertEquals(2, pager.nextPage().size());
+        List<Card> last = pager.nextPage();
+        assertEquals(1, last.size());
+        assertEquals("extra", last.get(0).getCardId());
+        assertFalse(pager.hasMorePages());
+        assertEquals(1, calls[0]);
+        assertEquals(1, pager.getPagesFetched());
+    }
+
+    @Test
+    public void customerWithoutCardsGetsOneEmptyPage() {
+        SavedCardPager pager = new SavedCardPager(new OffsetPagedCards(0), MERCHANT, CONTACT);
+
+        assertFalse(pager.hasNext());
+        assertFalse(pager.hasMorePages());
+        try {
+            pager.nextPage();
+            fail("Expected no pages after the last one");
+        } catch (NoSuchElementException expected) {
+            // Exhausted
+        }
+        assertNull(new OffsetPagedCards(0).listSavedCardsPage(MERCHANT, CONTACT, null, 4).getNextCursor());
+    }
+}
@@ -0,0 +1,148 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.ICards;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.GGWaveMessage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SavedCardPrefetcherTest {
+
+    private static final String MERCHANT = "merchant";
+    private static final String CONTACT = "9000000001";
+
+    private SavedCardPrefetcher prefetcher;
+
+    /** Backend that records every request and fails the first {@code failures}. */
+    private static class FakeCards implements ICards {
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        volatile int failures;
+
+        @Override
+        public List<ListSavedCards> listAllSavedCards(String merchantId, String contact) {
+            requests.add(contact);
+            synchronized (this) {
+                if (failures > 0) {
+                    failures--;
+                    throw new IllegalStateException("backend error");
+                }
+            }
+            Card card = Card.builder().cardId("card-" + contact).build();
+            return Collections.singletonList(new ListSavedCards(contact, new Card[]{card}));
+        }
+
+        int requestsFor(String contact) {
+            return Collections.frequency(requests, contact);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (prefetcher != null) {
+            prefetcher.shutdown();
+        }
+    }
+
+    @Test
+    public void prefetchIsClaimedOnce() {
+        FakeCards backend = new FakeCards();
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT);
+
+        prefetcher.onCustomerIdentified(new GGWaveMessage(CONTACT));
+        prefetcher.prefetch(CONTACT);
+        List<ListSavedCards> saved = prefetcher.listAllSavedCards(MERCHANT, CONTACT);
+
+        assertEquals("card-" + CONTACT, saved.get(0).getCards()[0].getCardId());
+        assertEquals(1, backend.requestsFor(CONTACT));
+        assertEquals(1, prefetcher.getPrefetchCount());
+        assertEquals(1, prefetcher.getClaimedCount());
+
+        // A used prefetch is gone; the next call asks the backend
+        prefetcher.listAllSavedCards(MERCHANT, CONTACT);
+        assertEquals(2, backend.requestsFor(CONTACT));
+        assertEquals(1, prefetcher.getClaimedCount());
+        assertEquals(0, prefetcher.getWastedCount());
+    }
+
+    @Test
+    public void otherMerchantIsNotServedFromThePrefetch() {
+        FakeCards backend = new FakeCards();
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT);
+
+        prefetcher.prefetch(CONTACT);
+        prefetcher.listAllSavedCards("other", CONTACT);
+
+        assertEquals(0, prefetcher.getClaimedCount());
+        assertEquals(1, prefetcher.listAllSavedCards(MERCHANT, CONTACT).size());
+        assertEquals(1, prefetcher.getClaimedCount());
+    }
+
+    @Test
+    public void unclaimedPrefetchExpires() throws InterruptedException {
+        FakeCards backend = new FakeCards();
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT, 50);
+
+        prefetcher.prefetch(CONTACT);
+        Thread.sleep(100);
+        prefetcher.listAllSavedCards(MERCHANT, CONTACT);
+
+        assertEquals(0, prefetcher.getClaimedCount());
+        assertEquals(1, prefetcher.getWastedCount());
+        // The expired result is not reused, so the call went to the backend
+        assertEquals(2, backend.requestsFor(CONTACT));
+    }
+
+    @Test
+    public void oldestPrefetchIsDroppedBeyondSixteen() {
+        FakeCards backend = new FakeCards();
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT);
+
+        for (int i = 0; i <= 16; i++) {
+            prefetcher.prefetch("900000" + (1000 + i));
+        }
+
+        assertEquals(17, prefetcher.getPrefetchCount());
+        assertEquals(1, prefetcher.getWastedCount());
+        prefetcher.listAllSavedCards(MERCHANT, "9000001000");
+        assertEquals(0, prefetcher.getClaimedCount());
+        prefetcher.listAllSavedCards(MERCHANT, "9000001001");
+        prefetcher.listAllSavedCards(MERCHANT, "9000001016");
+        assertEquals(2, prefetcher.getClaimedCount());
+    }
+
+    @Test
+    public void failedPrefetchFallsBackToTheBackend() {
+        FakeCards backend = new FakeCards();
+        backend.failures = 1;
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT);
+
+        prefetcher.prefetch(CONTACT);
+        List<ListSavedCards> saved = prefetcher.listAllSavedCards(MERCHANT, CONTACT);
+
+        assertEquals(1, saved.size());
+        assertEquals(2, backend.requestsFor(CONTACT));
+        assertEquals(1, prefetcher.getFailedPrefetchCount());
+    }
+
+    @Test
+    public void prefetchAfterShutdownIsIgnored() {
+        FakeCards backend = new FakeCards();
+        prefetcher = new SavedCardPrefetcher(backend, MERCHANT);
+        prefetcher.shutdown();
+
+        prefetcher.prefetch(CONTACT);
+        List<ListSavedCards> saved = prefetcher.listAllSavedCards(MERCHANT, CONTACT);
+
+        assertEquals(CONTACT, saved.get(0).getContact());
+        assertEquals(0, prefetcher.getClaimedCount());
+        assertEquals(1, backend.requests.size());
+    }
+}
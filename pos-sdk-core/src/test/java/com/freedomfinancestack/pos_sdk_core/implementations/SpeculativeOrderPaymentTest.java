@@ -0,0 +1,93 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IOrderPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpeculativeOrderPaymentTest {
+
+    /** Gateway whose first createOrder() blocks until released; later ones return at once. */
+    private static final class StallingGateway implements IOrderPayment {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final AtomicInteger orders = new AtomicInteger();
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public String createOrder(float amount) {
+            int n = orders.incrementAndGet();
+            if (n == 1) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    // Cancelled by the payment; finish anyway so the late order gets released
+                }
+            }
+            return "order-" + n;
+        }
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(Card card, float amount, String orderId) {
+            return PaymentInitiationResponse.builder().orderId(orderId).paymentId("pay-" + orderId).build();
+        }
+
+        @Override
+        public void releaseOrder(String orderId) {
+            released.countDown();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            return PaymentStatus.PAID;
+        }
+    }
+
+    @Test
+    public void usesPreparedOrderWhenReady() throws Exception {
+        StallingGateway gateway = new StallingGateway();
+        gateway.unblock.countDown();
+        SpeculativeOrderPayment payment = new SpeculativeOrderPayment(gateway, 60_000, 1_000);
+
+        payment.prepareOrder("lane", 10f);
+        PaymentInitiationResponse response = payment.initiatePayment("lane", Card.builder().build(), 10f);
+
+        assertEquals("order-1", response.getOrderId());
+        assertEquals(1, payment.getHitCount());
+        payment.shutdown();
+    }
+
+    @Test
+    public void createsOrderInlineWhenPreparedOrderIsTooSlow() throws Exception {
+        StallingGateway gateway = new StallingGateway();
+        SpeculativeOrderPayment payment = new SpeculativeOrderPayment(gateway, 60_000, 50);
+
+        payment.prepareOrder("lane", 10f);
+        long start = System.nanoTime();
+        PaymentInitiationResponse response = payment.initiatePayment("lane", Card.builder().build(), 10f);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("order-2", response.getOrderId());
+        assertEquals(1, payment.getMissCount());
+        assertEquals(1, payment.getReleasedCount());
+        assertTrue("waited " + waitedMs + "ms", waitedMs < 1_000);
+
+        // The stalled order finishes late and is released, not leaked
+        gateway.unblock.countDown();
+        assertTrue(gateway.released.await(1, TimeUnit.SECONDS));
+        payment.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveWait() {
+        new SpeculativeOrderPayment(new StallingGateway(), 60_000, 0);
+    }
+}
@@ -0,0 +1,209 @@
+package com.freedomfinancestack.pos_sdk_core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+
+import com.freedomfinancestack.pos_sdk_core.enums.JournaledPaymentState;
+import com.freedomfinancestack.pos_sdk_core.enums.PaymentStatus;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIdempotentPayment;
+import com.freedomfinancestack.pos_sdk_core.interfaces.IPayment;
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.JournaledPayment;
+import com.freedomfinancestack.pos_sdk_core.models.PaymentInitiationResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaling and forwarding outcomes. Listeners are delivered on the main
+ * looper, so these tests check the journal instead.
+ */
+public class StoreAndForwardPaymentTest {
+
+    private static final Card CARD = Card.builder().cardId("card-1").last4Digits("4242").build();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PaymentJournal journal;
+    private StoreAndForwardPayment payment;
+
+    /** Idempotent gateway that fails with the scripted errors, then succeeds. */
+    private static class ScriptedGateway implements IIdempotentPayment {
+        final List<String> keys = new CopyOnWriteArrayList<>();
+        final List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+
+        @Override
+        public PaymentInitiationResponse initiatePayment(@NonNull Card card, float amount,
+                                                         @NonNull String idempotencyKey) {
+            keys.add(idempotencyKey);
+            if (!failures.isEmpty()) {
+                throw failures.remove(0);
+            }
+            return PaymentInitiationResponse.builder().paymentId("pay-" + keys.size()).build();
+        }
+
+        @Override
+        public PaymentStatus confirmPayment(String paymentId) {
+            return PaymentStatus.CREATED;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        journal = new PaymentJournal(folder.newFolder());
+    }
+
+    @After
+    public void tearDown() {
+        if (payment != null) {
+            payment.shutdown();
+        }
+        journal.close();
+    }
+
+    private void initiateExpectingFailure() {
+        try {
+            payment.initiatePayment(CARD, 10f);
+            fail("Expected the gateway failure to be rethrown");
+        } catch (RuntimeException expected) {
+            // The payment stays journaled
+        }
+    }
+
+    private JournaledPayment awaitState(String key, JournaledPaymentState state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            JournaledPayment current = journal.get(key);
+            if (current != null && current.getState() == state) {
+                return current;
+            }
+            Thread.sleep(5);
+        }
+        fail("Payment never reached " + state + ", is " + journal.get(key));
+        return null;
+    }
+
+    @Test
+    public void failedPaymentIsResentUnderTheSameKey() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway();
+        gateway.failures.add(new IllegalStateException("connection reset"));
+        payment = new StoreAndForwardPayment(gateway, journal);
+
+        initiateExpectingFailure();
+        String key = gateway.keys.get(0);
+        assertEquals(JournaledPaymentState.QUEUED, journal.get(key).getState());
+
+        payment.forwardPending();
+
+        JournaledPayment initiated = awaitState(key, JournaledPaymentState.INITIATED);
+        assertEquals("pay-2", initiated.getPaymentId());
+        assertEquals(2, initiated.getAttempts());
+        assertEquals(key, gateway.keys.get(1));
+    }
+
+    @Test
+    public void resendsStopAtMaxAttempts() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway();
+        for (int i = 0; i < 5; i++) {
+            gateway.failures.add(new IllegalStateException("timeout"));
+        }
+        payment = new StoreAndForwardPayment(gateway, journal, 2);
+
+        initiateExpectingFailure();
+        String key = gateway.keys.get(0);
+        payment.forwardPending();
+
+        JournaledPayment inDoubt = awaitState(key, JournaledPaymentState.IN_DOUBT);
+        assertEquals(2, inDoubt.getAttempts());
+
+        // IN_DOUBT waits for manual reconciliation
+        payment.forwardPending();
+        Thread.sleep(100);
+        assertEquals(2, gateway.keys.size());
+    }
+
+    @Test
+    public void rejectedPaymentFailsWithoutResend() throws Exception {
+        ScriptedGateway gateway = new ScriptedGateway();
+        gateway.failures.add(new GatewayResponseReader.GatewayException("Card declined (HTTP 400)", 400, true));
+        payment = new StoreAndForwardPayment(gateway, journal);
+
+        initiateExpectingFailure();
+
+        // FAILED is terminal, so the journal no longer holds the payment
+        assertNull(journal.get(gateway.keys.get(0)));
+        assertTrue(journal.getPending().isEmpty());
+        payment.forwardPending();
+        Thread.sleep(100);
+        assertEquals(1, gateway.keys.size());
+    }
+
+    @Test
+    public void plainGatewayFailureIsInDoubt() throws Exception {
+        payment = new StoreAndForwardPayment(new IPayment() {
+            @Override
+            public PaymentInitiationResponse initiatePayment(Card card, float amount) {
+                throw new IllegalStateException("connection reset");
+            }
+
+            @Override
+            public PaymentStatus confirmPayment(String paymentId) {
+                return null;
+            }
+        }, journal);
+
+        initiateExpectingFailure();
+
+        List<JournaledPayment> pending = journal.getPending();
+        assertEquals(1, pending.size());
+        assertEquals(JournaledPaymentState.IN_DOUBT, pending.get(0).getState());
+    }
+
+    @Test
+    public void paymentBeingSentIsNotForwarded() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedGateway gateway = new ScriptedGateway() {
+            @Override
+            public PaymentInitiationResponse initiatePayment(@NonNull Card card, float amount,
+                                                             @NonNull String idempotencyKey) {
+                if (keys.isEmpty()) {
+                    sending.countDown();
+                    try {
+                        release.await(2, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.initiatePayment(card, amount, idempotencyKey);
+            }
+        };
+        payment = new StoreAndForwardPayment(gateway, journal);
+
+        Thread sender = new Thread(() -> payment.initiatePayment(CARD, 10f));
+        sender.start();
+        assertTrue(sending.await(2, TimeUnit.SECONDS));
+        assertEquals(JournaledPaymentState.SENDING, journal.getPending().get(0).getState());
+
+        payment.forwardPending();
+        Thread.sleep(100);
+        release.countDown();
+        sender.join(2_000);
+
+        assertEquals(1, gateway.keys.size());
+        assertEquals(JournaledPaymentState.INITIATED, journal.getPending().get(0).getState());
+    }
+}
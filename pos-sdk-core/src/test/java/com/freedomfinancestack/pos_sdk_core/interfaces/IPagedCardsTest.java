@@ -0,0 +1,51 @@
+package com.freedomfinancestack.pos_sdk_core.interfaces;
+
+import static org.junit.Assert.assertEquals;
+
+import com.freedomfinancestack.pos_sdk_core.models.Card;
+import com.freedomfinancestack.pos_sdk_core.models.CardPage;
+import com.freedomfinancestack.pos_sdk_core.models.ListSavedCards;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Locks the semantics of the default listAllSavedCards for paged backends.
+ */
+public class IPagedCardsTest {
+
+    /** Backend serving the given cursors in order, one card per page. */
+    private static final class ScriptedPages implements IPagedCards {
+        private final String[] nextCursors;
+        int calls;
+
+        ScriptedPages(String... nextCursors) {
+            this.nextCursors = nextCursors;
+        }
+
+        @Override
+        public CardPage listSavedCardsPage(String merchantId, String contact, String cursor, int pageSize) {
+            Card card = Card.builder().cardId("card-" + calls).build();
+            return new CardPage(Collections.singletonList(card), nextCursors[calls++]);
+        }
+    }
+
+    @Test
+    public void collectsEveryPage() {
+        ScriptedPages backend = new ScriptedPages("p2", "p3", null);
+
+        List<ListSavedCards> result = backend.listAllSavedCards("merchant", "+919000000001");
+
+        assertEquals(1, result.size());
+        assertEquals(3, result.get(0).getCards().length);
+        assertEquals("card-2", result.get(0).getCards()[2].getCardId());
+        assertEquals(3, backend.calls);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void repeatedCursorFailsInsteadOfLooping() {
+        new ScriptedPages("p2", "p2", "p2", null).listAllSavedCards("merchant", "+919000000001");
+    }
+}
@@ -0,0 +1,86 @@
+package com.freedomfinancestack.pos_sdk_core.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.freedomfinancestack.pos_sdk_core.interfaces.IIsoDepChannel;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class ApduBatchTest {
+
+    /** Answers every command with 9000 after a fixed delay, one round trip at a time. */
+    private static final class SlowChannel implements IIsoDepChannel {
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public int getMaxTransceiveLength() {
+            return 261;
+        }
+
+        @Override
+        public boolean supportsPipelining() {
+            return false;
+        }
+
+        @Override
+        public int transceive(ByteBuffer command, ByteBuffer response) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.clear();
+            response.put((byte) 0x90).put((byte) 0x00);
+            response.flip();
+            return 2;
+        }
+    }
+
+    @Test
+    public void statusWordIsMinusOneBeforeAnyResponse() {
+        ApduBatch batch = new ApduBatch(2);
+        batch.add(new byte[]{0x00, (byte) 0xA4, 0x04, 0x00});
+
+        assertEquals(-1, batch.getStatusWord(0));
+        assertEquals(0, batch.getResponse(0).remaining());
+    }
+
+    @Test
+    public void clearEmptiesKeptResponses() throws IOException {
+        ApduBatch batch = new ApduBatch(1);
+        batch.add(new byte[]{0x00, (byte) 0xB2, 0x01, 0x0C});
+        new SlowChannel().transceive(batch);
+        assertEquals(0x9000, batch.getStatusWord(0));
+
+        batch.clear();
+        batch.add(new byte[]{0x00, (byte) 0xB2, 0x02, 0x0C});
+
+        assertEquals(-1, batch.getStatusWord(0));
+    }
+
+    @Test
+    public void latencyIsPerExchange() throws IOException {
+        ApduBatch batch = new ApduBatch(3);
+        for (int i = 0; i < 3; i++) {
+            batch.add(new byte[]{0x00, (byte) 0xB2, (byte) (i + 1), 0x0C});
+        }
+
+        new SlowChannel().transceive(batch);
+
+        long sum = 0;
+        for (int i = 0; i < 3; i++) {
+            long latency = batch.getLatencyNanos(i);
+            // Each exchange takes ~20ms; a cumulative value would reach ~60ms at the last one
+            assertTrue("APDU " + i + " took " + latency, latency >= 15_000_000L && latency < 45_000_000L);
+            sum += latency;
+        }
+        assertTrue(sum <= batch.getTotalNanos());
+    }
+}